@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.benchmarks.command;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.apache.fineract.benchmarks.BenchmarkContext;
+import org.apache.fineract.commands.domain.CommandWrapper;
+import org.apache.fineract.commands.service.CommandWrapperBuilder;
+import org.apache.fineract.infrastructure.core.api.JsonCommand;
+import org.apache.fineract.infrastructure.core.serialization.FromJsonHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The command pipeline work that happens before a handler runs: building the {@link CommandWrapper}, parsing the JSON into a
+ * {@link JsonCommand}, the unsupported parameter check every validator performs and the typical parameter extraction, on a
+ * large loan application with many charges and disbursement tranches.
+ */
+@State(Scope.Thread)
+public class JsonCommandBenchmark {
+
+    private static final String DATE_FORMAT = "dd MMMM yyyy";
+    private static final Type TYPE_OF_MAP = new TypeToken<Map<String, Object>>() {}.getType();
+
+    @Param({ "10", "500" })
+    private int numberOfCharges;
+
+    private final FromJsonHelper fromApiJsonHelper = new FromJsonHelper();
+    private String json;
+    private Set<String> supportedParameters;
+
+    @Setup
+    public void setUp() {
+        BenchmarkContext.initialize();
+        final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATE_FORMAT, Locale.ENGLISH);
+        final LocalDate disbursementDate = LocalDate.of(2022, 1, 1);
+
+        final JsonObject command = new JsonObject();
+        command.addProperty("clientId", 1L);
+        command.addProperty("productId", 1L);
+        command.addProperty("principal", "100,000.00");
+        command.addProperty("loanTermFrequency", 360);
+        command.addProperty("loanTermFrequencyType", 2);
+        command.addProperty("numberOfRepayments", 360);
+        command.addProperty("repaymentEvery", 1);
+        command.addProperty("repaymentFrequencyType", 2);
+        command.addProperty("interestRatePerPeriod", "1.5");
+        command.addProperty("amortizationType", 1);
+        command.addProperty("interestType", 0);
+        command.addProperty("interestCalculationPeriodType", 1);
+        command.addProperty("transactionProcessingStrategyId", 1);
+        command.addProperty("loanType", "individual");
+        command.addProperty("locale", "en");
+        command.addProperty("dateFormat", DATE_FORMAT);
+        command.addProperty("expectedDisbursementDate", formatter.format(disbursementDate));
+        command.addProperty("submittedOnDate", formatter.format(disbursementDate));
+
+        final JsonArray charges = new JsonArray();
+        for (int i = 0; i < this.numberOfCharges; i++) {
+            final JsonObject charge = new JsonObject();
+            charge.addProperty("chargeId", i + 1);
+            charge.addProperty("amount", "1,250.50");
+            charge.addProperty("dueDate", formatter.format(disbursementDate.plusDays(i)));
+            charges.add(charge);
+        }
+        command.add("charges", charges);
+
+        final JsonArray tranches = new JsonArray();
+        for (int i = 0; i < 12; i++) {
+            final JsonObject tranche = new JsonObject();
+            tranche.addProperty("expectedDisbursementDate", formatter.format(disbursementDate.plusMonths(i)));
+            tranche.addProperty("principal", "8,333.33");
+            tranches.add(tranche);
+        }
+        command.add("disbursementData", tranches);
+
+        this.json = command.toString();
+        this.supportedParameters = command.keySet();
+    }
+
+    @Benchmark
+    public void parseCommand(final Blackhole blackhole) {
+        final CommandWrapper wrapper = new CommandWrapperBuilder().createLoanApplication().withJson(this.json).build();
+        final JsonElement parsedCommand = this.fromApiJsonHelper.parse(wrapper.getJson());
+        final JsonCommand command = JsonCommand.from(wrapper.getJson(), parsedCommand, this.fromApiJsonHelper, wrapper.getEntityName(),
+                wrapper.getEntityId(), wrapper.getSubentityId(), wrapper.getGroupId(), wrapper.getClientId(), wrapper.getLoanId(),
+                wrapper.getSavingsId(), wrapper.getTransactionId(), wrapper.getHref(), wrapper.getProductId(), wrapper.getCreditBureauId(),
+                wrapper.getOrganisationCreditBureauId());
+
+        this.fromApiJsonHelper.checkForUnsupportedParameters(TYPE_OF_MAP, command.json(), this.supportedParameters);
+
+        blackhole.consume(command.longValueOfParameterNamed("clientId"));
+        blackhole.consume(command.bigDecimalValueOfParameterNamed("principal"));
+        blackhole.consume(command.bigDecimalValueOfParameterNamed("interestRatePerPeriod"));
+        blackhole.consume(command.localDateValueOfParameterNamed("expectedDisbursementDate"));
+        final Locale locale = command.extractLocale();
+        for (final JsonElement charge : command.arrayOfParameterNamed("charges")) {
+            final JsonObject chargeObject = charge.getAsJsonObject();
+            blackhole.consume(this.fromApiJsonHelper.extractLongNamed("chargeId", chargeObject));
+            blackhole.consume(this.fromApiJsonHelper.extractBigDecimalNamed("amount", chargeObject, locale));
+            blackhole.consume(this.fromApiJsonHelper.extractLocalDateNamed("dueDate", chargeObject, DATE_FORMAT, locale));
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.benchmarks.loan;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.fineract.organisation.monetary.domain.MonetaryCurrency;
+import org.apache.fineract.organisation.monetary.domain.Money;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanRepaymentScheduleInstallment;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanTransaction;
+
+/**
+ * Synthetic monthly loan schedules and repayment histories. Amounts are computed with the same formulas as the flat and
+ * declining balance schedule generators, so the repayment strategies see realistic installments.
+ */
+final class LoanFixtures {
+
+    enum ScheduleType {
+        FLAT, DECLINING_BALANCE, MULTI_TRANCHE
+    }
+
+    private static final BigDecimal MONTHLY_RATE = new BigDecimal("0.015");
+    private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_EVEN;
+
+    private LoanFixtures() {}
+
+    static List<LoanRepaymentScheduleInstallment> schedule(final ScheduleType type, final LocalDate disbursementDate,
+            final BigDecimal principal, final int numberOfInstallments) {
+        final BigDecimal[][] components;
+        switch (type) {
+            case FLAT:
+                components = flat(principal, numberOfInstallments);
+            break;
+            case MULTI_TRANCHE:
+                // second half of the principal is disbursed half way through and amortized over the remaining periods
+                final BigDecimal tranche = principal.divide(BigDecimal.valueOf(2), 2, ROUNDING_MODE);
+                final int secondTrancheStart = numberOfInstallments / 2;
+                components = decliningBalance(tranche, numberOfInstallments);
+                final BigDecimal[][] second = decliningBalance(principal.subtract(tranche), numberOfInstallments - secondTrancheStart);
+                for (int period = secondTrancheStart; period < numberOfInstallments; period++) {
+                    components[period][0] = components[period][0].add(second[period - secondTrancheStart][0]);
+                    components[period][1] = components[period][1].add(second[period - secondTrancheStart][1]);
+                }
+            break;
+            default:
+                components = decliningBalance(principal, numberOfInstallments);
+            break;
+        }
+
+        final List<LoanRepaymentScheduleInstallment> installments = new ArrayList<>(numberOfInstallments);
+        LocalDate fromDate = disbursementDate;
+        for (int period = 0; period < numberOfInstallments; period++) {
+            final LocalDate dueDate = disbursementDate.plusMonths(period + 1L);
+            installments.add(new LoanRepaymentScheduleInstallment(null, period + 1, fromDate, dueDate, components[period][0],
+                    components[period][1], BigDecimal.ZERO, BigDecimal.ZERO, false, null));
+            fromDate = dueDate;
+        }
+        return installments;
+    }
+
+    /**
+     * One repayment per installment for its total due. Every fifth repayment is a few days late and every seventh only
+     * covers half of the installment, the shortfall being caught up by the following repayment.
+     */
+    static List<LoanTransaction> repayments(final List<LoanRepaymentScheduleInstallment> installments, final MonetaryCurrency currency) {
+        final List<LoanTransaction> transactions = new ArrayList<>(installments.size());
+        Money carriedOver = Money.zero(currency);
+        for (final LoanRepaymentScheduleInstallment installment : installments) {
+            Money amount = installment.getPrincipal(currency).plus(installment.getInterestCharged(currency)).plus(carriedOver);
+            carriedOver = Money.zero(currency);
+            final int number = installment.getInstallmentNumber();
+            if (number % 7 == 0) {
+                carriedOver = amount.dividedBy(2, ROUNDING_MODE);
+                amount = amount.minus(carriedOver);
+            }
+            final LocalDate paymentDate = number % 5 == 0 ? installment.getDueDate().plusDays(3) : installment.getDueDate();
+            transactions.add(LoanTransaction.repayment(null, amount, null, paymentDate, null));
+        }
+        return transactions;
+    }
+
+    private static BigDecimal[][] flat(final BigDecimal principal, final int numberOfInstallments) {
+        final BigDecimal[][] components = new BigDecimal[numberOfInstallments][2];
+        final BigDecimal principalPerPeriod = principal.divide(BigDecimal.valueOf(numberOfInstallments), 2, ROUNDING_MODE);
+        final BigDecimal interestPerPeriod = principal.multiply(MONTHLY_RATE).setScale(2, ROUNDING_MODE);
+        BigDecimal outstanding = principal;
+        for (int period = 0; period < numberOfInstallments; period++) {
+            final BigDecimal principalPortion = period == numberOfInstallments - 1 ? outstanding : principalPerPeriod;
+            components[period][0] = principalPortion;
+            components[period][1] = interestPerPeriod;
+            outstanding = outstanding.subtract(principalPortion);
+        }
+        return components;
+    }
+
+    private static BigDecimal[][] decliningBalance(final BigDecimal principal, final int numberOfInstallments) {
+        final BigDecimal[][] components = new BigDecimal[numberOfInstallments][2];
+        final MathContext mc = MathContext.DECIMAL64;
+        // EMI = P * r / (1 - (1 + r)^-n)
+        final BigDecimal compounded = BigDecimal.ONE.add(MONTHLY_RATE).pow(numberOfInstallments, mc);
+        final BigDecimal discount = BigDecimal.ONE.subtract(BigDecimal.ONE.divide(compounded, mc));
+        final BigDecimal installmentAmount = principal.multiply(MONTHLY_RATE).divide(discount, mc).setScale(2, ROUNDING_MODE);
+        BigDecimal outstanding = principal;
+        for (int period = 0; period < numberOfInstallments; period++) {
+            final BigDecimal interest = outstanding.multiply(MONTHLY_RATE).setScale(2, ROUNDING_MODE);
+            final BigDecimal principalPortion = period == numberOfInstallments - 1 ? outstanding : installmentAmount.subtract(interest);
+            components[period][0] = principalPortion;
+            components[period][1] = interest;
+            outstanding = outstanding.subtract(principalPortion);
+        }
+        return components;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.benchmarks.loan;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import org.apache.fineract.benchmarks.BenchmarkContext;
+import org.apache.fineract.portfolio.loanaccount.domain.ChangedTransactionDetail;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanRepaymentScheduleInstallment;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanTransaction;
+import org.apache.fineract.portfolio.loanaccount.domain.transactionprocessor.LoanRepaymentScheduleTransactionProcessor;
+import org.apache.fineract.portfolio.loanaccount.domain.transactionprocessor.impl.FineractStyleLoanRepaymentScheduleTransactionProcessor;
+import org.apache.fineract.portfolio.loanaccount.domain.transactionprocessor.impl.PrincipalInterestPenaltyFeesOrderLoanRepaymentScheduleTransactionProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Full re-processing of a loan's repayment history through {@link LoanRepaymentScheduleTransactionProcessor}, which runs for
+ * every backdated transaction, adjustment and interest recalculation.
+ */
+@State(Scope.Thread)
+public class LoanRepaymentBenchmark {
+
+    private static final LocalDate DISBURSEMENT_DATE = LocalDate.of(2020, 1, 1);
+
+    @Param({ "FLAT", "DECLINING_BALANCE", "MULTI_TRANCHE" })
+    private LoanFixtures.ScheduleType scheduleType;
+
+    @Param({ "60", "360" })
+    private int numberOfInstallments;
+
+    @Param({ "mifos-standard-strategy", "principal-interest-penalties-fees-order-strategy" })
+    private String strategy;
+
+    private LoanRepaymentScheduleTransactionProcessor processor;
+    private List<LoanRepaymentScheduleInstallment> installments;
+    private List<LoanTransaction> transactions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkContext.initialize();
+        this.processor = "mifos-standard-strategy".equals(this.strategy) ? new FineractStyleLoanRepaymentScheduleTransactionProcessor()
+                : new PrincipalInterestPenaltyFeesOrderLoanRepaymentScheduleTransactionProcessor();
+        this.installments = LoanFixtures.schedule(this.scheduleType, DISBURSEMENT_DATE, new BigDecimal("100000"),
+                this.numberOfInstallments);
+    }
+
+    /**
+     * Repayments accumulate repayment schedule mappings while being processed, so every invocation starts from fresh
+     * ones.
+     */
+    @Setup(Level.Invocation)
+    public void newTransactions() {
+        this.transactions = LoanFixtures.repayments(this.installments, BenchmarkContext.USD);
+    }
+
+    @Benchmark
+    public ChangedTransactionDetail reprocessAllTransactions() {
+        return this.processor.handleTransaction(DISBURSEMENT_DATE, this.transactions, BenchmarkContext.USD, this.installments,
+                new HashSet<>());
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.benchmarks.monetary;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import org.apache.fineract.organisation.monetary.domain.MonetaryCurrency;
+import org.apache.fineract.organisation.monetary.domain.Money;
+import org.apache.fineract.organisation.monetary.domain.MoneyAccumulator;
+import org.apache.fineract.organisation.monetary.domain.MoneyHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares {@link Money} arithmetic with {@link MoneyAccumulator} on a 360 installment declining balance schedule: interest
+ * on the outstanding balance, equal installments and running totals, as the schedule generators compute them.
+ */
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+    private static final int NUMBER_OF_INSTALLMENTS = 360;
+    private static final RoundingMode ROUNDING_MODE = RoundingMode.HALF_EVEN;
+
+    private final MonetaryCurrency currency = new MonetaryCurrency("USD", 2, null);
+    private final BigDecimal periodicRate = new BigDecimal("0.01");
+    private Money principal;
+    private Money installmentAmount;
+
+    @Setup
+    public void setUp() {
+        MoneyHelper.initializeRoundingMode(ROUNDING_MODE);
+        this.principal = Money.of(this.currency, new BigDecimal("1000000"));
+        // EMI = P * r / (1 - (1 + r)^-n)
+        final MathContext mc = MathContext.DECIMAL64;
+        final BigDecimal compounded = BigDecimal.ONE.add(this.periodicRate).pow(NUMBER_OF_INSTALLMENTS, mc);
+        final BigDecimal discount = BigDecimal.ONE.subtract(BigDecimal.ONE.divide(compounded, mc));
+        this.installmentAmount = Money.of(this.currency, this.principal.getAmount().multiply(this.periodicRate).divide(discount, mc));
+    }
+
+    @Benchmark
+    public Money decliningBalanceWithMoney() {
+        Money outstanding = this.principal;
+        Money totalPrincipal = Money.zero(this.currency);
+        Money totalInterest = Money.zero(this.currency);
+        for (int period = 1; period <= NUMBER_OF_INSTALLMENTS; period++) {
+            final Money interest = outstanding.multiplyRetainScale(this.periodicRate, ROUNDING_MODE);
+            final Money principalPortion = period == NUMBER_OF_INSTALLMENTS ? outstanding : this.installmentAmount.minus(interest);
+            outstanding = outstanding.minus(principalPortion);
+            totalPrincipal = totalPrincipal.plus(principalPortion);
+            totalInterest = totalInterest.plus(interest);
+        }
+        return totalPrincipal.plus(totalInterest);
+    }
+
+    @Benchmark
+    public Money decliningBalanceWithAccumulator() {
+        final MoneyAccumulator outstanding = MoneyAccumulator.of(this.principal);
+        final MoneyAccumulator totalPrincipal = MoneyAccumulator.zero(this.currency);
+        final MoneyAccumulator totalInterest = MoneyAccumulator.zero(this.currency);
+        final BigDecimal installment = this.installmentAmount.getAmount();
+        for (int period = 1; period <= NUMBER_OF_INSTALLMENTS; period++) {
+            final BigDecimal interest = outstanding.toBigDecimal().multiply(this.periodicRate).setScale(2, ROUNDING_MODE);
+            final BigDecimal principalPortion = period == NUMBER_OF_INSTALLMENTS ? outstanding.toBigDecimal()
+                    : installment.subtract(interest);
+            outstanding.minus(principalPortion);
+            totalPrincipal.plus(principalPortion);
+            totalInterest.plus(interest);
+        }
+        return totalPrincipal.plus(totalInterest.toBigDecimal()).toMoney();
+    }
+}
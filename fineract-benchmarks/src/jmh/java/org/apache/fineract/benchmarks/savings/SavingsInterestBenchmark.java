@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.benchmarks.savings;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.fineract.benchmarks.BenchmarkContext;
+import org.apache.fineract.infrastructure.core.domain.LocalDateInterval;
+import org.apache.fineract.organisation.monetary.data.CurrencyData;
+import org.apache.fineract.organisation.monetary.domain.Money;
+import org.apache.fineract.organisation.monetary.domain.MoneyHelper;
+import org.apache.fineract.portfolio.savings.SavingsAccountTransactionType;
+import org.apache.fineract.portfolio.savings.SavingsCompoundingInterestPeriodType;
+import org.apache.fineract.portfolio.savings.SavingsInterestCalculationType;
+import org.apache.fineract.portfolio.savings.data.SavingsAccountData;
+import org.apache.fineract.portfolio.savings.data.SavingsAccountTransactionData;
+import org.apache.fineract.portfolio.savings.domain.interest.CompoundInterestHelper;
+import org.apache.fineract.portfolio.savings.domain.interest.PostingPeriod;
+import org.apache.fineract.portfolio.savings.service.SavingsEnumerations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Interest calculation over the whole history of a busy savings account, as done by the interest posting job: one
+ * {@link PostingPeriod} per month built from the ordered transactions, then compounding across all periods.
+ */
+@State(Scope.Thread)
+public class SavingsInterestBenchmark {
+
+    private static final LocalDate ACTIVATION_DATE = LocalDate.of(2019, 1, 1);
+    private static final int TRANSACTIONS_PER_DAY = 10;
+    private static final BigDecimal ANNUAL_RATE_AS_FRACTION = new BigDecimal("0.05");
+    private static final long DAYS_IN_YEAR = 365;
+
+    @Param({ "1000", "10000" })
+    private int numberOfTransactions;
+
+    @Param({ "DAILY", "MONTHLY" })
+    private SavingsCompoundingInterestPeriodType compoundingPeriodType;
+
+    @Param({ "DAILY_BALANCE", "AVERAGE_DAILY_BALANCE" })
+    private SavingsInterestCalculationType interestCalculationType;
+
+    private final CompoundInterestHelper compoundInterestHelper = new CompoundInterestHelper();
+    private SavingsAccountData account;
+    private List<SavingsAccountTransactionData> transactions;
+    private List<LocalDateInterval> postingPeriods;
+    private LocalDate upToInterestCalculationDate;
+
+    @Setup
+    public void setUp() {
+        BenchmarkContext.initialize();
+        this.account = SavingsAccountData.lookup(1L, "000000001", null, null);
+        final CurrencyData currency = new CurrencyData("USD", 2, null);
+
+        // deposits with the odd withdrawal, several per day
+        this.transactions = new ArrayList<>(this.numberOfTransactions);
+        Money runningBalance = Money.zero(BenchmarkContext.USD);
+        for (int i = 0; i < this.numberOfTransactions; i++) {
+            final LocalDate date = ACTIVATION_DATE.plusDays(i / TRANSACTIONS_PER_DAY);
+            final boolean withdrawal = i % 4 == 3;
+            final BigDecimal amount = BigDecimal.valueOf(1000 + i % 97 * 25L, 2);
+            runningBalance = withdrawal ? runningBalance.minus(amount) : runningBalance.plus(amount);
+            final SavingsAccountTransactionType type = withdrawal ? SavingsAccountTransactionType.WITHDRAWAL
+                    : SavingsAccountTransactionType.DEPOSIT;
+            this.transactions.add(SavingsAccountTransactionData.create((long) i + 1, SavingsEnumerations.transactionType(type), null, 1L,
+                    "000000001", date, currency, amount, null, runningBalance.getAmount(), false, date, false, null, null));
+        }
+
+        final LocalDate lastTransactionDate = this.transactions.get(this.transactions.size() - 1).getTransactionLocalDate();
+        this.upToInterestCalculationDate = lastTransactionDate.withDayOfMonth(lastTransactionDate.lengthOfMonth());
+
+        // same end of day balances as the posting service computes before building the posting periods
+        LocalDate endOfBalanceDate = this.upToInterestCalculationDate;
+        for (int i = this.transactions.size() - 1; i >= 0; i--) {
+            final SavingsAccountTransactionData transaction = this.transactions.get(i);
+            transaction.updateCumulativeBalanceAndDates(BenchmarkContext.USD, endOfBalanceDate);
+            endOfBalanceDate = transaction.getTransactionLocalDate().minusDays(1);
+        }
+
+        this.postingPeriods = new ArrayList<>();
+        LocalDate periodStart = ACTIVATION_DATE;
+        while (!periodStart.isAfter(this.upToInterestCalculationDate)) {
+            final LocalDate periodEnd = periodStart.withDayOfMonth(periodStart.lengthOfMonth());
+            this.postingPeriods.add(LocalDateInterval.create(periodStart, periodEnd));
+            periodStart = periodEnd.plusDays(1);
+        }
+    }
+
+    @Benchmark
+    public Money calculateInterest() {
+        final MathContext mc = MoneyHelper.getMathContext();
+        final Money zero = Money.zero(BenchmarkContext.USD);
+        final List<PostingPeriod> allPostingPeriods = new ArrayList<>(this.postingPeriods.size());
+        Money periodStartingBalance = zero;
+        for (final LocalDateInterval periodInterval : this.postingPeriods) {
+            final PostingPeriod postingPeriod = PostingPeriod.createFromDTO(periodInterval, periodStartingBalance, this.transactions,
+                    BenchmarkContext.USD, this.compoundingPeriodType, this.interestCalculationType, ANNUAL_RATE_AS_FRACTION, DAYS_IN_YEAR,
+                    this.upToInterestCalculationDate, Collections.emptyList(), false, zero, false, BigDecimal.ZERO, zero, false, 1, false,
+                    this.account, mc);
+            periodStartingBalance = postingPeriod.closingBalance();
+            allPostingPeriods.add(postingPeriod);
+        }
+        return this.compoundInterestHelper.calculateInterestForAllPostingPeriods(BenchmarkContext.USD, allPostingPeriods, null, false);
+    }
+}
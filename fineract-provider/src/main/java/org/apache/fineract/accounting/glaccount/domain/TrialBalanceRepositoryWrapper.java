@@ -19,7 +19,6 @@
 package org.apache.fineract.accounting.glaccount.domain;
 
 import java.util.List;
-import org.apache.fineract.accounting.trialbalance.exception.TrialBalanceNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -33,15 +32,6 @@ public class TrialBalanceRepositoryWrapper {
         this.repository = repository;
     }
 
-    public List<TrialBalance> findNewByOfficeAndAccount(final Long officeId, final Long accountId) {
-        final List<TrialBalance> trialBalanceList = this.repository.findNewByOfficeAndAccount(officeId, accountId);
-        if (trialBalanceList == null) {
-            throw new TrialBalanceNotFoundException(officeId, accountId);
-        }
-        return trialBalanceList;
-
-    }
-
     public void save(final List<TrialBalance> tbRows) {
         this.repository.saveAll(tbRows);
     }
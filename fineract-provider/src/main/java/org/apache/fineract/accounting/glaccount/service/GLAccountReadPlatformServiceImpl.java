@@ -68,11 +68,14 @@ public class GLAccountReadPlatformServiceImpl implements GLAccountReadPlatformSe
                     .append(nameDecoratedBaseOnHierarchy).append(" as nameDecorated, ")
                     .append("cv.id as codeId, cv.code_value as codeValue ");
             if (this.associationParametersData.isRunningBalanceRequired()) {
-                sb.append(",gl_j.organization_running_balance as organizationRunningBalance ");
+                // ASSET and EXPENSE accounts are debit normal
+                sb.append(",case when gl.classification_enum in (1, 5) then gl_b.debits - gl_b.credits ")
+                        .append("else gl_b.credits - gl_b.debits end as organizationRunningBalance ");
             }
             sb.append("from acc_gl_account gl left join m_code_value cv on tag_id=cv.id ");
             if (this.associationParametersData.isRunningBalanceRequired()) {
-                sb.append("left outer Join acc_gl_journal_entry gl_j on gl_j.account_id = gl.id");
+                sb.append("left outer join (select account_id, sum(debit_amount) as debits, sum(credit_amount) as credits ")
+                        .append("from acc_gl_balance_snapshot group by account_id) gl_b on gl_b.account_id = gl.id ");
             }
             return sb.toString();
         }
@@ -122,15 +125,6 @@ public class GLAccountReadPlatformServiceImpl implements GLAccountReadPlatformSe
 
         final GLAccountMapper rm = new GLAccountMapper(associationParametersData);
         String sql = "select " + rm.schema();
-        // append SQL statement for fetching account totals
-        if (associationParametersData != null) {
-            if (associationParametersData.isRunningBalanceRequired()) {
-                sql = sql + " and gl_j.id in (select t1.id from (select t2.account_id, max(t2.id) as id from "
-                        + "(select id, max(entry_date) as entry_date, account_id from acc_gl_journal_entry where is_running_balance_calculated = true "
-                        + "group by account_id desc, id) t3 inner join acc_gl_journal_entry t2 on t2.account_id = t3.account_id and t2.entry_date = t3.entry_date "
-                        + "group by t2.account_id desc) t1)";
-            }
-        }
         final Object[] parameterArray = new Object[3];
         int arrayPos = 0;
         boolean filtersPresent = false;
@@ -201,13 +195,7 @@ public class GLAccountReadPlatformServiceImpl implements GLAccountReadPlatformSe
             final GLAccountMapper rm = new GLAccountMapper(associationParametersData);
             final StringBuilder sql = new StringBuilder();
             sql.append("select ").append(rm.schema());
-            if (associationParametersData.isRunningBalanceRequired()) {
-                sql.append(" and gl_j.is_running_balance_calculated = true ");
-            }
             sql.append("where gl.id = ?");
-            if (associationParametersData.isRunningBalanceRequired()) {
-                sql.append("  ORDER BY gl_j.entry_date DESC,gl_j.id DESC LIMIT 1");
-            }
             final GLAccountData glAccountData = this.jdbcTemplate.queryForObject(sql.toString(), rm, new Object[] { glAccountId });
 
             return glAccountData;
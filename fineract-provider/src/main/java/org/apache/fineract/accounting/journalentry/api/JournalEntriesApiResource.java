@@ -64,6 +64,7 @@ import org.apache.fineract.infrastructure.core.exception.UnrecognizedQueryParamE
 import org.apache.fineract.infrastructure.core.serialization.ApiRequestJsonSerializationSettings;
 import org.apache.fineract.infrastructure.core.serialization.DefaultToApiJsonSerializer;
 import org.apache.fineract.infrastructure.core.service.Page;
+import org.apache.fineract.infrastructure.core.service.PaginationCountMode;
 import org.apache.fineract.infrastructure.core.service.SearchParameters;
 import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
 import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
@@ -122,7 +123,9 @@ public class JournalEntriesApiResource {
             @QueryParam("loanId") @Parameter(description = "loanId") final Long loanId,
             @QueryParam("savingsId") @Parameter(description = "savingsId") final Long savingsId,
             @QueryParam("runningBalance") @Parameter(description = "runningBalance") final boolean runningBalance,
-            @QueryParam("transactionDetails") @Parameter(description = "transactionDetails") final boolean transactionDetails) {
+            @QueryParam("transactionDetails") @Parameter(description = "transactionDetails") final boolean transactionDetails,
+            @QueryParam("cursor") @Parameter(description = "opaque keyset cursor; empty for the first page") final String cursor,
+            @QueryParam("countMode") @Parameter(description = "EXACT, ESTIMATE, CACHED or NONE") final String countMode) {
 
         this.context.authenticatedUser().validateHasReadPermission(this.resourceNameForPermission);
 
@@ -137,6 +140,8 @@ public class JournalEntriesApiResource {
 
         final SearchParameters searchParameters = SearchParameters.forJournalEntries(officeId, offset, limit, orderBy, sortOrder, loanId,
                 savingsId);
+        searchParameters.setCursor(cursor);
+        searchParameters.setCountMode(PaginationCountMode.fromString(countMode));
         JournalEntryAssociationParametersData associationParametersData = new JournalEntryAssociationParametersData(transactionDetails,
                 runningBalance);
 
@@ -49,7 +49,6 @@ import org.apache.fineract.accounting.journalentry.data.SharesDTO;
 import org.apache.fineract.accounting.journalentry.data.SharesTransactionDTO;
 import org.apache.fineract.accounting.journalentry.data.TaxPaymentDTO;
 import org.apache.fineract.accounting.journalentry.domain.JournalEntry;
-import org.apache.fineract.accounting.journalentry.domain.JournalEntryRepository;
 import org.apache.fineract.accounting.journalentry.domain.JournalEntryType;
 import org.apache.fineract.accounting.journalentry.exception.JournalEntryInvalidException;
 import org.apache.fineract.accounting.journalentry.exception.JournalEntryInvalidException.GlJournalEntryInvalidReason;
@@ -88,7 +87,6 @@ public class AccountingProcessorHelper {
     public static final String PROVISIONING_TRANSACTION_IDENTIFIER = "P";
     public static final String SHARE_TRANSACTION_IDENTIFIER = "SH";
 
-    private final JournalEntryRepository glJournalEntryRepository;
     private final ProductToGLAccountMappingRepository accountMappingRepository;
     private final FinancialActivityAccountRepositoryWrapper financialActivityAccountRepository;
     private final GLClosureRepository closureRepository;
@@ -99,6 +97,7 @@ public class AccountingProcessorHelper {
     private final SavingsAccountTransactionRepository savingsAccountTransactionRepository;
     private final AccountTransfersReadPlatformService accountTransfersReadPlatformService;
     private final ChargeRepositoryWrapper chargeRepositoryWrapper;
+    private final JournalEntryBatchWriter journalEntryBatchWriter;
 
     public LoanDTO populateLoanDtoFromMap(final Map<String, Object> accountingBridgeData, final boolean cashBasedAccountingEnabled,
             final boolean upfrontAccrualBasedAccountingEnabled, final boolean periodicAccrualBasedAccountingEnabled) {
@@ -817,7 +816,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.CLIENT.getValue(), clientId, null,
                 loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryBatchWriter.write(journalEntry);
     }
 
     private void createCreditJournalEntryForSavings(final Office office, final String currencyCode, final GLAccount account,
@@ -839,7 +838,7 @@ public class AccountingProcessorHelper {
                 manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.SAVING.getValue(), savingsId,
                 null, loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
 
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryBatchWriter.write(journalEntry);
     }
 
     private void createCreditJournalEntryForLoan(final Office office, final String currencyCode, final GLAccount account, final Long loanId,
@@ -859,7 +858,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.LOAN.getValue(), loanId, null,
                 loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryBatchWriter.write(journalEntry);
     }
 
     public void createProvisioningDebitJournalEntry(LocalDate transactionDate, Long provisioningentryId, Office office, String currencyCode,
@@ -874,7 +873,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.PROVISIONING.getValue(),
                 provisioningentryId, null, loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryBatchWriter.write(journalEntry);
     }
 
     public void createProvisioningCreditJournalEntry(LocalDate transactionDate, Long provisioningentryId, Office office,
@@ -889,7 +888,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.PROVISIONING.getValue(),
                 provisioningentryId, null, loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryBatchWriter.write(journalEntry);
     }
 
     private void createDebitJournalEntryForLoan(final Office office, final String currencyCode, final GLAccount account, final Long loanId,
@@ -909,7 +908,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.LOAN.getValue(), loanId, null,
                 loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryBatchWriter.write(journalEntry);
     }
 
     private void createDebitJournalEntryForSavings(final Office office, final String currencyCode, final GLAccount account,
@@ -930,7 +929,7 @@ public class AccountingProcessorHelper {
                 manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.SAVING.getValue(), savingsId, null,
                 loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
 
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryBatchWriter.write(journalEntry);
     }
 
     private void createDebitJournalEntryForClientPayments(final Office office, final String currencyCode, final GLAccount account,
@@ -949,7 +948,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.CLIENT.getValue(), clientId, null,
                 loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryBatchWriter.write(journalEntry);
     }
 
     public void createJournalEntriesForShares(final Office office, final String currencyCode, final int accountTypeToDebitId,
@@ -1066,7 +1065,7 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.DEBIT, amount, null, PortfolioProductType.SHARES.getValue(), shareAccountId,
                 null, loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryBatchWriter.write(journalEntry);
     }
 
     private void createCreditJournalEntryForShares(final Office office, final String currencyCode, final GLAccount account,
@@ -1085,10 +1084,17 @@ public class AccountingProcessorHelper {
         final JournalEntry journalEntry = JournalEntry.createNew(office, paymentDetail, account, currencyCode, modifiedTransactionId,
                 manualEntry, transactionDate, JournalEntryType.CREDIT, amount, null, PortfolioProductType.SHARES.getValue(), shareAccountId,
                 null, loanTransaction, savingsAccountTransaction, clientTransaction, shareTransactionId);
-        this.glJournalEntryRepository.saveAndFlush(journalEntry);
+        this.journalEntryBatchWriter.write(journalEntry);
     }
 
     public GLAccount getLinkedGLAccountForLoanProduct(final Long loanProductId, final int accountMappingTypeId, final Long paymentTypeId) {
+        final String key = mappingKey(PortfolioProductType.LOAN, loanProductId, accountMappingTypeId, "P", paymentTypeId);
+        return this.journalEntryBatchWriter.resolveAccount(key,
+                () -> loadLinkedGLAccountForLoanProduct(loanProductId, accountMappingTypeId, paymentTypeId));
+    }
+
+    private GLAccount loadLinkedGLAccountForLoanProduct(final Long loanProductId, final int accountMappingTypeId,
+            final Long paymentTypeId) {
         GLAccount glAccount = null;
         if (isOrganizationAccount(accountMappingTypeId)) {
             FinancialActivityAccount financialActivityAccount = this.financialActivityAccountRepository
@@ -1122,6 +1128,12 @@ public class AccountingProcessorHelper {
     }
 
     private GLAccount getLinkedGLAccountForLoanCharges(final Long loanProductId, final int accountMappingTypeId, final Long chargeId) {
+        final String key = mappingKey(PortfolioProductType.LOAN, loanProductId, accountMappingTypeId, "C", chargeId);
+        return this.journalEntryBatchWriter.resolveAccount(key,
+                () -> loadLinkedGLAccountForLoanCharges(loanProductId, accountMappingTypeId, chargeId));
+    }
+
+    private GLAccount loadLinkedGLAccountForLoanCharges(final Long loanProductId, final int accountMappingTypeId, final Long chargeId) {
         ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(loanProductId,
                 PortfolioProductType.LOAN.getValue(), accountMappingTypeId);
         /*****
@@ -1145,6 +1157,13 @@ public class AccountingProcessorHelper {
 
     private GLAccount getLinkedGLAccountForSavingsCharges(final Long savingsProductId, final int accountMappingTypeId,
             final Long chargeId) {
+        final String key = mappingKey(PortfolioProductType.SAVING, savingsProductId, accountMappingTypeId, "C", chargeId);
+        return this.journalEntryBatchWriter.resolveAccount(key,
+                () -> loadLinkedGLAccountForSavingsCharges(savingsProductId, accountMappingTypeId, chargeId));
+    }
+
+    private GLAccount loadLinkedGLAccountForSavingsCharges(final Long savingsProductId, final int accountMappingTypeId,
+            final Long chargeId) {
 
         ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(savingsProductId,
                 PortfolioProductType.SAVING.getValue(), accountMappingTypeId);
@@ -1176,6 +1195,13 @@ public class AccountingProcessorHelper {
 
     private GLAccount getLinkedGLAccountForSavingsProduct(final Long savingsProductId, final int accountMappingTypeId,
             final Long paymentTypeId) {
+        final String key = mappingKey(PortfolioProductType.SAVING, savingsProductId, accountMappingTypeId, "P", paymentTypeId);
+        return this.journalEntryBatchWriter.resolveAccount(key,
+                () -> loadLinkedGLAccountForSavingsProduct(savingsProductId, accountMappingTypeId, paymentTypeId));
+    }
+
+    private GLAccount loadLinkedGLAccountForSavingsProduct(final Long savingsProductId, final int accountMappingTypeId,
+            final Long paymentTypeId) {
         GLAccount glAccount = null;
         if (isOrganizationAccount(accountMappingTypeId)) {
             FinancialActivityAccount financialActivityAccount = this.financialActivityAccountRepository
@@ -1203,6 +1229,13 @@ public class AccountingProcessorHelper {
 
     private GLAccount getLinkedGLAccountForShareProduct(final Long shareProductId, final int accountMappingTypeId,
             final Long paymentTypeId) {
+        final String key = mappingKey(PortfolioProductType.SHARES, shareProductId, accountMappingTypeId, "P", paymentTypeId);
+        return this.journalEntryBatchWriter.resolveAccount(key,
+                () -> loadLinkedGLAccountForShareProduct(shareProductId, accountMappingTypeId, paymentTypeId));
+    }
+
+    private GLAccount loadLinkedGLAccountForShareProduct(final Long shareProductId, final int accountMappingTypeId,
+            final Long paymentTypeId) {
         GLAccount glAccount = null;
         if (isOrganizationAccount(accountMappingTypeId)) {
             FinancialActivityAccount financialActivityAccount = this.financialActivityAccountRepository
@@ -1226,6 +1259,12 @@ public class AccountingProcessorHelper {
     }
 
     private GLAccount getLinkedGLAccountForShareCharges(final Long shareProductId, final int accountMappingTypeId, final Long chargeId) {
+        final String key = mappingKey(PortfolioProductType.SHARES, shareProductId, accountMappingTypeId, "C", chargeId);
+        return this.journalEntryBatchWriter.resolveAccount(key,
+                () -> loadLinkedGLAccountForShareCharges(shareProductId, accountMappingTypeId, chargeId));
+    }
+
+    private GLAccount loadLinkedGLAccountForShareCharges(final Long shareProductId, final int accountMappingTypeId, final Long chargeId) {
         ProductToGLAccountMapping accountMapping = this.accountMappingRepository.findCoreProductToFinAccountMapping(shareProductId,
                 PortfolioProductType.SHARES.getValue(), accountMappingTypeId);
         /*****
@@ -1243,6 +1282,11 @@ public class AccountingProcessorHelper {
         return accountMapping.getGlAccount();
     }
 
+    private static String mappingKey(final PortfolioProductType productType, final Long productId, final int accountMappingTypeId,
+            final String qualifier, final Long qualifierId) {
+        return productType.getValue() + ":" + productId + ":" + accountMappingTypeId + ":" + qualifier + qualifierId;
+    }
+
     private boolean isOrganizationAccount(final int accountMappingTypeId) {
         boolean isOrganizationAccount = false;
         if (FinancialActivity.fromInt(accountMappingTypeId) != null) {
@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.accounting.journalentry.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.apache.fineract.accounting.glaccount.domain.GLAccount;
+import org.apache.fineract.accounting.journalentry.domain.JournalEntry;
+import org.apache.fineract.accounting.journalentry.domain.JournalEntryRepository;
+import org.apache.fineract.accounting.journalentry.exception.JournalEntryInvalidException;
+import org.apache.fineract.accounting.journalentry.exception.JournalEntryInvalidException.GlJournalEntryInvalidReason;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Collects the system generated journal entry legs of the current transaction.
+ *
+ * Legs are handed to the persistence context without an individual flush so that they are written together when the
+ * transaction commits. Just before the commit the collected legs are checked to balance per currency. The writer also
+ * keeps the product to GL account mappings resolved within the transaction, since a single posting typically looks up
+ * the same mapping for several legs. Outside of a transaction every leg is flushed immediately, as before.
+ */
+@Component
+@RequiredArgsConstructor
+public class JournalEntryBatchWriter {
+
+    private final JournalEntryRepository journalEntryRepository;
+
+    public void write(final JournalEntry journalEntry) {
+        final Batch batch = currentBatch();
+        if (batch == null) {
+            this.journalEntryRepository.saveAndFlush(journalEntry);
+            return;
+        }
+        this.journalEntryRepository.save(journalEntry);
+        batch.entries.add(journalEntry);
+    }
+
+    public GLAccount resolveAccount(final String mappingKey, final Supplier<GLAccount> loader) {
+        final Batch batch = currentBatch();
+        if (batch == null) {
+            return loader.get();
+        }
+        GLAccount account = batch.accounts.get(mappingKey);
+        if (account == null) {
+            account = loader.get();
+            batch.accounts.put(mappingKey, account);
+        }
+        return account;
+    }
+
+    private Batch currentBatch() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+        if (batch == null) {
+            batch = new Batch();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(batch);
+        }
+        return batch;
+    }
+
+    private final class Batch implements TransactionSynchronization {
+
+        private final List<JournalEntry> entries = new ArrayList<>();
+        private final Map<String, GLAccount> accounts = new HashMap<>();
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(JournalEntryBatchWriter.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(JournalEntryBatchWriter.this, this);
+        }
+
+        @Override
+        public void beforeCommit(final boolean readOnly) {
+            final Map<String, BigDecimal> balances = new HashMap<>();
+            for (final JournalEntry entry : this.entries) {
+                final BigDecimal amount = entry.isDebitEntry() ? entry.getAmount() : entry.getAmount().negate();
+                balances.merge(entry.getCurrencyCode(), amount, BigDecimal::add);
+            }
+            for (final BigDecimal balance : balances.values()) {
+                if (balance.compareTo(BigDecimal.ZERO) != 0) {
+                    throw new JournalEntryInvalidException(GlJournalEntryInvalidReason.DEBIT_CREDIT_SUM_MISMATCH,
+                            this.entries.get(0).getTransactionDate(), null, null);
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(JournalEntryBatchWriter.this);
+        }
+    }
+}
@@ -47,6 +47,7 @@ import org.apache.fineract.infrastructure.core.exception.GeneralPlatformDomainRu
 import org.apache.fineract.infrastructure.core.service.DateUtils;
 import org.apache.fineract.infrastructure.core.service.Page;
 import org.apache.fineract.infrastructure.core.service.PaginationHelper;
+import org.apache.fineract.infrastructure.core.service.PaginationKeyset;
 import org.apache.fineract.infrastructure.core.service.SearchParameters;
 import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
 import org.apache.fineract.infrastructure.security.utils.ColumnValidator;
@@ -335,6 +336,13 @@ public class JournalEntryReadPlatformServiceImpl implements JournalEntryReadPlat
             whereClose = " and ";
         }
 
+        if (searchParameters.isKeysetPaginationRequested()) {
+            final PaginationKeyset keyset = PaginationKeyset.bySortColumnAndId("journalEntry.entry_date", "transactionDate",
+                    "journalEntry.id");
+            return this.paginationHelper.fetchPageByKeyset(this.jdbcTemplate, sqlBuilder.toString(), " and ".equals(whereClose),
+                    Arrays.copyOf(objectArray, arrayPos), rm, keyset, searchParameters);
+        }
+
         if (searchParameters.isOrderByRequested()) {
             sqlBuilder.append(" order by ").append(searchParameters.getOrderBy());
             this.columnValidator.validateSqlInjection(sqlBuilder.toString(), searchParameters.getOrderBy());
@@ -19,41 +19,57 @@
 package org.apache.fineract.accounting.journalentry.service;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import javax.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.fineract.accounting.common.AccountingEnumerations;
 import org.apache.fineract.accounting.glaccount.domain.GLAccountType;
 import org.apache.fineract.accounting.journalentry.api.JournalEntryJsonInputParams;
-import org.apache.fineract.accounting.journalentry.data.JournalEntryData;
 import org.apache.fineract.accounting.journalentry.data.JournalEntryDataValidator;
 import org.apache.fineract.accounting.journalentry.domain.JournalEntryType;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResultBuilder;
-import org.apache.fineract.infrastructure.core.data.EnumOptionData;
 import org.apache.fineract.infrastructure.core.domain.JdbcSupport;
 import org.apache.fineract.infrastructure.core.serialization.FromJsonHelper;
-import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
 import org.apache.fineract.infrastructure.jobs.annotation.CronTarget;
 import org.apache.fineract.infrastructure.jobs.service.JobName;
 import org.apache.fineract.organisation.office.domain.OfficeRepositoryWrapper;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Calculates the organization and office running balances of journal entries.
+ *
+ * Opening balances are read from acc_gl_balance_snapshot, which holds the debit and credit totals per office, GL
+ * account, currency and entry date of all entries whose running balance has been calculated. Entries from the earliest
+ * uncalculated entry date onwards are then streamed in (entry date, id) order and written back with parameterized batch
+ * updates; every batch adds the movements of its newly calculated entries to the snapshot in the same transaction.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntryRunningBalanceUpdateService {
 
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String ENTRIES_SQL = "select je.id, je.account_id, je.office_id, je.currency_code, je.entry_date, je.type_enum, "
+            + "je.amount, je.is_running_balance_calculated from acc_gl_journal_entry je where je.entry_date >= ?";
+
     private final JdbcTemplate jdbcTemplate;
 
     private final OfficeRepositoryWrapper officeRepositoryWrapper;
@@ -61,9 +77,19 @@ public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntry
     private final JournalEntryDataValidator dataValidator;
 
     private final FromJsonHelper fromApiJsonHelper;
-    private final DatabaseSpecificSQLGenerator sqlGenerator;
 
-    private final GLJournalEntryMapper entryMapper = new GLJournalEntryMapper();
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readTemplate;
+    private TransactionTemplate batchTemplate;
+
+    @PostConstruct
+    public void init() {
+        this.readTemplate = new TransactionTemplate(this.transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.batchTemplate = new TransactionTemplate(this.transactionManager);
+        this.batchTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     @Override
     @CronTarget(jobName = JobName.ACCOUNTING_RUNNING_BALANCE_UPDATE)
@@ -72,7 +98,9 @@ public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntry
                 + "where je.is_running_balance_calculated=false ";
         try {
             LocalDate entityDate = this.jdbcTemplate.queryForObject(dateFinder, LocalDate.class);
-            updateOrganizationRunningBalance(entityDate);
+            if (entityDate != null) {
+                updateOrganizationRunningBalance(entityDate);
+            }
         } catch (EmptyResultDataAccessException e) {
             log.debug("No results found for updation of running balance ");
         }
@@ -93,7 +121,9 @@ public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntry
                     + "where je.is_running_balance_calculated=false  and je.office_id=?";
             try {
                 LocalDate entityDate = this.jdbcTemplate.queryForObject(dateFinder, LocalDate.class, officeId);
-                updateRunningBalance(officeId, entityDate);
+                if (entityDate != null) {
+                    updateRunningBalance(officeId, entityDate);
+                }
             } catch (EmptyResultDataAccessException e) {
                 log.debug("No results found for updation of office running balance with office id: {}", officeId);
             }
@@ -102,194 +132,179 @@ public class JournalEntryRunningBalanceUpdateServiceImpl implements JournalEntry
         return commandProcessingResultBuilder.build();
     }
 
-    private void updateOrganizationRunningBalance(LocalDate entityDate) {
-        Map<Long, BigDecimal> runningBalanceMap = new HashMap<>(5);
-        Map<Long, Map<Long, BigDecimal>> officesRunningBalance = new HashMap<>();
-
-        final String organizationRunningBalanceQuery = "select je.organization_running_balance as runningBalance,je.account_id as accountId from acc_gl_journal_entry je "
-                + "inner join (select max(id) as id from acc_gl_journal_entry where entry_date < ? group by account_id,entry_date) je2 ON je2.id = je.id "
-                + "inner join (select max(entry_date) as date from acc_gl_journal_entry where entry_date < ? group by account_id) je3 ON je.entry_date = je3.date "
-                + "group by je.id order by je.entry_date DESC " + sqlGenerator.limit(10000, 0);
-
-        List<Map<String, Object>> list = jdbcTemplate.queryForList(organizationRunningBalanceQuery, // NOSONAR
-                entityDate, entityDate);
-
-        for (Map<String, Object> entries : list) {
-            Long accountId = Long.parseLong(entries.get("accountId").toString()); // Drizzle
-                                                                                  // is
-                                                                                  // returning
-                                                                                  // Big
-                                                                                  // Integer
-                                                                                  // where
-                                                                                  // as
-                                                                                  // MySQL
-                                                                                  // returns
-                                                                                  // Long.
-            if (!runningBalanceMap.containsKey(accountId)) {
-                runningBalanceMap.put(accountId, (BigDecimal) entries.get("runningBalance"));
-            }
-        }
+    private void updateOrganizationRunningBalance(final LocalDate entityDate) {
+        final Map<Long, GLAccountType> accountTypes = retrieveAccountTypes();
+        final Map<Long, BigDecimal> organizationBalances = new HashMap<>();
+        final Map<Long, Map<Long, BigDecimal>> officeBalances = new HashMap<>();
+        this.jdbcTemplate.query("select office_id, account_id, sum(debit_amount) as debits, sum(credit_amount) as credits "
+                + "from acc_gl_balance_snapshot where entry_date < ? group by office_id, account_id", rs -> {
+                    final Long accountId = rs.getLong("account_id");
+                    final BigDecimal balance = openingBalance(accountTypes.get(accountId), rs);
+                    organizationBalances.merge(accountId, balance, BigDecimal::add);
+                    officeBalances.computeIfAbsent(rs.getLong("office_id"), officeId -> new HashMap<>()).put(accountId, balance);
+                }, entityDate);
 
-        final String offlineRunningBalanceQuery = "select je.office_running_balance as runningBalance,je.account_id as accountId,je.office_id as officeId "
-                + "from acc_gl_journal_entry je "
-                + "inner join (select max(id) as id from acc_gl_journal_entry where entry_date < ? group by office_id,account_id,entry_date) je2 ON je2.id = je.id "
-                + "inner join (select max(entry_date) as date from acc_gl_journal_entry where entry_date < ? group by office_id,account_id) je3 ON je.entry_date = je3.date "
-                + "group by je.id order by je.entry_date DESC " + sqlGenerator.limit(10000, 0);
-
-        List<Map<String, Object>> officesRunningBalanceList = jdbcTemplate.queryForList(offlineRunningBalanceQuery, // NOSONAR
-                entityDate, entityDate);
-        for (Map<String, Object> entries : officesRunningBalanceList) {
-            Long accountId = Long.parseLong(entries.get("accountId").toString());
-            Long officeId = Long.parseLong(entries.get("officeId").toString());
-            Map<Long, BigDecimal> runningBalance = null;
-            if (officesRunningBalance.containsKey(officeId)) {
-                runningBalance = officesRunningBalance.get(officeId);
-            } else {
-                runningBalance = new HashMap<>();
-                officesRunningBalance.put(officeId, runningBalance);
+        final RunningBalanceBatch batch = new RunningBalanceBatch(
+                "UPDATE acc_gl_journal_entry SET is_running_balance_calculated = true, organization_running_balance = ?, "
+                        + "office_running_balance = ? WHERE id = ?");
+        streamEntries(ENTRIES_SQL + " order by je.entry_date, je.id", rs -> {
+            final Long accountId = rs.getLong("account_id");
+            final Long officeId = rs.getLong("office_id");
+            final BigDecimal amount = signedAmount(accountTypes.get(accountId), rs);
+            final BigDecimal organizationBalance = organizationBalances.merge(accountId, amount, BigDecimal::add);
+            final BigDecimal officeBalance = officeBalances.computeIfAbsent(officeId, id -> new HashMap<>()).merge(accountId, amount,
+                    BigDecimal::add);
+            batch.add(new Object[] { organizationBalance, officeBalance, rs.getLong("id") });
+            if (!rs.getBoolean("is_running_balance_calculated")) {
+                batch.addMovement(rs, officeId, accountId);
             }
-            if (!runningBalance.containsKey(accountId)) {
-                runningBalance.put(accountId, (BigDecimal) entries.get("runningBalance"));
-            }
-        }
+        }, entityDate);
+        batch.flush();
+    }
 
-        List<JournalEntryData> entryDatas = jdbcTemplate.query(entryMapper.organizationRunningBalanceSchema(), entryMapper, entityDate);
-        if (entryDatas.size() > 0) {
-            // run a batch update of 1000 SQL statements at a time
-            final Integer batchUpdateSize = 1000;
-            ArrayList<String> updateSql = new ArrayList<>();
-            int batchIndex = 0;
-            for (int index = 0; index < entryDatas.size(); index++) {
-                JournalEntryData entryData = entryDatas.get(index);
-                Map<Long, BigDecimal> officeRunningBalanceMap = null;
-                if (officesRunningBalance.containsKey(entryData.getOfficeId())) {
-                    officeRunningBalanceMap = officesRunningBalance.get(entryData.getOfficeId());
-                } else {
-                    officeRunningBalanceMap = new HashMap<>();
-                    officesRunningBalance.put(entryData.getOfficeId(), officeRunningBalanceMap);
-                }
-                BigDecimal officeRunningBalance = calculateRunningBalance(entryData, officeRunningBalanceMap);
-                BigDecimal runningBalance = calculateRunningBalance(entryData, runningBalanceMap);
-                String sql = "UPDATE acc_gl_journal_entry SET is_running_balance_calculated=true, organization_running_balance="
-                        + runningBalance + ",office_running_balance=" + officeRunningBalance + " WHERE  id=" + entryData.getId();
-                updateSql.add(sql);
-                batchIndex++;
-                if (batchIndex == batchUpdateSize || index == entryDatas.size() - 1) {
-                    // run a batch update of the 1000 update SQL statements
-                    String[] batch = new String[updateSql.size()];
-                    updateSql.toArray(batch);
-                    this.jdbcTemplate.batchUpdate(batch);
-                    // reset counter and string array
-                    batchIndex = 0;
-                    updateSql.clear();
-                }
+    private void updateRunningBalance(final Long officeId, final LocalDate entityDate) {
+        final Map<Long, GLAccountType> accountTypes = retrieveAccountTypes();
+        final Map<Long, BigDecimal> officeBalances = new HashMap<>();
+        this.jdbcTemplate.query("select account_id, sum(debit_amount) as debits, sum(credit_amount) as credits "
+                + "from acc_gl_balance_snapshot where office_id = ? and entry_date < ? group by account_id", rs -> {
+                    final Long accountId = rs.getLong("account_id");
+                    officeBalances.put(accountId, openingBalance(accountTypes.get(accountId), rs));
+                }, officeId, entityDate);
+
+        // only the office balance is recalculated here, the entries stay pending for the organization job
+        final RunningBalanceBatch batch = new RunningBalanceBatch(
+                "UPDATE acc_gl_journal_entry SET office_running_balance = ? WHERE id = ?");
+        streamEntries(ENTRIES_SQL + " and je.office_id = ? order by je.entry_date, je.id", rs -> {
+            final Long accountId = rs.getLong("account_id");
+            final BigDecimal amount = signedAmount(accountTypes.get(accountId), rs);
+            final BigDecimal officeBalance = officeBalances.merge(accountId, amount, BigDecimal::add);
+            batch.add(new Object[] { officeBalance, rs.getLong("id") });
+        }, entityDate, officeId);
+        batch.flush();
+    }
+
+    /**
+     * Streams the entries with a forward-only cursor inside a read-only transaction, which PostgreSQL needs to honour
+     * the fetch size (MySQL Connector/J needs useCursorFetch=true).
+     */
+    private void streamEntries(final String sql, final RowCallbackHandler handler, final Object... params) {
+        this.readTemplate.executeWithoutResult(status -> this.jdbcTemplate.query(con -> {
+            final PreparedStatement statement = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, // NOSONAR
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(BATCH_SIZE);
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
             }
-        }
+            return statement;
+        }, handler));
+    }
 
+    private Map<Long, GLAccountType> retrieveAccountTypes() {
+        final Map<Long, GLAccountType> accountTypes = new HashMap<>();
+        this.jdbcTemplate.query("select id, classification_enum from acc_gl_account",
+                rs -> accountTypes.put(rs.getLong("id"), GLAccountType.fromInt(rs.getInt("classification_enum"))));
+        return accountTypes;
     }
 
-    private void updateRunningBalance(Long officeId, LocalDate entityDate) {
-        Map<Long, BigDecimal> runningBalanceMap = new HashMap<>(5);
+    private static boolean isDebitNormal(final GLAccountType accountType) {
+        return accountType == GLAccountType.ASSET || accountType == GLAccountType.EXPENSE;
+    }
 
-        final String offlineRunningBalanceQuery = "select je.office_running_balance as runningBalance,je.account_id as accountId from acc_gl_journal_entry je "
-                + "inner join (select max(id) as id from acc_gl_journal_entry where office_id=?  and entry_date < ? group by account_id,entry_date) je2 ON je2.id = je.id "
-                + "inner join (select max(entry_date) as date from acc_gl_journal_entry where office_id=? and entry_date < ? group by account_id) je3 ON je.entry_date = je3.date "
-                + "group by je.id order by je.entry_date DESC " + sqlGenerator.limit(10000, 0);
+    private static BigDecimal openingBalance(final GLAccountType accountType, final ResultSet rs) throws SQLException {
+        final BigDecimal debits = JdbcSupport.getBigDecimalDefaultToZeroIfNull(rs, "debits");
+        final BigDecimal credits = JdbcSupport.getBigDecimalDefaultToZeroIfNull(rs, "credits");
+        return isDebitNormal(accountType) ? debits.subtract(credits) : credits.subtract(debits);
+    }
 
-        List<Map<String, Object>> list = jdbcTemplate.queryForList(offlineRunningBalanceQuery, // NOSONAR
-                officeId, entityDate, officeId, entityDate);
-        for (Map<String, Object> entries : list) {
-            Long accountId = (Long) entries.get("accountId");
-            if (!runningBalanceMap.containsKey(accountId)) {
-                runningBalanceMap.put(accountId, (BigDecimal) entries.get("runningBalance"));
-            }
+    private static BigDecimal signedAmount(final GLAccountType accountType, final ResultSet rs) throws SQLException {
+        final BigDecimal amount = rs.getBigDecimal("amount");
+        final boolean debit = JournalEntryType.fromInt(rs.getInt("type_enum")).isDebitType();
+        return debit == isDebitNormal(accountType) ? amount : amount.negate();
+    }
+
+    /**
+     * Pending running balance updates and the snapshot movements of the entries they mark as calculated, written
+     * together in their own transaction every {@link #BATCH_SIZE} entries.
+     */
+    private final class RunningBalanceBatch {
+
+        private final String updateSql;
+        private final List<Object[]> updates = new ArrayList<>(BATCH_SIZE);
+        private final Map<SnapshotKey, BigDecimal[]> movements = new LinkedHashMap<>();
+
+        private RunningBalanceBatch(final String updateSql) {
+            this.updateSql = updateSql;
         }
-        List<JournalEntryData> entryDatas = jdbcTemplate.query(entryMapper.officeRunningBalanceSchema(), entryMapper, officeId, entityDate);
-        String[] updateSql = new String[entryDatas.size()];
-        int i = 0;
-        for (JournalEntryData entryData : entryDatas) {
-            BigDecimal runningBalance = calculateRunningBalance(entryData, runningBalanceMap);
-            String sql = "UPDATE acc_gl_journal_entry SET office_running_balance=" + runningBalance + " WHERE id=" + entryData.getId();
-            updateSql[i++] = sql;
+
+        private void add(final Object[] update) {
+            this.updates.add(update);
+            if (this.updates.size() >= BATCH_SIZE) {
+                flush();
+            }
         }
-        this.jdbcTemplate.batchUpdate(updateSql);
-    }
 
-    private BigDecimal calculateRunningBalance(JournalEntryData entry, Map<Long, BigDecimal> runningBalanceMap) {
-        BigDecimal runningBalance = BigDecimal.ZERO;
-        if (runningBalanceMap.containsKey(entry.getGlAccountId())) {
-            runningBalance = runningBalanceMap.get(entry.getGlAccountId());
+        private void addMovement(final ResultSet rs, final Long officeId, final Long accountId) throws SQLException {
+            final SnapshotKey key = new SnapshotKey(officeId, accountId, rs.getString("currency_code"),
+                    JdbcSupport.getLocalDate(rs, "entry_date"));
+            final BigDecimal[] totals = this.movements.computeIfAbsent(key, k -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+            final int index = JournalEntryType.fromInt(rs.getInt("type_enum")).isDebitType() ? 0 : 1;
+            totals[index] = totals[index].add(rs.getBigDecimal("amount"));
         }
-        GLAccountType accounttype = GLAccountType.fromInt(entry.getGlAccountType().getId().intValue());
-        JournalEntryType entryType = JournalEntryType.fromInt(entry.getEntryType().getId().intValue());
-        boolean isIncrease = false;
-        switch (accounttype) {
-            case ASSET:
-                if (entryType.isDebitType()) {
-                    isIncrease = true;
-                }
-            break;
-            case EQUITY:
-                if (entryType.isCreditType()) {
-                    isIncrease = true;
-                }
-            break;
-            case EXPENSE:
-                if (entryType.isDebitType()) {
-                    isIncrease = true;
-                }
-            break;
-            case INCOME:
-                if (entryType.isCreditType()) {
-                    isIncrease = true;
-                }
-            break;
-            case LIABILITY:
-                if (entryType.isCreditType()) {
-                    isIncrease = true;
-                }
-            break;
+
+        private void flush() {
+            if (this.updates.isEmpty() && this.movements.isEmpty()) {
+                return;
+            }
+            batchTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(this.updateSql, this.updates);
+                this.movements.forEach(this::applyMovement);
+            });
+            this.updates.clear();
+            this.movements.clear();
         }
-        if (isIncrease) {
-            runningBalance = runningBalance.add(entry.getAmount());
-        } else {
-            runningBalance = runningBalance.subtract(entry.getAmount());
+
+        private void applyMovement(final SnapshotKey key, final BigDecimal[] totals) {
+            final int updated = jdbcTemplate.update("UPDATE acc_gl_balance_snapshot SET debit_amount = debit_amount + ?, "
+                    + "credit_amount = credit_amount + ? WHERE office_id = ? AND account_id = ? AND currency_code = ? AND entry_date = ?",
+                    totals[0], totals[1], key.officeId, key.accountId, key.currencyCode, key.entryDate);
+            if (updated == 0) {
+                jdbcTemplate.update("INSERT INTO acc_gl_balance_snapshot (office_id, account_id, currency_code, entry_date, debit_amount, "
+                        + "credit_amount) VALUES (?, ?, ?, ?, ?, ?)", key.officeId, key.accountId, key.currencyCode, key.entryDate,
+                        totals[0], totals[1]);
+            }
         }
-        runningBalanceMap.put(entry.getGlAccountId(), runningBalance);
-        return runningBalance;
     }
 
-    private static final class GLJournalEntryMapper implements RowMapper<JournalEntryData> {
+    private static final class SnapshotKey {
 
-        public String officeRunningBalanceSchema() {
-            return "select je.id as id,je.account_id as glAccountId,je.type_enum as entryType,je.amount as amount, "
-                    + "glAccount.classification_enum as classification,je.office_id as officeId "
-                    + "from acc_gl_journal_entry je , acc_gl_account glAccount " + "where je.account_id = glAccount.id "
-                    + "and je.office_id=? and je.entry_date >= ? order by je.entry_date,je.id";
+        private final Long officeId;
+        private final Long accountId;
+        private final String currencyCode;
+        private final LocalDate entryDate;
+
+        private SnapshotKey(final Long officeId, final Long accountId, final String currencyCode, final LocalDate entryDate) {
+            this.officeId = officeId;
+            this.accountId = accountId;
+            this.currencyCode = currencyCode;
+            this.entryDate = entryDate;
         }
 
-        public String organizationRunningBalanceSchema() {
-            return "select je.id as id,je.account_id as glAccountId," + "je.type_enum as entryType,je.amount as amount, "
-                    + "glAccount.classification_enum as classification,je.office_id as officeId  "
-                    + "from acc_gl_journal_entry je , acc_gl_account glAccount " + "where je.account_id = glAccount.id "
-                    + "and je.entry_date >= ? order by je.entry_date,je.id";
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SnapshotKey)) {
+                return false;
+            }
+            final SnapshotKey that = (SnapshotKey) o;
+            return this.officeId.equals(that.officeId) && this.accountId.equals(that.accountId)
+                    && this.currencyCode.equals(that.currencyCode) && this.entryDate.equals(that.entryDate);
         }
 
         @Override
-        public JournalEntryData mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
-
-            final Long id = rs.getLong("id");
-            final Long glAccountId = rs.getLong("glAccountId");
-            final Long officeId = rs.getLong("officeId");
-            final int accountTypeId = JdbcSupport.getInteger(rs, "classification");
-            final EnumOptionData accountType = AccountingEnumerations.gLAccountType(accountTypeId);
-            final BigDecimal amount = rs.getBigDecimal("amount");
-            final int entryTypeId = JdbcSupport.getInteger(rs, "entryType");
-            final EnumOptionData entryType = AccountingEnumerations.journalEntryType(entryTypeId);
-
-            return new JournalEntryData(id, officeId, null, null, glAccountId, null, accountType, null, entryType, amount, null, null, null,
-                    null, null, null, null, null, null, null, null, null, null, null, null);
+        public int hashCode() {
+            return Objects.hash(this.officeId, this.accountId, this.currencyCode, this.entryDate);
         }
     }
-
 }
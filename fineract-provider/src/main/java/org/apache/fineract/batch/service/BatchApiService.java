@@ -45,6 +45,19 @@ public interface BatchApiService {
      */
     List<BatchResponse> handleBatchRequestsWithoutEnclosingTransaction(List<BatchRequest> requestList, UriInfo uriInfo);
 
+    /**
+     * Returns a list of {@link org.apache.fineract.batch.domain.BatchResponse}s like
+     * {@link #handleBatchRequestsWithoutEnclosingTransaction(List, UriInfo)}, but independent root requests are executed
+     * concurrently on a bounded executor. The dependent requests of a root are still executed in order after it, and
+     * the responses are returned in request id order. It will be used when the Query Parameter "parallel" is set to
+     * 'true' and "enclosingTransaction" is not.
+     *
+     * @param requestList
+     * @param uriInfo
+     * @return List&lt;BatchResponse&gt;
+     */
+    List<BatchResponse> handleBatchRequestsInParallel(List<BatchRequest> requestList, UriInfo uriInfo);
+
     /**
      * returns a list of {@link org.apache.fineract.batch.domain.BatchResponse}s by getting the appropriate
      * CommandStrategy for every {@link org.apache.fineract.batch.domain.BatchRequest}. It will be used when the Query
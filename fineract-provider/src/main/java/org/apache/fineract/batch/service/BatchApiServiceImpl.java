@@ -23,6 +23,9 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
@@ -37,6 +40,10 @@ import org.apache.fineract.batch.exception.ClientDetailsNotFoundException;
 import org.apache.fineract.batch.exception.ErrorHandler;
 import org.apache.fineract.batch.exception.ErrorInfo;
 import org.apache.fineract.batch.service.ResolutionHelper.BatchRequestNode;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.exception.PlatformInternalServerException;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JobExecuter;
 import org.springframework.dao.NonTransientDataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.TransactionException;
@@ -59,9 +66,13 @@ import org.springframework.transaction.support.TransactionTemplate;
 @Slf4j
 public class BatchApiServiceImpl implements BatchApiService {
 
+    private static final String PARALLEL_BATCH_NAME = "BATCH_API";
+
     private final CommandStrategyProvider strategyProvider;
     private final ResolutionHelper resolutionHelper;
     private final TransactionTemplate transactionTemplate;
+    private final FineractProperties fineractProperties;
+    private final JobExecuter jobExecuter;
 
     /**
      * Returns the response list by getting a proper {@link org.apache.fineract.batch.command.CommandStrategy}.
@@ -77,27 +88,94 @@ public class BatchApiServiceImpl implements BatchApiService {
 
         final List<BatchRequestNode> batchRequestNodes = this.resolutionHelper.getDependingRequests(requestList);
         if (batchRequestNodes.isEmpty()) {
-            final BatchResponse response = new BatchResponse();
-            ErrorInfo ex = ErrorHandler.handler(new ClientDetailsNotFoundException());
-            response.setStatusCode(500);
-            response.setBody(ex.getMessage());
-            responseList.add(response);
+            responseList.add(noRequestsResponse());
             return responseList;
         }
         for (BatchRequestNode rootNode : batchRequestNodes) {
-            final BatchRequest rootRequest = rootNode.getRequest();
-            final CommandStrategy commandStrategy = this.strategyProvider
-                    .getCommandStrategy(CommandContext.resource(rootRequest.getRelativeUrl()).method(rootRequest.getMethod()).build());
-            final BatchResponse rootResponse = safelyExecuteStrategy(commandStrategy, rootRequest, uriInfo);
+            responseList.addAll(this.processRootRequest(rootNode, uriInfo));
+        }
+
+        Collections.sort(responseList, Comparator.comparing(BatchResponse::getRequestId));
+
+        return responseList;
+
+    }
+
+    @Override
+    public List<BatchResponse> handleBatchRequestsInParallel(final List<BatchRequest> requestList, final UriInfo uriInfo) {
+
+        final List<BatchResponse> responseList = new ArrayList<>(requestList.size());
+
+        final List<BatchRequestNode> batchRequestNodes = this.resolutionHelper.getDependingRequests(requestList);
+        if (batchRequestNodes.isEmpty()) {
+            responseList.add(noRequestsResponse());
+            return responseList;
+        }
 
-            responseList.add(rootResponse);
-            responseList.addAll(this.processChildRequests(rootNode, rootResponse, uriInfo));
+        // every root and its chain of child requests runs on its own, on the shared executor that propagates (and
+        // afterwards clears) the tenant, business dates and authentication of this request
+        final AtomicReferenceArray<List<BatchResponse>> rootResponses = new AtomicReferenceArray<>(batchRequestNodes.size());
+        final List<Integer> roots = IntStream.range(0, batchRequestNodes.size()).boxed().collect(Collectors.toList());
+        try {
+            this.jobExecuter.executeEach(PARALLEL_BATCH_NAME, roots, JobExecuter.Workload.IO_BOUND,
+                    Math.max(this.fineractProperties.getBatchApi().getParallelThreads(), 1),
+                    root -> rootResponses.set(root, processRootRequestSafely(batchRequestNodes.get(root), uriInfo)));
+        } catch (JobExecutionException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new PlatformInternalServerException("error.msg.batch.interrupted", "Batch request processing was interrupted", e);
+            }
+            log.warn("Batch requests could not all be executed", e);
+        }
+        for (int root = 0; root < batchRequestNodes.size(); root++) {
+            final List<BatchResponse> responses = rootResponses.get(root);
+            responseList.addAll(responses != null ? responses
+                    : failedRootResponses(batchRequestNodes.get(root), "Batch request was not executed", uriInfo));
         }
 
         Collections.sort(responseList, Comparator.comparing(BatchResponse::getRequestId));
 
         return responseList;
+    }
+
+    private List<BatchResponse> processRootRequestSafely(final BatchRequestNode rootNode, final UriInfo uriInfo) {
+        try {
+            return processRootRequest(rootNode, uriInfo);
+        } catch (RuntimeException e) {
+            log.warn("Exception while executing batch request {}", rootNode.getRequest().getRequestId(), e);
+            return failedRootResponses(rootNode, e.getMessage(), uriInfo);
+        }
+    }
+
+    private List<BatchResponse> failedRootResponses(final BatchRequestNode rootNode, final String message, final UriInfo uriInfo) {
+        final List<BatchResponse> responseList = new ArrayList<>();
+        final BatchResponse rootResponse = new BatchResponse();
+        rootResponse.setRequestId(rootNode.getRequest().getRequestId());
+        rootResponse.setStatusCode(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode());
+        rootResponse.setBody(message);
+
+        responseList.add(rootResponse);
+        responseList.addAll(this.processChildRequests(rootNode, rootResponse, uriInfo));
+        return responseList;
+    }
+
+    private List<BatchResponse> processRootRequest(final BatchRequestNode rootNode, final UriInfo uriInfo) {
+        final List<BatchResponse> responseList = new ArrayList<>();
+        final BatchRequest rootRequest = rootNode.getRequest();
+        final CommandStrategy commandStrategy = this.strategyProvider
+                .getCommandStrategy(CommandContext.resource(rootRequest.getRelativeUrl()).method(rootRequest.getMethod()).build());
+        final BatchResponse rootResponse = safelyExecuteStrategy(commandStrategy, rootRequest, uriInfo);
+
+        responseList.add(rootResponse);
+        responseList.addAll(this.processChildRequests(rootNode, rootResponse, uriInfo));
+        return responseList;
+    }
 
+    private BatchResponse noRequestsResponse() {
+        final BatchResponse response = new BatchResponse();
+        ErrorInfo ex = ErrorHandler.handler(new ClientDetailsNotFoundException());
+        response.setStatusCode(500);
+        response.setBody(ex.getMessage());
+        return response;
     }
 
     private BatchResponse safelyExecuteStrategy(CommandStrategy commandStrategy, BatchRequest request, UriInfo uriInfo) {
@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.fineract.cob.domain.BatchPartitionStatus;
+
+/**
+ * Immutable snapshot of a row of {@code m_batch_job_partition}: an inclusive ID range of a batch run together with the
+ * last ID whose chunk has been committed.
+ */
+@Getter
+@AllArgsConstructor
+public class BatchPartition {
+
+    private final Long id;
+    private final String jobName;
+    private final String runKey;
+    private final Integer partitionNo;
+    private final Long rangeStart;
+    private final Long rangeEnd;
+    private final Long lastProcessedId;
+    private final BatchPartitionStatus status;
+    private final String scope;
+    private final Integer chunkSize;
+    private final Integer errorCount;
+    private final String errorMessage;
+
+    /**
+     * @return the ID after which processing has to (re)start
+     */
+    public Long getResumeAfterId() {
+        return this.lastProcessedId == null ? this.rangeStart - 1 : this.lastProcessedId;
+    }
+}
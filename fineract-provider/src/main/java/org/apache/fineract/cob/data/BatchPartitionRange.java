@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BatchPartitionRange {
+
+    private final Long rangeStart;
+    private final Long rangeEnd;
+
+    /**
+     * Turns consecutive, ascending pages of candidate IDs into one range per page. The first page is fetched with
+     * {@code 0L}, every following one with {@code nextPageParameter} applied to the last ID of the previous page.
+     */
+    public static List<BatchPartitionRange> fromIdPages(final Function<Long, List<Long>> pageFetcher,
+            final UnaryOperator<Long> nextPageParameter) {
+        final List<BatchPartitionRange> ranges = new ArrayList<>();
+        List<Long> ids = pageFetcher.apply(0L);
+        while (ids != null && !ids.isEmpty()) {
+            final Long maxIdInList = ids.get(ids.size() - 1);
+            ranges.add(new BatchPartitionRange(ids.get(0), maxIdInList));
+            ids = pageFetcher.apply(nextPageParameter.apply(maxIdInList));
+        }
+        return ranges;
+    }
+}
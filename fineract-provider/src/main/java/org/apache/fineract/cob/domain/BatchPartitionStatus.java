@@ -16,11 +16,9 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package org.apache.fineract.infrastructure.hooks.listener;
+package org.apache.fineract.cob.domain;
 
-import org.apache.fineract.infrastructure.hooks.event.HookEvent;
-import org.springframework.context.ApplicationListener;
-
-public interface HookListener extends ApplicationListener<HookEvent> {
+public enum BatchPartitionStatus {
 
+    PENDING, RUNNING, COMPLETED, FAILED;
 }
@@ -0,0 +1,36 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.exception;
+
+import org.apache.fineract.cob.data.BatchPartition;
+import org.apache.fineract.infrastructure.core.exception.PlatformInternalServerException;
+
+/**
+ * A {@link RuntimeException} reporting the errors a (possibly remote) worker recorded for a batch job partition.
+ */
+public class BatchPartitionFailedException extends PlatformInternalServerException {
+
+    public BatchPartitionFailedException(final BatchPartition partition) {
+        super("error.msg.batch.partition.failed",
+                "Partition " + partition.getPartitionNo() + " of run `" + partition.getRunKey() + "` of job `" + partition.getJobName()
+                        + "` finished as " + partition.getStatus() + " with " + partition.getErrorCount() + " error(s): "
+                        + partition.getErrorMessage(),
+                partition.getJobName(), partition.getRunKey(), partition.getPartitionNo());
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.exception;
+
+import org.apache.fineract.infrastructure.core.exception.PlatformInternalServerException;
+
+/**
+ * A {@link RuntimeException} thrown when a worker updates a batch job partition it no longer owns, because the
+ * partition was released as stale and claimed again while the worker was still busy with it.
+ */
+public class BatchPartitionOwnershipLostException extends PlatformInternalServerException {
+
+    public BatchPartitionOwnershipLostException(final Long partitionId) {
+        super("error.msg.batch.partition.ownership.lost",
+                "Batch job partition with identifier " + partitionId + " is no longer running on this node", partitionId);
+    }
+}
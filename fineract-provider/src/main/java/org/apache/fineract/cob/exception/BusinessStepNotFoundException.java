@@ -16,15 +16,17 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package org.apache.fineract.accounting.trialbalance.exception;
+package org.apache.fineract.cob.exception;
 
 import org.apache.fineract.infrastructure.core.exception.AbstractPlatformResourceNotFoundException;
 
-public class TrialBalanceNotFoundException extends AbstractPlatformResourceNotFoundException {
-
-    public TrialBalanceNotFoundException(final Long officeId, final Long accountId) {
-        super("error.msg.trial.balance.invalid",
-                "Trial balance with officeId " + officeId + "and accountId" + accountId + " does not exist");
+/**
+ * A {@link RuntimeException} thrown when a configured business step has no matching implementation.
+ */
+public class BusinessStepNotFoundException extends AbstractPlatformResourceNotFoundException {
 
+    public BusinessStepNotFoundException(final String jobName, final String stepName) {
+        super("error.msg.cob.business.step.not.found",
+                "Business step `" + stepName + "` configured for job `" + jobName + "` does not exist.", jobName, stepName);
     }
 }
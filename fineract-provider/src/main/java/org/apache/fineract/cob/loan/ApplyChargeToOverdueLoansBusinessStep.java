@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.loan;
+
+import java.util.Collection;
+import lombok.RequiredArgsConstructor;
+import org.apache.fineract.infrastructure.configuration.domain.ConfigurationDomainService;
+import org.apache.fineract.portfolio.loanaccount.domain.Loan;
+import org.apache.fineract.portfolio.loanaccount.loanschedule.data.OverdueLoanScheduleData;
+import org.apache.fineract.portfolio.loanaccount.service.LoanReadPlatformService;
+import org.apache.fineract.portfolio.loanaccount.service.LoanWritePlatformService;
+import org.springframework.stereotype.Component;
+
+/**
+ * COB counterpart of the "Apply penalty to overdue loans" job, applied to a single already loaded loan.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplyChargeToOverdueLoansBusinessStep implements LoanCOBBusinessStep {
+
+    private final ConfigurationDomainService configurationDomainService;
+    private final LoanReadPlatformService loanReadPlatformService;
+    private final LoanWritePlatformService loanWritePlatformService;
+
+    @Override
+    public Loan execute(final Loan loan) {
+        if (!loan.isOpen()) {
+            return loan;
+        }
+        final Long penaltyWaitPeriodValue = this.configurationDomainService.retrievePenaltyWaitPeriod();
+        final Boolean backdatePenalties = this.configurationDomainService.isBackdatePenaltiesEnabled();
+        final Collection<OverdueLoanScheduleData> overdueInstallments = this.loanReadPlatformService
+                .retrieveAllLoansWithOverdueInstallments(penaltyWaitPeriodValue, backdatePenalties, loan.getId(), loan.getId());
+        if (!overdueInstallments.isEmpty()) {
+            // the loan is already managed by the chunk transaction, so the write service re-uses this instance
+            this.loanWritePlatformService.applyOverdueChargesForLoan(loan.getId(), overdueInstallments);
+        }
+        return loan;
+    }
+
+    @Override
+    public String getEnumStyledName() {
+        return "APPLY_CHARGE_TO_OVERDUE_LOANS";
+    }
+
+    @Override
+    public String getHumanReadableName() {
+        return "Apply charge to overdue loans";
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.loan;
+
+public final class LoanCOBConstant {
+
+    public static final String JOB_NAME = "LOAN_CLOSE_OF_BUSINESS";
+    public static final String PARTITION_SIZE_PARAMETER = "partition-size";
+    public static final String CHUNK_SIZE_PARAMETER = "chunk-size";
+    public static final String THREAD_POOL_SIZE_PARAMETER = "thread-pool-size";
+
+    public static final int DEFAULT_PARTITION_SIZE = 10000;
+    public static final int DEFAULT_CHUNK_SIZE = 100;
+    public static final int DEFAULT_THREAD_POOL_SIZE = 1;
+
+    private LoanCOBConstant() {
+
+    }
+}
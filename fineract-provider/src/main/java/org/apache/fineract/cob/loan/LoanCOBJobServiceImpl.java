@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.loan;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fineract.cob.COBBusinessStepService;
+import org.apache.fineract.cob.service.BatchPartitionManager;
+import org.apache.fineract.infrastructure.businessdate.domain.BusinessDateType;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.jobs.annotation.CronTarget;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JobName;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoanCOBJobServiceImpl implements LoanCOBJobService {
+
+    private final COBBusinessStepService cobBusinessStepService;
+    private final BatchPartitionManager batchPartitionManager;
+    private final LoanCOBPartitioner loanCOBPartitioner;
+
+    @Override
+    @CronTarget(jobName = JobName.LOAN_COB)
+    public void executeLoanCOB(final Map<String, String> jobParameters) throws JobExecutionException {
+        final int partitionSize = getParameter(jobParameters, LoanCOBConstant.PARTITION_SIZE_PARAMETER,
+                LoanCOBConstant.DEFAULT_PARTITION_SIZE);
+        final int chunkSize = getParameter(jobParameters, LoanCOBConstant.CHUNK_SIZE_PARAMETER, LoanCOBConstant.DEFAULT_CHUNK_SIZE);
+        final int threadPoolSize = getParameter(jobParameters, LoanCOBConstant.THREAD_POOL_SIZE_PARAMETER,
+                LoanCOBConstant.DEFAULT_THREAD_POOL_SIZE);
+
+        // fail fast on a misconfigured step chain before any partition is handed out
+        final List<LoanCOBBusinessStep> businessSteps = this.cobBusinessStepService.getOrderedBusinessSteps(LoanCOBBusinessStep.class,
+                LoanCOBConstant.JOB_NAME);
+        final LocalDate cobDate = ThreadLocalContextUtil.getBusinessDateByType(BusinessDateType.COB_DATE);
+        final String runKey = cobDate.format(DateUtils.DEFAULT_DATE_FORMATER);
+        log.info("Loan COB: running {} business step(s) for COB date {}", businessSteps.size(), runKey);
+
+        this.batchPartitionManager.execute(LoanCOBConstant.JOB_NAME, runKey, null, chunkSize, threadPoolSize,
+                () -> this.loanCOBPartitioner.getPartitionRanges(partitionSize));
+    }
+
+    private int getParameter(final Map<String, String> jobParameters, final String parameterName, final int defaultValue) {
+        final String value = jobParameters == null ? null : jobParameters.get(parameterName);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
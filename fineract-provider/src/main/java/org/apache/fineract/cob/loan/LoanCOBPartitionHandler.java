@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.loan;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fineract.cob.COBBusinessStepService;
+import org.apache.fineract.cob.data.BatchPartition;
+import org.apache.fineract.cob.exception.BatchPartitionOwnershipLostException;
+import org.apache.fineract.cob.service.BatchPartitionHandler;
+import org.apache.fineract.cob.service.BatchPartitionService;
+import org.apache.fineract.infrastructure.core.domain.ActionContext;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
+import org.apache.fineract.portfolio.loanaccount.domain.Loan;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanRepositoryWrapper;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the loan COB business steps over one partition, chunk by chunk. Every chunk is committed in a single
+ * transaction together with the partition checkpoint, so a crashed run resumes after the last committed chunk.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoanCOBPartitionHandler implements BatchPartitionHandler {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseSpecificSQLGenerator sqlGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final LoanRepositoryWrapper loanRepositoryWrapper;
+    private final COBBusinessStepService cobBusinessStepService;
+    private final BatchPartitionService batchPartitionService;
+
+    @Override
+    public String getJobName() {
+        return LoanCOBConstant.JOB_NAME;
+    }
+
+    @Override
+    public List<Throwable> process(final BatchPartition partition) {
+        final List<LoanCOBBusinessStep> businessSteps = this.cobBusinessStepService.getOrderedBusinessSteps(LoanCOBBusinessStep.class,
+                LoanCOBConstant.JOB_NAME);
+        final int chunkSize = partition.getChunkSize() == null ? LoanCOBConstant.DEFAULT_CHUNK_SIZE : partition.getChunkSize();
+        final List<Throwable> errors = new ArrayList<>();
+        final ActionContext actionContext = ThreadLocalContextUtil.getActionContext();
+        ThreadLocalContextUtil.setActionContext(ActionContext.COB);
+        try {
+            List<Long> loanIds = retrieveChunk(partition.getResumeAfterId(), partition.getRangeEnd(), chunkSize);
+            while (!loanIds.isEmpty()) {
+                final Long chunkEnd = loanIds.get(loanIds.size() - 1);
+                processChunk(partition.getId(), loanIds, chunkEnd, businessSteps, errors);
+                loanIds = retrieveChunk(chunkEnd, partition.getRangeEnd(), chunkSize);
+            }
+        } finally {
+            ThreadLocalContextUtil.setActionContext(actionContext);
+        }
+        return errors;
+    }
+
+    private List<Long> retrieveChunk(final Long afterId, final Long rangeEnd, final int chunkSize) {
+        final String sql = "select id from m_loan where loan_status_id = ? and id > ? and id <= ? order by id "
+                + this.sqlGenerator.limit(chunkSize);
+        return this.jdbcTemplate.queryForList(sql, Long.class, LoanStatus.ACTIVE.getValue(), afterId, rangeEnd);
+    }
+
+    private void processChunk(final Long partitionId, final List<Long> loanIds, final Long chunkEnd,
+            final List<LoanCOBBusinessStep> businessSteps, final List<Throwable> errors) {
+        try {
+            this.transactionTemplate.executeWithoutResult(status -> {
+                for (final Long loanId : loanIds) {
+                    processLoan(loanId, businessSteps);
+                }
+                this.batchPartitionService.updateCheckpoint(partitionId, chunkEnd);
+            });
+        } catch (final BatchPartitionOwnershipLostException e) {
+            throw e;
+        } catch (final RuntimeException e) {
+            // The chunk was rolled back as a whole; isolate the failing loan(s) by re-running the chunk loan by loan
+            log.warn("Loan COB: chunk ending with loan {} failed, re-processing its loans one by one", chunkEnd, e);
+            for (final Long loanId : loanIds) {
+                try {
+                    this.transactionTemplate.executeWithoutResult(status -> processLoan(loanId, businessSteps));
+                } catch (final RuntimeException loanException) {
+                    log.error("Loan COB failed for loan {}", loanId, loanException);
+                    errors.add(loanException);
+                }
+            }
+            this.transactionTemplate
+                    .executeWithoutResult(status -> this.batchPartitionService.updateCheckpoint(partitionId, chunkEnd));
+        }
+    }
+
+    private void processLoan(final Long loanId, final List<LoanCOBBusinessStep> businessSteps) {
+        final Loan loan = this.loanRepositoryWrapper.findOneWithNotFoundDetection(loanId, true);
+        this.cobBusinessStepService.run(businessSteps, loan);
+    }
+}
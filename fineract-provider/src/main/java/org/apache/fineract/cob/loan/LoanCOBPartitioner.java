@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.loan;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.apache.fineract.cob.data.BatchPartitionRange;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Splits the active loans into consecutive ID ranges holding (at most) {@code partitionSize} loans each. Only the
+ * range boundaries are read, the loan IDs themselves stay in the database.
+ */
+@Component
+@RequiredArgsConstructor
+public class LoanCOBPartitioner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseSpecificSQLGenerator sqlGenerator;
+
+    public List<BatchPartitionRange> getPartitionRanges(final int partitionSize) {
+        final Integer activeStatus = LoanStatus.ACTIVE.getValue();
+        final String rangeEndSql = "select id from m_loan where loan_status_id = ? and id >= ? order by id "
+                + this.sqlGenerator.limit(1, partitionSize - 1);
+        final List<BatchPartitionRange> ranges = new ArrayList<>();
+
+        Long rangeStart = this.jdbcTemplate.queryForObject("select min(id) from m_loan where loan_status_id = ?", Long.class,
+                activeStatus);
+        while (rangeStart != null) {
+            final List<Long> rangeEnd = this.jdbcTemplate.queryForList(rangeEndSql, Long.class, activeStatus, rangeStart);
+            if (rangeEnd.isEmpty()) {
+                final Long lastId = this.jdbcTemplate.queryForObject("select max(id) from m_loan where loan_status_id = ? and id >= ?",
+                        Long.class, activeStatus, rangeStart);
+                ranges.add(new BatchPartitionRange(rangeStart, lastId));
+                break;
+            }
+            ranges.add(new BatchPartitionRange(rangeStart, rangeEnd.get(0)));
+            rangeStart = this.jdbcTemplate.queryForObject("select min(id) from m_loan where loan_status_id = ? and id > ?", Long.class,
+                    activeStatus, rangeEnd.get(0));
+        }
+        return ranges;
+    }
+}
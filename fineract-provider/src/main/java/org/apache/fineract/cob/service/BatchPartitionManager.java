@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fineract.cob.data.BatchPartition;
+import org.apache.fineract.cob.data.BatchPartitionRange;
+import org.apache.fineract.cob.domain.BatchPartitionStatus;
+import org.apache.fineract.cob.exception.BatchPartitionFailedException;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.FineractContext;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Manager side of a partitioned batch run: writes the ID-range partitions of the run into
+ * <code>m_batch_job_partition</code>, works on them itself when this node is a batch worker and waits until every
+ * partition has been finished by some node. Partitions of a worker that stopped reporting progress are handed back to
+ * the pool.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchPartitionManager {
+
+    private final BatchPartitionService batchPartitionService;
+    private final BatchPartitionWorker batchPartitionWorker;
+    private final FineractProperties fineractProperties;
+
+    public void execute(final String jobName, final String runKey, final String scope, final Integer chunkSize, final int localThreads,
+            final Supplier<List<BatchPartitionRange>> rangeSupplier) throws JobExecutionException {
+        final List<BatchPartition> unfinished = this.batchPartitionService.retrieveOrCreatePartitions(jobName, runKey, scope, chunkSize,
+                rangeSupplier);
+        if (unfinished.isEmpty()) {
+            log.info("{}: nothing left to process for run {}", jobName, runKey);
+            return;
+        }
+        log.info("{}: {} partition(s) of run {} available to batch workers", jobName, unfinished.size(), runKey);
+
+        final List<Throwable> errors = new ArrayList<>();
+        try {
+            awaitCompletion(jobName, runKey, localThreads);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            errors.add(e);
+        } catch (final ExecutionException e) {
+            errors.add(e.getCause());
+        }
+        for (final BatchPartition partition : this.batchPartitionService.retrievePartitions(jobName, runKey)) {
+            if (partition.getStatus() == BatchPartitionStatus.FAILED || partition.getErrorCount() > 0) {
+                errors.add(new BatchPartitionFailedException(partition));
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new JobExecutionException(errors);
+        }
+    }
+
+    private void awaitCompletion(final String jobName, final String runKey, final int localThreads)
+            throws InterruptedException, ExecutionException {
+        final boolean worker = this.fineractProperties.getMode().isBatchWorkerEnabled();
+        final FineractProperties.FineractPartitionProperties partitionProperties = this.fineractProperties.getPartition();
+        while (true) {
+            int pending = 0;
+            int running = 0;
+            for (final BatchPartition partition : this.batchPartitionService.retrievePartitions(jobName, runKey)) {
+                if (partition.getStatus() == BatchPartitionStatus.PENDING) {
+                    pending++;
+                } else if (partition.getStatus() == BatchPartitionStatus.RUNNING) {
+                    running++;
+                }
+            }
+            if (pending + running == 0) {
+                return;
+            }
+            if (pending > 0 && worker) {
+                processLocally(jobName, runKey, localThreads);
+                continue;
+            }
+            final int released = this.batchPartitionService.releaseStalePartitions(jobName, runKey,
+                    DateUtils.getLocalDateTimeOfSystem().minusSeconds(partitionProperties.getStaleTimeout()));
+            if (released > 0) {
+                log.warn("{}: released {} stale partition(s) of run {}", jobName, released, runKey);
+                continue;
+            }
+            log.debug("{}: waiting for {} pending and {} running partition(s) of run {}", jobName, pending, running, runKey);
+            TimeUnit.SECONDS.sleep(partitionProperties.getWorkerPollInterval());
+        }
+    }
+
+    private void processLocally(final String jobName, final String runKey, final int localThreads)
+            throws InterruptedException, ExecutionException {
+        final FineractContext context = ThreadLocalContextUtil.getContext();
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        final Callable<Integer> claimLoop = () -> {
+            ThreadLocalContextUtil.init(context);
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            try {
+                return this.batchPartitionWorker.processPendingPartitions(jobName, runKey);
+            } finally {
+                ThreadLocalContextUtil.reset();
+                SecurityContextHolder.clearContext();
+            }
+        };
+        final List<Callable<Integer>> claimLoops = new ArrayList<>();
+        for (int i = 0; i < Math.max(localThreads, 1); i++) {
+            claimLoops.add(claimLoop);
+        }
+        final ExecutorService executorService = Executors.newFixedThreadPool(claimLoops.size());
+        try {
+            for (final Future<Integer> result : executorService.invokeAll(claimLoops)) {
+                result.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import org.apache.fineract.cob.data.BatchPartition;
+import org.apache.fineract.cob.data.BatchPartitionRange;
+
+public interface BatchPartitionService {
+
+    /**
+     * Returns the unfinished partitions of a run. Partitions are only created (from the supplied ranges) when the run
+     * has no partitions yet, so a restarted run picks up the partitions and checkpoints of the crashed one. Failed
+     * partitions of the run are released again so they get retried. The optional <code>scope</code> is a job specific
+     * filter (e.g. an office hierarchy) handed to the workers along with the ranges.
+     */
+    List<BatchPartition> retrieveOrCreatePartitions(String jobName, String runKey, String scope, Integer chunkSize,
+            Supplier<List<BatchPartitionRange>> rangeSupplier);
+
+    List<BatchPartition> retrievePartitions(String jobName, String runKey);
+
+    /**
+     * Claims the next pending partition of the given job (and run, when <code>runKey</code> is not null) for this node.
+     * The row is locked with <code>SKIP LOCKED</code> so concurrent workers on other nodes never claim the same
+     * partition and never wait on each other.
+     */
+    Optional<BatchPartition> claimNextPartition(String jobName, String runKey);
+
+    /**
+     * Hands partitions back to the pool whose worker has not reported progress since <code>staleBefore</code>, e.g.
+     * because its node died. They resume from their last checkpoint.
+     */
+    int releaseStalePartitions(String jobName, String runKey, LocalDateTime staleBefore);
+
+    /**
+     * Moves the checkpoint of a partition running on this node.
+     *
+     * @throws org.apache.fineract.cob.exception.BatchPartitionOwnershipLostException
+     *             when the partition is no longer running on this node
+     */
+    void updateCheckpoint(Long partitionId, Long lastProcessedId);
+
+    /**
+     * @return false when the partition is no longer running on this node, so its status was left alone
+     */
+    boolean markCompleted(Long partitionId, int errorCount, String errorMessage);
+
+    /**
+     * @return false when the partition is no longer running on this node, so its status was left alone
+     */
+    boolean markFailed(Long partitionId, String errorMessage);
+}
@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.fineract.cob.data.BatchPartition;
+import org.apache.fineract.cob.data.BatchPartitionRange;
+import org.apache.fineract.cob.domain.BatchPartitionStatus;
+import org.apache.fineract.cob.exception.BatchPartitionOwnershipLostException;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.JdbcSupport;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class BatchPartitionServiceImpl implements BatchPartitionService {
+
+    private static final BatchPartitionMapper PARTITION_MAPPER = new BatchPartitionMapper();
+    private static final int ERROR_MESSAGE_MAX_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseSpecificSQLGenerator sqlGenerator;
+    private final FineractProperties fineractProperties;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<BatchPartition> retrieveOrCreatePartitions(final String jobName, final String runKey, final String scope,
+            final Integer chunkSize, final Supplier<List<BatchPartitionRange>> rangeSupplier) {
+        final Long existing = this.jdbcTemplate.queryForObject(
+                "select count(*) from m_batch_job_partition where job_name = ? and run_key = ?", Long.class, jobName, runKey);
+        if (existing == null || existing == 0L) {
+            final List<BatchPartitionRange> ranges = rangeSupplier.get();
+            final String sql = "insert into m_batch_job_partition (job_name, run_key, partition_no, range_start, range_end, status, "
+                    + "scope, chunk_size, error_count, created_date) values (?, ?, ?, ?, ?, ?, ?, ?, 0, ?)";
+            int partitionNo = 0;
+            for (final BatchPartitionRange range : ranges) {
+                this.jdbcTemplate.update(sql, jobName, runKey, ++partitionNo, range.getRangeStart(), range.getRangeEnd(),
+                        BatchPartitionStatus.PENDING.name(), scope, chunkSize, DateUtils.getLocalDateTimeOfSystem());
+            }
+        } else {
+            this.jdbcTemplate.update(
+                    "update m_batch_job_partition set status = ?, error_count = 0, error_message = null, lastmodified_date = ? "
+                            + "where job_name = ? and run_key = ? and status = ?",
+                    BatchPartitionStatus.PENDING.name(), DateUtils.getLocalDateTimeOfSystem(), jobName, runKey,
+                    BatchPartitionStatus.FAILED.name());
+        }
+        return this.jdbcTemplate.query("select " + PARTITION_MAPPER.schema()
+                + " where p.job_name = ? and p.run_key = ? and p.status <> ? order by p.partition_no", PARTITION_MAPPER, jobName, runKey,
+                BatchPartitionStatus.COMPLETED.name());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BatchPartition> retrievePartitions(final String jobName, final String runKey) {
+        return this.jdbcTemplate.query(
+                "select " + PARTITION_MAPPER.schema() + " where p.job_name = ? and p.run_key = ? order by p.partition_no", PARTITION_MAPPER,
+                jobName, runKey);
+    }
+
+    /**
+     * Selecting and flagging the partition happen in one short transaction: once it commits the row is no longer
+     * PENDING, so the row lock is only needed to keep two workers from flagging the same row concurrently.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Optional<BatchPartition> claimNextPartition(final String jobName, final String runKey) {
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder.append("select ").append(PARTITION_MAPPER.schema()).append(" where p.job_name = ? and p.status = ? ");
+        final List<BatchPartition> partitions;
+        if (runKey == null) {
+            sqlBuilder.append(" order by p.id ").append(this.sqlGenerator.limit(1)).append(' ')
+                    .append(this.sqlGenerator.forUpdateSkipLocked());
+            partitions = this.jdbcTemplate.query(sqlBuilder.toString(), PARTITION_MAPPER, jobName, BatchPartitionStatus.PENDING.name());
+        } else {
+            sqlBuilder.append(" and p.run_key = ? order by p.id ").append(this.sqlGenerator.limit(1)).append(' ')
+                    .append(this.sqlGenerator.forUpdateSkipLocked());
+            partitions = this.jdbcTemplate.query(sqlBuilder.toString(), PARTITION_MAPPER, jobName, BatchPartitionStatus.PENDING.name(),
+                    runKey);
+        }
+        if (partitions.isEmpty()) {
+            return Optional.empty();
+        }
+        final BatchPartition partition = partitions.get(0);
+        this.jdbcTemplate.update("update m_batch_job_partition set status = ?, node_id = ?, lastmodified_date = ? where id = ?",
+                BatchPartitionStatus.RUNNING.name(), this.fineractProperties.getNodeId(), DateUtils.getLocalDateTimeOfSystem(),
+                partition.getId());
+        return Optional.of(partition);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int releaseStalePartitions(final String jobName, final String runKey, final LocalDateTime staleBefore) {
+        return this.jdbcTemplate.update(
+                "update m_batch_job_partition set status = ?, node_id = null, lastmodified_date = ? where job_name = ? and run_key = ? "
+                        + "and status = ? and coalesce(lastmodified_date, created_date) < ?",
+                BatchPartitionStatus.PENDING.name(), DateUtils.getLocalDateTimeOfSystem(), jobName, runKey,
+                BatchPartitionStatus.RUNNING.name(), staleBefore);
+    }
+
+    /**
+     * Joins the caller's transaction so the checkpoint is committed atomically with the chunk it describes. It also
+     * serves as the heartbeat of the partition's worker. Only the owner of a running partition may move its
+     * checkpoint; once the partition was released as stale the caller gets a
+     * {@link BatchPartitionOwnershipLostException} and has to stop working on it.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void updateCheckpoint(final Long partitionId, final Long lastProcessedId) {
+        final int updated = this.jdbcTemplate.update(
+                "update m_batch_job_partition set last_processed_id = ?, lastmodified_date = ? where id = ? and node_id = ? and status = ?",
+                lastProcessedId, DateUtils.getLocalDateTimeOfSystem(), partitionId, this.fineractProperties.getNodeId(),
+                BatchPartitionStatus.RUNNING.name());
+        if (updated == 0) {
+            throw new BatchPartitionOwnershipLostException(partitionId);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean markCompleted(final Long partitionId, final int errorCount, final String errorMessage) {
+        return updateStatus(partitionId, BatchPartitionStatus.COMPLETED, errorCount, errorMessage);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean markFailed(final Long partitionId, final String errorMessage) {
+        return updateStatus(partitionId, BatchPartitionStatus.FAILED, 1, errorMessage);
+    }
+
+    private boolean updateStatus(final Long partitionId, final BatchPartitionStatus status, final int errorCount,
+            final String errorMessage) {
+        return this.jdbcTemplate.update(
+                "update m_batch_job_partition set status = ?, error_count = ?, error_message = ?, lastmodified_date = ? "
+                        + "where id = ? and node_id = ? and status = ?",
+                status.name(), errorCount, StringUtils.abbreviate(errorMessage, ERROR_MESSAGE_MAX_LENGTH),
+                DateUtils.getLocalDateTimeOfSystem(), partitionId, this.fineractProperties.getNodeId(),
+                BatchPartitionStatus.RUNNING.name()) > 0;
+    }
+
+    private static final class BatchPartitionMapper implements RowMapper<BatchPartition> {
+
+        public String schema() {
+            return " p.id as id, p.job_name as jobName, p.run_key as runKey, p.partition_no as partitionNo, p.range_start as rangeStart,"
+                    + " p.range_end as rangeEnd, p.last_processed_id as lastProcessedId, p.status as status, p.scope as scope,"
+                    + " p.chunk_size as chunkSize, p.error_count as errorCount, p.error_message as errorMessage"
+                    + " from m_batch_job_partition p ";
+        }
+
+        @Override
+        public BatchPartition mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+            return new BatchPartition(rs.getLong("id"), rs.getString("jobName"), rs.getString("runKey"), rs.getInt("partitionNo"),
+                    rs.getLong("rangeStart"), rs.getLong("rangeEnd"), JdbcSupport.getLong(rs, "lastProcessedId"),
+                    BatchPartitionStatus.valueOf(rs.getString("status")), rs.getString("scope"), JdbcSupport.getInteger(rs, "chunkSize"),
+                    rs.getInt("errorCount"), rs.getString("errorMessage"));
+        }
+    }
+}
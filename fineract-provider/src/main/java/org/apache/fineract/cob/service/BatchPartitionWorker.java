@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.fineract.cob.data.BatchPartition;
+import org.apache.fineract.cob.exception.BatchPartitionOwnershipLostException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Claims pending partitions and runs them through the {@link BatchPartitionHandler} of their job. Used both by the
+ * manager node of a run and by the {@link BatchPartitionWorkerPoller} of the other batch worker nodes.
+ */
+@Slf4j
+@Component
+public class BatchPartitionWorker {
+
+    private final BatchPartitionService batchPartitionService;
+    private final Map<String, BatchPartitionHandler> handlers;
+
+    @Autowired
+    public BatchPartitionWorker(final BatchPartitionService batchPartitionService, final List<BatchPartitionHandler> handlers) {
+        this.batchPartitionService = batchPartitionService;
+        this.handlers = handlers.stream().collect(Collectors.toMap(BatchPartitionHandler::getJobName, Function.identity()));
+    }
+
+    public Collection<String> getJobNames() {
+        return this.handlers.keySet();
+    }
+
+    /**
+     * Processes pending partitions of the job (of any run when <code>runKey</code> is null) until none is left.
+     *
+     * @return the number of partitions processed by this call
+     */
+    public int processPendingPartitions(final String jobName, final String runKey) {
+        final BatchPartitionHandler handler = this.handlers.get(jobName);
+        if (handler == null) {
+            throw new IllegalStateException("No partition handler registered for job " + jobName);
+        }
+        int processed = 0;
+        Optional<BatchPartition> partition = this.batchPartitionService.claimNextPartition(jobName, runKey);
+        while (partition.isPresent()) {
+            process(handler, partition.get());
+            processed++;
+            partition = this.batchPartitionService.claimNextPartition(jobName, runKey);
+        }
+        return processed;
+    }
+
+    private void process(final BatchPartitionHandler handler, final BatchPartition partition) {
+        log.info("Processing partition {} of run {} of job {} (ids {} - {}), resuming after {}", partition.getPartitionNo(),
+                partition.getRunKey(), partition.getJobName(), partition.getRangeStart(), partition.getRangeEnd(),
+                partition.getResumeAfterId());
+        try {
+            final List<Throwable> errors = handler.process(partition);
+            if (!this.batchPartitionService.markCompleted(partition.getId(), errors.size(),
+                    errors.isEmpty() ? null : ExceptionUtils.getRootCauseMessage(errors.get(0)))) {
+                logOwnershipLost(partition);
+            }
+        } catch (final BatchPartitionOwnershipLostException e) {
+            // the partition was released as stale and is (being) processed by another worker now
+            logOwnershipLost(partition);
+        } catch (final RuntimeException e) {
+            // leave the partition resumable from its last checkpoint
+            log.error("Partition {} of run {} of job {} aborted", partition.getPartitionNo(), partition.getRunKey(),
+                    partition.getJobName(), e);
+            if (!this.batchPartitionService.markFailed(partition.getId(), ExceptionUtils.getRootCauseMessage(e))) {
+                logOwnershipLost(partition);
+            }
+        }
+    }
+
+    private void logOwnershipLost(final BatchPartition partition) {
+        log.warn("Partition {} of run {} of job {} was released as stale and taken over by another worker, stopped working on it",
+                partition.getPartitionNo(), partition.getRunKey(), partition.getJobName());
+    }
+}
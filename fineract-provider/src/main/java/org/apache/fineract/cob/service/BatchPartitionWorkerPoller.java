@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fineract.infrastructure.businessdate.domain.BusinessDateType;
+import org.apache.fineract.infrastructure.businessdate.service.BusinessDateReadPlatformService;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.security.service.TenantDetailsService;
+import org.apache.fineract.useradministration.domain.AppUser;
+import org.apache.fineract.useradministration.domain.AppUserRepositoryWrapper;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.security.core.authority.mapping.NullAuthoritiesMapper;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets every node running in batch worker mode take part in partitioned batch runs, whichever node the Quartz job
+ * fired on: polls all tenants for pending partitions and processes them with the configured number of worker threads.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BatchPartitionWorkerPoller {
+
+    private final FineractProperties fineractProperties;
+    private final TenantDetailsService tenantDetailsService;
+    private final AppUserRepositoryWrapper userRepository;
+    private final BusinessDateReadPlatformService businessDateReadPlatformService;
+    private final BatchPartitionWorker batchPartitionWorker;
+    private final GrantedAuthoritiesMapper authoritiesMapper = new NullAuthoritiesMapper();
+    private ScheduledExecutorService pollingExecutorService;
+    private ExecutorService workerExecutorService;
+
+    @PostConstruct
+    public void startPolling() {
+        if (!this.fineractProperties.getMode().isBatchWorkerEnabled() || this.batchPartitionWorker.getJobNames().isEmpty()) {
+            return;
+        }
+        final FineractProperties.FineractPartitionProperties partitionProperties = this.fineractProperties.getPartition();
+        this.workerExecutorService = Executors.newFixedThreadPool(Math.max(partitionProperties.getWorkerThreads(), 1));
+        this.pollingExecutorService = Executors.newSingleThreadScheduledExecutor();
+        this.pollingExecutorService.scheduleWithFixedDelay(this::poll, partitionProperties.getWorkerPollInterval(),
+                partitionProperties.getWorkerPollInterval(), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stopPolling() {
+        if (this.pollingExecutorService != null) {
+            this.pollingExecutorService.shutdownNow();
+            this.workerExecutorService.shutdownNow();
+        }
+    }
+
+    private void poll() {
+        try {
+            for (final FineractPlatformTenant tenant : this.tenantDetailsService.findAllTenants()) {
+                pollTenant(tenant);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final RuntimeException | ExecutionException e) {
+            // never let an exception cancel the periodic polling
+            log.error("Polling for batch job partitions failed", e);
+        } finally {
+            ThreadLocalContextUtil.reset();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void pollTenant(final FineractPlatformTenant tenant) throws InterruptedException, ExecutionException {
+        ThreadLocalContextUtil.setTenant(tenant);
+        final AppUser user = this.userRepository.fetchSystemUser();
+        final UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user, user.getPassword(),
+                this.authoritiesMapper.mapAuthorities(user.getAuthorities()));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        final HashMap<BusinessDateType, LocalDate> businessDates = this.businessDateReadPlatformService.getBusinessDates();
+        ThreadLocalContextUtil.setBusinessDates(businessDates);
+
+        final List<Callable<Integer>> claimLoops = new ArrayList<>();
+        for (final String jobName : this.batchPartitionWorker.getJobNames()) {
+            for (int i = 0; i < this.fineractProperties.getPartition().getWorkerThreads(); i++) {
+                claimLoops.add(() -> {
+                    ThreadLocalContextUtil.setTenant(tenant);
+                    ThreadLocalContextUtil.setBusinessDates(businessDates);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    try {
+                        return this.batchPartitionWorker.processPendingPartitions(jobName, null);
+                    } finally {
+                        ThreadLocalContextUtil.reset();
+                        SecurityContextHolder.clearContext();
+                    }
+                });
+            }
+        }
+        int processed = 0;
+        for (final Future<Integer> result : this.workerExecutorService.invokeAll(claimLoops)) {
+            processed += result.get();
+        }
+        if (processed > 0) {
+            log.info("Processed {} batch job partition(s) of tenant {}", processed, tenant.getTenantIdentifier());
+        }
+    }
+}
@@ -42,10 +42,9 @@ import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResultBuilder;
 import org.apache.fineract.infrastructure.core.serialization.ToApiJsonSerializer;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
-import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
-import org.apache.fineract.infrastructure.hooks.event.HookEvent;
-import org.apache.fineract.infrastructure.hooks.event.HookEventSource;
+import org.apache.fineract.infrastructure.hooks.service.HookOutboxService;
 import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
+import org.apache.fineract.portfolio.search.service.SearchIndexService;
 import org.apache.fineract.useradministration.domain.AppUser;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
@@ -63,6 +62,8 @@ public class SynchronousCommandProcessingService implements CommandProcessingSer
     private final CommandSourceRepository commandSourceRepository;
     private final ConfigurationDomainService configurationDomainService;
     private final CommandHandlerProvider commandHandlerProvider;
+    private final HookOutboxService hookOutboxService;
+    private final SearchIndexService searchIndexService;
 
     @Transactional
     @Override
@@ -127,7 +128,8 @@ public class SynchronousCommandProcessingService implements CommandProcessingSer
         }
         result.setRollbackTransaction(null);
 
-        publishEvent(wrapper.entityName(), wrapper.actionName(), command, result);
+        publishEvent(wrapper.entityName(), wrapper.actionName(), command, result, false);
+        this.searchIndexService.scheduleReindex(wrapper.entityName(), wrapper.actionName(), result);
 
         return result;
     }
@@ -218,16 +220,16 @@ public class SynchronousCommandProcessingService implements CommandProcessingSer
             ex = new ErrorInfo(500, 9999, "{\"Exception\": " + t.toString() + "}");
         }
 
-        publishEvent(wrapper.entityName(), wrapper.actionName(), command, ex);
+        // the command's transaction is about to roll back, the error event has to survive it
+        publishEvent(wrapper.entityName(), wrapper.actionName(), command, ex, true);
     }
 
-    private void publishEvent(final String entityName, final String actionName, JsonCommand command, final Object result) {
+    private void publishEvent(final String entityName, final String actionName, JsonCommand command, final Object result,
+            final boolean independentTransaction) {
         Gson gson = new Gson();
         try {
             final AppUser appUser = this.context.authenticatedUser(CommandWrapper.wrap(actionName, entityName, null, null));
 
-            final HookEventSource hookEventSource = new HookEventSource(entityName, actionName);
-
             // TODO: Add support for publishing array events
             if (command.json() != null && command.json().startsWith("{")) {
                 Type type = new TypeToken<Map<String, Object>>() {
@@ -266,10 +268,11 @@ public class SynchronousCommandProcessingService implements CommandProcessingSer
 
                 final String serializedResult = this.toApiResultJsonSerializer.serialize(reqmap);
 
-                final HookEvent applicationEvent = new HookEvent(hookEventSource, serializedResult, appUser,
-                        ThreadLocalContextUtil.getContext());
-
-                applicationContext.publishEvent(applicationEvent);
+                if (independentTransaction) {
+                    this.hookOutboxService.enqueueInNewTransaction(entityName, actionName, serializedResult, appUser);
+                } else {
+                    this.hookOutboxService.enqueue(entityName, actionName, serializedResult, appUser);
+                }
             }
         } catch (Exception e) {
             log.error("Error", e);
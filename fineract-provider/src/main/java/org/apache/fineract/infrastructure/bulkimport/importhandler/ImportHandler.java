@@ -24,4 +24,12 @@ import org.apache.poi.ss.usermodel.Workbook;
 public interface ImportHandler {
 
     Count process(Workbook workbook, String locale, String dateFormat);
+
+    /**
+     * Processes the workbook of the given import document. Handlers that import in chunks report their progress on the
+     * document while they run; the others only report it once they are done.
+     */
+    default Count process(Workbook workbook, String locale, String dateFormat, Long importDocumentId) {
+        return process(workbook, locale, dateFormat);
+    }
 }
@@ -19,12 +19,17 @@
 package org.apache.fineract.infrastructure.bulkimport.importhandler.loanrepayment;
 
 import com.google.common.base.Splitter;
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonObject;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.apache.fineract.commands.domain.CommandWrapper;
 import org.apache.fineract.commands.service.CommandWrapperBuilder;
 import org.apache.fineract.commands.service.PortfolioCommandSourceWritePlatformService;
@@ -34,7 +39,12 @@ import org.apache.fineract.infrastructure.bulkimport.data.Count;
 import org.apache.fineract.infrastructure.bulkimport.importhandler.ImportHandler;
 import org.apache.fineract.infrastructure.bulkimport.importhandler.ImportHandlerUtils;
 import org.apache.fineract.infrastructure.bulkimport.importhandler.helper.DateSerializer;
+import org.apache.fineract.infrastructure.bulkimport.service.BulkImportWorkbookService;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.exception.GeneralPlatformDomainRuleException;
 import org.apache.fineract.infrastructure.core.serialization.GoogleGsonSerializerHelper;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JobExecuter;
 import org.apache.fineract.portfolio.loanaccount.data.LoanTransactionData;
 import org.apache.fineract.portfolio.loanaccount.service.LoanReadPlatformService;
 import org.apache.poi.ss.usermodel.Cell;
@@ -47,49 +57,67 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+/**
+ * Imports loan repayments in chunks on the shared job executor. Rows of the same loan always end up in the same chunk and
+ * are posted in sheet order, so the per-loan ordering of the original sequential import is kept. The sheet itself is
+ * only touched by the calling thread.
+ */
 @Service
 public class LoanRepaymentImportHandler implements ImportHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(LoanRepaymentImportHandler.class);
-    private Workbook workbook;
-    private List<LoanTransactionData> loanRepayments;
-    private Long loanAccountId;
+    private static final String IMPORT_NAME = "LOAN_REPAYMENT_IMPORT";
     private final LoanReadPlatformService loanReadPlatformService;
-
     private final PortfolioCommandSourceWritePlatformService commandsSourceWritePlatformService;
+    private final BulkImportWorkbookService bulkImportWorkbookService;
+    private final FineractProperties fineractProperties;
+    private final JobExecuter jobExecuter;
 
     @Autowired
     public LoanRepaymentImportHandler(final PortfolioCommandSourceWritePlatformService commandsSourceWritePlatformService,
-            final LoanReadPlatformService loanReadPlatformService) {
+            final LoanReadPlatformService loanReadPlatformService, final BulkImportWorkbookService bulkImportWorkbookService,
+            final FineractProperties fineractProperties, final JobExecuter jobExecuter) {
         this.commandsSourceWritePlatformService = commandsSourceWritePlatformService;
         this.loanReadPlatformService = loanReadPlatformService;
+        this.bulkImportWorkbookService = bulkImportWorkbookService;
+        this.fineractProperties = fineractProperties;
+        this.jobExecuter = jobExecuter;
     }
 
     @Override
     public Count process(Workbook workbook, String locale, String dateFormat) {
-        this.workbook = workbook;
-        this.loanRepayments = new ArrayList<>();
-        readExcelFile(locale, dateFormat);
-        return importEntity(dateFormat);
+        return process(workbook, locale, dateFormat, null);
+    }
+
+    @Override
+    public Count process(Workbook workbook, String locale, String dateFormat, Long importDocumentId) {
+        final List<LoanTransactionData> loanRepayments = readExcelFile(workbook, locale, dateFormat);
+        return importEntity(workbook, loanRepayments, dateFormat, importDocumentId);
     }
 
-    public void readExcelFile(String locale, String dateFormat) {
+    private List<LoanTransactionData> readExcelFile(Workbook workbook, String locale, String dateFormat) {
+        final List<LoanTransactionData> loanRepayments = new ArrayList<>();
+        final Map<String, Long> loanIdsByAccountNumber = new HashMap<>();
         Sheet loanRepaymentSheet = workbook.getSheet(TemplatePopulateImportConstants.LOAN_REPAYMENT_SHEET_NAME);
         Integer noOfEntries = ImportHandlerUtils.getNumberOfRows(loanRepaymentSheet, LoanRepaymentConstants.AMOUNT_COL);
         for (int rowIndex = 1; rowIndex <= noOfEntries; rowIndex++) {
             Row row;
             row = loanRepaymentSheet.getRow(rowIndex);
             if (ImportHandlerUtils.isNotImported(row, LoanRepaymentConstants.STATUS_COL)) {
-                loanRepayments.add(readLoanRepayment(row, locale, dateFormat));
+                loanRepayments.add(readLoanRepayment(workbook, row, locale, dateFormat, loanIdsByAccountNumber));
             }
         }
+        return loanRepayments;
     }
 
-    private LoanTransactionData readLoanRepayment(Row row, String locale, String dateFormat) {
+    private LoanTransactionData readLoanRepayment(Workbook workbook, Row row, String locale, String dateFormat,
+            Map<String, Long> loanIdsByAccountNumber) {
+        Long loanAccountId = null;
         String loanaccountInfo = ImportHandlerUtils.readAsString(LoanRepaymentConstants.LOAN_ACCOUNT_NO_COL, row);
         if (loanaccountInfo != null) {
             List<String> loanAccountAr = Splitter.on('-').splitToList(loanaccountInfo);
-            loanAccountId = this.loanReadPlatformService.retrieveLoanIdByAccountNumber(loanAccountAr.get(0));
+            loanAccountId = loanIdsByAccountNumber.computeIfAbsent(loanAccountAr.get(0),
+                    this.loanReadPlatformService::retrieveLoanIdByAccountNumber);
         }
         BigDecimal repaymentAmount = null;
         if (ImportHandlerUtils.readAsDouble(LoanRepaymentConstants.AMOUNT_COL, row) != null) {
@@ -108,18 +136,85 @@ public class LoanRepaymentImportHandler implements ImportHandler {
                 receiptNumber, bankNumber, loanAccountId, "", row.getRowNum(), locale, dateFormat);
     }
 
-    public Count importEntity(String dateFormat) {
+    private Count importEntity(Workbook workbook, List<LoanTransactionData> loanRepayments, String dateFormat, Long importDocumentId) {
         Sheet loanRepaymentSheet = workbook.getSheet(TemplatePopulateImportConstants.LOAN_REPAYMENT_SHEET_NAME);
         int successCount = 0;
         int errorCount = 0;
-        String errorMessage = "";
         GsonBuilder gsonBuilder = GoogleGsonSerializerHelper.createGsonBuilder();
         gsonBuilder.registerTypeAdapter(LocalDate.class, new DateSerializer(dateFormat));
+        final Gson gson = gsonBuilder.create();
 
-        for (LoanTransactionData loanRepayment : loanRepayments) {
+        final List<List<LoanTransactionData>> chunks = chunkByLoan(loanRepayments);
+        if (!chunks.isEmpty()) {
+            final List<RowResult> results = new ArrayList<>(loanRepayments.size());
+            final AtomicInteger importedCount = new AtomicInteger();
+            final int workerThreads = Math.max(1, Math.min(this.fineractProperties.getBulkImport().getWorkerThreads(), chunks.size()));
             try {
+                this.jobExecuter.executeEach(IMPORT_NAME, chunks, JobExecuter.Workload.IO_BOUND, workerThreads, chunk -> {
+                    final List<RowResult> chunkResults = importChunk(chunk, gson);
+                    final int chunkImportedCount = (int) chunkResults.stream().filter(result -> result.errorMessage == null).count();
+                    // the sheet is left to the calling thread, workers only collect their rows and report the progress
+                    synchronized (results) {
+                        results.addAll(chunkResults);
+                        final int imported = importedCount.addAndGet(chunkImportedCount);
+                        if (importDocumentId != null) {
+                            this.bulkImportWorkbookService.updateImportProgress(importDocumentId, imported, results.size() - imported);
+                        }
+                    }
+                });
+            } catch (JobExecutionException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new GeneralPlatformDomainRuleException("error.msg.import.interrupted", "Loan repayment import was interrupted",
+                            e);
+                }
+                throw new GeneralPlatformDomainRuleException("error.msg.import.failed", "Loan repayment import failed", e);
+            }
+            for (final RowResult result : results) {
+                if (result.errorMessage == null) {
+                    successCount++;
+                    Cell statusCell = loanRepaymentSheet.getRow(result.rowIndex).createCell(LoanRepaymentConstants.STATUS_COL);
+                    statusCell.setCellValue(TemplatePopulateImportConstants.STATUS_CELL_IMPORTED);
+                    statusCell.setCellStyle(ImportHandlerUtils.getCellStyle(workbook, IndexedColors.LIGHT_GREEN));
+                } else {
+                    errorCount++;
+                    ImportHandlerUtils.writeErrorMessage(loanRepaymentSheet, result.rowIndex, result.errorMessage,
+                            LoanRepaymentConstants.STATUS_COL);
+                }
+            }
+        }
+        loanRepaymentSheet.setColumnWidth(LoanRepaymentConstants.STATUS_COL, TemplatePopulateImportConstants.SMALL_COL_SIZE);
+        ImportHandlerUtils.writeString(LoanRepaymentConstants.STATUS_COL,
+                loanRepaymentSheet.getRow(TemplatePopulateImportConstants.ROWHEADER_INDEX),
+                TemplatePopulateImportConstants.STATUS_COL_REPORT_HEADER);
+        return Count.instance(successCount, errorCount);
+    }
+
+    List<List<LoanTransactionData>> chunkByLoan(List<LoanTransactionData> loanRepayments) {
+        final Map<Long, List<LoanTransactionData>> repaymentsByLoan = new LinkedHashMap<>();
+        for (final LoanTransactionData loanRepayment : loanRepayments) {
+            repaymentsByLoan.computeIfAbsent(loanRepayment.getAccountId(), accountId -> new ArrayList<>()).add(loanRepayment);
+        }
+        final int chunkSize = Math.max(1, this.fineractProperties.getBulkImport().getChunkSize());
+        final List<List<LoanTransactionData>> chunks = new ArrayList<>();
+        List<LoanTransactionData> chunk = new ArrayList<>();
+        for (final List<LoanTransactionData> loanRows : repaymentsByLoan.values()) {
+            chunk.addAll(loanRows);
+            if (chunk.size() >= chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
 
-                JsonObject loanRepaymentJsonob = gsonBuilder.create().toJsonTree(loanRepayment).getAsJsonObject();
+    private List<RowResult> importChunk(final List<LoanTransactionData> chunk, final Gson gson) {
+        final List<RowResult> results = new ArrayList<>(chunk.size());
+        for (final LoanTransactionData loanRepayment : chunk) {
+            try {
+                JsonObject loanRepaymentJsonob = gson.toJsonTree(loanRepayment).getAsJsonObject();
                 loanRepaymentJsonob.remove("manuallyReversed");
                 loanRepaymentJsonob.remove("numberOfRepayments");
                 String payload = loanRepaymentJsonob.toString();
@@ -128,24 +223,23 @@ public class LoanRepaymentImportHandler implements ImportHandler {
                         .withJson(payload) //
                         .build(); //
                 commandsSourceWritePlatformService.logCommandSource(commandRequest);
-                successCount++;
-                Cell statusCell = loanRepaymentSheet.getRow(loanRepayment.getRowIndex()).createCell(LoanRepaymentConstants.STATUS_COL);
-                statusCell.setCellValue(TemplatePopulateImportConstants.STATUS_CELL_IMPORTED);
-                statusCell.setCellStyle(ImportHandlerUtils.getCellStyle(workbook, IndexedColors.LIGHT_GREEN));
+                results.add(new RowResult(loanRepayment.getRowIndex(), null));
             } catch (RuntimeException ex) {
-                errorCount++;
                 LOG.error("Problem occurred in importEntity function", ex);
-                errorMessage = ImportHandlerUtils.getErrorMessage(ex);
-                ImportHandlerUtils.writeErrorMessage(loanRepaymentSheet, loanRepayment.getRowIndex(), errorMessage,
-                        LoanRepaymentConstants.STATUS_COL);
+                results.add(new RowResult(loanRepayment.getRowIndex(), ImportHandlerUtils.getErrorMessage(ex)));
             }
-
         }
-        loanRepaymentSheet.setColumnWidth(LoanRepaymentConstants.STATUS_COL, TemplatePopulateImportConstants.SMALL_COL_SIZE);
-        ImportHandlerUtils.writeString(LoanRepaymentConstants.STATUS_COL,
-                loanRepaymentSheet.getRow(TemplatePopulateImportConstants.ROWHEADER_INDEX),
-                TemplatePopulateImportConstants.STATUS_COL_REPORT_HEADER);
-        return Count.instance(successCount, errorCount);
+        return results;
     }
 
+    private static final class RowResult {
+
+        private final Integer rowIndex;
+        private final String errorMessage;
+
+        private RowResult(final Integer rowIndex, final String errorMessage) {
+            this.rowIndex = rowIndex;
+            this.errorMessage = errorMessage;
+        }
+    }
 }
@@ -134,7 +134,7 @@ public class BulkImportEventListener implements ApplicationListener<BulkImportEv
         }
 
         final Workbook workbook = event.getWorkbook();
-        final Count count = importHandler.process(workbook, event.getLocale(), event.getDateFormat());
+        final Count count = importHandler.process(workbook, event.getLocale(), event.getDateFormat(), importDocument.getId());
         importDocument.update(DateUtils.getLocalDateTimeOfTenant(), count.getSuccessCount(), count.getErrorCount());
         this.importRepository.saveAndFlush(importDocument);
 
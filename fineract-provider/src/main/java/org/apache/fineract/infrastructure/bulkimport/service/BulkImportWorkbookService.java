@@ -37,4 +37,6 @@ public interface BulkImportWorkbookService {
 
     Response getOutputTemplate(String importDocumentId);
 
+    void updateImportProgress(Long importDocumentId, int successCount, int failureCount);
+
 }
@@ -18,19 +18,18 @@
  */
 package org.apache.fineract.infrastructure.bulkimport.service;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.Collection;
 import javax.ws.rs.core.Response;
-import org.apache.commons.io.IOUtils;
 import org.apache.fineract.infrastructure.bulkimport.data.BulkImportEvent;
 import org.apache.fineract.infrastructure.bulkimport.data.GlobalEntityType;
 import org.apache.fineract.infrastructure.bulkimport.data.ImportData;
@@ -88,88 +87,14 @@ public class BulkImportWorkbookServiceImpl implements BulkImportWorkbookService
             final String dateFormat) {
         try {
             if (entity != null && inputStream != null && fileDetail != null && locale != null && dateFormat != null) {
-                final ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                IOUtils.copy(inputStream, baos);
-                final byte[] bytes = baos.toByteArray();
-                InputStream clonedInputStream = new ByteArrayInputStream(bytes);
-                final BufferedInputStream bis = new BufferedInputStream(new ByteArrayInputStream(bytes));
-                final Tika tika = new Tika();
-                final TikaInputStream tikaInputStream = TikaInputStream.get(bis);
-                final String fileType = tika.detect(tikaInputStream);
-                if (!fileType.contains("msoffice") && !fileType.contains("application/vnd.ms-excel")) {
-                    // We had a problem where we tried to upload the downloaded
-                    // file from the import options, it was somehow changed the
-                    // extension we use this fix.
-                    throw new GeneralPlatformDomainRuleException("error.msg.invalid.file.extension",
-                            "Uploaded file extension is not recognized.");
-
-                }
-                Workbook workbook = new HSSFWorkbook(clonedInputStream);
-                GlobalEntityType entityType = null;
-                int primaryColumn = 0;
-                if (entity.trim().equalsIgnoreCase(GlobalEntityType.CLIENTS_PERSON.toString())) {
-                    entityType = GlobalEntityType.CLIENTS_PERSON;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.CLIENTS_ENTITY.toString())) {
-                    entityType = GlobalEntityType.CLIENTS_ENTITY;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.CENTERS.toString())) {
-                    entityType = GlobalEntityType.CENTERS;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.GROUPS.toString())) {
-                    entityType = GlobalEntityType.GROUPS;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.LOANS.toString())) {
-                    entityType = GlobalEntityType.LOANS;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.LOAN_TRANSACTIONS.toString())) {
-                    entityType = GlobalEntityType.LOAN_TRANSACTIONS;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.GUARANTORS.toString())) {
-                    entityType = GlobalEntityType.GUARANTORS;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.OFFICES.toString())) {
-                    entityType = GlobalEntityType.OFFICES;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.CHART_OF_ACCOUNTS.toString())) {
-                    entityType = GlobalEntityType.CHART_OF_ACCOUNTS;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.GL_JOURNAL_ENTRIES.toString())) {
-                    entityType = GlobalEntityType.GL_JOURNAL_ENTRIES;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.STAFF.toString())) {
-                    entityType = GlobalEntityType.STAFF;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.SHARE_ACCOUNTS.toString())) {
-                    entityType = GlobalEntityType.SHARE_ACCOUNTS;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.SAVINGS_ACCOUNT.toString())) {
-                    entityType = GlobalEntityType.SAVINGS_ACCOUNT;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.SAVINGS_TRANSACTIONS.toString())) {
-                    entityType = GlobalEntityType.SAVINGS_TRANSACTIONS;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.RECURRING_DEPOSIT_ACCOUNTS.toString())) {
-                    entityType = GlobalEntityType.RECURRING_DEPOSIT_ACCOUNTS;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.RECURRING_DEPOSIT_ACCOUNTS_TRANSACTIONS.toString())) {
-                    entityType = GlobalEntityType.RECURRING_DEPOSIT_ACCOUNTS_TRANSACTIONS;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.FIXED_DEPOSIT_ACCOUNTS.toString())) {
-                    entityType = GlobalEntityType.FIXED_DEPOSIT_ACCOUNTS;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.FIXED_DEPOSIT_TRANSACTIONS.toString())) {
-                    entityType = GlobalEntityType.FIXED_DEPOSIT_TRANSACTIONS;
-                    primaryColumn = 0;
-                } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.USERS.toString())) {
-                    entityType = GlobalEntityType.USERS;
-                    primaryColumn = 0;
-                } else {
-                    workbook.close();
-                    throw new GeneralPlatformDomainRuleException("error.msg.unable.to.find.resource", "Unable to find requested resource");
-
+                // the upload is spooled to disk once instead of being held in memory as several byte array copies
+                final Path spool = Files.createTempFile("fineract-import-", ".tmp");
+                try {
+                    Files.copy(inputStream, spool, StandardCopyOption.REPLACE_EXISTING);
+                    return importWorkbook(entity, spool, fileDetail, locale, dateFormat);
+                } finally {
+                    Files.deleteIfExists(spool);
                 }
-                return publishEvent(primaryColumn, fileDetail, bis, entityType, workbook, locale, dateFormat);
             }
             throw new GeneralPlatformDomainRuleException("error.msg.null", "One or more of the given parameters not found");
         } catch (IOException e) {
@@ -180,6 +105,94 @@ public class BulkImportWorkbookServiceImpl implements BulkImportWorkbookService
         }
     }
 
+    private Long importWorkbook(final String entity, final Path spool, final FormDataContentDisposition fileDetail, final String locale,
+            final String dateFormat) throws IOException {
+        final Tika tika = new Tika();
+        final String fileType;
+        try (TikaInputStream tikaInputStream = TikaInputStream.get(spool)) {
+            fileType = tika.detect(tikaInputStream);
+        }
+        if (!fileType.contains("msoffice") && !fileType.contains("application/vnd.ms-excel")) {
+            // We had a problem where we tried to upload the downloaded
+            // file from the import options, it was somehow changed the
+            // extension we use this fix.
+            throw new GeneralPlatformDomainRuleException("error.msg.invalid.file.extension",
+                    "Uploaded file extension is not recognized.");
+
+        }
+        final Workbook workbook;
+        try (InputStream workbookInputStream = Files.newInputStream(spool)) {
+            workbook = new HSSFWorkbook(workbookInputStream);
+        }
+        GlobalEntityType entityType = null;
+        int primaryColumn = 0;
+        if (entity.trim().equalsIgnoreCase(GlobalEntityType.CLIENTS_PERSON.toString())) {
+            entityType = GlobalEntityType.CLIENTS_PERSON;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.CLIENTS_ENTITY.toString())) {
+            entityType = GlobalEntityType.CLIENTS_ENTITY;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.CENTERS.toString())) {
+            entityType = GlobalEntityType.CENTERS;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.GROUPS.toString())) {
+            entityType = GlobalEntityType.GROUPS;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.LOANS.toString())) {
+            entityType = GlobalEntityType.LOANS;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.LOAN_TRANSACTIONS.toString())) {
+            entityType = GlobalEntityType.LOAN_TRANSACTIONS;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.GUARANTORS.toString())) {
+            entityType = GlobalEntityType.GUARANTORS;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.OFFICES.toString())) {
+            entityType = GlobalEntityType.OFFICES;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.CHART_OF_ACCOUNTS.toString())) {
+            entityType = GlobalEntityType.CHART_OF_ACCOUNTS;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.GL_JOURNAL_ENTRIES.toString())) {
+            entityType = GlobalEntityType.GL_JOURNAL_ENTRIES;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.STAFF.toString())) {
+            entityType = GlobalEntityType.STAFF;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.SHARE_ACCOUNTS.toString())) {
+            entityType = GlobalEntityType.SHARE_ACCOUNTS;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.SAVINGS_ACCOUNT.toString())) {
+            entityType = GlobalEntityType.SAVINGS_ACCOUNT;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.SAVINGS_TRANSACTIONS.toString())) {
+            entityType = GlobalEntityType.SAVINGS_TRANSACTIONS;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.RECURRING_DEPOSIT_ACCOUNTS.toString())) {
+            entityType = GlobalEntityType.RECURRING_DEPOSIT_ACCOUNTS;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.RECURRING_DEPOSIT_ACCOUNTS_TRANSACTIONS.toString())) {
+            entityType = GlobalEntityType.RECURRING_DEPOSIT_ACCOUNTS_TRANSACTIONS;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.FIXED_DEPOSIT_ACCOUNTS.toString())) {
+            entityType = GlobalEntityType.FIXED_DEPOSIT_ACCOUNTS;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.FIXED_DEPOSIT_TRANSACTIONS.toString())) {
+            entityType = GlobalEntityType.FIXED_DEPOSIT_TRANSACTIONS;
+            primaryColumn = 0;
+        } else if (entity.trim().equalsIgnoreCase(GlobalEntityType.USERS.toString())) {
+            entityType = GlobalEntityType.USERS;
+            primaryColumn = 0;
+        } else {
+            workbook.close();
+            throw new GeneralPlatformDomainRuleException("error.msg.unable.to.find.resource", "Unable to find requested resource");
+
+        }
+        try (InputStream documentInputStream = Files.newInputStream(spool)) {
+            return publishEvent(primaryColumn, fileDetail, documentInputStream, entityType, workbook, locale, dateFormat);
+        }
+    }
+
     private Long publishEvent(final Integer primaryColumn, final FormDataContentDisposition fileDetail,
             final InputStream clonedInputStreamWorkbook, final GlobalEntityType entityType, final Workbook workbook, final String locale,
             final String dateFormat) {
@@ -201,6 +214,12 @@ public class BulkImportWorkbookServiceImpl implements BulkImportWorkbookService
         return importDocument.getId();
     }
 
+    @Override
+    public void updateImportProgress(final Long importDocumentId, final int successCount, final int failureCount) {
+        this.jdbcTemplate.update("update m_import_document set success_count = ?, failure_count = ? where id = ?", successCount,
+                failureCount, importDocumentId);
+    }
+
     @Override
     public Collection<ImportData> getImports(GlobalEntityType type) {
         this.securityContext.authenticatedUser();
@@ -31,4 +31,6 @@ public interface BusinessDateReadPlatformService {
     BusinessDateData findByType(String type);
 
     HashMap<BusinessDateType, LocalDate> getBusinessDates();
+
+    void evictBusinessDates();
 }
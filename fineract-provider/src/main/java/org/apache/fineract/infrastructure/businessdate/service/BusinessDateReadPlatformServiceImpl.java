@@ -31,8 +31,11 @@ import org.apache.fineract.infrastructure.businessdate.domain.BusinessDateReposi
 import org.apache.fineract.infrastructure.businessdate.domain.BusinessDateType;
 import org.apache.fineract.infrastructure.businessdate.exception.BusinessDateNotFoundException;
 import org.apache.fineract.infrastructure.businessdate.mapper.BusinessDateMapper;
+import org.apache.fineract.infrastructure.cache.service.RuntimeDelegatingCacheManager;
 import org.apache.fineract.infrastructure.configuration.domain.ConfigurationDomainService;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.springframework.cache.Cache;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -40,9 +43,12 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class BusinessDateReadPlatformServiceImpl implements BusinessDateReadPlatformService {
 
+    private static final String BUSINESS_DATES_CACHE_NAME = "businessDates";
+
     private final BusinessDateRepository repository;
     private final BusinessDateMapper mapper;
     private final ConfigurationDomainService configurationDomainService;
+    private final RuntimeDelegatingCacheManager cacheManager;
 
     @Override
     public List<BusinessDateData> findAll() {
@@ -74,7 +80,7 @@ public class BusinessDateReadPlatformServiceImpl implements BusinessDateReadPlat
         LocalDate tenantDate = LocalDate.now(zone);
         businessDateMap.put(BusinessDateType.BUSINESS_DATE, tenantDate);
         if (configurationDomainService.isBusinessDateEnabled()) {
-            final List<BusinessDateData> businessDateDataList = this.findAll();
+            final List<BusinessDateData> businessDateDataList = findAllCached();
             for (BusinessDateData businessDateData : businessDateDataList) {
                 businessDateMap.put(BusinessDateType.valueOf(businessDateData.getType()), businessDateData.getDate());
             }
@@ -82,4 +88,24 @@ public class BusinessDateReadPlatformServiceImpl implements BusinessDateReadPlat
 
         return businessDateMap;
     }
+
+    @Override
+    public void evictBusinessDates() {
+        final Cache cache = this.cacheManager.getCache(BUSINESS_DATES_CACHE_NAME);
+        if (cache != null) {
+            cache.evict(ThreadLocalContextUtil.getTenant().getTenantIdentifier());
+        }
+    }
+
+    /**
+     * Stored business dates of the current tenant, served from a short lived snapshot since they are read on every
+     * authenticated request but only change when the dates are adjusted.
+     */
+    private List<BusinessDateData> findAllCached() {
+        final Cache cache = this.cacheManager.getCache(BUSINESS_DATES_CACHE_NAME);
+        if (cache == null) {
+            return findAll();
+        }
+        return cache.get(ThreadLocalContextUtil.getTenant().getTenantIdentifier(), this::findAll);
+    }
 }
@@ -46,6 +46,8 @@ import org.apache.fineract.infrastructure.jobs.annotation.CronTarget;
 import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
 import org.apache.fineract.infrastructure.jobs.service.JobName;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Slf4j
 @Service
@@ -55,6 +57,7 @@ public class BusinessDateWritePlatformServiceImpl implements BusinessDateWritePl
     private final BusinessDateDataParserAndValidator dataValidator;
     private final BusinessDateRepository repository;
     private final ConfigurationDomainService configurationDomainService;
+    private final BusinessDateReadPlatformService businessDateReadPlatformService;
 
     @Override
     public CommandProcessingResult updateBusinessDate(@NotNull final JsonCommand command) {
@@ -127,6 +130,7 @@ public class BusinessDateWritePlatformServiceImpl implements BusinessDateWritePl
         if (businessDate.isEmpty()) {
             BusinessDate newBusinessDate = BusinessDate.instance(businessDateType, newDate);
             repository.save(newBusinessDate);
+            evictBusinessDates();
             changes.put(type, newBusinessDate.getDate());
         } else {
             updateBusinessDate(businessDate.get(), newDate, changes);
@@ -141,9 +145,24 @@ public class BusinessDateWritePlatformServiceImpl implements BusinessDateWritePl
         }
         businessDate.updateDate(newDate);
         repository.save(businessDate);
+        evictBusinessDates();
         changes.put(businessDate.getType().name(), newDate);
     }
 
+    private void evictBusinessDates() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCommit() {
+                    businessDateReadPlatformService.evictBusinessDates();
+                }
+            });
+        } else {
+            businessDateReadPlatformService.evictBusinessDates();
+        }
+    }
+
     private boolean hasChange(@NotNull LocalDate oldDate, @NotNull LocalDate date) {
         return (date.isBefore(oldDate) || date.isAfter(oldDate));
     }
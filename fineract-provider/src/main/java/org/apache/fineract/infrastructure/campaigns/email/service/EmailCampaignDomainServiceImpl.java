@@ -29,6 +29,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.fineract.infrastructure.campaigns.email.domain.EmailCampaign;
 import org.apache.fineract.infrastructure.campaigns.email.domain.EmailCampaignRepository;
 import org.apache.fineract.infrastructure.campaigns.sms.constants.SmsCampaignTriggerType;
+import org.apache.fineract.portfolio.businessevent.BusinessEventDelivery;
 import org.apache.fineract.portfolio.businessevent.BusinessEventListener;
 import org.apache.fineract.portfolio.businessevent.domain.loan.LoanApprovedBusinessEvent;
 import org.apache.fineract.portfolio.businessevent.domain.loan.LoanRejectedBusinessEvent;
@@ -57,6 +58,11 @@ public class EmailCampaignDomainServiceImpl implements EmailCampaignDomainServic
 
     private class SendEmailOnLoanRepayment implements BusinessEventListener<LoanTransactionMakeRepaymentPostBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.ASYNC;
+        }
+
         @Override
         public void onBusinessEvent(LoanTransactionMakeRepaymentPostBusinessEvent event) {
             LoanTransaction loanTransaction = event.get();
@@ -70,6 +76,11 @@ public class EmailCampaignDomainServiceImpl implements EmailCampaignDomainServic
 
     private class SendEmailOnLoanRejected implements BusinessEventListener<LoanRejectedBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.ASYNC;
+        }
+
         @Override
         public void onBusinessEvent(LoanRejectedBusinessEvent event) {
             Loan loan = event.get();
@@ -83,6 +94,11 @@ public class EmailCampaignDomainServiceImpl implements EmailCampaignDomainServic
 
     private class SendEmailOnLoanApproved implements BusinessEventListener<LoanApprovedBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.ASYNC;
+        }
+
         @Override
         public void onBusinessEvent(LoanApprovedBusinessEvent event) {
             Loan loan = event.get();
@@ -44,6 +44,7 @@ import org.apache.fineract.infrastructure.sms.domain.SmsMessageRepository;
 import org.apache.fineract.infrastructure.sms.scheduler.SmsMessageScheduledJobService;
 import org.apache.fineract.organisation.office.domain.Office;
 import org.apache.fineract.organisation.office.domain.OfficeRepository;
+import org.apache.fineract.portfolio.businessevent.BusinessEventDelivery;
 import org.apache.fineract.portfolio.businessevent.BusinessEventListener;
 import org.apache.fineract.portfolio.businessevent.domain.client.ClientActivateBusinessEvent;
 import org.apache.fineract.portfolio.businessevent.domain.client.ClientRejectBusinessEvent;
@@ -374,6 +375,11 @@ public class SmsCampaignDomainServiceImpl implements SmsCampaignDomainService {
 
     private class SendSmsOnLoanApproved implements BusinessEventListener<LoanApprovedBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.ASYNC;
+        }
+
         @Override
         public void onBusinessEvent(LoanApprovedBusinessEvent event) {
             Loan loan = event.get();
@@ -383,6 +389,11 @@ public class SmsCampaignDomainServiceImpl implements SmsCampaignDomainService {
 
     private class SendSmsOnLoanRejected implements BusinessEventListener<LoanRejectedBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.ASYNC;
+        }
+
         @Override
         public void onBusinessEvent(LoanRejectedBusinessEvent event) {
             Loan loan = event.get();
@@ -392,6 +403,11 @@ public class SmsCampaignDomainServiceImpl implements SmsCampaignDomainService {
 
     private class SendSmsOnLoanRepayment implements BusinessEventListener<LoanTransactionMakeRepaymentPostBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.ASYNC;
+        }
+
         @Override
         public void onBusinessEvent(LoanTransactionMakeRepaymentPostBusinessEvent event) {
             sendSmsForLoanRepayment(event.get());
@@ -400,6 +416,11 @@ public class SmsCampaignDomainServiceImpl implements SmsCampaignDomainService {
 
     private class ClientActivatedListener implements BusinessEventListener<ClientActivateBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.ASYNC;
+        }
+
         @Override
         public void onBusinessEvent(ClientActivateBusinessEvent event) {
             notifyClientActivated(event.get());
@@ -408,6 +429,11 @@ public class SmsCampaignDomainServiceImpl implements SmsCampaignDomainService {
 
     private class ClientRejectedListener implements BusinessEventListener<ClientRejectBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.ASYNC;
+        }
+
         @Override
         public void onBusinessEvent(ClientRejectBusinessEvent event) {
             notifyClientRejected(event.get());
@@ -416,6 +442,11 @@ public class SmsCampaignDomainServiceImpl implements SmsCampaignDomainService {
 
     private class SavingsAccountActivatedListener implements BusinessEventListener<SavingsActivateBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.ASYNC;
+        }
+
         @Override
         public void onBusinessEvent(SavingsActivateBusinessEvent event) {
             notifySavingsAccountActivated(event.get());
@@ -424,6 +455,11 @@ public class SmsCampaignDomainServiceImpl implements SmsCampaignDomainService {
 
     private class SavingsAccountRejectedListener implements BusinessEventListener<SavingsRejectBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.ASYNC;
+        }
+
         @Override
         public void onBusinessEvent(SavingsRejectBusinessEvent event) {
             notifySavingsAccountRejected(event.get());
@@ -432,6 +468,11 @@ public class SmsCampaignDomainServiceImpl implements SmsCampaignDomainService {
 
     private class DepositSavingsAccountTransactionListener implements BusinessEventListener<SavingsDepositBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.ASYNC;
+        }
+
         @Override
         public void onBusinessEvent(SavingsDepositBusinessEvent event) {
             sendSmsForSavingsTransaction(event.get(), true);
@@ -440,6 +481,11 @@ public class SmsCampaignDomainServiceImpl implements SmsCampaignDomainService {
 
     private class NonDepositSavingsAccountTransactionListener implements BusinessEventListener<SavingsWithdrawalBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.ASYNC;
+        }
+
         @Override
         public void onBusinessEvent(SavingsWithdrawalBusinessEvent event) {
             sendSmsForSavingsTransaction(event.get(), false);
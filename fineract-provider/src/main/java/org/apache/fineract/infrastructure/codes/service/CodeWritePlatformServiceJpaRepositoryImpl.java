@@ -30,6 +30,7 @@ import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResultBuilder;
 import org.apache.fineract.infrastructure.core.exception.PlatformDataIntegrityException;
+import org.apache.fineract.infrastructure.dataqueries.service.DatatableMetadataCache;
 import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,13 +49,15 @@ public class CodeWritePlatformServiceJpaRepositoryImpl implements CodeWritePlatf
     private final PlatformSecurityContext context;
     private final CodeRepository codeRepository;
     private final CodeCommandFromApiJsonDeserializer fromApiJsonDeserializer;
+    private final DatatableMetadataCache datatableMetadataCache;
 
     @Autowired
     public CodeWritePlatformServiceJpaRepositoryImpl(final PlatformSecurityContext context, final CodeRepository codeRepository,
-            final CodeCommandFromApiJsonDeserializer fromApiJsonDeserializer) {
+            final CodeCommandFromApiJsonDeserializer fromApiJsonDeserializer, final DatatableMetadataCache datatableMetadataCache) {
         this.context = context;
         this.codeRepository = codeRepository;
         this.fromApiJsonDeserializer = fromApiJsonDeserializer;
+        this.datatableMetadataCache = datatableMetadataCache;
     }
 
     @Transactional
@@ -88,6 +91,7 @@ public class CodeWritePlatformServiceJpaRepositoryImpl implements CodeWritePlatf
 
         try {
             this.context.authenticatedUser();
+            this.datatableMetadataCache.invalidate();
 
             this.fromApiJsonDeserializer.validateForUpdate(command.json());
 
@@ -119,6 +123,7 @@ public class CodeWritePlatformServiceJpaRepositoryImpl implements CodeWritePlatf
     public CommandProcessingResult deleteCode(final Long codeId) {
 
         this.context.authenticatedUser();
+        this.datatableMetadataCache.invalidate();
 
         final Code code = retrieveCodeBy(codeId);
         if (code.isSystemDefined()) {
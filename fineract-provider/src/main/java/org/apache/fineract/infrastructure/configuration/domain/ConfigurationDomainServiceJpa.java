@@ -20,20 +20,16 @@ package org.apache.fineract.infrastructure.configuration.domain;
 
 import io.fiter.ff4j.validators.FeatureList;
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.Map;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.fineract.infrastructure.cache.domain.CacheType;
 import org.apache.fineract.infrastructure.cache.domain.PlatformCache;
 import org.apache.fineract.infrastructure.cache.domain.PlatformCacheRepository;
 import org.apache.fineract.infrastructure.configuration.data.GlobalConfigurationPropertyData;
-import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
 import org.apache.fineract.useradministration.domain.Permission;
 import org.apache.fineract.useradministration.domain.PermissionRepository;
 import org.apache.fineract.useradministration.exception.PermissionNotFoundException;
 import org.ff4j.FF4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -46,17 +42,18 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
     private final PermissionRepository permissionRepository;
     private final GlobalConfigurationRepositoryWrapper globalConfigurationRepository;
     private final PlatformCacheRepository cacheTypeRepository;
-    private static Map<String, GlobalConfigurationPropertyData> configurations = new HashMap<>();
+    private final ConfigurationSnapshotCache configurationSnapshotCache;
 
     private final FF4j ff4j;
 
     @Autowired
     public ConfigurationDomainServiceJpa(final PermissionRepository permissionRepository,
             final GlobalConfigurationRepositoryWrapper globalConfigurationRepository, final PlatformCacheRepository cacheTypeRepository,
-            final FF4j ff4j) {
+            final FF4j ff4j, final ConfigurationSnapshotCache configurationSnapshotCache) {
         this.permissionRepository = permissionRepository;
         this.globalConfigurationRepository = globalConfigurationRepository;
         this.cacheTypeRepository = cacheTypeRepository;
+        this.configurationSnapshotCache = configurationSnapshotCache;
         this.ff4j = ff4j;
     }
 
@@ -71,15 +68,20 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
             throw new PermissionNotFoundException(taskPermissionCode);
         }
 
-        final Permission thisTask = this.permissionRepository.findOneByCode(taskPermissionCode);
-        if (thisTask == null) {
-            throw new PermissionNotFoundException(taskPermissionCode);
+        Boolean taskMakerCheckerEnabled = this.configurationSnapshotCache.get().isMakerCheckerEnabled(taskPermissionCode);
+        if (taskMakerCheckerEnabled == null) {
+            // permission created after the snapshot was taken
+            final Permission thisTask = this.permissionRepository.findOneByCode(taskPermissionCode);
+            if (thisTask == null) {
+                throw new PermissionNotFoundException(taskPermissionCode);
+            }
+            taskMakerCheckerEnabled = thisTask.hasMakerCheckerEnabled();
         }
 
         final String makerCheckerConfigurationProperty = "maker-checker";
         final GlobalConfigurationPropertyData property = getGlobalConfigurationPropertyData(makerCheckerConfigurationProperty);
 
-        return thisTask.hasMakerCheckerEnabled() && property.isEnabled();
+        return taskMakerCheckerEnabled && property.isEnabled();
     }
 
     @Override
@@ -321,9 +323,7 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
 
     @Override
     public void removeGlobalConfigurationPropertyDataFromCache(final String propertyName) {
-        String identifier = ThreadLocalContextUtil.getTenant().getTenantIdentifier();
-        String key = identifier + "_" + propertyName;
-        configurations.remove(key);
+        this.configurationSnapshotCache.invalidate();
     }
 
     @Override
@@ -389,15 +389,13 @@ public class ConfigurationDomainServiceJpa implements ConfigurationDomainService
         return property.getValue();
     }
 
-    @Cacheable(value = "configByName", key = "T(org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil).getTenant().getTenantIdentifier().concat(#propertyName)")
     private GlobalConfigurationPropertyData getGlobalConfigurationPropertyData(final String propertyName) {
-        String identifier = ThreadLocalContextUtil.getTenant().getTenantIdentifier();
-        String key = identifier + "_" + propertyName;
-        if (!configurations.containsKey(key)) {
-            GlobalConfigurationProperty configuration = this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName);
-            configurations.put(key, configuration.toData());
+        final GlobalConfigurationPropertyData property = this.configurationSnapshotCache.get().getConfiguration(propertyName);
+        if (property != null) {
+            return property;
         }
-        return configurations.get(key);
+        // property created after the snapshot was taken
+        return this.globalConfigurationRepository.findOneByNameWithNotFoundDetection(propertyName).toData();
     }
 
     @Override
@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.configuration.domain;
+
+import java.util.Map;
+import org.apache.fineract.infrastructure.configuration.data.GlobalConfigurationPropertyData;
+
+/**
+ * Immutable copy of the global configuration (c_configuration) and of the maker-checker flags of all permissions of
+ * one tenant, as of the configuration version it was loaded at.
+ */
+public final class ConfigurationSnapshot {
+
+    private final long version;
+    private final Map<String, GlobalConfigurationPropertyData> configurations;
+    private final Map<String, Boolean> makerCheckerPermissions;
+
+    public ConfigurationSnapshot(final long version, final Map<String, GlobalConfigurationPropertyData> configurations,
+            final Map<String, Boolean> makerCheckerPermissions) {
+        this.version = version;
+        this.configurations = Map.copyOf(configurations);
+        this.makerCheckerPermissions = Map.copyOf(makerCheckerPermissions);
+    }
+
+    public long getVersion() {
+        return this.version;
+    }
+
+    public GlobalConfigurationPropertyData getConfiguration(final String propertyName) {
+        return this.configurations.get(propertyName);
+    }
+
+    public Boolean isMakerCheckerEnabled(final String permissionCode) {
+        return this.makerCheckerPermissions.get(permissionCode);
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.configuration.domain;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.fineract.infrastructure.configuration.data.GlobalConfigurationPropertyData;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.useradministration.domain.Permission;
+import org.apache.fineract.useradministration.domain.PermissionRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-tenant {@link ConfigurationSnapshot}s, independent of the runtime switchable ehcache.
+ *
+ * Every change to the global configuration or to maker-checker permissions bumps the single row of
+ * m_configuration_version in the same transaction. A node reads that version at most once per
+ * fineract.configuration.snapshot-check-interval seconds per tenant and reloads its snapshot when the version moved, so
+ * changes made on other nodes are picked up within the interval. Changes made on this node drop the local snapshot as
+ * soon as the transaction completes.
+ */
+@Component
+public class ConfigurationSnapshotCache {
+
+    private static final String METRIC_NAME = "fineract.configuration.snapshot";
+
+    private final ConcurrentHashMap<String, Entry> snapshots = new ConcurrentHashMap<>();
+    private final GlobalConfigurationRepository configurationRepository;
+    private final PermissionRepository permissionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long checkIntervalMillis;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ConfigurationSnapshotCache(final GlobalConfigurationRepository configurationRepository,
+            final PermissionRepository permissionRepository, final JdbcTemplate jdbcTemplate, final FineractProperties fineractProperties,
+            final MeterRegistry meterRegistry) {
+        this.configurationRepository = configurationRepository;
+        this.permissionRepository = permissionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkIntervalMillis = TimeUnit.SECONDS.toMillis(fineractProperties.getConfiguration().getSnapshotCheckInterval());
+        this.hits = Counter.builder(METRIC_NAME).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(METRIC_NAME).tag("result", "miss").register(meterRegistry);
+    }
+
+    public ConfigurationSnapshot get() {
+        final String tenantIdentifier = ThreadLocalContextUtil.getTenant().getTenantIdentifier();
+        final long now = System.currentTimeMillis();
+        final Entry entry = this.snapshots.get(tenantIdentifier);
+        if (entry != null && now - entry.checkedAt <= this.checkIntervalMillis) {
+            this.hits.increment();
+            return entry.snapshot;
+        }
+
+        // read the version before the rows, so a change committed while loading is caught by the next check
+        final long version = readVersion();
+        if (entry != null && entry.snapshot.getVersion() == version) {
+            entry.checkedAt = now;
+            this.hits.increment();
+            return entry.snapshot;
+        }
+        this.misses.increment();
+        final ConfigurationSnapshot snapshot = load(version);
+        this.snapshots.put(tenantIdentifier, new Entry(snapshot, now));
+        return snapshot;
+    }
+
+    /**
+     * Marks the configuration of the current tenant as changed. Must be called inside the transaction that makes the
+     * change.
+     */
+    public void invalidate() {
+        final String tenantIdentifier = ThreadLocalContextUtil.getTenant().getTenantIdentifier();
+        this.jdbcTemplate.update("update m_configuration_version set version = version + 1 where id = 1");
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    snapshots.remove(tenantIdentifier);
+                }
+            });
+        } else {
+            this.snapshots.remove(tenantIdentifier);
+        }
+    }
+
+    private long readVersion() {
+        final Long version = this.jdbcTemplate.queryForObject("select version from m_configuration_version where id = 1", Long.class);
+        return version == null ? 0L : version;
+    }
+
+    private ConfigurationSnapshot load(final long version) {
+        final Map<String, GlobalConfigurationPropertyData> configurations = new HashMap<>();
+        for (final GlobalConfigurationProperty property : this.configurationRepository.findAll()) {
+            configurations.put(property.getName(), property.toData());
+        }
+        final Map<String, Boolean> makerCheckerPermissions = new HashMap<>();
+        for (final Permission permission : this.permissionRepository.findAll()) {
+            makerCheckerPermissions.put(permission.getCode(), permission.hasMakerCheckerEnabled());
+        }
+        return new ConfigurationSnapshot(version, configurations, makerCheckerPermissions);
+    }
+
+    private static final class Entry {
+
+        private final ConfigurationSnapshot snapshot;
+        private volatile long checkedAt;
+
+        private Entry(final ConfigurationSnapshot snapshot, final long checkedAt) {
+            this.snapshot = snapshot;
+            this.checkedAt = checkedAt;
+        }
+    }
+}
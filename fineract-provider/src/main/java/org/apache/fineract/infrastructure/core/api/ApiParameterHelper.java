@@ -109,6 +109,24 @@ public final class ApiParameterHelper {
         return exportCsv;
     }
 
+    public static boolean exportJsonLines(final MultivaluedMap<String, String> queryParams) {
+        boolean exportJsonLines = false;
+        if (queryParams.getFirst("exportJSONL") != null) {
+            final String exportJsonLinesValue = queryParams.getFirst("exportJSONL");
+            exportJsonLines = "true".equalsIgnoreCase(exportJsonLinesValue);
+        }
+        return exportJsonLines;
+    }
+
+    public static boolean exportXlsx(final MultivaluedMap<String, String> queryParams) {
+        boolean exportXlsx = false;
+        if (queryParams.getFirst("exportXLSX") != null) {
+            final String exportXlsxValue = queryParams.getFirst("exportXLSX");
+            exportXlsx = "true".equalsIgnoreCase(exportXlsxValue);
+        }
+        return exportXlsx;
+    }
+
     public static boolean exportPdf(final MultivaluedMap<String, String> queryParams) {
         boolean exportPDF = false;
         if (queryParams.getFirst("exportPDF") != null) {
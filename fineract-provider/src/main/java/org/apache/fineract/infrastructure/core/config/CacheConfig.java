@@ -68,6 +68,15 @@ public class CacheConfig {
 
         cacheManager.createCache("userTFAccessToken", accessTokenTemplate);
 
+        javax.cache.configuration.Configuration<Object, Object> paginationCountTemplate = Eh107Configuration
+                .fromEhcacheCacheConfiguration(CacheConfigurationBuilder
+                        .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(10000))
+                        .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMinutes(1))).build());
+
+        cacheManager.createCache("paginationCounts", paginationCountTemplate);
+        cacheManager.createCache("authenticatedCredentials", paginationCountTemplate);
+        cacheManager.createCache("businessDates", paginationCountTemplate);
+
         return cacheManager;
     }
 }
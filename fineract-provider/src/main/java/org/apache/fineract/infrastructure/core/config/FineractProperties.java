@@ -41,6 +41,26 @@ public class FineractProperties {
 
     private FineractTemplateProperties template;
 
+    private FineractPartitionProperties partition;
+
+    private FineractEventsProperties events;
+
+    private FineractHooksProperties hooks;
+
+    private FineractSearchProperties search;
+
+    private FineractReportProperties report;
+
+    private FineractAuthenticationProperties authentication;
+
+    private FineractConfigurationProperties configuration;
+
+    private FineractBulkImportProperties bulkImport;
+
+    private FineractBatchApiProperties batchApi;
+
+    private FineractJobsProperties jobs;
+
     @Getter
     @Setter
     public static class FineractTenantProperties {
@@ -116,4 +136,90 @@ public class FineractProperties {
         private boolean regexWhitelistEnabled;
         private List<String> regexWhitelist;
     }
+
+    @Getter
+    @Setter
+    public static class FineractPartitionProperties {
+
+        private int workerPollInterval;
+        private int workerThreads;
+        private int staleTimeout;
+    }
+
+    @Getter
+    @Setter
+    public static class FineractEventsProperties {
+
+        private int asyncWorkers;
+        private int asyncQueueCapacity;
+        private int asyncEnqueueTimeout;
+    }
+
+    @Getter
+    @Setter
+    public static class FineractHooksProperties {
+
+        private int dispatcherThreads;
+        private int batchSize;
+        private int pollInterval;
+        private int maxAttempts;
+        private int backoffInitial;
+        private int backoffMax;
+        private int staleTimeout;
+    }
+
+    @Getter
+    @Setter
+    public static class FineractSearchProperties {
+
+        private boolean indexEnabled;
+        private int maxCandidates;
+    }
+
+    @Getter
+    @Setter
+    public static class FineractReportProperties {
+
+        private int exportFetchSize;
+    }
+
+    @Getter
+    @Setter
+    public static class FineractAuthenticationProperties {
+
+        private boolean credentialCacheEnabled;
+        private int notificationRefreshInterval;
+    }
+
+    @Getter
+    @Setter
+    public static class FineractConfigurationProperties {
+
+        private int snapshotCheckInterval;
+    }
+
+    @Getter
+    @Setter
+    public static class FineractBulkImportProperties {
+
+        private int workerThreads;
+        private int chunkSize;
+    }
+
+    @Getter
+    @Setter
+    public static class FineractBatchApiProperties {
+
+        private int parallelThreads;
+    }
+
+    @Getter
+    @Setter
+    public static class FineractJobsProperties {
+
+        private int parallelism;
+        private int ioParallelism;
+        private int chunkSize;
+        private boolean virtualThreadsEnabled;
+    }
 }
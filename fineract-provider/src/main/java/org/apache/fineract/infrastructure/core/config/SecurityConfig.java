@@ -19,9 +19,11 @@
 
 package org.apache.fineract.infrastructure.core.config;
 
+import org.apache.fineract.infrastructure.cache.service.RuntimeDelegatingCacheManager;
 import org.apache.fineract.infrastructure.instancemode.filter.FineractInstanceModeApiFilter;
 import org.apache.fineract.infrastructure.security.filter.TenantAwareBasicAuthenticationFilter;
 import org.apache.fineract.infrastructure.security.filter.TwoFactorAuthenticationFilter;
+import org.apache.fineract.infrastructure.security.service.CredentialCachingAuthenticationManager;
 import org.apache.fineract.infrastructure.security.service.TenantAwareJpaPlatformUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -63,6 +65,9 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private ServerProperties serverProperties;
 
+    @Autowired
+    private RuntimeDelegatingCacheManager cacheManager;
+
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http //
@@ -95,7 +100,11 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     @Bean
     public TenantAwareBasicAuthenticationFilter tenantAwareBasicAuthenticationFilter() throws Exception {
-        return new TenantAwareBasicAuthenticationFilter(authenticationManagerBean(), basicAuthenticationEntryPoint());
+        AuthenticationManager authenticationManager = authenticationManagerBean();
+        if (fineractProperties.getAuthentication().isCredentialCacheEnabled()) {
+            authenticationManager = new CredentialCachingAuthenticationManager(authenticationManager, cacheManager);
+        }
+        return new TenantAwareBasicAuthenticationFilter(authenticationManager, basicAuthenticationEntryPoint());
     }
 
     @Bean
@@ -25,10 +25,17 @@ public class Page<E> implements Serializable {
 
     private final int totalFilteredRecords;
     private final List<E> pageItems;
+    // opaque keyset cursor of the following page, null when this is the last page or the page was fetched by offset
+    private final String next;
 
     public Page(final List<E> pageItems, final int totalFilteredRecords) {
+        this(pageItems, totalFilteredRecords, null);
+    }
+
+    public Page(final List<E> pageItems, final int totalFilteredRecords, final String next) {
         this.pageItems = pageItems;
         this.totalFilteredRecords = totalFilteredRecords;
+        this.next = next;
     }
 
     public int getTotalFilteredRecords() {
@@ -38,4 +45,8 @@ public class Page<E> implements Serializable {
     public List<E> getPageItems() {
         return this.pageItems;
     }
+
+    public String getNext() {
+        return this.next;
+    }
 }
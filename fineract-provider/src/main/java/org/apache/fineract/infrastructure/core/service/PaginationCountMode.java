@@ -0,0 +1,47 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.core.service;
+
+import java.util.Locale;
+
+/**
+ * How {@link PaginationHelper} determines <code>totalFilteredRecords</code> of a keyset page.
+ */
+public enum PaginationCountMode {
+
+    /** count all rows matching the filter */
+    EXACT,
+    /** use the row estimate of the database's query planner */
+    ESTIMATE,
+    /** count all rows matching the filter, reusing the result for the same filter for a short while */
+    CACHED,
+    /** do not count, <code>totalFilteredRecords</code> is -1 */
+    NONE;
+
+    public static PaginationCountMode fromString(final String countMode) {
+        if (countMode == null || countMode.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(countMode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
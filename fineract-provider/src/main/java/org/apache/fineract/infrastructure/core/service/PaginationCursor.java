@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.core.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.fineract.infrastructure.core.data.ApiParameterError;
+import org.apache.fineract.infrastructure.core.exception.PlatformApiDataValidationException;
+
+/**
+ * Position of the last row of a keyset page: the value of its sort column (if the keyset has one) and its id. Clients
+ * only see the opaque token produced by {@link #encode()}, the sort value keeps its SQL type so it can be bound as a
+ * query parameter again.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PaginationCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final Object sortValue;
+    private final Long id;
+
+    public static PaginationCursor of(final Object sortValue, final Long id) {
+        return new PaginationCursor(normalize(sortValue), id);
+    }
+
+    /**
+     * @return the cursor, or null for a blank token, which stands for the first page
+     */
+    public static PaginationCursor decode(final String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            final String decoded = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            final int separator = decoded.indexOf(SEPARATOR);
+            final Long id = Long.valueOf(decoded.substring(0, separator));
+            final String sortValue = decoded.substring(separator + 1);
+            return new PaginationCursor(sortValue.isEmpty() ? null : parse(sortValue.charAt(0), sortValue.substring(1)), id);
+        } catch (RuntimeException e) {
+            final ApiParameterError error = ApiParameterError.parameterError("validation.msg.pagination.cursor.invalid",
+                    "The cursor `" + token + "` is not valid.", "cursor", token);
+            throw new PlatformApiDataValidationException(List.of(error), e);
+        }
+    }
+
+    public String encode() {
+        final StringBuilder token = new StringBuilder().append(this.id).append(SEPARATOR);
+        if (this.sortValue instanceof LocalDate) {
+            token.append('d').append(this.sortValue);
+        } else if (this.sortValue instanceof LocalDateTime) {
+            token.append('t').append(this.sortValue);
+        } else if (this.sortValue instanceof BigDecimal) {
+            token.append('n').append(((BigDecimal) this.sortValue).toPlainString());
+        } else if (this.sortValue != null) {
+            token.append('s').append(this.sortValue);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object normalize(final Object sortValue) {
+        if (sortValue instanceof java.sql.Date) {
+            return ((java.sql.Date) sortValue).toLocalDate();
+        } else if (sortValue instanceof Timestamp) {
+            return ((Timestamp) sortValue).toLocalDateTime();
+        } else if (sortValue instanceof Number && !(sortValue instanceof BigDecimal)) {
+            return new BigDecimal(sortValue.toString());
+        }
+        return sortValue;
+    }
+
+    private static Object parse(final char type, final String value) {
+        switch (type) {
+            case 'd':
+                return LocalDate.parse(value);
+            case 't':
+                return LocalDateTime.parse(value);
+            case 'n':
+                return new BigDecimal(value);
+            case 's':
+                return value;
+            default:
+                throw new IllegalArgumentException("Unknown cursor value type " + type);
+        }
+    }
+}
@@ -18,11 +18,23 @@
  */
 package org.apache.fineract.infrastructure.core.service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.fineract.infrastructure.cache.service.RuntimeDelegatingCacheManager;
 import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
 import org.apache.fineract.infrastructure.core.service.database.DatabaseTypeResolver;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
@@ -30,13 +42,19 @@ import org.springframework.stereotype.Component;
 @Component
 public class PaginationHelper {
 
+    public static final String COUNT_CACHE_NAME = "paginationCounts";
+    private static final Pattern POSTGRESQL_PLAN_ROWS = Pattern.compile("\"Plan Rows\"\\s*:\\s*(\\d+)");
+
     private final DatabaseSpecificSQLGenerator sqlGenerator;
     private final DatabaseTypeResolver databaseTypeResolver;
+    private final RuntimeDelegatingCacheManager cacheManager;
 
     @Autowired
-    public PaginationHelper(DatabaseSpecificSQLGenerator sqlGenerator, DatabaseTypeResolver databaseTypeResolver) {
+    public PaginationHelper(DatabaseSpecificSQLGenerator sqlGenerator, DatabaseTypeResolver databaseTypeResolver,
+            RuntimeDelegatingCacheManager cacheManager) {
         this.sqlGenerator = sqlGenerator;
         this.databaseTypeResolver = databaseTypeResolver;
+        this.cacheManager = cacheManager;
     }
 
     public <E> Page<E> fetchPage(final JdbcTemplate jt, final String sqlFetchRows, final Object[] args, final RowMapper<E> rowMapper) {
@@ -72,6 +90,113 @@ public class PaginationHelper {
         return new Page<>(items, ObjectUtils.defaultIfNull(totalFilteredRecords, 0));
     }
 
+    /**
+     * Fetches the page following <code>searchParameters.getCursor()</code> in keyset order, which costs the same on
+     * every page instead of growing with the offset. <code>sqlFetchRows</code> is the filtered query without order by
+     * and limit; the keyset condition, ordering and limit are appended here. <code>totalFilteredRecords</code> is
+     * determined according to <code>searchParameters.getCountMode()</code>, skipped by default.
+     */
+    public <E> Page<E> fetchPageByKeyset(final JdbcTemplate jt, final String sqlFetchRows, final boolean whereClausePresent,
+            final Object[] args, final RowMapper<E> rowMapper, final PaginationKeyset keyset, final SearchParameters searchParameters) {
+        final String sqlFilteredRows = StringUtils.replaceOnce(sqlFetchRows, sqlGenerator.calcFoundRows(), "");
+        final boolean descending = searchParameters.isSortOrderProvided()
+                && "desc".equalsIgnoreCase(searchParameters.getSortOrder().trim());
+        final String comparison = descending ? " < ?" : " > ?";
+        final String direction = descending ? " desc" : " asc";
+        final int limit = searchParameters.isLimited() ? searchParameters.getLimit() : SearchParameters.getCheckedLimit(null);
+
+        final StringBuilder sqlBuilder = new StringBuilder(sqlFilteredRows);
+        final List<Object> params = new ArrayList<>(Arrays.asList(args));
+        final PaginationCursor cursor = PaginationCursor.decode(searchParameters.getCursor());
+        if (cursor != null) {
+            sqlBuilder.append(whereClausePresent ? " and " : " where ");
+            if (keyset.hasSortColumn()) {
+                sqlBuilder.append("(").append(keyset.getSortColumn()).append(comparison).append(" or (").append(keyset.getSortColumn())
+                        .append(" = ? and ").append(keyset.getIdColumn()).append(comparison).append("))");
+                params.add(cursor.getSortValue());
+                params.add(cursor.getSortValue());
+            } else {
+                sqlBuilder.append(keyset.getIdColumn()).append(comparison);
+            }
+            params.add(cursor.getId());
+        }
+        sqlBuilder.append(" order by ");
+        if (keyset.hasSortColumn()) {
+            sqlBuilder.append(keyset.getSortColumn()).append(direction).append(", ");
+        }
+        sqlBuilder.append(keyset.getIdColumn()).append(direction).append(' ').append(sqlGenerator.limit(limit + 1));
+
+        // one row more than requested tells whether there is a next page
+        final List<PaginationCursor> positions = new ArrayList<>(limit + 1);
+        final List<E> items = jt.query(sqlBuilder.toString(), (rs, rowNum) -> { // NOSONAR
+            positions.add(PaginationCursor.of(keyset.hasSortColumn() ? rs.getObject(keyset.getSortAlias()) : null,
+                    rs.getLong(keyset.getIdAlias())));
+            return rowMapper.mapRow(rs, rowNum);
+        }, params.toArray());
+        String next = null;
+        if (items.size() > limit) {
+            items.remove(limit);
+            next = positions.get(limit - 1).encode();
+        }
+
+        final PaginationCountMode countMode = ObjectUtils.defaultIfNull(searchParameters.getCountMode(), PaginationCountMode.NONE);
+        return new Page<>(items, countFilteredRows(jt, sqlFilteredRows, args, countMode), next);
+    }
+
+    private int countFilteredRows(final JdbcTemplate jt, final String sqlFilteredRows, final Object[] args,
+            final PaginationCountMode countMode) {
+        switch (countMode) {
+            case EXACT:
+                return jt.queryForObject(sqlGenerator.countQueryResult(sqlFilteredRows), Integer.class, args); // NOSONAR
+            case ESTIMATE:
+                return estimateFilteredRows(jt, sqlFilteredRows, args);
+            case CACHED:
+                final Cache cache = this.cacheManager.getCache(COUNT_CACHE_NAME);
+                final String key = ThreadLocalContextUtil.getTenant().getTenantIdentifier() + ':' + filterSignature(sqlFilteredRows, args);
+                Integer count = cache == null ? null : cache.get(key, Integer.class);
+                if (count == null) {
+                    count = jt.queryForObject(sqlGenerator.countQueryResult(sqlFilteredRows), Integer.class, args); // NOSONAR
+                    if (cache != null) {
+                        cache.put(key, count);
+                    }
+                }
+                return count;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Row estimate of the query planner: the root node of the plan on PostgreSQL, the first (driving) table of the plan
+     * on MySQL and MariaDB. Cheap, but may be off by a large factor for selective filters.
+     */
+    private int estimateFilteredRows(final JdbcTemplate jt, final String sqlFilteredRows, final Object[] args) {
+        if (databaseTypeResolver.isPostgreSQL()) {
+            final String plan = jt.queryForObject("EXPLAIN (FORMAT JSON) " + sqlFilteredRows, String.class, args); // NOSONAR
+            final Matcher matcher = POSTGRESQL_PLAN_ROWS.matcher(StringUtils.defaultString(plan));
+            return matcher.find() ? (int) Math.min(Long.parseLong(matcher.group(1)), Integer.MAX_VALUE) : -1;
+        }
+        final List<Map<String, Object>> plan = jt.queryForList("EXPLAIN " + sqlFilteredRows, args); // NOSONAR
+        if (plan.isEmpty() || !(plan.get(0).get("rows") instanceof Number)) {
+            return -1;
+        }
+        final double rows = ((Number) plan.get(0).get("rows")).doubleValue();
+        final Object filtered = plan.get(0).get("filtered");
+        final double estimate = filtered instanceof Number ? rows * ((Number) filtered).doubleValue() / 100 : rows;
+        return (int) Math.min(Math.round(estimate), Integer.MAX_VALUE);
+    }
+
+    private static String filterSignature(final String sqlFilteredRows, final Object[] args) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(sqlFilteredRows.getBytes(StandardCharsets.UTF_8));
+            digest.update(Arrays.deepToString(args).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public DatabaseTypeResolver getDatabaseTypeResolver() {
         return databaseTypeResolver;
     }
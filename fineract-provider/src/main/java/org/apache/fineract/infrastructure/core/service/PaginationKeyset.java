@@ -0,0 +1,49 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.core.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The columns a listing is ordered by in keyset pagination: an optional sort column followed by the unique id column,
+ * which breaks ties. The aliases are the names under which the columns appear in the select list.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PaginationKeyset {
+
+    private final String sortColumn;
+    private final String sortAlias;
+    private final String idColumn;
+    private final String idAlias;
+
+    public static PaginationKeyset byId(final String idColumn) {
+        return new PaginationKeyset(null, null, idColumn, "id");
+    }
+
+    public static PaginationKeyset bySortColumnAndId(final String sortColumn, final String sortAlias, final String idColumn) {
+        return new PaginationKeyset(sortColumn, sortAlias, idColumn, "id");
+    }
+
+    public boolean hasSortColumn() {
+        return this.sortColumn != null;
+    }
+}
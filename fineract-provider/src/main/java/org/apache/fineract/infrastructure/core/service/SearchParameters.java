@@ -59,6 +59,11 @@ public final class SearchParameters {
 
     private final String endDueDate;
 
+    // Keyset pagination: null for offset pagination, empty for the first page
+    private String cursor;
+
+    private PaginationCountMode countMode;
+
     public static SearchParameters from(final String sqlSearch, final Long officeId, final String externalId, final String name,
             final String hierarchy) {
         final Long staffId = null;
@@ -662,4 +667,24 @@ public final class SearchParameters {
     public void setMobileNo(String mobileNo) {
         this.mobileNo = mobileNo;
     }
+
+    public String getCursor() {
+        return this.cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isKeysetPaginationRequested() {
+        return this.cursor != null;
+    }
+
+    public PaginationCountMode getCountMode() {
+        return this.countMode;
+    }
+
+    public void setCountMode(PaginationCountMode countMode) {
+        this.countMode = countMode;
+    }
 }
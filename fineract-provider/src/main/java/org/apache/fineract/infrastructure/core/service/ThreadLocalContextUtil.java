@@ -120,6 +120,19 @@ public final class ThreadLocalContextUtil {
         setActionContext(fineractContext.getActionContext());
     }
 
+    /**
+     * Removes everything {@link #init(FineractContext)} and the job runners put on the current thread, so a pooled
+     * thread does not carry the tenant, business dates or credentials of its last task over to the next one.
+     */
+    public static void reset() {
+        contextHolder.remove();
+        tenantContext.remove();
+        authTokenContext.remove();
+        businessDateContext.remove();
+        actionContext.remove();
+        jobParams.remove();
+    }
+
     public static void setJobParams(final Map<String, Object> params) {
         jobParams.set(params);
     }
@@ -77,6 +77,14 @@ public class DatabaseSpecificSQLGenerator {
         }
     }
 
+    public String forUpdateSkipLocked() {
+        if (databaseTypeResolver.isMySQL() || databaseTypeResolver.isPostgreSQL()) {
+            return "FOR UPDATE SKIP LOCKED";
+        } else {
+            throw new IllegalStateException("Database type is not supported for skip locked " + databaseTypeResolver.databaseType());
+        }
+    }
+
     public String calcFoundRows() {
         if (databaseTypeResolver.isMySQL()) {
             return "SQL_CALC_FOUND_ROWS";
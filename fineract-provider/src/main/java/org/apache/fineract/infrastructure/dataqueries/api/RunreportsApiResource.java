@@ -73,10 +73,13 @@ public class RunreportsApiResource {
     @GET
     @Path("{reportName}")
     @Consumes({ MediaType.APPLICATION_JSON })
-    @Produces({ MediaType.APPLICATION_JSON, "text/csv", "application/vnd.ms-excel", "application/pdf", "text/html" })
+    @Produces({ MediaType.APPLICATION_JSON, "text/csv", "application/x-ndjson", "application/vnd.ms-excel",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "application/pdf", "text/html" })
     @Operation(summary = "Running a Report", description = "This resource allows you to run and receive output from pre-defined Apache Fineract reports.\n"
             + "\n" + "Reports can also be used to provide data for searching and workflow functionality.\n" + "\n"
             + "The default output is a JSON formatted \"Generic Resultset\". The Generic Resultset contains Column Heading as well as Data information. However, you can export to CSV format by simply adding \"&exportCSV=true\" to the end of your URL.\n"
+            + "Use \"&exportJSONL=true\" for newline delimited JSON or \"&exportXLSX=true\" for an Excel workbook;"
+            + " all three exports are streamed.\n"
             + "\n"
             + "If Pentaho reports have been pre-defined, they can also be run through this resource. Pentaho reports can return HTML, PDF or CSV formats.\n"
             + "\n"
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.dataqueries.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import org.apache.fineract.infrastructure.configuration.domain.ConfigurationSnapshotCache;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.dataqueries.data.ResultsetColumnHeaderData;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-tenant cache of datatable metadata: the column headers read from the database schema (including the code values
+ * of *_cd columns) and the application table a datatable is registered against.
+ *
+ * The cached metadata is tied to the configuration version of {@link ConfigurationSnapshotCache}. Datatable, code and
+ * code value changes call {@link #invalidate()}, which bumps that version, so other nodes drop their copy within the
+ * configuration snapshot check interval.
+ */
+@Component
+@RequiredArgsConstructor
+public class DatatableMetadataCache {
+
+    private final ConcurrentHashMap<String, TenantMetadata> metadata = new ConcurrentHashMap<>();
+    private final ConfigurationSnapshotCache configurationSnapshotCache;
+
+    public List<ResultsetColumnHeaderData> getColumnHeaders(final String datatable,
+            final Function<String, List<ResultsetColumnHeaderData>> loader) {
+        return new ArrayList<>(current().columnHeaders.computeIfAbsent(datatable, loader));
+    }
+
+    public String getApplicationTableName(final String datatable, final Function<String, String> loader) {
+        return current().applicationTableNames.computeIfAbsent(datatable, loader);
+    }
+
+    /**
+     * Drops the datatable metadata of the current tenant on all nodes. Must be called inside the transaction that
+     * changes the schema, registration or code values.
+     */
+    public void invalidate() {
+        final String tenantIdentifier = ThreadLocalContextUtil.getTenant().getTenantIdentifier();
+        this.configurationSnapshotCache.invalidate();
+        this.metadata.remove(tenantIdentifier);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    metadata.remove(tenantIdentifier);
+                }
+            });
+        }
+    }
+
+    private TenantMetadata current() {
+        final String tenantIdentifier = ThreadLocalContextUtil.getTenant().getTenantIdentifier();
+        final long version = this.configurationSnapshotCache.get().getVersion();
+        return this.metadata.compute(tenantIdentifier,
+                (key, existing) -> existing == null || existing.version != version ? new TenantMetadata(version) : existing);
+    }
+
+    private static final class TenantMetadata {
+
+        private final long version;
+        private final ConcurrentHashMap<String, List<ResultsetColumnHeaderData>> columnHeaders = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, String> applicationTableNames = new ConcurrentHashMap<>();
+
+        private TenantMetadata(final long version) {
+            this.version = version;
+        }
+    }
+}
@@ -31,6 +31,7 @@ import org.apache.fineract.infrastructure.core.serialization.ToApiJsonSerializer
 import org.apache.fineract.infrastructure.dataqueries.api.RunreportsApiResource;
 import org.apache.fineract.infrastructure.dataqueries.data.GenericResultsetData;
 import org.apache.fineract.infrastructure.dataqueries.data.ReportData;
+import org.apache.fineract.infrastructure.dataqueries.service.export.ReportExportFormat;
 import org.apache.fineract.infrastructure.report.annotation.ReportService;
 import org.apache.fineract.infrastructure.report.service.ReportingProcessService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -58,6 +59,8 @@ public class DatatableReportingProcessService implements ReportingProcessService
                 queryParams.getOrDefault(RunreportsApiResource.IS_SELF_SERVICE_USER_REPORT_PARAMETER, List.of("false")).get(0));
         final boolean prettyPrint = ApiParameterHelper.prettyPrint(queryParams);
         final boolean exportCsv = ApiParameterHelper.exportCsv(queryParams);
+        final boolean exportJsonLines = ApiParameterHelper.exportJsonLines(queryParams);
+        final boolean exportXlsx = ApiParameterHelper.exportXlsx(queryParams);
         final boolean exportPdf = ApiParameterHelper.exportPdf(queryParams);
         final String parameterTypeValue = ApiParameterHelper.parameterType(queryParams) ? "parameter" : "report";
 
@@ -77,7 +80,7 @@ public class DatatableReportingProcessService implements ReportingProcessService
         }
 
         // JSON format
-        if (!exportCsv) {
+        if (!exportCsv && !exportJsonLines && !exportXlsx) {
             final Map<String, String> reportParams = getReportParams(queryParams);
 
             final GenericResultsetData result = this.readExtraDataAndReportingService.retrieveGenericResultset(reportName,
@@ -99,12 +102,14 @@ public class DatatableReportingProcessService implements ReportingProcessService
             return Response.ok().entity(json).type(MediaType.APPLICATION_JSON).build();
         }
 
-        // CSV format
+        // CSV, JSON lines or XLSX, streamed row by row
+        final ReportExportFormat format = exportXlsx ? ReportExportFormat.XLSX
+                : exportJsonLines ? ReportExportFormat.JSONL : ReportExportFormat.CSV;
         final Map<String, String> reportParams = getReportParams(queryParams);
-        final StreamingOutput result = this.readExtraDataAndReportingService.retrieveReportCSV(reportName, parameterTypeValue, reportParams,
-                isSelfServiceUserReport);
+        final StreamingOutput result = this.readExtraDataAndReportingService.retrieveReportExport(reportName, parameterTypeValue,
+                reportParams, isSelfServiceUserReport, format);
 
-        return Response.ok().entity(result).type("text/csv")
-                .header("Content-Disposition", "attachment;filename=" + reportName.replaceAll(" ", "") + ".csv").build();
+        return Response.ok().entity(result).type(format.getMediaType()).header("Content-Disposition",
+                "attachment;filename=" + reportName.replaceAll(" ", "") + "." + format.getFileExtension()).build();
     }
 }
@@ -48,12 +48,14 @@ public class GenericDataServiceImpl implements GenericDataService {
     private final JdbcTemplate jdbcTemplate;
     private final DataSource dataSource;
     private final DatabaseIndependentQueryService databaseIndependentQueryService;
+    private final DatatableMetadataCache datatableMetadataCache;
 
     @Autowired
     public GenericDataServiceImpl(final RoutingDataSource dataSource, final JdbcTemplate jdbcTemplate,
-            DatabaseIndependentQueryService databaseIndependentQueryService) {
+            DatabaseIndependentQueryService databaseIndependentQueryService, final DatatableMetadataCache datatableMetadataCache) {
         this.dataSource = dataSource;
         this.databaseIndependentQueryService = databaseIndependentQueryService;
+        this.datatableMetadataCache = datatableMetadataCache;
         this.jdbcTemplate = new JdbcTemplate(this.dataSource);
     }
 
@@ -206,6 +208,10 @@ public class GenericDataServiceImpl implements GenericDataService {
 
     @Override
     public List<ResultsetColumnHeaderData> fillResultsetColumnHeaders(final String datatable) {
+        return this.datatableMetadataCache.getColumnHeaders(datatable, this::loadResultsetColumnHeaders);
+    }
+
+    private List<ResultsetColumnHeaderData> loadResultsetColumnHeaders(final String datatable) {
         final SqlRowSet columnDefinitions = getDatatableMetaData(datatable);
 
         final List<ResultsetColumnHeaderData> columnHeaders = new ArrayList<>();
@@ -237,9 +243,6 @@ public class GenericDataServiceImpl implements GenericDataService {
         return columnHeaders;
     }
 
-    /*
-     * Candidate for using caching there to get allowed 'column values' from code/codevalue tables
-     */
     private List<ResultsetColumnValueData> retreiveColumnValues(final String codeName) {
 
         final List<ResultsetColumnValueData> columnValues = new ArrayList<>();
@@ -26,6 +26,7 @@ import javax.ws.rs.core.StreamingOutput;
 import org.apache.fineract.infrastructure.dataqueries.data.GenericResultsetData;
 import org.apache.fineract.infrastructure.dataqueries.data.ReportData;
 import org.apache.fineract.infrastructure.dataqueries.data.ReportParameterData;
+import org.apache.fineract.infrastructure.dataqueries.service.export.ReportExportFormat;
 import org.apache.fineract.useradministration.domain.AppUser;
 
 public interface ReadReportingService {
@@ -44,6 +45,12 @@ public interface ReadReportingService {
 
     StreamingOutput retrieveReportCSV(String name, String type, Map<String, String> extractedQueryParams, boolean isSelfServiceUserReport);
 
+    /**
+     * Streams the report rows to the response in the given format without holding the result set in memory.
+     */
+    StreamingOutput retrieveReportExport(String name, String type, Map<String, String> extractedQueryParams,
+            boolean isSelfServiceUserReport, ReportExportFormat format);
+
     GenericResultsetData retrieveGenericResultset(String name, String type, Map<String, String> extractedQueryParams,
             boolean isSelfServiceUserReport);
 
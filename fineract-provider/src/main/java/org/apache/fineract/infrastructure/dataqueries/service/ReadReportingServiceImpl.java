@@ -22,12 +22,9 @@ import com.lowagie.text.Document;
 import com.lowagie.text.PageSize;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -51,6 +48,8 @@ import org.apache.fineract.infrastructure.dataqueries.data.ReportParameterJoinDa
 import org.apache.fineract.infrastructure.dataqueries.data.ResultsetColumnHeaderData;
 import org.apache.fineract.infrastructure.dataqueries.data.ResultsetRowData;
 import org.apache.fineract.infrastructure.dataqueries.exception.ReportNotFoundException;
+import org.apache.fineract.infrastructure.dataqueries.service.export.ReportExportFormat;
+import org.apache.fineract.infrastructure.dataqueries.service.export.StreamingReportExporter;
 import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
 import org.apache.fineract.infrastructure.security.service.SqlInjectionPreventerService;
 import org.apache.fineract.infrastructure.security.utils.LogParameterEscapeUtil;
@@ -73,81 +72,20 @@ public class ReadReportingServiceImpl implements ReadReportingService {
     private final SqlInjectionPreventerService sqlInjectionPreventerService;
     private final DatabaseSpecificSQLGenerator sqlGenerator;
     private final FineractProperties fineractProperties;
+    private final StreamingReportExporter streamingReportExporter;
 
     @Override
     public StreamingOutput retrieveReportCSV(final String name, final String type, final Map<String, String> queryParams,
             final boolean isSelfServiceUserReport) {
-        return out -> {
-            try {
-
-                final GenericResultsetData result = retrieveGenericResultset(name, type, queryParams, isSelfServiceUserReport);
-                final StringBuilder sb = generateCsvFileBuffer(result);
-
-                final InputStream in = new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8));
-
-                final byte[] outputByte = new byte[4096];
-                Integer readLen = in.read(outputByte, 0, 4096);
-
-                while (readLen != -1) {
-                    out.write(outputByte, 0, readLen);
-                    readLen = in.read(outputByte, 0, 4096);
-                }
-                // in.close();
-                // out.flush();
-                // out.close();
-            } catch (final Exception e) {
-                throw new PlatformDataIntegrityException("error.msg.exception.error", e.getMessage(), e);
-            }
-        };
+        return retrieveReportExport(name, type, queryParams, isSelfServiceUserReport, ReportExportFormat.CSV);
     }
 
-    private StringBuilder generateCsvFileBuffer(final GenericResultsetData result) {
-        final StringBuilder writer = new StringBuilder();
-
-        final List<ResultsetColumnHeaderData> columnHeaders = result.getColumnHeaders();
-        log.info("NO. of Columns: {}", columnHeaders.size());
-        final Integer chSize = columnHeaders.size();
-        for (int i = 0; i < chSize; i++) {
-            writer.append('"' + columnHeaders.get(i).getColumnName() + '"');
-            if (i < (chSize - 1)) {
-                writer.append(",");
-            }
-        }
-        writer.append('\n');
-
-        final List<ResultsetRowData> data = result.getData();
-        List<String> row;
-        Integer rSize;
-        // String currCol;
-        String currColType;
-        String currVal;
-        final String doubleQuote = "\"";
-        final String twoDoubleQuotes = doubleQuote + doubleQuote;
-        log.info("NO. of Rows: {}", data.size());
-        for (ResultsetRowData element : data) {
-            row = element.getRow();
-            rSize = row.size();
-            for (int j = 0; j < rSize; j++) {
-                // currCol = columnHeaders.get(j).getColumnName();
-                currColType = columnHeaders.get(j).getColumnType();
-                currVal = row.get(j);
-                if (currVal != null) {
-                    if (currColType.equals("DECIMAL") || currColType.equals("DOUBLE") || currColType.equals("BIGINT")
-                            || currColType.equals("SMALLINT") || currColType.equals("INT")) {
-                        writer.append(currVal);
-                    } else {
-                        writer.append('"' + this.genericDataService.replace(currVal, doubleQuote, twoDoubleQuotes) + '"');
-                    }
-
-                }
-                if (j < (rSize - 1)) {
-                    writer.append(",");
-                }
-            }
-            writer.append('\n');
-        }
-
-        return writer;
+    @Override
+    public StreamingOutput retrieveReportExport(final String name, final String type, final Map<String, String> queryParams,
+            final boolean isSelfServiceUserReport, final ReportExportFormat format) {
+        // resolved up front so an unknown report fails before the response is committed
+        final String sql = getSQLtoRun(name, type, queryParams, isSelfServiceUserReport);
+        return this.streamingReportExporter.export(sql, format);
     }
 
     @Override
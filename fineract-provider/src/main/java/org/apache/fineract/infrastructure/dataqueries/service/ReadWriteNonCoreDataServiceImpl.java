@@ -125,6 +125,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
     private final ColumnValidator columnValidator;
     private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private final SqlInjectionPreventerService preventSqlInjectionService;
+    private final DatatableMetadataCache datatableMetadataCache;
 
     @Override
     public List<DatatableData> retrieveDatatableNames(final String appTable) {
@@ -253,6 +254,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
                 this.namedParameterJdbcTemplate
                         .update("insert into c_configuration (name, value, enabled ) values( :dataTableName , '0',false)", paramMap);
             }
+            this.datatableMetadataCache.invalidate();
 
         } catch (final JpaSystemException | DataIntegrityViolationException dve) {
             final Throwable cause = dve.getCause();
@@ -365,6 +367,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
         sqlArray[3] = deleteFromConfigurationSql;
 
         this.jdbcTemplate.batchUpdate(sqlArray); // NOSONAR
+        this.datatableMetadataCache.invalidate();
     }
 
     @Transactional
@@ -960,6 +963,7 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
 
         try {
             this.context.authenticatedUser();
+            this.datatableMetadataCache.invalidate();
             this.fromApiJsonDeserializer.validateForUpdate(command.json());
 
             final JsonElement element = this.fromJsonHelper.parse(command.json());
@@ -1564,6 +1568,10 @@ public class ReadWriteNonCoreDataServiceImpl implements ReadWriteNonCoreDataServ
 
     private String queryForApplicationTableName(final String datatable) {
         SQLInjectionValidator.validateSQLInput(datatable);
+        return this.datatableMetadataCache.getApplicationTableName(datatable, this::loadApplicationTableName);
+    }
+
+    private String loadApplicationTableName(final String datatable) {
         final String sql = "SELECT application_table_name FROM x_registered_table where registered_table_name = ?";
 
         String applicationTableName = "";
@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.dataqueries.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.lang3.StringUtils;
+
+public class CsvReportExportWriter implements ReportExportWriter {
+
+    // column type names written unquoted, as the CSV export always did
+    private static final Set<String> UNQUOTED_TYPES = Set.of("DECIMAL", "DOUBLE", "BIGINT", "SMALLINT", "INT");
+    private static final String DOUBLE_QUOTE = "\"";
+    private static final String TWO_DOUBLE_QUOTES = DOUBLE_QUOTE + DOUBLE_QUOTE;
+
+    private final Writer writer;
+    private boolean[] unquoted;
+
+    public CsvReportExportWriter(final OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void writeHeader(final List<ReportExportColumn> columns) throws IOException {
+        this.unquoted = new boolean[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            this.unquoted[i] = UNQUOTED_TYPES.contains(columns.get(i).getTypeName());
+            if (i > 0) {
+                this.writer.write(',');
+            }
+            this.writer.write('"' + columns.get(i).getName() + '"');
+        }
+        this.writer.write('\n');
+    }
+
+    @Override
+    public void writeRow(final String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                this.writer.write(',');
+            }
+            final String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (this.unquoted[i]) {
+                this.writer.write(value);
+            } else {
+                this.writer.write('"' + StringUtils.replace(value, DOUBLE_QUOTE, TWO_DOUBLE_QUOTES) + '"');
+            }
+        }
+        this.writer.write('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writer.flush();
+    }
+}
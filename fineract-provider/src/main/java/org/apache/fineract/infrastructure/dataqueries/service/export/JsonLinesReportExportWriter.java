@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.dataqueries.service.export;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Newline delimited JSON: one object per row, keyed by column label.
+ */
+public class JsonLinesReportExportWriter implements ReportExportWriter {
+
+    private final Writer writer;
+    private final JsonWriter jsonWriter;
+    private List<ReportExportColumn> columns;
+
+    public JsonLinesReportExportWriter(final OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        this.jsonWriter = new JsonWriter(this.writer);
+        // several top level values, one per line
+        this.jsonWriter.setLenient(true);
+    }
+
+    @Override
+    public void writeHeader(final List<ReportExportColumn> columns) {
+        this.columns = columns;
+    }
+
+    @Override
+    public void writeRow(final String[] values) throws IOException {
+        this.jsonWriter.beginObject();
+        for (int i = 0; i < values.length; i++) {
+            final ReportExportColumn column = this.columns.get(i);
+            this.jsonWriter.name(column.getName());
+            if (values[i] == null) {
+                this.jsonWriter.nullValue();
+            } else if (column.isNumeric()) {
+                this.jsonWriter.jsonValue(values[i]);
+            } else {
+                this.jsonWriter.value(values[i]);
+            }
+        }
+        this.jsonWriter.endObject();
+        // JsonWriter does not buffer, the separator lands right after the object
+        this.writer.write('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writer.flush();
+    }
+}
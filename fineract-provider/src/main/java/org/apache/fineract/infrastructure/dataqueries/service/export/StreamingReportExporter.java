@@ -0,0 +1,142 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.dataqueries.service.export;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.ws.rs.core.StreamingOutput;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.exception.PlatformDataIntegrityException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams a report query to the response without materialising it: the rows are read through a forward-only cursor
+ * and handed to a {@link ReportExportWriter} one at a time, so the heap used does not grow with the row count.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StreamingReportExporter {
+
+    private static final String METRIC_NAME = "fineract.report.export";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final FineractProperties fineractProperties;
+    private final MeterRegistry meterRegistry;
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        // PostgreSQL only honours the fetch size with auto-commit switched off, i.e. inside a transaction
+        this.readOnlyTransactionTemplate = new TransactionTemplate(this.transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    public StreamingOutput export(final String sql, final ReportExportFormat format) {
+        return out -> {
+            final CountingOutputStream countingOut = new CountingOutputStream(out);
+            final long startTime = System.nanoTime();
+            String outcome = "failure";
+            long rows = 0;
+            try (ReportExportWriter writer = createWriter(format, countingOut)) {
+                rows = this.readOnlyTransactionTemplate.execute(status -> this.jdbcTemplate.query(con -> {
+                    final PreparedStatement statement = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(this.fineractProperties.getReport().getExportFetchSize());
+                    return statement;
+                }, rs -> writeRows(rs, writer)));
+                writer.finish();
+                outcome = "success";
+            } catch (final UncheckedIOException e) {
+                throw e.getCause();
+            } catch (final RuntimeException e) {
+                throw new PlatformDataIntegrityException("error.msg.exception.error", e.getMessage(), e);
+            } finally {
+                recordMetrics(format, outcome, rows, countingOut.getByteCount(), System.nanoTime() - startTime);
+            }
+        };
+    }
+
+    private long writeRows(final ResultSet rs, final ReportExportWriter writer) throws SQLException {
+        final ResultSetMetaData metaData = rs.getMetaData();
+        final int columnCount = metaData.getColumnCount();
+        final List<ReportExportColumn> columns = new ArrayList<>(columnCount);
+        for (int i = 1; i <= columnCount; i++) {
+            columns.add(new ReportExportColumn(metaData.getColumnLabel(i), metaData.getColumnTypeName(i), metaData.getColumnType(i)));
+        }
+        long rows = 0;
+        try {
+            writer.writeHeader(columns);
+            while (rs.next()) {
+                final String[] values = new String[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    values[i] = rs.getString(i + 1);
+                }
+                writer.writeRow(values);
+                rows++;
+            }
+        } catch (IOException e) {
+            // the client went away, stop reading the cursor
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    private static ReportExportWriter createWriter(final ReportExportFormat format, final OutputStream out) {
+        switch (format) {
+            case JSONL:
+                return new JsonLinesReportExportWriter(out);
+            case XLSX:
+                return new XlsxReportExportWriter(out);
+            default:
+                return new CsvReportExportWriter(out);
+        }
+    }
+
+    private void recordMetrics(final ReportExportFormat format, final String outcome, final long rows, final long bytes,
+            final long elapsedNanos) {
+        final String formatTag = format.name().toLowerCase();
+        Timer.builder(METRIC_NAME).tag("format", formatTag).tag("outcome", outcome).register(this.meterRegistry).record(elapsedNanos,
+                TimeUnit.NANOSECONDS);
+        Counter.builder(METRIC_NAME + ".rows").tag("format", formatTag).register(this.meterRegistry).increment(rows);
+        Counter.builder(METRIC_NAME + ".bytes").baseUnit("bytes").tag("format", formatTag).register(this.meterRegistry).increment(bytes);
+        if (log.isDebugEnabled()) {
+            final double seconds = Math.max(elapsedNanos, 1L) / 1_000_000_000d;
+            log.debug("Report export ({}): {} rows, {} bytes in {} s ({} rows/s)", formatTag, rows, bytes, seconds, rows / seconds);
+        }
+    }
+}
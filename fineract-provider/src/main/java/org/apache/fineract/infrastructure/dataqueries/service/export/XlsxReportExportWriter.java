@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.dataqueries.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+/**
+ * XLSX through POI's streaming workbook: only a window of rows stays in memory, older rows are flushed to a temporary
+ * file until the workbook is written out. Reports longer than a sheet continue on a new sheet.
+ */
+public class XlsxReportExportWriter implements ReportExportWriter {
+
+    private static final int ROW_ACCESS_WINDOW = 100;
+    private static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final OutputStream out;
+    private final SXSSFWorkbook workbook;
+    private List<ReportExportColumn> columns;
+    private Sheet sheet;
+    private int rowIndex;
+
+    public XlsxReportExportWriter(final OutputStream out) {
+        this.out = out;
+        this.workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+    }
+
+    @Override
+    public void writeHeader(final List<ReportExportColumn> columns) {
+        this.columns = columns;
+        startSheet();
+    }
+
+    @Override
+    public void writeRow(final String[] values) {
+        if (this.rowIndex >= MAX_ROWS_PER_SHEET) {
+            startSheet();
+        }
+        final Row row = this.sheet.createRow(this.rowIndex++);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                continue;
+            }
+            final Cell cell = row.createCell(i);
+            if (this.columns.get(i).isNumeric()) {
+                try {
+                    cell.setCellValue(Double.parseDouble(values[i]));
+                    continue;
+                } catch (NumberFormatException e) {
+                    // falls back to the text value
+                }
+            }
+            cell.setCellValue(values[i]);
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.workbook.write(this.out);
+        this.out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.workbook.dispose();
+        this.workbook.close();
+    }
+
+    private void startSheet() {
+        this.sheet = this.workbook.createSheet();
+        final Row header = this.sheet.createRow(0);
+        for (int i = 0; i < this.columns.size(); i++) {
+            header.createCell(i).setCellValue(this.columns.get(i).getName());
+        }
+        this.rowIndex = 1;
+    }
+}
@@ -16,23 +16,25 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package org.apache.fineract.infrastructure.hooks.event;
+package org.apache.fineract.infrastructure.hooks.data;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
-import org.apache.fineract.infrastructure.core.domain.FineractContext;
-import org.apache.fineract.infrastructure.core.domain.FineractEvent;
-import org.apache.fineract.useradministration.domain.AppUser;
 
+/**
+ * Immutable snapshot of a row of {@code m_hook_outbox}: the payload of one command for one hook, waiting to be
+ * delivered, with the user and auth token of the request that produced it.
+ */
 @Getter
-public class HookEvent extends FineractEvent {
+@AllArgsConstructor
+public class HookOutboxEntry {
 
+    private final Long id;
+    private final Long hookId;
+    private final String entityName;
+    private final String actionName;
     private final String payload;
-
-    private final AppUser appUser;
-
-    public HookEvent(final HookEventSource source, final String payload, final AppUser appUser, FineractContext fineractContext) {
-        super(source, fineractContext);
-        this.payload = payload;
-        this.appUser = appUser;
-    }
+    private final Integer attempts;
+    private final Long userId;
+    private final String authToken;
 }
@@ -23,6 +23,7 @@ import static org.apache.fineract.infrastructure.hooks.api.HookApiConstants.payl
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -31,7 +32,6 @@ import org.apache.fineract.infrastructure.core.domain.FineractContext;
 import org.apache.fineract.infrastructure.hooks.domain.Hook;
 import org.apache.fineract.infrastructure.hooks.domain.HookConfiguration;
 import org.springframework.stereotype.Service;
-import retrofit2.Callback;
 
 @Service
 @RequiredArgsConstructor
@@ -41,7 +41,7 @@ public class ElasticSearchHookProcessor implements HookProcessor {
 
     @Override
     public void process(final Hook hook, final String payload, final String entityName, final String actionName,
-            final FineractContext context) {
+            final FineractContext context) throws IOException {
 
         final Set<HookConfiguration> config = hook.getHookConfig();
 
@@ -64,23 +64,20 @@ public class ElasticSearchHookProcessor implements HookProcessor {
 
     @SuppressWarnings("unchecked")
     private void sendRequest(final String url, final String contentType, final String payload, final String entityName,
-            final String actionName, final FineractContext context) {
+            final String actionName, final FineractContext context) throws IOException {
 
         final String fineractEndpointUrl = System.getProperty("baseUrl");
         final WebHookService service = processorHelper.createWebHookService(url);
 
-        @SuppressWarnings("rawtypes")
-        final Callback callback = processorHelper.createCallback(url, payload);
-
         if (contentType.equalsIgnoreCase("json") || contentType.contains("json")) {
             final JsonObject json = new Gson().fromJson(payload, JsonObject.class);
-            service.sendJsonRequest(entityName, actionName, context.getTenantContext().getTenantIdentifier(), fineractEndpointUrl, json)
-                    .enqueue(callback);
+            processorHelper.execute(service.sendJsonRequest(entityName, actionName, context.getTenantContext().getTenantIdentifier(),
+                    fineractEndpointUrl, json), url);
         } else {
             Map<String, String> map = new HashMap<>();
             map = new Gson().fromJson(payload, map.getClass());
-            service.sendFormRequest(entityName, actionName, context.getTenantContext().getTenantIdentifier(), fineractEndpointUrl, map)
-                    .enqueue(callback);
+            processorHelper.execute(service.sendFormRequest(entityName, actionName, context.getTenantContext().getTenantIdentifier(),
+                    fineractEndpointUrl, map), url);
         }
     }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.fineract.infrastructure.hooks.processor;
 
+import java.io.IOException;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -32,7 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import retrofit2.Call;
-import retrofit2.Callback;
+import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
@@ -66,6 +67,8 @@ public final class ProcessorHelper {
      */
     private final boolean insecureHttpClient = Boolean.getBoolean("fineract.insecureHttpClient");
     private final SSLContext insecureSSLContext;
+    // shared by all hooks so connections to the same endpoint are pooled and reused
+    private final OkHttpClient client;
 
     public ProcessorHelper() throws KeyManagementException, NoSuchAlgorithmException {
         if (insecureHttpClient) {
@@ -73,6 +76,7 @@ public final class ProcessorHelper {
         } else {
             insecureSSLContext = null;
         }
+        client = createClient();
     }
 
     private OkHttpClient createClient() {
@@ -96,24 +100,23 @@ public final class ProcessorHelper {
         return insecureSSLContext;
     }
 
-    @SuppressWarnings("rawtypes")
-    public Callback createCallback(final String url) {
-        return new Callback() {
-
-            @Override
-            public void onResponse(@SuppressWarnings("unused") Call call, retrofit2.Response response) {
-                LOG.info("URL: {} - Status: {}", url, response.code());
-            }
-
-            @Override
-            public void onFailure(@SuppressWarnings("unused") Call call, Throwable t) {
-                LOG.error("URL: {} - Retrofit failure occured", url, t);
-            }
-        };
+    /**
+     * Sends the request on the calling thread, so the hook outbox dispatcher learns about the outcome and can retry
+     * failed deliveries.
+     *
+     * @throws IOException
+     *             when the endpoint cannot be reached or does not answer with a 2xx status
+     */
+    public <T> Response<T> execute(final Call<T> call, final String url) throws IOException {
+        final Response<T> response = call.execute();
+        LOG.info("URL: {} - Status: {}", url, response.code());
+        if (!response.isSuccessful()) {
+            throw new IOException("URL: " + url + " - Status: " + response.code());
+        }
+        return response;
     }
 
     public WebHookService createWebHookService(final String url) {
-        final OkHttpClient client = createClient();
         final Retrofit.Builder retrofitBuilder = new Retrofit.Builder();
         retrofitBuilder.baseUrl(url);
         retrofitBuilder.client(client);
@@ -121,21 +124,4 @@ public final class ProcessorHelper {
         final Retrofit retrofit = retrofitBuilder.build();
         return retrofit.create(WebHookService.class);
     }
-
-    @SuppressWarnings("rawtypes")
-    public Callback createCallback(final String url, String payload) {
-
-        return new Callback() {
-
-            @Override
-            public void onResponse(@SuppressWarnings("unused") Call call, retrofit2.Response response) {
-                LOG.info("URL: {} - Status: {}", url, response.code());
-            }
-
-            @Override
-            public void onFailure(@SuppressWarnings("unused") Call call, Throwable t) {
-                LOG.error("URL: {} - Retrofit failure occured", url, t);
-            }
-        };
-    }
 }
@@ -0,0 +1,251 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.hooks.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fineract.infrastructure.businessdate.domain.BusinessDateType;
+import org.apache.fineract.infrastructure.businessdate.service.BusinessDateReadPlatformService;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.hooks.data.HookOutboxEntry;
+import org.apache.fineract.infrastructure.hooks.domain.Hook;
+import org.apache.fineract.infrastructure.hooks.domain.HookRepository;
+import org.apache.fineract.infrastructure.hooks.processor.HookProcessor;
+import org.apache.fineract.infrastructure.hooks.processor.HookProcessorProvider;
+import org.apache.fineract.infrastructure.security.service.TenantDetailsService;
+import org.apache.fineract.useradministration.domain.AppUser;
+import org.apache.fineract.useradministration.domain.AppUserRepositoryWrapper;
+import org.apache.fineract.useradministration.exception.UserNotFoundException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.security.core.authority.mapping.NullAuthoritiesMapper;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains <code>m_hook_outbox</code> of every tenant. Claimed entries are grouped by hook, and each hook's entries are
+ * delivered in order by one thread of the dispatcher pool. Polling never waits for the deliveries: a hook that is still
+ * being delivered to is left out of the next claims (and its claims are renewed) until it is done, so a slow endpoint
+ * only holds up its own deliveries. Each entry is delivered as the user and with the auth token of the request that
+ * produced it, which the hook processors pass on (e.g. the SMS bridge token). Failed deliveries are retried with
+ * exponential backoff and dead-lettered once <code>fineract.hooks.max-attempts</code> is reached.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HookOutboxDispatcher {
+
+    private static final String METRIC_NAME = "fineract.hooks.delivery";
+
+    private final FineractProperties fineractProperties;
+    private final TenantDetailsService tenantDetailsService;
+    private final AppUserRepositoryWrapper userRepository;
+    private final BusinessDateReadPlatformService businessDateReadPlatformService;
+    private final HookOutboxService hookOutboxService;
+    private final HookRepository hookRepository;
+    private final HookProcessorProvider hookProcessorProvider;
+    private final MeterRegistry meterRegistry;
+    private final GrantedAuthoritiesMapper authoritiesMapper = new NullAuthoritiesMapper();
+    // hooks with a delivery running on this node, by tenant identifier
+    private final Map<String, Set<Long>> hooksInFlight = new ConcurrentHashMap<>();
+    private ScheduledExecutorService pollingExecutorService;
+    private ExecutorService dispatcherExecutorService;
+
+    @PostConstruct
+    public void startPolling() {
+        if (this.fineractProperties.getMode().isReadOnlyMode()) {
+            return;
+        }
+        final FineractProperties.FineractHooksProperties hooksProperties = this.fineractProperties.getHooks();
+        this.dispatcherExecutorService = Executors.newFixedThreadPool(Math.max(hooksProperties.getDispatcherThreads(), 1));
+        this.pollingExecutorService = Executors.newSingleThreadScheduledExecutor();
+        this.pollingExecutorService.scheduleWithFixedDelay(this::poll, hooksProperties.getPollInterval(), hooksProperties.getPollInterval(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopPolling() {
+        if (this.pollingExecutorService != null) {
+            this.pollingExecutorService.shutdownNow();
+            this.dispatcherExecutorService.shutdownNow();
+        }
+    }
+
+    void poll() {
+        try {
+            for (final FineractPlatformTenant tenant : this.tenantDetailsService.findAllTenants()) {
+                pollTenant(tenant);
+            }
+        } catch (final RuntimeException e) {
+            // never let an exception cancel the periodic polling
+            log.error("Dispatching hook outbox entries failed", e);
+        } finally {
+            ThreadLocalContextUtil.reset();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void pollTenant(final FineractPlatformTenant tenant) {
+        ThreadLocalContextUtil.setTenant(tenant);
+        final FineractProperties.FineractHooksProperties hooksProperties = this.fineractProperties.getHooks();
+        final Set<Long> hooksInFlight = this.hooksInFlight.computeIfAbsent(tenant.getTenantIdentifier(),
+                tenantIdentifier -> ConcurrentHashMap.newKeySet());
+        // deliveries that are still running keep their claims, so only the entries of a dead dispatcher go stale
+        this.hookOutboxService.refreshClaims(List.copyOf(hooksInFlight));
+        final int released = this.hookOutboxService
+                .releaseStaleEntries(DateUtils.getLocalDateTimeOfSystem().minusSeconds(hooksProperties.getStaleTimeout()));
+        if (released > 0) {
+            log.warn("Released {} stale hook outbox entries of tenant {}", released, tenant.getTenantIdentifier());
+        }
+        // the next entries of a hook that is still being delivered to wait for the next poll, which keeps them in order
+        final List<HookOutboxEntry> entries = this.hookOutboxService.claimDueEntries(hooksProperties.getBatchSize(),
+                List.copyOf(hooksInFlight));
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        final AppUser user = this.userRepository.fetchSystemUser();
+        final UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(user, user.getPassword(),
+                this.authoritiesMapper.mapAuthorities(user.getAuthorities()));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        final HashMap<BusinessDateType, LocalDate> businessDates = this.businessDateReadPlatformService.getBusinessDates();
+        ThreadLocalContextUtil.setBusinessDates(businessDates);
+
+        final Map<Long, List<HookOutboxEntry>> entriesByHook = new LinkedHashMap<>();
+        for (final HookOutboxEntry entry : entries) {
+            entriesByHook.computeIfAbsent(entry.getHookId(), hookId -> new ArrayList<>()).add(entry);
+        }
+        for (final Map.Entry<Long, List<HookOutboxEntry>> hookEntries : entriesByHook.entrySet()) {
+            final Long hookId = hookEntries.getKey();
+            hooksInFlight.add(hookId);
+            try {
+                this.dispatcherExecutorService.execute(() -> {
+                    try {
+                        ThreadLocalContextUtil.setTenant(tenant);
+                        ThreadLocalContextUtil.setBusinessDates(businessDates);
+                        SecurityContextHolder.getContext().setAuthentication(authentication);
+                        deliver(hookId, hookEntries.getValue(), authentication);
+                    } catch (final RuntimeException e) {
+                        log.error("Delivering outbox entries of hook {} failed", hookId, e);
+                    } finally {
+                        hooksInFlight.remove(hookId);
+                        ThreadLocalContextUtil.reset();
+                        SecurityContextHolder.clearContext();
+                    }
+                });
+            } catch (final RejectedExecutionException e) {
+                // shutting down: the claimed entries are released once they go stale
+                hooksInFlight.remove(hookId);
+                throw e;
+            }
+        }
+    }
+
+    private void deliver(final Long hookId, final List<HookOutboxEntry> entries, final Authentication systemAuthentication) {
+        final Hook hook = this.hookRepository.findById(hookId).orElse(null);
+        final HookProcessor processor = hook == null ? null : this.hookProcessorProvider.getProcessor(hook);
+        final Map<Long, Authentication> userAuthentications = new HashMap<>();
+        for (final HookOutboxEntry entry : entries) {
+            if (processor == null) {
+                if (this.hookOutboxService.markFailed(entry.getId(), "No processor found for hook " + hookId, null)) {
+                    record(hookId, "dead", 0L);
+                } else {
+                    logClaimLost(entry);
+                }
+                continue;
+            }
+            final long start = System.nanoTime();
+            try {
+                // the processors are called as the user of the request that produced the entry
+                final Authentication authentication = entry.getUserId() == null ? systemAuthentication
+                        : userAuthentications.computeIfAbsent(entry.getUserId(), userId -> authenticationOf(userId, systemAuthentication));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                ThreadLocalContextUtil.setAuthToken(entry.getAuthToken());
+                processor.process(hook, entry.getPayload(), entry.getEntityName(), entry.getActionName(),
+                        ThreadLocalContextUtil.getContext());
+                if (!this.hookOutboxService.markDelivered(entry.getId())) {
+                    logClaimLost(entry);
+                }
+                record(hookId, "delivered", System.nanoTime() - start);
+            } catch (Exception e) {
+                final int attempts = entry.getAttempts() + 1;
+                final LocalDateTime nextAttemptDate = attempts >= this.fineractProperties.getHooks().getMaxAttempts() ? null
+                        : DateUtils.getLocalDateTimeOfSystem().plusSeconds(backoffSeconds(attempts));
+                if (!this.hookOutboxService.markFailed(entry.getId(), e.getMessage(), nextAttemptDate)) {
+                    logClaimLost(entry);
+                }
+                record(hookId, nextAttemptDate == null ? "dead" : "failed", System.nanoTime() - start);
+                log.warn("Hook {} failed in HookProcessor {} for outbox entry {} (attempt {}), entityName: {}, actionName: {}", hookId,
+                        processor.getClass().getSimpleName(), entry.getId(), attempts, entry.getEntityName(), entry.getActionName(), e);
+            } finally {
+                ThreadLocalContextUtil.setAuthToken(null);
+                SecurityContextHolder.getContext().setAuthentication(systemAuthentication);
+            }
+        }
+    }
+
+    private Authentication authenticationOf(final Long userId, final Authentication systemAuthentication) {
+        try {
+            final AppUser user = this.userRepository.findOneWithNotFoundDetection(userId);
+            return new UsernamePasswordAuthenticationToken(user, user.getPassword(),
+                    this.authoritiesMapper.mapAuthorities(user.getAuthorities()));
+        } catch (final UserNotFoundException e) {
+            log.warn("User {} of a hook outbox entry no longer exists, delivering as the system user", userId);
+            return systemAuthentication;
+        }
+    }
+
+    private void logClaimLost(final HookOutboxEntry entry) {
+        log.warn("Hook outbox entry {} of hook {} was released while being delivered, another dispatcher may deliver it again",
+                entry.getId(), entry.getHookId());
+    }
+
+    private long backoffSeconds(final int attempts) {
+        final FineractProperties.FineractHooksProperties hooksProperties = this.fineractProperties.getHooks();
+        final long backoff = (long) hooksProperties.getBackoffInitial() << Math.min(attempts - 1, 30);
+        return Math.min(backoff, hooksProperties.getBackoffMax());
+    }
+
+    private void record(final Long hookId, final String outcome, final long durationNanos) {
+        Timer.builder(METRIC_NAME).tag("hook", String.valueOf(hookId)).tag("outcome", outcome).register(this.meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+}
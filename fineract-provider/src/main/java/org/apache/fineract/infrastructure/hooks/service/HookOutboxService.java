@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.hooks.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.apache.fineract.infrastructure.hooks.data.HookOutboxEntry;
+import org.apache.fineract.useradministration.domain.AppUser;
+
+public interface HookOutboxService {
+
+    /**
+     * Writes one outbox entry per active hook listening to the event. The entries keep the user and the auth token of
+     * the current request, which the hook processors are called with on delivery. Joins the caller's transaction, so
+     * the entries are only visible to the dispatcher once the command that produced them has committed.
+     */
+    void enqueue(String entityName, String actionName, String payload, AppUser appUser);
+
+    /**
+     * Like {@link #enqueue(String, String, String, AppUser)}, but commits the entries on their own, e.g. for the error
+     * event of a command whose transaction is rolled back.
+     */
+    void enqueueInNewTransaction(String entityName, String actionName, String payload, AppUser appUser);
+
+    /**
+     * Claims up to <code>batchSize</code> pending entries that are due, oldest first, leaving out the entries of
+     * <code>excludedHookIds</code>. The rows are locked with <code>SKIP LOCKED</code> so dispatchers on other nodes
+     * never claim the same entry.
+     */
+    List<HookOutboxEntry> claimDueEntries(int batchSize, Collection<Long> excludedHookIds);
+
+    /**
+     * Renews the claims this node holds on the entries of <code>hookIds</code>, so deliveries that are still running
+     * are not released as stale.
+     *
+     * @return the number of entries renewed
+     */
+    int refreshClaims(Collection<Long> hookIds);
+
+    /**
+     * Removes a delivered entry.
+     *
+     * @return false when this node no longer holds the claim on the entry (it was released as stale in between)
+     */
+    boolean markDelivered(Long entryId);
+
+    /**
+     * Schedules the next attempt of a failed delivery, or moves the entry to the dead letter state when
+     * <code>nextAttemptDate</code> is null. Dead entries no longer keep the auth token.
+     *
+     * @return false when this node no longer holds the claim on the entry
+     */
+    boolean markFailed(Long entryId, String errorMessage, LocalDateTime nextAttemptDate);
+
+    /**
+     * Hands entries back to the pool that were claimed before <code>staleBefore</code> and never finished, e.g.
+     * because the node delivering them died.
+     */
+    int releaseStaleEntries(LocalDateTime staleBefore);
+}
@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.hooks.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.JdbcSupport;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
+import org.apache.fineract.infrastructure.hooks.data.HookOutboxEntry;
+import org.apache.fineract.infrastructure.hooks.domain.HookOutboxStatus;
+import org.apache.fineract.useradministration.domain.AppUser;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class HookOutboxServiceImpl implements HookOutboxService {
+
+    private static final HookOutboxEntryMapper ENTRY_MAPPER = new HookOutboxEntryMapper();
+    private static final int ERROR_MESSAGE_MAX_LENGTH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseSpecificSQLGenerator sqlGenerator;
+    private final FineractProperties fineractProperties;
+
+    @Override
+    @Transactional
+    public void enqueue(final String entityName, final String actionName, final String payload, final AppUser appUser) {
+        insertEntries(entityName, actionName, payload, appUser);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void enqueueInNewTransaction(final String entityName, final String actionName, final String payload, final AppUser appUser) {
+        insertEntries(entityName, actionName, payload, appUser);
+    }
+
+    private void insertEntries(final String entityName, final String actionName, final String payload, final AppUser appUser) {
+        final List<Long> hookIds = this.jdbcTemplate.queryForList(
+                "select h.id from m_hook h join m_hook_registered_events e on e.hook_id = h.id "
+                        + "where e.entity_name = ? and e.action_name = ? and h.is_active = ?",
+                Long.class, entityName, actionName, true);
+        if (hookIds.isEmpty()) {
+            return;
+        }
+        final LocalDateTime now = DateUtils.getLocalDateTimeOfSystem();
+        final Long userId = appUser == null ? null : appUser.getId();
+        final String authToken = ThreadLocalContextUtil.getAuthToken();
+        final List<Object[]> batchArgs = new ArrayList<>(hookIds.size());
+        for (final Long hookId : hookIds) {
+            batchArgs.add(
+                    new Object[] { hookId, entityName, actionName, payload, HookOutboxStatus.PENDING.name(), now, now, userId, authToken });
+        }
+        this.jdbcTemplate.batchUpdate("insert into m_hook_outbox (hook_id, entity_name, action_name, payload, status, attempts, "
+                + "next_attempt_date, created_date, user_id, auth_token) values (?, ?, ?, ?, ?, 0, ?, ?, ?, ?)", batchArgs);
+    }
+
+    /**
+     * Selecting and flagging the entries happen in one short transaction: once it commits the rows are no longer
+     * PENDING, so the row locks are only needed to keep two dispatchers from flagging the same rows concurrently.
+     */
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<HookOutboxEntry> claimDueEntries(final int batchSize, final Collection<Long> excludedHookIds) {
+        final LocalDateTime now = DateUtils.getLocalDateTimeOfSystem();
+        final List<Object> params = new ArrayList<>();
+        params.add(HookOutboxStatus.PENDING.name());
+        params.add(now);
+        String excludedHooks = "";
+        if (!excludedHookIds.isEmpty()) {
+            excludedHooks = " and o.hook_id not in (" + placeholders(excludedHookIds.size()) + ")";
+            params.addAll(excludedHookIds);
+        }
+        final List<HookOutboxEntry> entries = this.jdbcTemplate.query(
+                "select " + ENTRY_MAPPER.schema() + " where o.status = ? and o.next_attempt_date <= ?" + excludedHooks + " order by o.id "
+                        + this.sqlGenerator.limit(batchSize) + " " + this.sqlGenerator.forUpdateSkipLocked(),
+                ENTRY_MAPPER, params.toArray());
+        if (!entries.isEmpty()) {
+            final List<Object[]> batchArgs = new ArrayList<>(entries.size());
+            for (final HookOutboxEntry entry : entries) {
+                batchArgs.add(new Object[] { HookOutboxStatus.PROCESSING.name(), this.fineractProperties.getNodeId(), now, entry.getId() });
+            }
+            this.jdbcTemplate.batchUpdate("update m_hook_outbox set status = ?, node_id = ?, lastmodified_date = ? where id = ?",
+                    batchArgs);
+        }
+        return entries;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int refreshClaims(final Collection<Long> hookIds) {
+        if (hookIds.isEmpty()) {
+            return 0;
+        }
+        final List<Object> params = new ArrayList<>();
+        params.add(DateUtils.getLocalDateTimeOfSystem());
+        params.add(HookOutboxStatus.PROCESSING.name());
+        params.add(this.fineractProperties.getNodeId());
+        params.addAll(hookIds);
+        return this.jdbcTemplate.update("update m_hook_outbox set lastmodified_date = ? where status = ? and node_id = ? and hook_id in ("
+                + placeholders(hookIds.size()) + ")", params.toArray());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean markDelivered(final Long entryId) {
+        return this.jdbcTemplate.update("delete from m_hook_outbox where id = ? and status = ? and node_id = ?", entryId,
+                HookOutboxStatus.PROCESSING.name(), this.fineractProperties.getNodeId()) > 0;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean markFailed(final Long entryId, final String errorMessage, final LocalDateTime nextAttemptDate) {
+        final LocalDateTime now = DateUtils.getLocalDateTimeOfSystem();
+        final HookOutboxStatus status = nextAttemptDate == null ? HookOutboxStatus.DEAD : HookOutboxStatus.PENDING;
+        // a dead entry is never delivered again, so it does not keep the caller's credentials
+        final String authTokenValue = nextAttemptDate == null ? "null" : "auth_token";
+        return this.jdbcTemplate.update(
+                "update m_hook_outbox set status = ?, attempts = attempts + 1, next_attempt_date = ?, last_error = ?, node_id = null, "
+                        + "auth_token = " + authTokenValue + ", lastmodified_date = ? where id = ? and status = ? and node_id = ?",
+                status.name(), nextAttemptDate == null ? now : nextAttemptDate,
+                StringUtils.abbreviate(errorMessage, ERROR_MESSAGE_MAX_LENGTH), now, entryId, HookOutboxStatus.PROCESSING.name(),
+                this.fineractProperties.getNodeId()) > 0;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int releaseStaleEntries(final LocalDateTime staleBefore) {
+        return this.jdbcTemplate.update(
+                "update m_hook_outbox set status = ?, node_id = null, lastmodified_date = ? where status = ? and lastmodified_date < ?",
+                HookOutboxStatus.PENDING.name(), DateUtils.getLocalDateTimeOfSystem(), HookOutboxStatus.PROCESSING.name(), staleBefore);
+    }
+
+    private static String placeholders(final int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static final class HookOutboxEntryMapper implements RowMapper<HookOutboxEntry> {
+
+        public String schema() {
+            return " o.id as id, o.hook_id as hookId, o.entity_name as entityName, o.action_name as actionName, o.payload as payload,"
+                    + " o.attempts as attempts, o.user_id as userId, o.auth_token as authToken from m_hook_outbox o ";
+        }
+
+        @Override
+        public HookOutboxEntry mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
+            return new HookOutboxEntry(rs.getLong("id"), rs.getLong("hookId"), rs.getString("entityName"), rs.getString("actionName"),
+                    rs.getString("payload"), rs.getInt("attempts"), JdbcSupport.getLong(rs, "userId"), rs.getString("authToken"));
+        }
+    }
+}
@@ -18,179 +18,310 @@
  */
 package org.apache.fineract.infrastructure.jobs.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
+import java.util.Set;
 import java.util.TreeMap;
-import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.FineractContext;
 import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
+/**
+ * Shared executor for the items of a job run. Items are handed out in small chunks to a fixed number of worker loops, so a
+ * slow item only holds up its own worker while the others keep taking chunks. CPU bound work runs on a work-stealing
+ * pool. I/O bound work, which is everything that talks to the database, runs on a fixed {@link ThreadPoolTaskExecutor}
+ * sized by <code>fineract.jobs.io-parallelism</code> (or on virtual threads when enabled and provided by the JVM). The
+ * tenant context and authentication of the caller are propagated to the workers and removed again once they are done,
+ * failed items are collected, and a run stops handing out chunks once its caller is interrupted or the application shuts
+ * down. Items must not run further work on this executor and wait for it, the pools are bounded.
+ */
+@Slf4j
 @Component
+@RequiredArgsConstructor
 public class JobExecuter {
 
     public static final String ENTITY_COLLECTION = "entityCollection";
     public static final String EXCEPTION_BUILDER = "exceptionBuilder";
 
-    public <V> String executeJob(List<V> baseList, final JobRunner<List<V>> jobRunner) {
-        final StringBuilder sb = new StringBuilder();
-        if (!baseList.isEmpty()) {
-            int numberOfThreads = getNumberOfThreads();
-            int listSize = baseList.size();
-            if (numberOfThreads <= 1 || numberOfThreads > listSize) {
-                jobRunner.runJob(baseList, sb);
-            } else {
-                int subListSize = listSize / numberOfThreads;
-                List<StringBuilder> bufferes = new ArrayList<>(numberOfThreads);
-                try {
-                    List<Thread> threads = new ArrayList<>();
-                    List<List<V>> subLists = splitList(baseList, subListSize, numberOfThreads);
-                    for (List<V> subList : subLists) {
-                        final StringBuilder threadsb = new StringBuilder();
-                        bufferes.add(threadsb);
-                        if (subList.size() > 0) {
-                            Thread thread = new Thread(new JobRunnerThread<>(jobRunner, subList, threadsb));
-                            thread.start();
-                            threads.add(thread);
-                        }
-                    }
-                    for (Thread thread : threads) {
-                        thread.join();
-                    }
-                    for (StringBuilder threadsb : bufferes) {
-                        sb.append(threadsb.toString());
-                    }
-                } catch (InterruptedException e) {
-                    sb.append("Thread Interrupted for " + jobRunner.toString() + " : " + e.getMessage());
-                }
-            }
+    private static final String NUMBER_OF_THREADS_PARAMETER = "number-of-threads";
+    private static final String CHUNK_METRIC_NAME = "fineract.jobs.chunk";
+    private static final String ITEMS_METRIC_NAME = "fineract.jobs.items";
 
+    private final FineractProperties fineractProperties;
+    private final MeterRegistry meterRegistry;
+    private final Set<AtomicBoolean> activeRuns = ConcurrentHashMap.newKeySet();
+    private ExecutorService cpuExecutorService;
+    private ThreadPoolTaskExecutor ioTaskExecutor;
+    private ExecutorService ioExecutorService;
+
+    public enum Workload {
+        // pure computation, e.g. on data already loaded
+        CPU_BOUND,
+        // anything waiting on the database or a remote endpoint
+        IO_BOUND
+    }
+
+    @PostConstruct
+    public void start() {
+        final FineractProperties.FineractJobsProperties jobsProperties = this.fineractProperties.getJobs();
+        this.cpuExecutorService = Executors.newWorkStealingPool(parallelism(jobsProperties.getParallelism()));
+        if (jobsProperties.isVirtualThreadsEnabled()) {
+            this.ioExecutorService = newVirtualThreadExecutor();
+        }
+        if (this.ioExecutorService == null) {
+            final int ioParallelism = parallelism(jobsProperties.getIoParallelism());
+            this.ioTaskExecutor = new ThreadPoolTaskExecutor();
+            this.ioTaskExecutor.setCorePoolSize(ioParallelism);
+            this.ioTaskExecutor.setMaxPoolSize(ioParallelism);
+            this.ioTaskExecutor.setThreadNamePrefix("job-io-");
+            this.ioTaskExecutor.initialize();
+            this.ioExecutorService = this.ioTaskExecutor.getThreadPoolExecutor();
         }
-        return sb.toString();
     }
 
-    public <K, V> String executeJob(Map<K, V> baseMap, final JobRunner<Map<K, V>> jobRunner) {
-        final StringBuilder sb = new StringBuilder();
-        if (!baseMap.isEmpty()) {
-            int numberOfThreads = getNumberOfThreads();
-            int size = baseMap.size();
-            if (numberOfThreads <= 1 || numberOfThreads > size) {
-                jobRunner.runJob(baseMap, sb);
-            } else {
-                TreeMap<K, V> sortedMap = new TreeMap<>(baseMap);
-                int subCollectionSize = size / numberOfThreads;
-                List<StringBuilder> bufferes = new ArrayList<>(numberOfThreads);
-                List<SortedMap<K, V>> mapsList = splitMap(sortedMap, subCollectionSize, numberOfThreads);
-                List<Thread> threads = new ArrayList<>(mapsList.size());
-                try {
-                    for (SortedMap<K, V> map : mapsList) {
-                        final StringBuilder threadsb = new StringBuilder();
-                        bufferes.add(threadsb);
-                        if (!map.isEmpty()) {
-                            Thread thread = new Thread(new JobRunnerThread<>(jobRunner, map, threadsb));
-                            thread.start();
-                            threads.add(thread);
-                        }
-                    }
-
-                    for (Thread thread : threads) {
-                        thread.join();
-                    }
-                    for (StringBuilder threadsb : bufferes) {
-                        sb.append(threadsb.toString());
-                    }
-                } catch (InterruptedException e) {
-                    sb.append("Thread Interrupted for " + jobRunner.toString() + " : " + e.getMessage());
-                }
-            }
+    @PreDestroy
+    public void stop() {
+        for (final AtomicBoolean cancelled : this.activeRuns) {
+            cancelled.set(true);
+        }
+        this.cpuExecutorService.shutdownNow();
+        if (this.ioTaskExecutor != null) {
+            this.ioTaskExecutor.shutdown();
+        } else {
+            this.ioExecutorService.shutdownNow();
+        }
+    }
 
+    /**
+     * Processes every item and throws one {@link JobExecutionException} with the failures of all items once the run has
+     * finished. The number of workers is taken from the <code>number-of-threads</code> job parameter when the job has
+     * one.
+     */
+    public <V> void execute(final String jobName, final Collection<V> items, final Workload workload, final JobItemProcessor<V> processor)
+            throws JobExecutionException {
+        execute(jobName, items, workload, numberOfThreads(workload), processor);
+    }
+
+    /**
+     * Same as {@link #execute(String, Collection, Workload, JobItemProcessor)} with the number of workers given by the job
+     * itself, e.g. from its own <code>thread-pool-size</code> parameter.
+     */
+    public <V> void execute(final String jobName, final Collection<V> items, final Workload workload, final int numberOfThreads,
+            final JobItemProcessor<V> processor) throws JobExecutionException {
+        final List<Throwable> errors = run(jobName, new ArrayList<>(items), workload, numberOfThreads,
+                this.fineractProperties.getJobs().getChunkSize(), processor);
+        if (!errors.isEmpty()) {
+            throw new JobExecutionException(errors);
+        }
+    }
+
+    /**
+     * Hands the items out one at a time to up to <code>numberOfThreads</code> workers, for a few long running items of
+     * uneven length such as the requests of a batch or the accounts of a run.
+     */
+    public <V> void executeEach(final String jobName, final List<V> items, final Workload workload, final int numberOfThreads,
+            final JobItemProcessor<V> processor) throws JobExecutionException {
+        final List<Throwable> errors = run(jobName, items, workload, numberOfThreads, 1, processor);
+        if (!errors.isEmpty()) {
+            throw new JobExecutionException(errors);
         }
-        return sb.toString();
     }
 
-    private static class JobRunnerThread<T> implements Runnable {
+    /**
+     * Splits the items into chunks of <code>fineract.jobs.chunk-size</code> and hands every chunk to the processor as one
+     * unit, e.g. to commit it in one transaction.
+     */
+    public <V> void executeChunks(final String jobName, final List<V> items, final Workload workload,
+            final JobItemProcessor<List<V>> chunkProcessor) throws JobExecutionException {
+        final List<Throwable> errors = run(jobName, chunks(items), workload, numberOfThreads(workload), 1, chunkProcessor);
+        if (!errors.isEmpty()) {
+            throw new JobExecutionException(errors);
+        }
+    }
 
-        final FineractPlatformTenant tenant;
-        final T jobDetail;
-        final JobRunner<T> jobRunner;
-        final StringBuilder sb;
-        final Authentication auth;
+    public <V> String executeJob(final List<V> baseList, final JobRunner<List<V>> jobRunner) {
+        return runChunks(chunks(baseList), jobRunner);
+    }
 
-        public JobRunnerThread(final JobRunner<T> jobRunner, final T jobDetail, final StringBuilder sb) {
-            this.tenant = ThreadLocalContextUtil.getTenant();
-            this.jobRunner = jobRunner;
-            this.jobDetail = jobDetail;
-            this.sb = sb;
-            if (SecurityContextHolder.getContext() == null) {
-                this.auth = null;
-            } else {
-                this.auth = SecurityContextHolder.getContext().getAuthentication();
+    public <K, V> String executeJob(final Map<K, V> baseMap, final JobRunner<Map<K, V>> jobRunner) {
+        final int chunkSize = Math.max(this.fineractProperties.getJobs().getChunkSize(), 1);
+        final List<Map<K, V>> chunks = new ArrayList<>();
+        Map<K, V> chunk = null;
+        for (final Map.Entry<K, V> entry : new TreeMap<>(baseMap).entrySet()) {
+            if (chunk == null || chunk.size() == chunkSize) {
+                chunk = new LinkedHashMap<>();
+                chunks.add(chunk);
             }
+            chunk.put(entry.getKey(), entry.getValue());
         }
+        return runChunks(chunks, jobRunner);
+    }
 
-        @Override
-        public void run() {
-            ThreadLocalContextUtil.setTenant(tenant);
-            if (this.auth != null) {
-                SecurityContextHolder.getContext().setAuthentication(this.auth);
-            }
-            this.jobRunner.runJob(this.jobDetail, this.sb);
+    private <T> String runChunks(final List<T> chunks, final JobRunner<T> jobRunner) {
+        final List<StringBuilder> buffers = chunks.stream().map(chunk -> new StringBuilder()).collect(Collectors.toList());
+        final List<Integer> indexes = IntStream.range(0, chunks.size()).boxed().collect(Collectors.toList());
+        final List<Throwable> errors = run(jobRunner.getClass().getSimpleName(), indexes, Workload.IO_BOUND,
+                numberOfThreads(Workload.IO_BOUND), 1,
+                index -> jobRunner.runJob(chunks.get(index), buffers.get(index)));
+        final StringBuilder sb = new StringBuilder();
+        buffers.forEach(sb::append);
+        for (final Throwable error : errors) {
+            sb.append("Job failed for ").append(jobRunner).append(" : ").append(error.getMessage());
         }
+        return sb.toString();
+    }
 
+    private <V> List<List<V>> chunks(final List<V> items) {
+        final int chunkSize = Math.max(this.fineractProperties.getJobs().getChunkSize(), 1);
+        final List<List<V>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += chunkSize) {
+            chunks.add(items.subList(i, Math.min(i + chunkSize, items.size())));
+        }
+        return chunks;
     }
 
-    private <V> List<List<V>> splitList(List<V> list, int size, int MaxSize) {
-        int listSize = list.size();
-        List<List<V>> parts = new ArrayList<>();
-        int partSize = 0;
-        for (int i = 0; i < listSize; i += size) {
-            partSize++;
-            if (i + size < listSize) {
-                if (partSize == MaxSize) {
-                    parts.add(list.subList(i, listSize));
-                    break;
+    private <V> List<Throwable> run(final String jobName, final List<V> items, final Workload workload, final int numberOfThreads,
+            final int chunkSize, final JobItemProcessor<V> processor) {
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        if (items.isEmpty()) {
+            return errors;
+        }
+        final int size = Math.max(chunkSize, 1);
+        final int workers = Math.max(Math.min(numberOfThreads, (items.size() + size - 1) / size), 1);
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicInteger cursor = new AtomicInteger();
+        final AtomicInteger processed = new AtomicInteger();
+        final FineractContext context = ThreadLocalContextUtil.getContext();
+        final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        final Callable<Void> worker = () -> {
+            ThreadLocalContextUtil.init(context);
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            try {
+                processChunks(jobName, items, size, cursor, processed, cancelled, processor, errors);
+            } finally {
+                // the pool threads are shared by all jobs and tenants
+                SecurityContextHolder.clearContext();
+                ThreadLocalContextUtil.reset();
+            }
+            return null;
+        };
+
+        final long startTime = System.nanoTime();
+        final ExecutorService executorService = workload == Workload.IO_BOUND ? this.ioExecutorService : this.cpuExecutorService;
+        final List<Future<Void>> results = new ArrayList<>(workers);
+        this.activeRuns.add(cancelled);
+        try {
+            for (int i = 0; i < workers; i++) {
+                results.add(executorService.submit(worker));
+            }
+            for (final Future<Void> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    errors.add(e.getCause());
                 }
-                parts.add(list.subList(i, i + size));
-            } else {
-                parts.add(list.subList(i, listSize));
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled.set(true);
+            results.forEach(result -> result.cancel(true));
+            errors.add(e);
+        } catch (RejectedExecutionException e) {
+            cancelled.set(true);
+            errors.add(e);
+        } finally {
+            this.activeRuns.remove(cancelled);
         }
-        return parts;
+
+        final long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        if (processed.get() < items.size()) {
+            log.warn("{}: run cancelled after {} of {} item(s)", jobName, processed.get(), items.size());
+        }
+        log.info("{}: processed {} item(s) with {} worker(s) in {} ms, {} failure(s)", jobName, processed.get(), workers, durationMillis,
+                errors.size());
+        return errors;
     }
 
-    private <K, V> List<SortedMap<K, V>> splitMap(final SortedMap<K, V> map, final int size, int MaxSize) {
-        List<K> keys = new ArrayList<>(map.keySet());
-        List<SortedMap<K, V>> parts = new ArrayList<>();
-        final int listSize = map.size();
-        int partSize = 0;
-        for (int i = 0; i < listSize; i += size) {
-            partSize++;
-            if (i + size < listSize) {
-                if (partSize == MaxSize) {
-                    parts.add(map.tailMap(keys.get(i)));
-                    break;
+    private <V> void processChunks(final String jobName, final List<V> items, final int chunkSize, final AtomicInteger cursor,
+            final AtomicInteger processed, final AtomicBoolean cancelled, final JobItemProcessor<V> processor,
+            final List<Throwable> errors) {
+        while (!cancelled.get() && !Thread.currentThread().isInterrupted()) {
+            final int from = cursor.getAndAdd(chunkSize);
+            if (from >= items.size()) {
+                return;
+            }
+            final List<V> chunk = items.subList(from, Math.min(from + chunkSize, items.size()));
+            final long startTime = System.nanoTime();
+            int failures = 0;
+            for (final V item : chunk) {
+                try {
+                    processor.process(item);
+                } catch (Exception e) {
+                    failures++;
+                    errors.add(e);
                 }
-                parts.add(map.subMap(keys.get(i), keys.get(i + size)));
-            } else {
-                parts.add(map.tailMap(keys.get(i)));
             }
+            processed.addAndGet(chunk.size());
+            Timer.builder(CHUNK_METRIC_NAME).tag("job", jobName).register(this.meterRegistry).record(System.nanoTime() - startTime,
+                    TimeUnit.NANOSECONDS);
+            Counter.builder(ITEMS_METRIC_NAME).tag("job", jobName).tag("outcome", "success").register(this.meterRegistry)
+                    .increment(chunk.size() - failures);
+            Counter.builder(ITEMS_METRIC_NAME).tag("job", jobName).tag("outcome", "failure").register(this.meterRegistry)
+                    .increment(failures);
         }
-        return parts;
     }
 
-    private int getNumberOfThreads() {
-        Map<String, Object> jobParams = ThreadLocalContextUtil.getJobParams();
-        int numberOfThreads = 1;
-        if (jobParams != null && jobParams.containsKey("number-of-threads")) {
-            numberOfThreads = Integer.parseInt(String.valueOf(jobParams.get("number-of-threads")));
-            if (numberOfThreads == 0) {
-                numberOfThreads = 1;
+    private int numberOfThreads(final Workload workload) {
+        final Map<String, Object> jobParams = ThreadLocalContextUtil.getJobParams();
+        if (jobParams != null && jobParams.containsKey(NUMBER_OF_THREADS_PARAMETER)) {
+            final int numberOfThreads = Integer.parseInt(String.valueOf(jobParams.get(NUMBER_OF_THREADS_PARAMETER)));
+            if (numberOfThreads > 0) {
+                return numberOfThreads;
             }
         }
-        return numberOfThreads;
+        final FineractProperties.FineractJobsProperties jobsProperties = this.fineractProperties.getJobs();
+        return parallelism(workload == Workload.IO_BOUND ? jobsProperties.getIoParallelism() : jobsProperties.getParallelism());
+    }
+
+    private static int parallelism(final int configured) {
+        return configured > 0 ? configured : Runtime.getRuntime().availableProcessors();
     }
 
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            // only there from Java 21 on, the build targets Java 17
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            log.info("Virtual threads are not available, I/O bound job items run on a work-stealing pool");
+            return null;
+        }
+    }
 }
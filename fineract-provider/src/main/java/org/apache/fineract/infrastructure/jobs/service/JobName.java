@@ -57,7 +57,10 @@ public enum JobName {
                                                                                                                                                                                                                                                                                     "Notify Failed Standing Instructions"), POST_LOAN_OVERDUE_REMINDER(
                                                                                                                                                                                                                                                                                             "Post Loan Overdue Reminder"), PROCESS_LOAN_OVERDUE_REMINDER(
                                                                                                                                                                                                                                                                                                     "Process Loan Overdue Reminder"), UPDATE_NEXT_WITHDRAWAL_DATE_ON_SAVINGS_ACCOUNT(
-                                                                                                                                                                                                                                                                                                            "Update next withdrawal date for savings account");
+                                                                                                                                                                                                                                                                                                            "Update next withdrawal date for savings account"), LOAN_COB(
+                                                                                                                                                                                                                                                                                                                    "Loan COB"), SEARCH_INDEX_REBUILD(
+                                                                                                                                                                                                                                                                                                                            "Rebuild Search Index"), VERIFY_SAVINGS_ACCOUNT_BALANCES(
+                                                                                                                                                                                                                                                                                                                                    "Verify Savings Account Balances");
 
     private final String name;
 
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.security.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * {@link AuthenticationManager} that remembers successful basic auth checks for the lifetime of an entry in the
+ * {@value #CACHE_NAME} cache, so clients that send the same credentials on every call pay for the password hash once
+ * per cache period instead of once per request.
+ *
+ * Entries are keyed by tenant, username and a salted SHA-256 digest of the password; the password itself is never
+ * kept. Failed attempts are never cached. The cache is cleared together with the user caches whenever users, roles or
+ * permissions change.
+ */
+public class CredentialCachingAuthenticationManager implements AuthenticationManager {
+
+    public static final String CACHE_NAME = "authenticatedCredentials";
+
+    private final AuthenticationManager delegate;
+    private final CacheManager cacheManager;
+    private final byte[] salt = new byte[16];
+
+    public CredentialCachingAuthenticationManager(final AuthenticationManager delegate, final CacheManager cacheManager) {
+        this.delegate = delegate;
+        this.cacheManager = cacheManager;
+        new SecureRandom().nextBytes(this.salt);
+    }
+
+    @Override
+    public Authentication authenticate(final Authentication authentication) throws AuthenticationException {
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        final Cache cache = this.cacheManager.getCache(CACHE_NAME);
+        if (cache == null || tenant == null || !(authentication instanceof UsernamePasswordAuthenticationToken)
+                || authentication.getCredentials() == null) {
+            return this.delegate.authenticate(authentication);
+        }
+
+        final String key = tenant.getTenantIdentifier() + ':' + authentication.getName() + ':'
+                + digest(authentication.getCredentials().toString());
+        final Authentication cached = cache.get(key, Authentication.class);
+        if (cached != null) {
+            return cached;
+        }
+        final Authentication authenticated = this.delegate.authenticate(authentication);
+        if (authenticated != null && authenticated.isAuthenticated()) {
+            cache.put(key, authenticated);
+        }
+        return authenticated;
+    }
+
+    private String digest(final String password) {
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            messageDigest.update(this.salt);
+            return HexFormat.of().formatHex(messageDigest.digest(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
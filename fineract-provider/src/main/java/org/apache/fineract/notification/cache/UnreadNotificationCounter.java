@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.notification.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory count of unread notifications per tenant and user, backing the X-Notification-Refresh header that is sent
+ * on every authenticated response.
+ *
+ * A counter is loaded from the database the first time a user is seen and is then kept current by the notification
+ * write path (incremented once the new notification is committed) and reset when the user marks notifications as read.
+ * Counters are reloaded after fineract.authentication.notification-refresh-interval seconds so that notifications
+ * created or read on other nodes are picked up eventually.
+ */
+@Component
+public class UnreadNotificationCounter {
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final long refreshIntervalMillis;
+
+    public UnreadNotificationCounter(final FineractProperties fineractProperties) {
+        this.refreshIntervalMillis = TimeUnit.SECONDS.toMillis(fineractProperties.getAuthentication().getNotificationRefreshInterval());
+    }
+
+    public boolean hasUnread(final Long tenantId, final Long appUserId, final LongSupplier loader) {
+        final long now = System.currentTimeMillis();
+        Counter counter = this.counters.get(key(tenantId, appUserId));
+        if (counter == null || now - counter.loadedAt > this.refreshIntervalMillis) {
+            counter = new Counter(loader.getAsLong(), now);
+            this.counters.put(key(tenantId, appUserId), counter);
+        }
+        return counter.unread.get() > 0;
+    }
+
+    public void increment(final Long tenantId, final Long appUserId) {
+        final Counter counter = this.counters.get(key(tenantId, appUserId));
+        if (counter != null) {
+            counter.unread.incrementAndGet();
+        }
+    }
+
+    public void reset(final Long tenantId, final Long appUserId) {
+        final Counter counter = this.counters.get(key(tenantId, appUserId));
+        if (counter != null) {
+            counter.unread.set(0);
+        }
+    }
+
+    private static String key(final Long tenantId, final Long appUserId) {
+        return tenantId + ":" + appUserId;
+    }
+
+    private static final class Counter {
+
+        private final AtomicLong unread;
+        private final long loadedAt;
+
+        private Counter(final long unread, final long loadedAt) {
+            this.unread = new AtomicLong(unread);
+            this.loadedAt = loadedAt;
+        }
+    }
+}
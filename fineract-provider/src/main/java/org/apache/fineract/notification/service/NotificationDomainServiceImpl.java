@@ -30,6 +30,7 @@ import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
 import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
 import org.apache.fineract.notification.data.NotificationData;
 import org.apache.fineract.notification.eventandlistener.NotificationEventPublisher;
+import org.apache.fineract.portfolio.businessevent.BusinessEventDelivery;
 import org.apache.fineract.portfolio.businessevent.BusinessEventListener;
 import org.apache.fineract.portfolio.businessevent.domain.client.ClientCreateBusinessEvent;
 import org.apache.fineract.portfolio.businessevent.domain.deposit.FixedDepositAccountCreateBusinessEvent;
@@ -106,6 +107,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class ClientCreatedListener implements BusinessEventListener<ClientCreateBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(ClientCreateBusinessEvent event) {
             Client client = event.get();
@@ -116,6 +122,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class CenterCreatedListener implements BusinessEventListener<CentersCreateBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(CentersCreateBusinessEvent event) {
             CommandProcessingResult commandProcessingResult = event.get();
@@ -126,6 +137,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class GroupCreatedListener implements BusinessEventListener<GroupsCreateBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(GroupsCreateBusinessEvent event) {
             CommandProcessingResult commandProcessingResult = event.get();
@@ -136,6 +152,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class SavingsAccountDepositListener implements BusinessEventListener<SavingsDepositBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(SavingsDepositBusinessEvent event) {
             SavingsAccountTransaction savingsAccountTransaction = event.get();
@@ -147,6 +168,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class ShareProductDividendCreatedListener implements BusinessEventListener<ShareProductDividentsCreateBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(ShareProductDividentsCreateBusinessEvent event) {
             Long shareProductId = event.get();
@@ -157,6 +183,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class FixedDepositAccountCreatedListener implements BusinessEventListener<FixedDepositAccountCreateBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(FixedDepositAccountCreateBusinessEvent event) {
             FixedDepositAccount fixedDepositAccount = event.get();
@@ -167,6 +198,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class RecurringDepositAccountCreatedListener implements BusinessEventListener<RecurringDepositAccountCreateBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(RecurringDepositAccountCreateBusinessEvent event) {
             RecurringDepositAccount recurringDepositAccount = event.get();
@@ -178,6 +214,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class SavingsAccountApprovedListener implements BusinessEventListener<SavingsApproveBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(SavingsApproveBusinessEvent event) {
             SavingsAccount savingsAccount = event.get();
@@ -199,6 +240,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class SavingsPostInterestListener implements BusinessEventListener<SavingsPostInterestBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(SavingsPostInterestBusinessEvent event) {
             SavingsAccount savingsAccount = event.get();
@@ -209,6 +255,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class LoanCreatedListener implements BusinessEventListener<LoanCreatedBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(LoanCreatedBusinessEvent event) {
             Loan loan = event.get();
@@ -219,6 +270,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class LoanApprovedListener implements BusinessEventListener<LoanApprovedBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(LoanApprovedBusinessEvent event) {
             Loan loan = event.get();
@@ -229,6 +285,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class LoanClosedListener implements BusinessEventListener<LoanCloseBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(LoanCloseBusinessEvent event) {
             Loan loan = event.get();
@@ -239,6 +300,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class LoanCloseAsRescheduledListener implements BusinessEventListener<LoanCloseAsRescheduleBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(LoanCloseAsRescheduleBusinessEvent event) {
             Loan loan = event.get();
@@ -249,6 +315,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class LoanMakeRepaymentListener implements BusinessEventListener<LoanTransactionMakeRepaymentPostBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(LoanTransactionMakeRepaymentPostBusinessEvent event) {
             Loan loan = event.get().getLoan();
@@ -259,6 +330,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class LoanProductCreatedListener implements BusinessEventListener<LoanProductCreateBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(LoanProductCreateBusinessEvent event) {
             LoanProduct loanProduct = event.get();
@@ -269,6 +345,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class SavingsAccountCreatedListener implements BusinessEventListener<SavingsCreateBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(SavingsCreateBusinessEvent event) {
             SavingsAccount savingsAccount = event.get();
@@ -279,6 +360,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class SavingsAccountClosedListener implements BusinessEventListener<SavingsCloseBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(SavingsCloseBusinessEvent event) {
             SavingsAccount savingsAccount = event.get();
@@ -289,6 +375,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class ShareAccountCreatedListener implements BusinessEventListener<ShareAccountCreateBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(ShareAccountCreateBusinessEvent event) {
             ShareAccount shareAccount = event.get();
@@ -299,6 +390,11 @@ public class NotificationDomainServiceImpl implements NotificationDomainService
 
     private class ShareAccountApprovedListener implements BusinessEventListener<ShareAccountApproveBusinessEvent> {
 
+        @Override
+        public BusinessEventDelivery getDelivery() {
+            return BusinessEventDelivery.AFTER_COMMIT;
+        }
+
         @Override
         public void onBusinessEvent(ShareAccountApproveBusinessEvent event) {
             ShareAccount shareAccount = event.get();
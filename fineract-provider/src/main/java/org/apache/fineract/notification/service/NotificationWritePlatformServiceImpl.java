@@ -22,13 +22,18 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.notification.cache.UnreadNotificationCounter;
 import org.apache.fineract.notification.domain.Notification;
 import org.apache.fineract.notification.domain.NotificationMapper;
 import org.apache.fineract.useradministration.domain.AppUser;
 import org.apache.fineract.useradministration.domain.AppUserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 @Transactional
@@ -39,6 +44,7 @@ public class NotificationWritePlatformServiceImpl implements NotificationWritePl
     private final NotificationGeneratorReadRepositoryWrapper notificationGeneratorReadRepositoryWrapper;
     private final AppUserRepository appUserRepository;
     private final NotificationMapperWritePlatformService notificationMapperWritePlatformService;
+    private final UnreadNotificationCounter unreadNotificationCounter;
 
     @Override
     public Long notify(Long userId, String objectType, Long objectIdentifier, String action, Long actorId, String notificationContent,
@@ -47,6 +53,7 @@ public class NotificationWritePlatformServiceImpl implements NotificationWritePl
         Long generatedNotificationId = insertIntoNotificationGenerator(objectType, objectIdentifier, action, actorId, notificationContent,
                 isSystemGenerated);
         insertIntoNotificationMapper(userId, generatedNotificationId);
+        countUnreadAfterCommit(List.of(userId));
         return generatedNotificationId;
     }
 
@@ -77,6 +84,7 @@ public class NotificationWritePlatformServiceImpl implements NotificationWritePl
                 isSystemGenerated);
 
         insertIntoNotificationMapper(userIds, generatedNotificationId);
+        countUnreadAfterCommit(userIds);
         return generatedNotificationId;
     }
 
@@ -92,4 +100,23 @@ public class NotificationWritePlatformServiceImpl implements NotificationWritePl
         }
         return mappedIds;
     }
+
+    private void countUnreadAfterCommit(Collection<Long> userIds) {
+        final FineractPlatformTenant tenant = ThreadLocalContextUtil.getTenant();
+        if (tenant == null) {
+            return;
+        }
+        final Runnable increment = () -> userIds.forEach(userId -> this.unreadNotificationCounter.increment(tenant.getId(), userId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCommit() {
+                    increment.run();
+                }
+            });
+        } else {
+            increment.run();
+        }
+    }
 }
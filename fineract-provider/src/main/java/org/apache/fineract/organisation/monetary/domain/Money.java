@@ -44,11 +44,11 @@ public class Money implements Comparable<Money> {
         if (monies.length == 0) {
             throw new IllegalArgumentException("Money array must not be empty");
         }
-        Money total = monies[0];
+        final MoneyAccumulator total = MoneyAccumulator.of(monies[0]);
         for (int i = 1; i < monies.length; i++) {
-            total = total.plus(monies[i]);
+            total.plus(monies[i]);
         }
-        return total;
+        return total.toMoney();
     }
 
     public static Money total(final Iterable<? extends Money> monies) {
@@ -56,11 +56,11 @@ public class Money implements Comparable<Money> {
         if (it.hasNext() == false) {
             throw new IllegalArgumentException("Money iterator must not be empty");
         }
-        Money total = it.next();
+        final MoneyAccumulator total = MoneyAccumulator.of(it.next());
         while (it.hasNext()) {
-            total = total.plus(it.next());
+            total.plus(it.next());
         }
-        return total;
+        return total.toMoney();
     }
 
     public static Money of(final MonetaryCurrency currency, final BigDecimal newAmount) {
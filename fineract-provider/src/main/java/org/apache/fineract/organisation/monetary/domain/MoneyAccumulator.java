@@ -0,0 +1,168 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.organisation.monetary.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * Mutable running total of {@link Money} amounts held as a scaled long (minor units of the currency).
+ *
+ * Summing into an accumulator produces exactly the amount that the equivalent chain of {@link Money#plus(Money)} and
+ * {@link Money#minus(Money)} calls would produce, including the rounding into multiples for currencies without decimals,
+ * but without allocating and rescaling a {@link Money} for every step. It is meant for loops in schedule generators,
+ * transaction processors and summaries; convert back with {@link #toMoney()} at persistence and API boundaries.
+ *
+ * Instances are not thread safe.
+ */
+public final class MoneyAccumulator {
+
+    /**
+     * Amounts up to 2^53 minor units are exact as doubles, so the rounding into multiples in {@link Money} can be
+     * reproduced with long arithmetic below this bound.
+     */
+    private static final long EXACT_DOUBLE_BOUND = 1L << 53;
+
+    private final MonetaryCurrency currency;
+    private final int scale;
+    private final long multiplesOf;
+    private long minorUnits;
+
+    private MoneyAccumulator(final MonetaryCurrency currency, final long minorUnits) {
+        this.currency = currency;
+        this.scale = currency.getDigitsAfterDecimal();
+        final Integer inMultiplesOf = currency.getCurrencyInMultiplesOf();
+        this.multiplesOf = this.scale == 0 && inMultiplesOf != null && inMultiplesOf > 0 ? inMultiplesOf : 0;
+        this.minorUnits = minorUnits;
+    }
+
+    public static MoneyAccumulator zero(final MonetaryCurrency currency) {
+        return new MoneyAccumulator(currency, 0L);
+    }
+
+    public static MoneyAccumulator of(final Money money) {
+        final MoneyAccumulator accumulator = zero(money.getCurrency());
+        accumulator.minorUnits = accumulator.roundedMinorUnits(money.getAmount());
+        return accumulator;
+    }
+
+    public MoneyAccumulator plus(final Money money) {
+        checkCurrencyEqual(money);
+        return plus(money.getAmount());
+    }
+
+    public MoneyAccumulator minus(final Money money) {
+        checkCurrencyEqual(money);
+        return minus(money.getAmount());
+    }
+
+    public MoneyAccumulator plus(final BigDecimal amount) {
+        if (amount == null || amount.signum() == 0) {
+            return this;
+        }
+        final long exact = exactMinorUnits(amount);
+        if (exact == Long.MIN_VALUE) {
+            this.minorUnits = roundedMinorUnits(toBigDecimal().add(amount));
+        } else {
+            this.minorUnits = roundToMultiples(Math.addExact(this.minorUnits, exact));
+        }
+        return this;
+    }
+
+    public MoneyAccumulator minus(final BigDecimal amount) {
+        if (amount == null || amount.signum() == 0) {
+            return this;
+        }
+        final long exact = exactMinorUnits(amount);
+        if (exact == Long.MIN_VALUE) {
+            this.minorUnits = roundedMinorUnits(toBigDecimal().subtract(amount));
+        } else {
+            this.minorUnits = roundToMultiples(Math.subtractExact(this.minorUnits, exact));
+        }
+        return this;
+    }
+
+    public boolean isZero() {
+        return this.minorUnits == 0;
+    }
+
+    public boolean isGreaterThanZero() {
+        return this.minorUnits > 0;
+    }
+
+    public boolean isLessThanZero() {
+        return this.minorUnits < 0;
+    }
+
+    public int compareTo(final Money money) {
+        checkCurrencyEqual(money);
+        return toBigDecimal().compareTo(money.getAmount());
+    }
+
+    public long getMinorUnits() {
+        return this.minorUnits;
+    }
+
+    public MonetaryCurrency getCurrency() {
+        return this.currency;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(this.minorUnits, this.scale);
+    }
+
+    public Money toMoney() {
+        return Money.of(this.currency, toBigDecimal());
+    }
+
+    /**
+     * Returns the amount in minor units when it has no more digits than the currency, {@link Long#MIN_VALUE} otherwise.
+     */
+    private long exactMinorUnits(final BigDecimal amount) {
+        final BigDecimal shifted = amount.movePointRight(this.scale);
+        if (shifted.scale() > 0 && shifted.stripTrailingZeros().scale() > 0 || shifted.precision() - shifted.scale() > 18) {
+            return Long.MIN_VALUE;
+        }
+        return shifted.longValueExact();
+    }
+
+    private long roundedMinorUnits(final BigDecimal amount) {
+        return Money.of(this.currency, amount).getAmount().movePointRight(this.scale).longValueExact();
+    }
+
+    private long roundToMultiples(final long value) {
+        if (this.multiplesOf == 0 || value <= 0) {
+            return value;
+        }
+        if (value >= EXACT_DOUBLE_BOUND) {
+            return roundedMinorUnits(BigDecimal.valueOf(value));
+        }
+        final long floor = value / this.multiplesOf * this.multiplesOf;
+        if (floor == value) {
+            return value;
+        }
+        final long ceiling = floor + this.multiplesOf;
+        return ceiling - value > value - floor ? floor : ceiling;
+    }
+
+    private void checkCurrencyEqual(final Money money) {
+        if (!this.currency.getCode().equals(money.getCurrencyCode())) {
+            throw new UnsupportedOperationException("currencies are different.");
+        }
+    }
+}
@@ -53,6 +53,14 @@ public class MoneyHelper {
         return roundingMode;
     }
 
+    /**
+     * Sets the rounding mode for code that runs without the Spring context, such as unit tests and benchmarks.
+     */
+    public static void initializeRoundingMode(final RoundingMode mode) {
+        roundingMode = mode;
+        mathContext = null;
+    }
+
     public static MathContext getMathContext() {
         if (mathContext == null) {
             mathContext = new MathContext(PRECISION, getRoundingMode());
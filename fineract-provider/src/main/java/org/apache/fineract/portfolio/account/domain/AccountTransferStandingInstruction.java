@@ -99,6 +99,9 @@ public class AccountTransferStandingInstruction extends AbstractPersistableCusto
     @Column(name = "last_run_date")
     private LocalDate latsRunDate;
 
+    @Column(name = "next_run_date")
+    private LocalDate nextRunDate;
+
     protected AccountTransferStandingInstruction() {
 
     }
@@ -226,6 +229,10 @@ public class AccountTransferStandingInstruction extends AbstractPersistableCusto
         if (!dataValidationErrors.isEmpty()) {
             throw new PlatformApiDataValidationException(dataValidationErrors);
         }
+        if (!actualChanges.isEmpty()) {
+            // the schedule may have changed, the next execution run derives the next run date again
+            this.nextRunDate = null;
+        }
         return actualChanges;
     }
 
@@ -19,6 +19,7 @@
 package org.apache.fineract.portfolio.account.service;
 
 import java.util.Collection;
+import java.util.Map;
 import org.apache.fineract.infrastructure.core.service.Page;
 import org.apache.fineract.portfolio.account.data.StandingInstructionDTO;
 import org.apache.fineract.portfolio.account.data.StandingInstructionData;
@@ -33,8 +34,14 @@ public interface StandingInstructionReadPlatformService {
 
     StandingInstructionData retrieveOne(Long instructionId);
 
-    Collection<StandingInstructionData> retrieveAll(Integer status);
+    /**
+     * Returns the instructions with the given status that are valid on the business date, did not run yet today and whose
+     * next run date is unknown or not after the business date.
+     */
+    Collection<StandingInstructionData> retrieveAllDueForExecution(Integer status);
 
     StandingInstructionDuesData retriveLoanDuesData(Long loanId);
 
+    Map<Long, StandingInstructionDuesData> retriveLoanDuesData(Collection<Long> loanIds);
+
 }
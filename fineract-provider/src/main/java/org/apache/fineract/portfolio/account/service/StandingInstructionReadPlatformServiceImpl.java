@@ -33,7 +33,10 @@ import java.time.MonthDay;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.apache.fineract.infrastructure.core.data.EnumOptionData;
 import org.apache.fineract.infrastructure.core.domain.JdbcSupport;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
@@ -63,6 +66,7 @@ import org.apache.fineract.portfolio.common.service.DropdownReadPlatformService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
@@ -70,6 +74,8 @@ import org.springframework.util.CollectionUtils;
 @Service
 public class StandingInstructionReadPlatformServiceImpl implements StandingInstructionReadPlatformService {
 
+    private static final int LOAN_DUES_BATCH_SIZE = 1000;
+
     private final JdbcTemplate jdbcTemplate;
     private final ColumnValidator columnValidator;
     private final ClientReadPlatformService clientReadPlatformService;
@@ -328,7 +334,7 @@ public class StandingInstructionReadPlatformServiceImpl implements StandingInstr
     }
 
     @Override
-    public Collection<StandingInstructionData> retrieveAll(final Integer status) {
+    public Collection<StandingInstructionData> retrieveAllDueForExecution(final Integer status) {
         final StringBuilder sqlBuilder = new StringBuilder(200);
         String businessDate = sqlGenerator.currentBusinessDate();
         sqlBuilder.append("select ");
@@ -337,6 +343,7 @@ public class StandingInstructionReadPlatformServiceImpl implements StandingInstr
                 .append(" where atsi.status=? and " + businessDate + " >= atsi.valid_from and (atsi.valid_till IS NULL or " + businessDate
                         + " < atsi.valid_till) ")
                 .append(" and  (atsi.last_run_date <> " + businessDate + " or atsi.last_run_date IS NULL)")
+                .append(" and (atsi.next_run_date IS NULL or atsi.next_run_date <= " + businessDate + ")")
                 .append(" ORDER BY atsi.priority DESC");
         return this.jdbcTemplate.query(sqlBuilder.toString(), this.standingInstructionMapper, status);
     }
@@ -361,6 +368,22 @@ public class StandingInstructionReadPlatformServiceImpl implements StandingInstr
         return this.jdbcTemplate.queryForObject(sql, rm, new Object[] { loanId }); // NOSONAR
     }
 
+    @Override
+    public Map<Long, StandingInstructionDuesData> retriveLoanDuesData(final Collection<Long> loanIds) {
+        final StandingInstructionLoanDuesMapper rm = new StandingInstructionLoanDuesMapper();
+        final Map<Long, StandingInstructionDuesData> duesByLoanId = new HashMap<>();
+        final List<Long> ids = new ArrayList<>(loanIds);
+        for (int from = 0; from < ids.size(); from += LOAN_DUES_BATCH_SIZE) {
+            final List<Long> batch = ids.subList(from, Math.min(from + LOAN_DUES_BATCH_SIZE, ids.size()));
+            final String sql = "select ml.id as loanId, " + rm.schema() + " where ml.id in ("
+                    + String.join(",", Collections.nCopies(batch.size(), "?")) + ") and ls.duedate <= "
+                    + sqlGenerator.currentBusinessDate() + " and ls.completed_derived <> true group by ml.id";
+            this.jdbcTemplate.query(sql, (RowCallbackHandler) rs -> duesByLoanId.put(rs.getLong("loanId"), rm.mapRow(rs, rs.getRow())),
+                    batch.toArray()); // NOSONAR
+        }
+        return duesByLoanId;
+    }
+
     private static final class StandingInstructionMapper implements RowMapper<StandingInstructionData> {
 
         private final String schemaSql;
@@ -25,11 +25,16 @@ import static org.apache.fineract.portfolio.account.api.StandingInstructionApiCo
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
@@ -42,6 +47,7 @@ import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
 import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
 import org.apache.fineract.infrastructure.jobs.annotation.CronTarget;
 import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JobExecuter;
 import org.apache.fineract.infrastructure.jobs.service.JobName;
 import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
 import org.apache.fineract.notification.data.NotificationData;
@@ -49,6 +55,7 @@ import org.apache.fineract.notification.eventandlistener.NotificationEventPublis
 import org.apache.fineract.portfolio.account.PortfolioAccountType;
 import org.apache.fineract.portfolio.account.api.StandingInstructionApiConstants;
 import org.apache.fineract.portfolio.account.data.AccountTransferDTO;
+import org.apache.fineract.portfolio.account.data.PortfolioAccountData;
 import org.apache.fineract.portfolio.account.data.StandingInstructionDTO;
 import org.apache.fineract.portfolio.account.data.StandingInstructionData;
 import org.apache.fineract.portfolio.account.data.StandingInstructionDataValidator;
@@ -83,6 +90,9 @@ import org.springframework.transaction.annotation.Transactional;
 public class StandingInstructionWritePlatformServiceImpl implements StandingInstructionWritePlatformService {
 
     private static final Logger LOG = LoggerFactory.getLogger(StandingInstructionWritePlatformServiceImpl.class);
+    private static final String THREAD_POOL_SIZE_PARAMETER = "thread-pool-size";
+    private static final int DEFAULT_THREAD_POOL_SIZE = 4;
+    private static final int HISTORY_BATCH_SIZE = 100;
 
     private final StandingInstructionDataValidator standingInstructionDataValidator;
     private final StandingInstructionAssembler standingInstructionAssembler;
@@ -96,6 +106,7 @@ public class StandingInstructionWritePlatformServiceImpl implements StandingInst
     private final PlatformSecurityContext context;
     private final NotificationEventPublisher notificationEventPublisher;
     private final Environment env;
+    private final JobExecuter jobExecuter;
 
     @Autowired
     public StandingInstructionWritePlatformServiceImpl(PlatformSecurityContext context,
@@ -107,7 +118,7 @@ public class StandingInstructionWritePlatformServiceImpl implements StandingInst
             final AccountTransfersWritePlatformService accountTransfersWritePlatformService, final JdbcTemplate jdbcTemplate,
             DatabaseSpecificSQLGenerator sqlGenerator,
             final StandingInstructionHistoryReadPlatformService standingInstructionHistoryReadPlatformService,
-            final NotificationEventPublisher notificationEventPublisher, final Environment env) {
+            final NotificationEventPublisher notificationEventPublisher, final Environment env, final JobExecuter jobExecuter) {
         this.standingInstructionDataValidator = standingInstructionDataValidator;
         this.standingInstructionAssembler = standingInstructionAssembler;
         this.accountTransferDetailRepository = accountTransferDetailRepository;
@@ -120,6 +131,7 @@ public class StandingInstructionWritePlatformServiceImpl implements StandingInst
         this.context = context;
         this.notificationEventPublisher = notificationEventPublisher;
         this.env = env;
+        this.jobExecuter = jobExecuter;
     }
 
     @Transactional
@@ -256,76 +268,221 @@ public class StandingInstructionWritePlatformServiceImpl implements StandingInst
 
     @Override
     @CronTarget(jobName = JobName.EXECUTE_STANDING_INSTRUCTIONS)
-    public void executeStandingInstructions() throws JobExecutionException {
+    public void executeStandingInstructions(final Map<String, String> jobParameters) throws JobExecutionException {
+        final String threadPoolSizeValue = jobParameters == null ? null : jobParameters.get(THREAD_POOL_SIZE_PARAMETER);
+        final int threadPoolSize = threadPoolSizeValue == null ? DEFAULT_THREAD_POOL_SIZE : Integer.parseInt(threadPoolSizeValue);
+
         Collection<StandingInstructionData> instructionDatas = this.standingInstructionReadPlatformService
-                .retrieveAll(StandingInstructionStatus.ACTIVE.getValue());
-        List<Throwable> errors = new ArrayList<>();
-        LocalDate transactionDate = DateUtils.getBusinessLocalDate();
+                .retrieveAllDueForExecution(StandingInstructionStatus.ACTIVE.getValue());
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+        final LocalDate transactionDate = DateUtils.getBusinessLocalDate();
+        final Set<Long> loanIds = new HashSet<>();
+        for (StandingInstructionData data : instructionDatas) {
+            if (data.toAccountType().isLoanAccount()) {
+                loanIds.add(data.toAccount().accountId());
+            }
+        }
+        final Map<Long, StandingInstructionDuesData> loanDues = loanIds.isEmpty() ? Collections.emptyMap()
+                : this.standingInstructionReadPlatformService.retriveLoanDuesData(loanIds);
+
+        final List<List<StandingInstructionData>> partitions = partitionByAccount(instructionDatas);
+        if (partitions.isEmpty()) {
+            return;
+        }
+        try {
+            this.jobExecuter.executeEach(JobName.EXECUTE_STANDING_INSTRUCTIONS.name(), partitions, JobExecuter.Workload.IO_BOUND,
+                    Math.max(1, Math.min(threadPoolSize, partitions.size())),
+                    partition -> executeStandingInstructions(partition, transactionDate, loanDues, errors));
+        } catch (JobExecutionException e) {
+            errors.addAll(e.getCauses());
+        }
+        if (!errors.isEmpty()) {
+            throw new JobExecutionException(errors);
+        }
+    }
+
+    /**
+     * Instructions that share an account, as source or as target, end up in the same partition. Partitions are executed
+     * concurrently, so no two of them post to the same account, and within a partition the priority order is kept.
+     */
+    static List<List<StandingInstructionData>> partitionByAccount(final Collection<StandingInstructionData> instructionDatas) {
+        final Map<String, String> parents = new HashMap<>();
+        for (StandingInstructionData data : instructionDatas) {
+            final String fromRoot = findRoot(parents, accountKey(data.fromAccountType(), data.fromAccount()));
+            final String toRoot = findRoot(parents, accountKey(data.toAccountType(), data.toAccount()));
+            if (!fromRoot.equals(toRoot)) {
+                parents.put(toRoot, fromRoot);
+            }
+        }
+        final Map<String, List<StandingInstructionData>> partitions = new LinkedHashMap<>();
+        for (StandingInstructionData data : instructionDatas) {
+            partitions.computeIfAbsent(findRoot(parents, accountKey(data.fromAccountType(), data.fromAccount())),
+                    root -> new ArrayList<>()).add(data);
+        }
+        return new ArrayList<>(partitions.values());
+    }
+
+    private static String findRoot(final Map<String, String> parents, final String accountKey) {
+        String root = accountKey;
+        String parent = parents.putIfAbsent(root, root);
+        while (parent != null && !parent.equals(root)) {
+            root = parent;
+            parent = parents.get(root);
+        }
+        parents.put(accountKey, root);
+        return root;
+    }
+
+    private static String accountKey(final PortfolioAccountType accountType, final PortfolioAccountData account) {
+        return accountType.name() + "-" + account.accountId();
+    }
+
+    private void executeStandingInstructions(final List<StandingInstructionData> instructionDatas, final LocalDate transactionDate,
+            final Map<Long, StandingInstructionDuesData> loanDues, final List<Throwable> errors) {
+        final List<Object[]> history = new ArrayList<>();
+        final List<Object[]> nextRunDates = new ArrayList<>();
+        final Set<Long> paidLoanIds = new HashSet<>();
         for (StandingInstructionData data : instructionDatas) {
             boolean isDueForTransfer = false;
             AccountTransferRecurrenceType recurrenceType = data.recurrenceType();
             StandingInstructionType instructionType = data.instructionType();
+            LocalDate startDate = null;
             if (recurrenceType.isPeriodicRecurrence()) {
                 final ScheduledDateGenerator scheduledDateGenerator = new DefaultScheduledDateGenerator();
-                PeriodFrequencyType frequencyType = data.recurrenceFrequency();
-                LocalDate startDate = data.validFrom();
-                if (frequencyType.isMonthly()) {
-                    startDate = startDate.withDayOfMonth(data.recurrenceOnDay());
-                    if (startDate.isBefore(data.validFrom())) {
-                        startDate = startDate.plusMonths(1);
-                    }
-                } else if (frequencyType.isYearly()) {
-                    startDate = startDate.withDayOfMonth(data.recurrenceOnDay()).withMonth(data.recurrenceOnMonth());
-                    if (startDate.isBefore(data.validFrom())) {
-                        startDate = startDate.plusYears(1);
-                    }
-                }
-                isDueForTransfer = scheduledDateGenerator.isDateFallsInSchedule(frequencyType, data.recurrenceInterval(), startDate,
-                        transactionDate);
+                startDate = scheduleStartDate(data);
+                isDueForTransfer = scheduledDateGenerator.isDateFallsInSchedule(data.recurrenceFrequency(), data.recurrenceInterval(),
+                        startDate, transactionDate);
 
             }
             BigDecimal transactionAmount = data.amount();
+            final Long toAccountId = data.toAccount().accountId();
             if (data.toAccountType().isLoanAccount()
                     && (recurrenceType.isDuesRecurrence() || (isDueForTransfer && instructionType.isDuesAmoutTransfer()))) {
-                StandingInstructionDuesData standingInstructionDuesData = this.standingInstructionReadPlatformService
-                        .retriveLoanDuesData(data.toAccount().accountId());
+                // the prefetched dues are stale once an earlier instruction of this run paid the same loan
+                StandingInstructionDuesData standingInstructionDuesData = paidLoanIds.contains(toAccountId)
+                        ? this.standingInstructionReadPlatformService.retriveLoanDuesData(toAccountId)
+                        : loanDues.get(toAccountId);
                 if (data.instructionType().isDuesAmoutTransfer()) {
-                    transactionAmount = standingInstructionDuesData.totalDueAmount();
+                    transactionAmount = standingInstructionDuesData == null ? BigDecimal.ZERO
+                            : standingInstructionDuesData.totalDueAmount();
                 }
                 if (recurrenceType.isDuesRecurrence()) {
-                    isDueForTransfer = DateUtils.getBusinessLocalDate().equals(standingInstructionDuesData.dueDate());
+                    isDueForTransfer = standingInstructionDuesData != null
+                            && DateUtils.getBusinessLocalDate().equals(standingInstructionDuesData.dueDate());
                 }
             }
 
+            boolean transferCompleted = true;
             if (isDueForTransfer && transactionAmount != null && transactionAmount.compareTo(BigDecimal.ZERO) > 0) {
                 final SavingsAccount fromSavingsAccount = null;
                 final boolean isRegularTransaction = true;
                 final boolean isExceptionForBalanceCheck = false;
                 AccountTransferDTO accountTransferDTO = new AccountTransferDTO(transactionDate, transactionAmount, data.fromAccountType(),
-                        data.toAccountType(), data.fromAccount().accountId(), data.toAccount().accountId(),
+                        data.toAccountType(), data.fromAccount().accountId(), toAccountId,
                         data.name() + " Standing instruction trasfer ", null, null, null, null, data.toTransferType(), null, null,
                         data.transferType().getValue(), null, null, null, null, null, fromSavingsAccount, isRegularTransaction,
                         isExceptionForBalanceCheck);
-                final boolean transferCompleted = transferAmount(errors, accountTransferDTO, data.getId());
+                transferCompleted = transferAmount(errors, history, accountTransferDTO, data.getId());
+                if (history.size() >= HISTORY_BATCH_SIZE) {
+                    flushHistory(history);
+                }
 
                 if (transferCompleted) {
-                    final String updateQuery = "UPDATE m_account_transfer_standing_instructions SET last_run_date = ? where id = ?";
-                    this.jdbcTemplate.update(updateQuery, transactionDate, data.getId());
+                    if (data.toAccountType().isLoanAccount()) {
+                        paidLoanIds.add(toAccountId);
+                    }
+                    // written right away, it keeps a rerun on the same day from transferring again
+                    final String updateQuery = "UPDATE m_account_transfer_standing_instructions SET last_run_date = ?, next_run_date = ? "
+                            + "where id = ?";
+                    this.jdbcTemplate.update(updateQuery, transactionDate, nextRunDate(data, startDate, transactionDate), data.getId());
+                    continue;
                 }
+            }
+            if (transferCompleted && startDate != null) {
+                nextRunDates.add(new Object[] { nextRunDate(data, startDate, transactionDate), data.getId() });
+            }
+        }
+        if (!nextRunDates.isEmpty()) {
+            this.jdbcTemplate.batchUpdate("UPDATE m_account_transfer_standing_instructions SET next_run_date = ? where id = ?",
+                    nextRunDates);
+        }
+        flushHistory(history);
+    }
 
+    private void flushHistory(final List<Object[]> history) {
+        if (!history.isEmpty()) {
+            this.jdbcTemplate.batchUpdate("INSERT INTO m_account_transfer_standing_instructions_history (standing_instruction_id, "
+                    + sqlGenerator.escape("status") + ", amount, execution_time, error_log) VALUES (?, ?, ?, "
+                    + sqlGenerator.currentTenantDateTime() + ", ?)", history);
+            history.clear();
+        }
+    }
+
+    static LocalDate scheduleStartDate(final StandingInstructionData data) {
+        PeriodFrequencyType frequencyType = data.recurrenceFrequency();
+        LocalDate startDate = data.validFrom();
+        if (frequencyType.isMonthly()) {
+            startDate = withDayOfMonthOrLast(startDate, data.recurrenceOnDay());
+            if (startDate.isBefore(data.validFrom())) {
+                startDate = withDayOfMonthOrLast(startDate.plusMonths(1), data.recurrenceOnDay());
+            }
+        } else if (frequencyType.isYearly()) {
+            startDate = withDayOfMonthOrLast(startDate.withMonth(data.recurrenceOnMonth()), data.recurrenceOnDay());
+            if (startDate.isBefore(data.validFrom())) {
+                startDate = withDayOfMonthOrLast(startDate.plusYears(1), data.recurrenceOnDay());
             }
         }
-        if (!errors.isEmpty()) {
-            throw new JobExecutionException(errors);
+        return startDate;
+    }
+
+    /**
+     * A recurrence on the 29th to 31st falls on the last day of the shorter months instead of failing the run.
+     */
+    private static LocalDate withDayOfMonthOrLast(final LocalDate date, final int dayOfMonth) {
+        return date.withDayOfMonth(Math.min(dayOfMonth, date.lengthOfMonth()));
+    }
+
+    /**
+     * Returns the first schedule date after the transaction date. Dues recurrences follow the loan schedule and have no
+     * next run date, they are evaluated on every run. The returned date may be early but never late: the run on that date
+     * checks the schedule again.
+     */
+    static LocalDate nextRunDate(final StandingInstructionData data, final LocalDate startDate, final LocalDate transactionDate) {
+        if (startDate == null) {
+            return null;
+        }
+        final ChronoUnit unit;
+        switch (data.recurrenceFrequency()) {
+            case DAYS:
+                unit = ChronoUnit.DAYS;
+            break;
+            case WEEKS:
+                unit = ChronoUnit.WEEKS;
+            break;
+            case MONTHS:
+                unit = ChronoUnit.MONTHS;
+            break;
+            case YEARS:
+                unit = ChronoUnit.YEARS;
+            break;
+            default:
+                return null;
+        }
+        final LocalDate fromDate = transactionDate.plusDays(1);
+        final long interval = data.recurrenceInterval();
+        long periods = Math.floorDiv(unit.between(startDate, fromDate), interval) * interval;
+        LocalDate nextRunDate = startDate.plus(periods, unit);
+        while (nextRunDate.isBefore(fromDate)) {
+            periods += interval;
+            nextRunDate = startDate.plus(periods, unit);
         }
+        return nextRunDate;
     }
 
-    private boolean transferAmount(final List<Throwable> errors, final AccountTransferDTO accountTransferDTO, final Long instructionId) {
+    private boolean transferAmount(final List<Throwable> errors, final List<Object[]> history, final AccountTransferDTO accountTransferDTO,
+            final Long instructionId) {
         boolean transferCompleted = true;
         StringBuilder errorLog = new StringBuilder();
-        StringBuilder updateQuery = new StringBuilder(
-                "INSERT INTO m_account_transfer_standing_instructions_history (standing_instruction_id, " + sqlGenerator.escape("status")
-                        + ", amount, execution_time, error_log) VALUES (");
         try {
             this.accountTransfersWritePlatformService.transferFunds(accountTransferDTO);
         } catch (final PlatformApiDataValidationException e) {
@@ -347,17 +504,11 @@ public class StandingInstructionWritePlatformServiceImpl implements StandingInst
             errorLog.append("Exception while trasfering funds " + e.getMessage());
 
         }
-        updateQuery.append(instructionId).append(",");
         if (errorLog.length() > 0) {
             transferCompleted = false;
-            updateQuery.append("'failed'").append(",");
-        } else {
-            updateQuery.append("'success'").append(",");
         }
-        updateQuery.append(accountTransferDTO.getTransactionAmount().doubleValue());
-        updateQuery.append(", ").append(sqlGenerator.currentTenantDateTime()).append(" ");
-        updateQuery.append(", '").append(errorLog).append("')");
-        this.jdbcTemplate.update(updateQuery.toString());
+        history.add(new Object[] { instructionId, transferCompleted ? "success" : "failed", accountTransferDTO.getTransactionAmount(),
+                errorLog.toString() });
         return transferCompleted;
     }
 }
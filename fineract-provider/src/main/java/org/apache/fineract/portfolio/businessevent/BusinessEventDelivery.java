@@ -0,0 +1,43 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.businessevent;
+
+/**
+ * How a {@link BusinessEventListener} registered for post business events wants to be invoked.
+ */
+public enum BusinessEventDelivery {
+
+    /**
+     * On the calling thread, inside the transaction that raised the event. Use for listeners whose changes must be part
+     * of that transaction.
+     */
+    SYNC,
+
+    /**
+     * On the calling thread, once the raising transaction has committed, in a transaction of its own. Nothing is
+     * delivered when the transaction rolls back.
+     */
+    AFTER_COMMIT,
+
+    /**
+     * On a worker of the asynchronous dispatcher, once the raising transaction has committed. Events of the same
+     * aggregate are delivered in the order they were raised; events may be dropped under sustained overload.
+     */
+    ASYNC
+}
@@ -32,4 +32,12 @@ public interface BusinessEventListener<T extends BusinessEvent<?>> {
      */
     void onBusinessEvent(T event);
 
+    /**
+     * Delivery mode used when this listener is registered for post business events; pre business event listeners are
+     * always invoked synchronously.
+     */
+    default BusinessEventDelivery getDelivery() {
+        return BusinessEventDelivery.SYNC;
+    }
+
 }
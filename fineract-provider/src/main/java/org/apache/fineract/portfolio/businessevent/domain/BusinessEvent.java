@@ -21,4 +21,12 @@ package org.apache.fineract.portfolio.businessevent.domain;
 public interface BusinessEvent<T> {
 
     T get();
+
+    /**
+     * Identifier of the aggregate (loan, savings account, ...) the event belongs to. Asynchronous delivery keeps the
+     * events of one aggregate in order; events without an aggregate are only ordered per event type.
+     */
+    default Long getAggregateRootId() {
+        return null;
+    }
 }
@@ -26,4 +26,9 @@ public abstract class LoanBusinessEvent extends AbstractBusinessEvent<Loan> {
     public LoanBusinessEvent(Loan value) {
         super(value);
     }
+
+    @Override
+    public Long getAggregateRootId() {
+        return get().getId();
+    }
 }
@@ -26,4 +26,9 @@ public abstract class LoanChargeBusinessEvent extends AbstractBusinessEvent<Loan
     public LoanChargeBusinessEvent(LoanCharge value) {
         super(value);
     }
+
+    @Override
+    public Long getAggregateRootId() {
+        return get().getLoan().getId();
+    }
 }
@@ -26,4 +26,9 @@ public abstract class LoanTransactionBusinessEvent extends AbstractBusinessEvent
     public LoanTransactionBusinessEvent(LoanTransaction value) {
         super(value);
     }
+
+    @Override
+    public Long getAggregateRootId() {
+        return get().getLoan().getId();
+    }
 }
@@ -26,4 +26,9 @@ public abstract class SavingsAccountBusinessEvent extends AbstractBusinessEvent<
     public SavingsAccountBusinessEvent(SavingsAccount value) {
         super(value);
     }
+
+    @Override
+    public Long getAggregateRootId() {
+        return get().getId();
+    }
 }
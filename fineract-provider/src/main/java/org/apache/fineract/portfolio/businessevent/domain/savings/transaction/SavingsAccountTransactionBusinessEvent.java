@@ -26,4 +26,9 @@ public abstract class SavingsAccountTransactionBusinessEvent extends AbstractBus
     public SavingsAccountTransactionBusinessEvent(SavingsAccountTransaction value) {
         super(value);
     }
+
+    @Override
+    public Long getAggregateRootId() {
+        return get().getSavingsAccount().getId();
+    }
 }
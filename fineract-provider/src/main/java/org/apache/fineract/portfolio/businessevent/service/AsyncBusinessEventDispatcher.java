@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.businessevent.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.FineractContext;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.portfolio.businessevent.BusinessEventListener;
+import org.apache.fineract.portfolio.businessevent.domain.BusinessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Delivers business events to {@link org.apache.fineract.portfolio.businessevent.BusinessEventDelivery#ASYNC}
+ * listeners on a fixed set of lanes. Every lane is a bounded queue drained by a single thread, and the lane is chosen
+ * from the aggregate id of the event (or the event type when there is none), so the events of one loan or savings
+ * account reach a listener in the order they were raised. When a lane stays full for longer than the enqueue timeout
+ * the event is dropped and counted rather than blocking the request that raised it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AsyncBusinessEventDispatcher {
+
+    private static final String METRIC_NAME = "fineract.business.events";
+
+    private final FineractProperties fineractProperties;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    private final List<BlockingQueue<Delivery>> lanes = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private TransactionTemplate transactionTemplate;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        final FineractProperties.FineractEventsProperties properties = this.fineractProperties.getEvents();
+        final int laneCount = Math.max(properties.getAsyncWorkers(), 1);
+        final int laneCapacity = Math.max(properties.getAsyncQueueCapacity() / laneCount, 1);
+        this.transactionTemplate = new TransactionTemplate(this.transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.running = true;
+        for (int i = 0; i < laneCount; i++) {
+            final BlockingQueue<Delivery> lane = new ArrayBlockingQueue<>(laneCapacity);
+            this.lanes.add(lane);
+            final Thread worker = new Thread(() -> drain(lane), "business-event-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            this.workers.add(worker);
+        }
+        Gauge.builder(METRIC_NAME + ".queued", this.lanes, lanes -> lanes.stream().mapToInt(BlockingQueue::size).sum())
+                .register(this.meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.running = false;
+        for (final Thread worker : this.workers) {
+            worker.interrupt();
+        }
+        int pending = 0;
+        for (final BlockingQueue<Delivery> lane : this.lanes) {
+            pending += lane.size();
+        }
+        if (pending > 0) {
+            log.warn("Discarding {} undelivered asynchronous business event(s) on shutdown", pending);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void dispatch(final BusinessEvent<?> businessEvent, final List<BusinessEventListener> listeners) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        final Delivery delivery = new Delivery(businessEvent, listeners, ThreadLocalContextUtil.getContext(),
+                SecurityContextHolder.getContext().getAuthentication());
+        final BlockingQueue<Delivery> lane = this.lanes.get(laneOf(businessEvent));
+        boolean queued = false;
+        try {
+            queued = this.running
+                    && lane.offer(delivery, this.fineractProperties.getEvents().getAsyncEnqueueTimeout(), TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queued) {
+            counter(businessEvent, "dropped").increment(listeners.size());
+            log.warn("Dropped {} for {} asynchronous listener(s): event queue is full", businessEvent.getClass().getSimpleName(),
+                    listeners.size());
+        }
+    }
+
+    private int laneOf(final BusinessEvent<?> businessEvent) {
+        final Long aggregateRootId = businessEvent.getAggregateRootId();
+        final int hash = aggregateRootId != null ? Long.hashCode(aggregateRootId) : businessEvent.getClass().hashCode();
+        return Math.floorMod(hash, this.lanes.size());
+    }
+
+    private void drain(final BlockingQueue<Delivery> lane) {
+        while (this.running) {
+            final Delivery delivery;
+            try {
+                delivery = lane.take();
+            } catch (final InterruptedException e) {
+                return;
+            }
+            try {
+                ThreadLocalContextUtil.init(delivery.context);
+                SecurityContextHolder.getContext().setAuthentication(delivery.authentication);
+                deliver(delivery);
+            } catch (final RuntimeException e) {
+                log.error("Could not deliver {} asynchronously", delivery.businessEvent.getClass().getSimpleName(), e);
+            } finally {
+                SecurityContextHolder.clearContext();
+                ThreadLocalContextUtil.clearTenant();
+                ThreadLocalContextUtil.clearDataSourceContext();
+            }
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private void deliver(final Delivery delivery) {
+        for (final BusinessEventListener listener : delivery.listeners) {
+            try {
+                this.transactionTemplate.executeWithoutResult(status -> listener.onBusinessEvent(delivery.businessEvent));
+                counter(delivery.businessEvent, "delivered").increment();
+            } catch (final RuntimeException e) {
+                counter(delivery.businessEvent, "failed").increment();
+                log.error("Asynchronous listener {} failed on {}", listener.getClass().getName(),
+                        delivery.businessEvent.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private Counter counter(final BusinessEvent<?> businessEvent, final String outcome) {
+        return Counter.builder(METRIC_NAME).tag("type", businessEvent.getClass().getSimpleName()).tag("outcome", outcome)
+                .register(this.meterRegistry);
+    }
+
+    @SuppressWarnings("rawtypes")
+    @RequiredArgsConstructor
+    private static final class Delivery {
+
+        private final BusinessEvent<?> businessEvent;
+        private final List<BusinessEventListener> listeners;
+        private final FineractContext context;
+        private final Authentication authentication;
+    }
+}
@@ -19,20 +19,48 @@
 package org.apache.fineract.portfolio.businessevent.service;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fineract.portfolio.businessevent.BusinessEventDelivery;
 import org.apache.fineract.portfolio.businessevent.BusinessEventListener;
 import org.apache.fineract.portfolio.businessevent.domain.BusinessEvent;
 import org.apache.fineract.portfolio.common.domain.BusinessEventNotificationConstants;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Pre business event listeners and {@link BusinessEventDelivery#SYNC} post business event listeners run on the calling
+ * thread inside the current transaction. {@link BusinessEventDelivery#AFTER_COMMIT} and
+ * {@link BusinessEventDelivery#ASYNC} listeners are deferred until the current transaction commits (and skipped when
+ * it rolls back), so they neither lengthen the transaction nor see uncommitted state.
+ */
+@Slf4j
 @Service
+@RequiredArgsConstructor
 @SuppressWarnings({ "unchecked", "rawtypes" })
 public class BusinessEventNotifierServiceImpl implements BusinessEventNotifierService {
 
-    private final Map<Class, List<BusinessEventListener>> preListeners = new HashMap<>();
-    private final Map<Class, List<BusinessEventListener>> postListeners = new HashMap<>();
+    private final Map<Class, List<BusinessEventListener>> preListeners = new ConcurrentHashMap<>();
+    private final Map<Class, List<BusinessEventListener>> postListeners = new ConcurrentHashMap<>();
+
+    private final PlatformTransactionManager transactionManager;
+    private final AsyncBusinessEventDispatcher asyncBusinessEventDispatcher;
+    private TransactionTemplate afterCommitTransactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        this.afterCommitTransactionTemplate = new TransactionTemplate(this.transactionManager);
+        this.afterCommitTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
 
     @Override
     public void notifyPreBusinessEvent(BusinessEvent<?> businessEvent) {
@@ -46,32 +74,62 @@ public class BusinessEventNotifierServiceImpl implements BusinessEventNotifierSe
 
     @Override
     public <T extends BusinessEvent<?>> void addPreBusinessEventListener(Class<T> eventType, BusinessEventListener<T> listener) {
-        List<BusinessEventListener> businessEventListeners = preListeners.get(eventType);
-        if (businessEventListeners == null) {
-            businessEventListeners = new ArrayList<>();
-            preListeners.put(eventType, businessEventListeners);
-        }
-        businessEventListeners.add(listener);
+        preListeners.computeIfAbsent(eventType, type -> new CopyOnWriteArrayList<>()).add(listener);
     }
 
     @Override
     public void notifyPostBusinessEvent(BusinessEvent<?> businessEvent) {
         List<BusinessEventListener> businessEventListeners = postListeners.get(businessEvent.getClass());
-        if (businessEventListeners != null) {
-            for (BusinessEventListener eventListener : businessEventListeners) {
-                eventListener.onBusinessEvent(businessEvent);
+        if (businessEventListeners == null) {
+            return;
+        }
+        final List<BusinessEventListener> afterCommitListeners = new ArrayList<>();
+        final List<BusinessEventListener> asyncListeners = new ArrayList<>();
+        for (BusinessEventListener eventListener : businessEventListeners) {
+            switch (eventListener.getDelivery()) {
+                case AFTER_COMMIT:
+                    afterCommitListeners.add(eventListener);
+                break;
+                case ASYNC:
+                    asyncListeners.add(eventListener);
+                break;
+                default:
+                    eventListener.onBusinessEvent(businessEvent);
+            }
+        }
+        if (afterCommitListeners.isEmpty() && asyncListeners.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCommit() {
+                    notifyDeferredListeners(businessEvent, afterCommitListeners, asyncListeners);
+                }
+            });
+        } else {
+            notifyDeferredListeners(businessEvent, afterCommitListeners, asyncListeners);
+        }
+    }
+
+    private void notifyDeferredListeners(BusinessEvent<?> businessEvent, List<BusinessEventListener> afterCommitListeners,
+            List<BusinessEventListener> asyncListeners) {
+        asyncBusinessEventDispatcher.dispatch(businessEvent, asyncListeners);
+        for (BusinessEventListener eventListener : afterCommitListeners) {
+            try {
+                afterCommitTransactionTemplate.executeWithoutResult(status -> eventListener.onBusinessEvent(businessEvent));
+            } catch (RuntimeException e) {
+                // the business transaction is already committed, a failing listener must not fail the request
+                log.error("After commit listener {} failed on {}", eventListener.getClass().getName(),
+                        businessEvent.getClass().getSimpleName(), e);
             }
         }
     }
 
     @Override
     public <T extends BusinessEvent<?>> void addPostBusinessEventListener(Class<T> eventType, BusinessEventListener<T> listener) {
-        List<BusinessEventListener> businessEventListeners = postListeners.get(eventType);
-        if (businessEventListeners == null) {
-            businessEventListeners = new ArrayList<>();
-            postListeners.put(eventType, businessEventListeners);
-        }
-        businessEventListeners.add(listener);
+        postListeners.computeIfAbsent(eventType, type -> new CopyOnWriteArrayList<>()).add(listener);
     }
 
     @Override
@@ -61,6 +61,7 @@ import org.apache.fineract.infrastructure.core.exception.UnrecognizedQueryParamE
 import org.apache.fineract.infrastructure.core.serialization.ApiRequestJsonSerializationSettings;
 import org.apache.fineract.infrastructure.core.serialization.ToApiJsonSerializer;
 import org.apache.fineract.infrastructure.core.service.Page;
+import org.apache.fineract.infrastructure.core.service.PaginationCountMode;
 import org.apache.fineract.infrastructure.core.service.SearchParameters;
 import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
 import org.apache.fineract.portfolio.accountdetails.data.AccountSummaryCollectionData;
@@ -155,21 +156,34 @@ public class ClientsApiResource {
             @QueryParam("sortOrder") @Parameter(description = "sortOrder") final String sortOrder,
             @QueryParam("orphansOnly") @Parameter(description = "orphansOnly") final Boolean orphansOnly,
             @QueryParam("accountNo") @Parameter(description = "accountNo") final String accountNo,
-            @QueryParam("mobileNo") @Parameter(description = "mobileNo") final String mobileNo) {
+            @QueryParam("mobileNo") @Parameter(description = "mobileNo") final String mobileNo,
+            @QueryParam("cursor") @Parameter(description = "opaque keyset cursor; empty for the first page") final String cursor,
+            @QueryParam("countMode") @Parameter(description = "EXACT, ESTIMATE, CACHED or NONE") final String countMode) {
 
         return this.retrieveAll(uriInfo, sqlSearch, officeId, externalId, displayName, firstname, lastname, status, hierarchy, offset,
-                limit, orderBy, sortOrder, orphansOnly, false, clientType, accountNo, mobileNo);
+                limit, orderBy, sortOrder, orphansOnly, false, clientType, accountNo, mobileNo, cursor, countMode);
     }
 
     public String retrieveAll(final UriInfo uriInfo, final String sqlSearch, final Long officeId, final String externalId,
             final String displayName, final String firstname, final String lastname, final String status, final String hierarchy,
             final Integer offset, final Integer limit, final String orderBy, final String sortOrder, final Boolean orphansOnly,
             final boolean isSelfUser, String clientType, final String accountNo, String mobileNo) {
+        return this.retrieveAll(uriInfo, sqlSearch, officeId, externalId, displayName, firstname, lastname, status, hierarchy, offset,
+                limit, orderBy, sortOrder, orphansOnly, isSelfUser, clientType, accountNo, mobileNo, null, null);
+    }
+
+    private String retrieveAll(final UriInfo uriInfo, final String sqlSearch, final Long officeId, final String externalId,
+            final String displayName, final String firstname, final String lastname, final String status, final String hierarchy,
+            final Integer offset, final Integer limit, final String orderBy, final String sortOrder, final Boolean orphansOnly,
+            final boolean isSelfUser, String clientType, final String accountNo, String mobileNo, final String cursor,
+            final String countMode) {
 
         this.context.authenticatedUser().validateHasReadPermission(ClientApiConstants.CLIENT_RESOURCE_NAME);
 
         final SearchParameters searchParameters = SearchParameters.forClients(sqlSearch, officeId, externalId, displayName, firstname,
                 lastname, status, hierarchy, offset, limit, orderBy, sortOrder, orphansOnly, isSelfUser, clientType, accountNo, mobileNo);
+        searchParameters.setCursor(cursor);
+        searchParameters.setCountMode(PaginationCountMode.fromString(countMode));
 
         final Page<ClientData> clientData = this.clientReadPlatformService.retrieveAll(searchParameters);
 
@@ -47,6 +47,7 @@ import org.apache.fineract.infrastructure.core.filters.FilterConstraint;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
 import org.apache.fineract.infrastructure.core.service.Page;
 import org.apache.fineract.infrastructure.core.service.PaginationHelper;
+import org.apache.fineract.infrastructure.core.service.PaginationKeyset;
 import org.apache.fineract.infrastructure.core.service.SearchParameters;
 import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
 import org.apache.fineract.infrastructure.dataqueries.data.DatatableData;
@@ -253,6 +254,11 @@ public class ClientReadPlatformServiceImpl implements ClientReadPlatformService
                 sqlBuilder.append(" and (").append(extraCriteria).append(")");
             }
 
+            if (searchParameters.isKeysetPaginationRequested()) {
+                return this.paginationHelper.fetchPageByKeyset(this.jdbcTemplate, sqlBuilder.toString(), true, paramList.toArray(),
+                        this.clientMapper, PaginationKeyset.byId("c.id"), searchParameters);
+            }
+
             if (searchParameters.isOrderByRequested()) {
                 sqlBuilder.append(" order by ").append(searchParameters.getOrderBy());
                 this.columnValidator.validateSqlInjection(sqlBuilder.toString(), searchParameters.getOrderBy());
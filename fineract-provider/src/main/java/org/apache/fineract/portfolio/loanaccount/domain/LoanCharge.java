@@ -364,6 +364,39 @@ public class LoanCharge extends AbstractPersistableCustom {
         }
     }
 
+    String processingFingerprint() {
+        final StringBuilder fingerprint = new StringBuilder(LoanTransactionCheckpoints.fingerprintOf(getId(), this.chargeTime,
+                this.dueDate, this.amount, this.amountWaived, this.amountWrittenOff, this.penaltyCharge, this.active));
+        this.loanInstallmentCharge.stream().map(LoanInstallmentCharge::processingFingerprint).sorted()
+                .forEach(installmentCharge -> fingerprint.append('[').append(installmentCharge).append(']'));
+        return fingerprint.toString();
+    }
+
+    LoanTransactionCheckpointState.ChargeState captureProcessingState() {
+        final List<LoanTransactionCheckpointState.InstallmentChargeState> installmentCharges = new ArrayList<>();
+        for (final LoanInstallmentCharge installmentCharge : this.loanInstallmentCharge) {
+            installmentCharges.add(installmentCharge.captureProcessingState());
+        }
+        return new LoanTransactionCheckpointState.ChargeState(getId(), this.amountPaid, this.amountOutstanding, this.paid, this.waived,
+                installmentCharges);
+    }
+
+    void restoreProcessingState(final LoanTransactionCheckpointState.ChargeState state) {
+        this.amountPaid = state.getAmountPaid();
+        this.amountOutstanding = state.getAmountOutstanding();
+        this.paid = state.isPaid();
+        // a replay sets the waived flag but never clears it
+        this.waived = this.waived || state.isWaived();
+        for (final LoanTransactionCheckpointState.InstallmentChargeState installmentChargeState : state.getInstallmentCharges()) {
+            for (final LoanInstallmentCharge installmentCharge : this.loanInstallmentCharge) {
+                if (installmentCharge.getRepaymentInstallment().getInstallmentNumber()
+                        .equals(installmentChargeState.getInstallmentNumber())) {
+                    installmentCharge.restoreProcessingState(installmentChargeState);
+                }
+            }
+        }
+    }
+
     public void resetOutstandingAmount(final BigDecimal amountOutstanding) {
         this.amountOutstanding = amountOutstanding;
     }
@@ -24,6 +24,7 @@ import javax.persistence.Entity;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import org.apache.fineract.infrastructure.core.domain.AbstractPersistableCustom;
 import org.apache.fineract.organisation.monetary.domain.MonetaryCurrency;
 import org.apache.fineract.organisation.monetary.domain.Money;
@@ -58,6 +59,11 @@ public class LoanInstallmentCharge extends AbstractPersistableCustom implements
     @Column(name = "amount_through_charge_payment", scale = 6, precision = 19, nullable = true)
     private BigDecimal amountThroughChargePayment;
 
+    // whether the running transaction replay has set amountThroughChargePayment, which (unlike the paid amount) is not
+    // reset when a replay starts
+    @Transient
+    private boolean amountThroughChargePaymentReplayed;
+
     @Column(name = "is_paid_derived", nullable = false)
     private boolean paid = false;
 
@@ -204,6 +210,7 @@ public class LoanInstallmentCharge extends AbstractPersistableCustom implements
             amountFromChargePayment = feeAmount;
         }
         this.amountThroughChargePayment = amountFromChargePayment.getAmount();
+        this.amountThroughChargePaymentReplayed = true;
         if (determineIfFullyPaid()) {
             Money waivedAmount = getAmountWaived(incrementBy.getCurrency());
             if (waivedAmount.isGreaterThanZero()) {
@@ -224,6 +231,33 @@ public class LoanInstallmentCharge extends AbstractPersistableCustom implements
         this.amountPaid = BigDecimal.ZERO;
         this.amountOutstanding = calculateAmountOutstanding(currency);
         this.paid = false;
+        this.amountThroughChargePaymentReplayed = false;
+    }
+
+    String processingFingerprint() {
+        return LoanTransactionCheckpoints.fingerprintOf(this.installment.getInstallmentNumber(), this.amount, this.amountWaived,
+                this.amountWrittenOff);
+    }
+
+    // the charge payment total is only captured once the replay has set it: until then a replay leaves whatever value
+    // the charge had before, so a restore must leave it alone as well
+    LoanTransactionCheckpointState.InstallmentChargeState captureProcessingState() {
+        return new LoanTransactionCheckpointState.InstallmentChargeState(this.installment.getInstallmentNumber(), this.amountPaid,
+                this.amountOutstanding, this.amountThroughChargePaymentReplayed ? this.amountThroughChargePayment : null, this.paid,
+                this.waived);
+    }
+
+    // paid amounts are reset before a replay, the waived flag is not: keep whatever a replay of the checkpointed
+    // transactions would have left on them
+    void restoreProcessingState(final LoanTransactionCheckpointState.InstallmentChargeState state) {
+        this.amountPaid = state.getAmountPaid();
+        this.amountOutstanding = state.getAmountOutstanding();
+        this.paid = state.isPaid();
+        this.waived = this.waived || state.isWaived();
+        if (state.getAmountThroughChargePayment() != null) {
+            this.amountThroughChargePayment = state.getAmountThroughChargePayment();
+            this.amountThroughChargePaymentReplayed = true;
+        }
     }
 
     public void resetAmountWaived(final BigDecimal amountWaived) {
@@ -306,6 +340,7 @@ public class LoanInstallmentCharge extends AbstractPersistableCustom implements
             this.amountOutstanding = calculateAmountOutstanding(incrementBy.getCurrency());
         }
         this.amountThroughChargePayment = feeAmount.getAmount();
+        this.amountThroughChargePaymentReplayed = true;
         this.paid = determineIfFullyPaid();
 
         return amountToDeductOnThisCharge;
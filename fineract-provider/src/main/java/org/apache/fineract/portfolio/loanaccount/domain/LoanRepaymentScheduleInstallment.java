@@ -383,6 +383,38 @@ public final class LoanRepaymentScheduleInstallment extends AbstractAuditableCus
         this.obligationsMetOnDate = null;
     }
 
+    String processingFingerprint() {
+        return LoanTransactionCheckpoints.fingerprintOf(this.installmentNumber, this.fromDate, this.dueDate, this.principal,
+                this.interestCharged, this.feeChargesCharged, this.penaltyCharges, this.rescheduleInterestPortion,
+                this.recalculatedInterestComponent);
+    }
+
+    LoanTransactionCheckpointState.InstallmentState captureProcessingState() {
+        return new LoanTransactionCheckpointState.InstallmentState(this.installmentNumber, this.principalCompleted,
+                this.principalWrittenOff, this.interestPaid, this.interestWaived, this.interestWrittenOff, this.feeChargesPaid,
+                this.feeChargesWaived, this.feeChargesWrittenOff, this.penaltyChargesPaid, this.penaltyChargesWaived,
+                this.penaltyChargesWrittenOff, this.totalPaidInAdvance, this.totalPaidLate, this.obligationsMet,
+                this.obligationsMetOnDate == null ? null : this.obligationsMetOnDate.toString());
+    }
+
+    void restoreProcessingState(final LoanTransactionCheckpointState.InstallmentState state) {
+        this.principalCompleted = state.getPrincipalCompleted();
+        this.principalWrittenOff = state.getPrincipalWrittenOff();
+        this.interestPaid = state.getInterestPaid();
+        this.interestWaived = state.getInterestWaived();
+        this.interestWrittenOff = state.getInterestWrittenOff();
+        this.feeChargesPaid = state.getFeeChargesPaid();
+        this.feeChargesWaived = state.getFeeChargesWaived();
+        this.feeChargesWrittenOff = state.getFeeChargesWrittenOff();
+        this.penaltyChargesPaid = state.getPenaltyChargesPaid();
+        this.penaltyChargesWaived = state.getPenaltyChargesWaived();
+        this.penaltyChargesWrittenOff = state.getPenaltyChargesWrittenOff();
+        this.totalPaidInAdvance = state.getTotalPaidInAdvance();
+        this.totalPaidLate = state.getTotalPaidLate();
+        this.obligationsMet = state.isObligationsMet();
+        this.obligationsMetOnDate = state.getObligationsMetOnDate() == null ? null : LocalDate.parse(state.getObligationsMetOnDate());
+    }
+
     public void resetAccrualComponents() {
         this.interestAccrued = null;
         this.feeAccrued = null;
@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.loanaccount.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import org.apache.fineract.infrastructure.core.domain.AbstractPersistableCustom;
+
+/**
+ * Derived installment and charge state of a loan after the first {@link #getTransactionCount()} transactions of a
+ * full transaction replay. The fingerprint covers the schedule, the charges, the charge payments and those
+ * transactions, so a checkpoint whose fingerprint still matches can stand in for replaying them.
+ */
+@Entity
+@Table(name = "m_loan_transaction_checkpoint")
+public class LoanTransactionCheckpoint extends AbstractPersistableCustom {
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "loan_id", nullable = false)
+    private Loan loan;
+
+    @Column(name = "transaction_count", nullable = false)
+    private Integer transactionCount;
+
+    @Column(name = "last_transaction_id", nullable = false)
+    private Long lastTransactionId;
+
+    @Column(name = "fingerprint", length = 64, nullable = false)
+    private String fingerprint;
+
+    @Column(name = "state", nullable = false)
+    private String state;
+
+    protected LoanTransactionCheckpoint() {
+
+    }
+
+    LoanTransactionCheckpoint(final Loan loan, final Integer transactionCount, final Long lastTransactionId, final String fingerprint,
+            final LoanTransactionCheckpointState state) {
+        this.loan = loan;
+        this.transactionCount = transactionCount;
+        this.lastTransactionId = lastTransactionId;
+        this.fingerprint = fingerprint;
+        this.state = state.toJson();
+    }
+
+    public Integer getTransactionCount() {
+        return this.transactionCount;
+    }
+
+    public String getFingerprint() {
+        return this.fingerprint;
+    }
+
+    LoanTransactionCheckpointState getState() {
+        return LoanTransactionCheckpointState.fromJson(this.state);
+    }
+}
@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.loanaccount.domain;
+
+import com.google.gson.Gson;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Derived installment and charge state captured by a {@link LoanTransactionCheckpoint}, (de)serialized as JSON.
+ */
+@Getter
+final class LoanTransactionCheckpointState {
+
+    private static final Gson GSON = new Gson();
+
+    private final List<InstallmentState> installments = new ArrayList<>();
+    private final List<ChargeState> charges = new ArrayList<>();
+
+    String toJson() {
+        return GSON.toJson(this);
+    }
+
+    static LoanTransactionCheckpointState fromJson(final String json) {
+        return GSON.fromJson(json, LoanTransactionCheckpointState.class);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class InstallmentState {
+
+        private final Integer installmentNumber;
+        private final BigDecimal principalCompleted;
+        private final BigDecimal principalWrittenOff;
+        private final BigDecimal interestPaid;
+        private final BigDecimal interestWaived;
+        private final BigDecimal interestWrittenOff;
+        private final BigDecimal feeChargesPaid;
+        private final BigDecimal feeChargesWaived;
+        private final BigDecimal feeChargesWrittenOff;
+        private final BigDecimal penaltyChargesPaid;
+        private final BigDecimal penaltyChargesWaived;
+        private final BigDecimal penaltyChargesWrittenOff;
+        private final BigDecimal totalPaidInAdvance;
+        private final BigDecimal totalPaidLate;
+        private final boolean obligationsMet;
+        // ISO date, kept as text to stay independent of a LocalDate type adapter
+        private final String obligationsMetOnDate;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class ChargeState {
+
+        private final Long chargeId;
+        private final BigDecimal amountPaid;
+        private final BigDecimal amountOutstanding;
+        private final boolean paid;
+        private final boolean waived;
+        private final List<InstallmentChargeState> installmentCharges;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static final class InstallmentChargeState {
+
+        private final Integer installmentNumber;
+        private final BigDecimal amountPaid;
+        private final BigDecimal amountOutstanding;
+        // null when the checkpointed transactions did not touch it
+        private final BigDecimal amountThroughChargePayment;
+        private final boolean paid;
+        private final boolean waived;
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.loanaccount.domain;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.fineract.organisation.monetary.domain.MonetaryCurrency;
+
+/**
+ * The {@link LoanTransactionCheckpoint}s of a loan as seen by a full transaction replay: the replay restores the latest
+ * checkpoint that is still valid for its inputs, processes only the transactions after it and records a new checkpoint
+ * every {@link #CHECKPOINT_INTERVAL} transactions.
+ *
+ * A checkpoint is valid when the fingerprint of the replay inputs up to its transaction count is unchanged: processing
+ * strategy, disbursement date, currency, schedule, charges, charge payments and the (ids, types, dates and amounts of
+ * the) transactions themselves. Replays containing unsaved transactions or charges, or a refund of an active loan,
+ * are only checkpointed before them.
+ */
+public final class LoanTransactionCheckpoints {
+
+    static final int CHECKPOINT_INTERVAL = 50;
+
+    private final Loan loan;
+    private final Collection<LoanTransactionCheckpoint> checkpoints;
+
+    LoanTransactionCheckpoints(final Loan loan, final Collection<LoanTransactionCheckpoint> checkpoints) {
+        this.loan = loan;
+        this.checkpoints = checkpoints;
+    }
+
+    /**
+     * @return the fingerprints of the replay inputs up to (and including) the n-th transaction at index n, index 0
+     *         covering everything but the transactions; null where the replay cannot be checkpointed
+     */
+    public List<String> fingerprint(final String processor, final LocalDate disbursementDate, final MonetaryCurrency currency,
+            final List<LoanRepaymentScheduleInstallment> installments, final Set<LoanCharge> charges,
+            final List<LoanTransaction> chargePayments, final List<LoanTransaction> transactions) {
+        final List<String> fingerprints = new ArrayList<>(transactions.size() + 1);
+        String fingerprint = null;
+        if (charges.stream().noneMatch(charge -> charge.getId() == null)
+                && chargePayments.stream().noneMatch(chargePayment -> chargePayment.getId() == null)) {
+            final StringBuilder seed = new StringBuilder(fingerprintOf(processor, disbursementDate, currency.getCode()));
+            installments.stream().sorted(Comparator.comparing(LoanRepaymentScheduleInstallment::getInstallmentNumber))
+                    .forEach(installment -> seed.append('[').append(installment.processingFingerprint()).append(']'));
+            charges.stream().sorted(Comparator.comparing(LoanCharge::getId))
+                    .forEach(charge -> seed.append('[').append(charge.processingFingerprint()).append(']'));
+            for (final LoanTransaction chargePayment : chargePayments) {
+                final List<Long> paidChargeIds = chargePayment.getLoanChargesPaid().stream()
+                        .map(chargePaidBy -> chargePaidBy.getLoanCharge().getId()).sorted().collect(Collectors.toList());
+                seed.append('[').append(fingerprintOf(transactionFingerprint(chargePayment, currency), paidChargeIds)).append(']');
+            }
+            fingerprint = sha256(seed.toString());
+        }
+        fingerprints.add(fingerprint);
+        for (final LoanTransaction transaction : transactions) {
+            if (fingerprint != null && (transaction.getId() == null || transaction.isRefundForActiveLoan())) {
+                fingerprint = null;
+            }
+            if (fingerprint != null) {
+                fingerprint = sha256(fingerprint + transactionFingerprint(transaction, currency));
+            }
+            fingerprints.add(fingerprint);
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Restores the installments and charges to the latest valid checkpoint.
+     *
+     * @return the number of transactions covered by the restored checkpoint, 0 when none was restored
+     */
+    public int restore(final List<String> fingerprints, final List<LoanRepaymentScheduleInstallment> installments,
+            final Set<LoanCharge> charges) {
+        LoanTransactionCheckpoint latest = null;
+        for (final LoanTransactionCheckpoint checkpoint : this.checkpoints) {
+            if (isValid(checkpoint, fingerprints)
+                    && (latest == null || checkpoint.getTransactionCount() > latest.getTransactionCount())) {
+                latest = checkpoint;
+            }
+        }
+        if (latest == null) {
+            return 0;
+        }
+        final LoanTransactionCheckpointState state = latest.getState();
+        final Map<Integer, LoanTransactionCheckpointState.InstallmentState> installmentStates = new HashMap<>();
+        for (final LoanTransactionCheckpointState.InstallmentState installmentState : state.getInstallments()) {
+            installmentStates.put(installmentState.getInstallmentNumber(), installmentState);
+        }
+        final Map<Long, LoanTransactionCheckpointState.ChargeState> chargeStates = new HashMap<>();
+        for (final LoanTransactionCheckpointState.ChargeState chargeState : state.getCharges()) {
+            chargeStates.put(chargeState.getChargeId(), chargeState);
+        }
+        if (installments.stream().anyMatch(installment -> !installmentStates.containsKey(installment.getInstallmentNumber()))) {
+            return 0;
+        }
+        for (final LoanRepaymentScheduleInstallment installment : installments) {
+            installment.restoreProcessingState(installmentStates.get(installment.getInstallmentNumber()));
+        }
+        for (final LoanCharge charge : charges) {
+            final LoanTransactionCheckpointState.ChargeState chargeState = chargeStates.get(charge.getId());
+            if (chargeState != null) {
+                charge.restoreProcessingState(chargeState);
+            }
+        }
+        // the replay leaves the installments ordered by due date after every transaction but a refund
+        installments.sort(Comparator.comparing(LoanRepaymentScheduleInstallment::getDueDate));
+        return latest.getTransactionCount();
+    }
+
+    /**
+     * Records a checkpoint after the first <code>transactionCount</code> transactions, when one is due there and none
+     * exists yet.
+     */
+    public void record(final int transactionCount, final List<String> fingerprints, final List<LoanTransaction> transactions,
+            final List<LoanRepaymentScheduleInstallment> installments, final Set<LoanCharge> charges) {
+        final String fingerprint = fingerprints.get(transactionCount);
+        if (transactionCount % CHECKPOINT_INTERVAL != 0 || fingerprint == null) {
+            return;
+        }
+        for (final LoanTransactionCheckpoint checkpoint : this.checkpoints) {
+            if (checkpoint.getTransactionCount() == transactionCount && fingerprint.equals(checkpoint.getFingerprint())) {
+                return;
+            }
+        }
+        final LoanTransactionCheckpointState state = new LoanTransactionCheckpointState();
+        for (final LoanRepaymentScheduleInstallment installment : installments) {
+            state.getInstallments().add(installment.captureProcessingState());
+        }
+        for (final LoanCharge charge : charges) {
+            if (!charge.isDueAtDisbursement()) {
+                state.getCharges().add(charge.captureProcessingState());
+            }
+        }
+        this.checkpoints.add(new LoanTransactionCheckpoint(this.loan, transactionCount, transactions.get(transactionCount - 1).getId(),
+                fingerprint, state));
+    }
+
+    /**
+     * Drops the checkpoints the inputs of the replay no longer match.
+     */
+    public void discardStale(final List<String> fingerprints) {
+        this.checkpoints.removeIf(checkpoint -> !isValid(checkpoint, fingerprints));
+    }
+
+    private boolean isValid(final LoanTransactionCheckpoint checkpoint, final List<String> fingerprints) {
+        return checkpoint.getTransactionCount() < fingerprints.size()
+                && checkpoint.getFingerprint().equals(fingerprints.get(checkpoint.getTransactionCount()));
+    }
+
+    private String transactionFingerprint(final LoanTransaction transaction, final MonetaryCurrency currency) {
+        return fingerprintOf(transaction.getId(), transaction.getTypeOf().getValue(), transaction.getTransactionDate(),
+                transaction.getAmount(currency).getAmount());
+    }
+
+    private static String sha256(final String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String fingerprintOf(final Object... values) {
+        final StringBuilder fingerprint = new StringBuilder();
+        for (final Object value : values) {
+            if (value instanceof BigDecimal) {
+                fingerprint.append(((BigDecimal) value).stripTrailingZeros().toPlainString());
+            } else if (value != null) {
+                fingerprint.append(value);
+            }
+            fingerprint.append('|');
+        }
+        return fingerprint.toString();
+    }
+}
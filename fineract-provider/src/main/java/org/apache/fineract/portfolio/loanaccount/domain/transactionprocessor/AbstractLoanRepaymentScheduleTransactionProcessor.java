@@ -36,6 +36,7 @@ import org.apache.fineract.portfolio.loanaccount.domain.LoanInstallmentCharge;
 import org.apache.fineract.portfolio.loanaccount.domain.LoanRepaymentScheduleInstallment;
 import org.apache.fineract.portfolio.loanaccount.domain.LoanRepaymentScheduleProcessingWrapper;
 import org.apache.fineract.portfolio.loanaccount.domain.LoanTransaction;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanTransactionCheckpoints;
 import org.apache.fineract.portfolio.loanaccount.domain.LoanTransactionToRepaymentScheduleMapping;
 import org.apache.fineract.portfolio.loanaccount.domain.LoanTransactionType;
 import org.apache.fineract.portfolio.loanaccount.domain.transactionprocessor.impl.CreocoreLoanRepaymentScheduleTransactionProcessor;
@@ -64,6 +65,18 @@ public abstract class AbstractLoanRepaymentScheduleTransactionProcessor implemen
     public ChangedTransactionDetail handleTransaction(final LocalDate disbursementDate,
             final List<LoanTransaction> transactionsPostDisbursement, final MonetaryCurrency currency,
             final List<LoanRepaymentScheduleInstallment> installments, final Set<LoanCharge> charges) {
+        return handleTransaction(disbursementDate, transactionsPostDisbursement, currency, installments, charges, null);
+    }
+
+    /**
+     * Same as the full re-process above, but skips the transactions covered by the latest still valid checkpoint of
+     * <code>checkpoints</code> (when given) and records new checkpoints along the way.
+     */
+    @Override
+    public ChangedTransactionDetail handleTransaction(final LocalDate disbursementDate,
+            final List<LoanTransaction> transactionsPostDisbursement, final MonetaryCurrency currency,
+            final List<LoanRepaymentScheduleInstallment> installments, final Set<LoanCharge> charges,
+            final LoanTransactionCheckpoints checkpoints) {
 
         if (charges != null) {
             for (final LoanCharge loanCharge : charges) {
@@ -85,8 +98,10 @@ public abstract class AbstractLoanRepaymentScheduleTransactionProcessor implemen
 
         final ChangedTransactionDetail changedTransactionDetail = new ChangedTransactionDetail();
         final List<LoanTransaction> transactionstoBeProcessed = new ArrayList<>();
+        final List<LoanTransaction> chargePayments = new ArrayList<>();
         for (final LoanTransaction loanTransaction : transactionsPostDisbursement) {
             if (loanTransaction.isChargePayment()) {
+                chargePayments.add(loanTransaction);
                 List<LoanChargePaidDetail> chargePaidDetails = new ArrayList<>();
                 final Set<LoanChargePaidBy> chargePaidBies = loanTransaction.getLoanChargesPaid();
                 final Set<LoanCharge> transferCharges = new HashSet<>();
@@ -140,7 +155,16 @@ public abstract class AbstractLoanRepaymentScheduleTransactionProcessor implemen
             }
         }
 
-        for (final LoanTransaction loanTransaction : transactionstoBeProcessed) {
+        List<String> fingerprints = null;
+        int processedTransactions = 0;
+        if (checkpoints != null && charges != null) {
+            fingerprints = checkpoints.fingerprint(getClass().getName(), disbursementDate, currency, installments, charges, chargePayments,
+                    transactionstoBeProcessed);
+            processedTransactions = checkpoints.restore(fingerprints, installments, charges);
+        }
+
+        for (final LoanTransaction loanTransaction : transactionstoBeProcessed.subList(processedTransactions,
+                transactionstoBeProcessed.size())) {
 
             if (!loanTransaction.getTypeOf().equals(LoanTransactionType.REFUND_FOR_ACTIVE_LOAN)) {
                 final Comparator<LoanRepaymentScheduleInstallment> byDate = new Comparator<LoanRepaymentScheduleInstallment>() {
@@ -191,6 +215,14 @@ public abstract class AbstractLoanRepaymentScheduleTransactionProcessor implemen
 
                 handleRefund(loanTransaction, currency, installments, charges);
             }
+
+            processedTransactions++;
+            if (fingerprints != null) {
+                checkpoints.record(processedTransactions, fingerprints, transactionstoBeProcessed, installments, charges);
+            }
+        }
+        if (fingerprints != null) {
+            checkpoints.discardStale(fingerprints);
         }
         return changedTransactionDetail;
     }
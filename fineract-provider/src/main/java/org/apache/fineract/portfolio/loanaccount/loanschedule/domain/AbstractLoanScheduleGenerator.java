@@ -36,6 +36,7 @@ import org.apache.fineract.infrastructure.core.service.DateUtils;
 import org.apache.fineract.organisation.monetary.domain.ApplicationCurrency;
 import org.apache.fineract.organisation.monetary.domain.MonetaryCurrency;
 import org.apache.fineract.organisation.monetary.domain.Money;
+import org.apache.fineract.organisation.monetary.domain.MoneyAccumulator;
 import org.apache.fineract.organisation.workingdays.data.AdjustedDateDetailsDTO;
 import org.apache.fineract.organisation.workingdays.domain.RepaymentRescheduleType;
 import org.apache.fineract.portfolio.calendar.domain.CalendarInstance;
@@ -2740,21 +2741,21 @@ public abstract class AbstractLoanScheduleGenerator implements LoanScheduleGener
 
         loanRepaymentScheduleTransactionProcessor.handleTransaction(loanApplicationTerms.getExpectedDisbursementDate(), loanTransactions,
                 currency, loanScheduleDTO.getInstallments(), loan.charges());
-        Money feeCharges = Money.zero(currency);
-        Money penaltyCharges = Money.zero(currency);
-        Money totalPrincipal = Money.zero(currency);
-        Money totalInterest = Money.zero(currency);
+        final MoneyAccumulator feeCharges = MoneyAccumulator.zero(currency);
+        final MoneyAccumulator penaltyCharges = MoneyAccumulator.zero(currency);
+        final MoneyAccumulator totalPrincipal = MoneyAccumulator.zero(currency);
+        final MoneyAccumulator totalInterest = MoneyAccumulator.zero(currency);
         for (final LoanRepaymentScheduleInstallment currentInstallment : loanScheduleDTO.getInstallments()) {
             if (currentInstallment.isNotFullyPaidOff()) {
-                totalPrincipal = totalPrincipal.plus(currentInstallment.getPrincipalOutstanding(currency));
-                totalInterest = totalInterest.plus(currentInstallment.getInterestOutstanding(currency));
-                feeCharges = feeCharges.plus(currentInstallment.getFeeChargesOutstanding(currency));
-                penaltyCharges = penaltyCharges.plus(currentInstallment.getPenaltyChargesOutstanding(currency));
+                totalPrincipal.plus(currentInstallment.getPrincipalOutstanding(currency));
+                totalInterest.plus(currentInstallment.getInterestOutstanding(currency));
+                feeCharges.plus(currentInstallment.getFeeChargesOutstanding(currency));
+                penaltyCharges.plus(currentInstallment.getPenaltyChargesOutstanding(currency));
             }
         }
         final Set<LoanInterestRecalcualtionAdditionalDetails> compoundingDetails = null;
-        return new LoanRepaymentScheduleInstallment(null, 0, onDate, onDate, totalPrincipal.getAmount(), totalInterest.getAmount(),
-                feeCharges.getAmount(), penaltyCharges.getAmount(), false, compoundingDetails);
+        return new LoanRepaymentScheduleInstallment(null, 0, onDate, onDate, totalPrincipal.toBigDecimal(), totalInterest.toBigDecimal(),
+                feeCharges.toBigDecimal(), penaltyCharges.toBigDecimal(), false, compoundingDetails);
     }
 
     private static final class LoanTermVariationParams {
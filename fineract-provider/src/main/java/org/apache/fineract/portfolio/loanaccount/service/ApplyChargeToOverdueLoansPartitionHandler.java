@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.loanaccount.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.apache.fineract.cob.data.BatchPartition;
+import org.apache.fineract.cob.service.BatchPartitionHandler;
+import org.apache.fineract.cob.service.BatchPartitionService;
+import org.apache.fineract.infrastructure.configuration.domain.ConfigurationDomainService;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JobName;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Applies overdue penalties to the loans of one partition of the
+ * {@link JobName#APPLY_CHARGE_TO_OVERDUE_LOAN_INSTALLMENT} job. Every loan is charged in its own transaction (see
+ * {@link ApplyChargeToOverdueLoansPoster}); the checkpoint is moved after each chunk.
+ */
+@Component
+@RequiredArgsConstructor
+public class ApplyChargeToOverdueLoansPartitionHandler implements BatchPartitionHandler {
+
+    private final ApplicationContext applicationContext;
+    private final ConfigurationDomainService configurationDomainService;
+    private final LoanReadPlatformService loanReadPlatformService;
+    private final LoanWritePlatformService loanWritePlatformService;
+    private final BatchPartitionService batchPartitionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public String getJobName() {
+        return JobName.APPLY_CHARGE_TO_OVERDUE_LOAN_INSTALLMENT.name();
+    }
+
+    @Override
+    public List<Throwable> process(final BatchPartition partition) {
+        final Long penaltyWaitPeriodValue = this.configurationDomainService.retrievePenaltyWaitPeriod();
+        final Boolean backdatePenalties = this.configurationDomainService.isBackdatePenaltiesEnabled();
+        final List<Throwable> errors = new ArrayList<>();
+        Long cursor = partition.getResumeAfterId();
+        List<Long> loanIds = retrieveChunk(partition, penaltyWaitPeriodValue, backdatePenalties, cursor);
+        while (!loanIds.isEmpty()) {
+            final ApplyChargeToOverdueLoansPoster poster = (ApplyChargeToOverdueLoansPoster) this.applicationContext
+                    .getBean("applyChargeToOverdueLoansPoster");
+            poster.setLoanIds(loanIds);
+            poster.setLoanWritePlatformService(this.loanWritePlatformService);
+            poster.setLoanReadPlatformService(this.loanReadPlatformService);
+            poster.setConfigurationDomainService(this.configurationDomainService);
+            poster.setContext(ThreadLocalContextUtil.getContext());
+            try {
+                poster.call();
+            } catch (final JobExecutionException e) {
+                errors.addAll(e.getCauses());
+            }
+            final Long chunkEnd = loanIds.get(loanIds.size() - 1);
+            this.transactionTemplate
+                    .executeWithoutResult(status -> this.batchPartitionService.updateCheckpoint(partition.getId(), chunkEnd));
+            cursor = chunkEnd;
+            loanIds = retrieveChunk(partition, penaltyWaitPeriodValue, backdatePenalties, cursor);
+        }
+        return errors;
+    }
+
+    private List<Long> retrieveChunk(final BatchPartition partition, final Long penaltyWaitPeriodValue, final Boolean backdatePenalties,
+            final Long afterId) {
+        final List<Long> loanIds = this.loanReadPlatformService.retrieveAllLoanIdsWithOverdueInstallments(penaltyWaitPeriodValue,
+                backdatePenalties, afterId, partition.getChunkSize());
+        if (loanIds == null) {
+            return List.of();
+        }
+        return loanIds.stream().filter(loanId -> loanId <= partition.getRangeEnd()).collect(Collectors.toList());
+    }
+}
@@ -20,6 +20,7 @@ package org.apache.fineract.portfolio.loanaccount.service;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.Map;
 import org.apache.fineract.infrastructure.core.exception.MultiException;
 import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
 import org.apache.fineract.portfolio.loanaccount.data.LoanScheduleAccrualData;
@@ -32,7 +33,7 @@ public interface LoanAccrualPlatformService {
 
     void addAccrualAccounting() throws JobExecutionException;
 
-    void addPeriodicAccruals() throws JobExecutionException;
+    void addPeriodicAccruals(Map<String, String> jobParameters) throws JobExecutionException;
 
     void addPeriodicAccrualsForLoansWithIncomePostedAsTransactions() throws JobExecutionException;
 
@@ -24,7 +24,8 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import org.apache.fineract.infrastructure.core.exception.MultiException;
+import org.apache.fineract.cob.data.BatchPartitionRange;
+import org.apache.fineract.cob.service.BatchPartitionManager;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
 import org.apache.fineract.infrastructure.jobs.annotation.CronTarget;
 import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
@@ -40,14 +41,19 @@ public class LoanAccrualPlatformServiceImpl implements LoanAccrualPlatformServic
 
     private static final Logger LOG = LoggerFactory.getLogger(LoanAccrualPlatformServiceImpl.class);
 
+    private static final int DEFAULT_THREAD_POOL_SIZE = 4;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+
     private final LoanReadPlatformService loanReadPlatformService;
     private final LoanAccrualWritePlatformService loanAccrualWritePlatformService;
+    private final BatchPartitionManager batchPartitionManager;
 
     @Autowired
     public LoanAccrualPlatformServiceImpl(final LoanReadPlatformService loanReadPlatformService,
-            final LoanAccrualWritePlatformService loanAccrualWritePlatformService) {
+            final LoanAccrualWritePlatformService loanAccrualWritePlatformService, final BatchPartitionManager batchPartitionManager) {
         this.loanReadPlatformService = loanReadPlatformService;
         this.loanAccrualWritePlatformService = loanAccrualWritePlatformService;
+        this.batchPartitionManager = batchPartitionManager;
     }
 
     @Override
@@ -81,18 +87,42 @@ public class LoanAccrualPlatformServiceImpl implements LoanAccrualPlatformServic
 
     @Override
     @CronTarget(jobName = JobName.ADD_PERIODIC_ACCRUAL_ENTRIES)
-    public void addPeriodicAccruals() throws JobExecutionException {
-        try {
-            addPeriodicAccruals(DateUtils.getBusinessLocalDate());
-        } catch (MultiException e) {
-            throw new JobExecutionException(e);
-        }
+    public void addPeriodicAccruals(final Map<String, String> jobParameters) throws JobExecutionException {
+        final int threadPoolSize = getParameter(jobParameters, "thread-pool-size", DEFAULT_THREAD_POOL_SIZE);
+        final int batchSize = getParameter(jobParameters, "batch-size", DEFAULT_BATCH_SIZE);
+        final int partitionSize = batchSize * threadPoolSize;
+        final LocalDate tilldate = DateUtils.getBusinessLocalDate();
+        final String runKey = DateUtils.getLocalDateTimeOfSystem().format(DateUtils.DEFAULT_DATETIME_FORMATTER);
+
+        this.batchPartitionManager.execute(JobName.ADD_PERIODIC_ACCRUAL_ENTRIES.name(), runKey,
+                tilldate.format(DateUtils.DEFAULT_DATE_FORMATER), batchSize, threadPoolSize, () -> {
+                    final List<BatchPartitionRange> ranges = BatchPartitionRange.fromIdPages(
+                            maxLoanId -> this.loanReadPlatformService.retrieveLoanIdsWithPendingPeriodicAccruals(tilldate, maxLoanId,
+                                    partitionSize),
+                            maxLoanId -> maxLoanId);
+                    LOG.info("Split loans with pending periodic accruals into {} partition(s)", ranges.size());
+                    return ranges;
+                });
     }
 
     @Override
     public void addPeriodicAccruals(final LocalDate tilldate) throws JobExecutionException {
-        Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas = this.loanReadPlatformService.retrivePeriodicAccrualData(tilldate);
-        addPeriodicAccruals(tilldate, loanScheduleAccrualDatas);
+        final List<Throwable> errors = new ArrayList<>();
+        List<Long> loanIds = this.loanReadPlatformService.retrieveLoanIdsWithPendingPeriodicAccruals(tilldate, 0L, DEFAULT_BATCH_SIZE);
+        while (!loanIds.isEmpty()) {
+            try {
+                errors.addAll(this.loanAccrualWritePlatformService.addPeriodicAccruals(tilldate,
+                        this.loanReadPlatformService.retrivePeriodicAccrualData(tilldate, loanIds)));
+            } catch (Exception e) {
+                LOG.error("Failed to add accural transactions for loans {} to {}", loanIds.get(0), loanIds.get(loanIds.size() - 1), e);
+                errors.add(e);
+            }
+            loanIds = this.loanReadPlatformService.retrieveLoanIdsWithPendingPeriodicAccruals(tilldate, loanIds.get(loanIds.size() - 1),
+                    DEFAULT_BATCH_SIZE);
+        }
+        if (!errors.isEmpty()) {
+            throw new JobExecutionException(errors);
+        }
     }
 
     @Override
@@ -142,4 +172,9 @@ public class LoanAccrualPlatformServiceImpl implements LoanAccrualPlatformServic
             }
         }
     }
+
+    private int getParameter(final Map<String, String> jobParameters, final String parameterName, final int defaultValue) {
+        final String value = jobParameters == null ? null : jobParameters.get(parameterName);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
 }
@@ -20,6 +20,7 @@ package org.apache.fineract.portfolio.loanaccount.service;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 import org.apache.fineract.portfolio.loanaccount.data.LoanScheduleAccrualData;
 
 public interface LoanAccrualWritePlatformService {
@@ -29,5 +30,7 @@ public interface LoanAccrualWritePlatformService {
     void addPeriodicAccruals(LocalDate tilldate, Long loanId, Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas)
             throws Exception;
 
+    List<Throwable> addPeriodicAccruals(LocalDate tilldate, Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas);
+
     void addIncomeAndAccrualTransactions(Long loanId) throws Exception;
 }
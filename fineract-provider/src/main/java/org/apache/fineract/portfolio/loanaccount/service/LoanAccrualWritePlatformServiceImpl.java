@@ -24,10 +24,12 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.fineract.accounting.journalentry.service.JournalEntryWritePlatformService;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
 import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
@@ -45,8 +47,11 @@ import org.apache.fineract.portfolio.loanaccount.domain.LoanRepositoryWrapper;
 import org.apache.fineract.portfolio.loanaccount.domain.LoanTransactionType;
 import org.apache.fineract.portfolio.loanaccount.exception.LoanNotFoundException;
 import org.apache.fineract.portfolio.loanaccount.loanschedule.data.LoanSchedulePeriodData;
+import org.apache.fineract.portfolio.loanaccount.service.PeriodicAccrualBatchWriter.Accrual;
 import org.apache.fineract.portfolio.loanproduct.service.LoanEnumerations;
 import org.apache.fineract.useradministration.domain.AppUserRepositoryWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -56,6 +61,8 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class LoanAccrualWritePlatformServiceImpl implements LoanAccrualWritePlatformService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(LoanAccrualWritePlatformServiceImpl.class);
+
     private final LoanReadPlatformService loanReadPlatformService;
     private final LoanChargeReadPlatformService loanChargeReadPlatformService;
     private final JdbcTemplate jdbcTemplate;
@@ -64,13 +71,14 @@ public class LoanAccrualWritePlatformServiceImpl implements LoanAccrualWritePlat
     private final AppUserRepositoryWrapper userRepository;
     private final LoanRepositoryWrapper loanRepositoryWrapper;
     private final ApplicationCurrencyRepositoryWrapper applicationCurrencyRepository;
+    private final PeriodicAccrualBatchWriter periodicAccrualBatchWriter;
 
     @Autowired
     public LoanAccrualWritePlatformServiceImpl(final JdbcTemplate jdbcTemplate, final LoanReadPlatformService loanReadPlatformService,
             final JournalEntryWritePlatformService journalEntryWritePlatformService,
             final LoanChargeReadPlatformService loanChargeReadPlatformService, final AppUserRepositoryWrapper userRepository,
             final LoanRepositoryWrapper loanRepositoryWrapper, final ApplicationCurrencyRepositoryWrapper applicationCurrencyRepository,
-            DatabaseSpecificSQLGenerator sqlGenerator) {
+            DatabaseSpecificSQLGenerator sqlGenerator, final PeriodicAccrualBatchWriter periodicAccrualBatchWriter) {
         this.loanReadPlatformService = loanReadPlatformService;
         this.sqlGenerator = sqlGenerator;
         this.jdbcTemplate = jdbcTemplate;
@@ -79,6 +87,7 @@ public class LoanAccrualWritePlatformServiceImpl implements LoanAccrualWritePlat
         this.userRepository = userRepository;
         this.loanRepositoryWrapper = loanRepositoryWrapper;
         this.applicationCurrencyRepository = applicationCurrencyRepository;
+        this.periodicAccrualBatchWriter = periodicAccrualBatchWriter;
     }
 
     @Override
@@ -104,17 +113,66 @@ public class LoanAccrualWritePlatformServiceImpl implements LoanAccrualWritePlat
     @Transactional
     public void addPeriodicAccruals(final LocalDate tilldate, Long loanId, Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas)
             throws Exception {
-        boolean firstTime = true;
-        LocalDate accruredTill = null;
         Collection<LoanChargeData> chargeData = this.loanChargeReadPlatformService.retrieveLoanChargesForAccural(loanId);
         Collection<LoanSchedulePeriodData> loanWaiverScheduleData = new ArrayList<>(1);
         Collection<LoanTransactionData> loanWaiverTansactionData = new ArrayList<>(1);
         for (final LoanScheduleAccrualData accrualData : loanScheduleAccrualDatas) {
-            if (accrualData.getWaivedInterestIncome() != null && loanWaiverScheduleData.isEmpty()) {
-                loanWaiverScheduleData = this.loanReadPlatformService.fetchWaiverInterestRepaymentData(accrualData.getLoanId());
-                loanWaiverTansactionData = this.loanReadPlatformService.retrieveWaiverLoanTransactions(accrualData.getLoanId());
+            if (accrualData.getWaivedInterestIncome() != null) {
+                loanWaiverScheduleData = this.loanReadPlatformService.fetchWaiverInterestRepaymentData(loanId);
+                loanWaiverTansactionData = this.loanReadPlatformService.retrieveWaiverLoanTransactions(loanId);
+                break;
             }
+        }
+        for (final Accrual accrual : computePeriodicAccruals(tilldate, loanScheduleAccrualDatas, chargeData, loanWaiverTansactionData,
+                loanWaiverScheduleData)) {
+            addAccrualAccounting(accrual);
+        }
+    }
 
+    @Override
+    @Transactional
+    public List<Throwable> addPeriodicAccruals(final LocalDate tilldate,
+            final Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas) {
+        final Map<Long, List<LoanScheduleAccrualData>> accrualDatasByLoan = new LinkedHashMap<>();
+        final Set<Long> loanIdsWithWaivedInterest = new HashSet<>();
+        for (final LoanScheduleAccrualData accrualData : loanScheduleAccrualDatas) {
+            accrualDatasByLoan.computeIfAbsent(accrualData.getLoanId(), loanId -> new ArrayList<>()).add(accrualData);
+            if (accrualData.getWaivedInterestIncome() != null) {
+                loanIdsWithWaivedInterest.add(accrualData.getLoanId());
+            }
+        }
+        final Map<Long, Collection<LoanChargeData>> chargeData = this.loanChargeReadPlatformService
+                .retrieveLoanChargesForAccural(new ArrayList<>(accrualDatasByLoan.keySet()));
+        final Map<Long, Collection<LoanSchedulePeriodData>> loanWaiverScheduleData = this.loanReadPlatformService
+                .fetchWaiverInterestRepaymentData(loanIdsWithWaivedInterest);
+        final Map<Long, Collection<LoanTransactionData>> loanWaiverTansactionData = this.loanReadPlatformService
+                .retrieveWaiverLoanTransactions(loanIdsWithWaivedInterest);
+
+        final List<Throwable> errors = new ArrayList<>();
+        final List<Accrual> accruals = new ArrayList<>();
+        for (final Map.Entry<Long, List<LoanScheduleAccrualData>> entry : accrualDatasByLoan.entrySet()) {
+            final Long loanId = entry.getKey();
+            try {
+                accruals.addAll(computePeriodicAccruals(tilldate, entry.getValue(), chargeData.getOrDefault(loanId, new ArrayList<>()),
+                        loanWaiverTansactionData.getOrDefault(loanId, new ArrayList<>()),
+                        loanWaiverScheduleData.getOrDefault(loanId, new ArrayList<>())));
+            } catch (RuntimeException e) {
+                LOG.error("Failed to add accural transaction for loan {}", loanId, e);
+                errors.add(e);
+            }
+        }
+        errors.addAll(this.periodicAccrualBatchWriter.write(accruals));
+        return errors;
+    }
+
+    private List<Accrual> computePeriodicAccruals(final LocalDate tilldate,
+            final Collection<LoanScheduleAccrualData> loanScheduleAccrualDatas, final Collection<LoanChargeData> chargeData,
+            final Collection<LoanTransactionData> loanWaiverTansactionData,
+            final Collection<LoanSchedulePeriodData> loanWaiverScheduleData) {
+        boolean firstTime = true;
+        LocalDate accruredTill = null;
+        final List<Accrual> accruals = new ArrayList<>();
+        for (final LoanScheduleAccrualData accrualData : loanScheduleAccrualDatas) {
             if (accrualData.getDueDateAsLocaldate().isAfter(tilldate)) {
                 if (accruredTill == null || firstTime) {
                     accruredTill = accrualData.getAccruedTill();
@@ -123,18 +181,25 @@ public class LoanAccrualWritePlatformServiceImpl implements LoanAccrualWritePlat
                 if (accruredTill == null || accruredTill.isBefore(tilldate)) {
                     updateCharges(chargeData, accrualData, accrualData.getFromDateAsLocaldate(), tilldate);
                     updateInterestIncome(accrualData, loanWaiverTansactionData, loanWaiverScheduleData, tilldate);
-                    addAccrualTillSpecificDate(tilldate, accrualData);
+                    addIfPresent(accruals, accrualTillSpecificDate(tilldate, accrualData));
                 }
             } else {
                 updateCharges(chargeData, accrualData, accrualData.getFromDateAsLocaldate(), accrualData.getDueDateAsLocaldate());
                 updateInterestIncome(accrualData, loanWaiverTansactionData, loanWaiverScheduleData, tilldate);
-                addAccrualAccounting(accrualData);
+                addIfPresent(accruals, accrualTillDueDate(accrualData));
                 accruredTill = accrualData.getDueDateAsLocaldate();
             }
         }
+        return accruals;
+    }
+
+    private static void addIfPresent(final List<Accrual> accruals, final Accrual accrual) {
+        if (accrual != null) {
+            accruals.add(accrual);
+        }
     }
 
-    private void addAccrualTillSpecificDate(final LocalDate tilldate, final LoanScheduleAccrualData accrualData) throws Exception {
+    private Accrual accrualTillSpecificDate(final LocalDate tilldate, final LoanScheduleAccrualData accrualData) {
         LocalDate interestStartDate = accrualData.getFromDateAsLocaldate();
         if (accrualData.getInterestCalculatedFrom() != null
                 && accrualData.getFromDateAsLocaldate().isBefore(accrualData.getInterestCalculatedFrom())) {
@@ -207,13 +272,21 @@ public class LoanAccrualWritePlatformServiceImpl implements LoanAccrualWritePlat
             }
         }
         if (amount.compareTo(BigDecimal.ZERO) > 0) {
-            addAccrualAccounting(accrualData, amount, interestportion, totalAccInterest, feeportion, totalAccFee, penaltyportion,
+            return new Accrual(accrualData, amount, interestportion, totalAccInterest, feeportion, totalAccFee, penaltyportion,
                     totalAccPenalty, tilldate);
         }
+        return null;
     }
 
     @Transactional
     public void addAccrualAccounting(LoanScheduleAccrualData scheduleAccrualData) throws Exception {
+        final Accrual accrual = accrualTillDueDate(scheduleAccrualData);
+        if (accrual != null) {
+            addAccrualAccounting(accrual);
+        }
+    }
+
+    private Accrual accrualTillDueDate(final LoanScheduleAccrualData scheduleAccrualData) {
 
         BigDecimal amount = BigDecimal.ZERO;
         BigDecimal interestportion = null;
@@ -258,9 +331,16 @@ public class LoanAccrualWritePlatformServiceImpl implements LoanAccrualWritePlat
             }
         }
         if (amount.compareTo(BigDecimal.ZERO) > 0) {
-            addAccrualAccounting(scheduleAccrualData, amount, interestportion, totalAccInterest, feeportion, totalAccFee, penaltyportion,
+            return new Accrual(scheduleAccrualData, amount, interestportion, totalAccInterest, feeportion, totalAccFee, penaltyportion,
                     totalAccPenalty, scheduleAccrualData.getDueDateAsLocaldate());
         }
+        return null;
+    }
+
+    private void addAccrualAccounting(final Accrual accrual) {
+        addAccrualAccounting(accrual.getAccrualData(), accrual.getAmount(), accrual.getInterestPortion(), accrual.getTotalAccruedInterest(),
+                accrual.getFeePortion(), accrual.getTotalAccruedFee(), accrual.getPenaltyPortion(), accrual.getTotalAccruedPenalty(),
+                accrual.getAccruedTill());
     }
 
     private void addAccrualAccounting(LoanScheduleAccrualData scheduleAccrualData, BigDecimal amount, BigDecimal interestportion,
@@ -59,18 +59,22 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService {
 
+    private static final int ARREARS_CHUNK_SIZE = 1000;
+
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
     private final JdbcTemplate jdbcTemplate;
     private final BusinessEventNotifierService businessEventNotifierService;
     private final DatabaseSpecificSQLGenerator sqlGenerator;
+    private final PlatformTransactionManager transactionManager;
 
     @PostConstruct
     public void registerForNotification() {
@@ -92,12 +96,61 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService {
                 new LoanForeClosureEventListener());
     }
 
-    @Transactional
+    /**
+     * Recomputes the arrears of the loans whose ageing may have changed since the previous run: loans with an unpaid
+     * installment that crossed its due date (after the arrears grace) since the last business date processed, and loans
+     * modified since then. The first run, or a run for a business date before the last one processed, recomputes every
+     * active loan. Loans are processed in chunks, each replacing its own rows in one transaction, so readers never see an
+     * empty table. The watermark only advances once every chunk is done, which makes a rerun pick up the same loans.
+     */
     @Override
     @CronTarget(jobName = JobName.UPDATE_LOAN_ARREARS_AGEING)
     public void updateLoanArrearsAgeingDetails() {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+        final LocalDate businessDate = DateUtils.getBusinessLocalDate();
+        final List<LocalDate> lastBusinessDates = this.jdbcTemplate
+                .queryForList("select last_business_date from m_loan_arrears_aging_run where id = 1", LocalDate.class);
+        final LocalDate lastBusinessDate = lastBusinessDates.isEmpty() ? null : lastBusinessDates.get(0);
+        final boolean fullRun = lastBusinessDate == null || businessDate.isBefore(lastBusinessDate);
+
+        transactionTemplate.executeWithoutResult(status -> this.jdbcTemplate.update("update m_loan_arrears_aging_run "
+                + "set pending_modified_on_utc = (select max(last_modified_on_utc) from m_loan) where id = 1"));
+
+        final List<Long> loanIds = this.jdbcTemplate.queryForList(fullRun ? allLoansSql() : changedLoansSql(), Long.class);
+        int result = 0;
+        for (int from = 0; from < loanIds.size(); from += ARREARS_CHUNK_SIZE) {
+            final List<Long> chunk = loanIds.subList(from, Math.min(from + ARREARS_CHUNK_SIZE, loanIds.size()));
+            final String chunkIds = chunk.toString().substring(1, chunk.toString().length() - 1);
+            result += transactionTemplate.execute(status -> replaceLoanArrearsAgeingDetails(chunkIds));
+        }
+
+        transactionTemplate.executeWithoutResult(status -> this.jdbcTemplate.update(
+                "update m_loan_arrears_aging_run set last_business_date = ?, modified_on_utc = pending_modified_on_utc where id = 1",
+                businessDate));
 
-        this.jdbcTemplate.execute("truncate table m_loan_arrears_aging");
+        log.info("{}: Records affected by updateLoanArrearsAgeingDetails: {} ({} loans checked, full run: {})",
+                ThreadLocalContextUtil.getTenant().getName(), result, loanIds.size(), fullRun);
+    }
+
+    private String allLoansSql() {
+        return "select ml.id from m_loan ml where ml.loan_status_id = 300 union select mla.loan_id from m_loan_arrears_aging mla";
+    }
+
+    private String changedLoansSql() {
+        final StringBuilder sqlBuilder = new StringBuilder(600);
+        sqlBuilder.append("select ml.id from m_loan ml, m_loan_arrears_aging_run run ");
+        sqlBuilder.append("where run.id = 1 and (ml.last_modified_on_utc >= run.modified_on_utc ");
+        sqlBuilder.append("or (ml.loan_status_id = 300 and exists (select 1 from m_loan_repayment_schedule mr ");
+        sqlBuilder.append("where mr.loan_id = ml.id and mr.completed_derived is false and mr.duedate >= ")
+                .append(sqlGenerator.subDate("run.last_business_date", "COALESCE(ml.grace_on_arrears_ageing, 0)", "day"))
+                .append(" and mr.duedate < ")
+                .append(sqlGenerator.subDate(sqlGenerator.currentBusinessDate(), "COALESCE(ml.grace_on_arrears_ageing, 0)", "day"))
+                .append(")))");
+        return sqlBuilder.toString();
+    }
+
+    private int replaceLoanArrearsAgeingDetails(final String loanIds) {
+        int result = this.jdbcTemplate.update("DELETE FROM m_loan_arrears_aging WHERE loan_id IN (" + loanIds + ")"); // NOSONAR
 
         final StringBuilder updateSqlBuilder = new StringBuilder(900);
         final String principalOverdueCalculationSql = "SUM(COALESCE(mr.principal_amount, 0) - coalesce(mr.principal_completed_derived, 0) - coalesce(mr.principal_writtenoff_derived, 0))";
@@ -127,17 +180,16 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService {
                 .append(sqlGenerator.subDate(sqlGenerator.currentBusinessDate(), "COALESCE(ml.grace_on_arrears_ageing, 0)", "day"))
                 .append(" ");
         updateSqlBuilder.append(" and (prd.arrears_based_on_original_schedule = false or prd.arrears_based_on_original_schedule is null) ");
+        updateSqlBuilder.append(" and ml.id IN (").append(loanIds).append(") ");
         updateSqlBuilder.append(" GROUP BY ml.id");
 
-        List<String> insertStatements = updateLoanArrearsAgeingDetailsWithOriginalSchedule();
+        List<String> insertStatements = updateLoanArrearsAgeingDetailsWithOriginalSchedule(loanIds);
         insertStatements.add(0, updateSqlBuilder.toString());
         final int[] results = this.jdbcTemplate.batchUpdate(insertStatements.toArray(new String[0]));
-        int result = 0;
         for (int i : results) {
             result += i;
         }
-
-        log.info("{}: Records affected by updateLoanArrearsAgeingDetails: {}", ThreadLocalContextUtil.getTenant().getName(), result);
+        return result;
     }
 
     @Override
@@ -208,7 +260,7 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService {
         return updateSql;
     }
 
-    private List<String> updateLoanArrearsAgeingDetailsWithOriginalSchedule() {
+    private List<String> updateLoanArrearsAgeingDetailsWithOriginalSchedule(final String loanIdsToCheck) {
         List<String> insertStatement = new ArrayList<>();
 
         final StringBuilder loanIdentifier = new StringBuilder();
@@ -218,7 +270,7 @@ public class LoanArrearsAgingServiceImpl implements LoanArrearsAgingService {
                 "inner join m_product_loan_recalculation_details prd on prd.product_id = ml.product_id and prd.arrears_based_on_original_schedule = true  ");
         loanIdentifier.append("WHERE ml.loan_status_id = 300  and mr.completed_derived is false  and mr.duedate < ")
                 .append(sqlGenerator.subDate(sqlGenerator.currentBusinessDate(), "COALESCE(ml.grace_on_arrears_ageing, 0)", "day"))
-                .append(" group by ml.id");
+                .append(" and ml.id IN (").append(loanIdsToCheck).append(") group by ml.id");
         List<Long> loanIds = this.jdbcTemplate.queryForList(loanIdentifier.toString(), Long.class);
         if (!loanIds.isEmpty()) {
             String loanIdsAsString = loanIds.toString();
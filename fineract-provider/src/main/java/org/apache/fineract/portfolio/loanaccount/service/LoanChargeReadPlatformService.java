@@ -19,6 +19,7 @@
 package org.apache.fineract.portfolio.loanaccount.service;
 
 import java.util.Collection;
+import java.util.Map;
 import org.apache.fineract.portfolio.charge.data.ChargeData;
 import org.apache.fineract.portfolio.loanaccount.data.LoanChargeData;
 import org.apache.fineract.portfolio.loanaccount.data.LoanChargePaidByData;
@@ -41,6 +42,8 @@ public interface LoanChargeReadPlatformService {
 
     Collection<LoanChargeData> retrieveLoanChargesForAccural(Long loanId);
 
+    Map<Long, Collection<LoanChargeData>> retrieveLoanChargesForAccural(Collection<Long> loanIds);
+
     Collection<LoanChargePaidByData> retriveLoanChargesPaidBy(Long chargeId, LoanTransactionType transactionType,
             Integer installmentNumber);
 }
@@ -25,6 +25,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.RequiredArgsConstructor;
@@ -43,7 +44,9 @@ import org.apache.fineract.portfolio.loanaccount.data.LoanInstallmentChargeData;
 import org.apache.fineract.portfolio.loanaccount.domain.LoanTransactionType;
 import org.apache.fineract.portfolio.tax.data.TaxGroupData;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -51,6 +54,7 @@ import org.springframework.stereotype.Service;
 public class LoanChargeReadPlatformServiceImpl implements LoanChargeReadPlatformService {
 
     private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
     private final PlatformSecurityContext context;
     private final ChargeDropdownReadPlatformService chargeDropdownReadPlatformService;
     private final DropdownReadPlatformService dropdownReadPlatformService;
@@ -261,7 +265,7 @@ public class LoanChargeReadPlatformServiceImpl implements LoanChargeReadPlatform
     @Override
     public Collection<LoanChargeData> retrieveLoanChargesForAccural(final Long loanId) {
 
-        final LoanChargeAccrualMapper rm = new LoanChargeAccrualMapper();
+        final LoanChargeAccrualMapper rm = new LoanChargeAccrualMapper("lt.transaction_type_enum = ? and lt.loan_id = ?");
 
         final String sql = "select " + rm.schema() + " where lc.loan_id=? AND lc.is_active = true group by  lc.id "
                 + " order by lc.charge_time_enum ASC, lc.due_for_collection_as_of_date ASC, lc.is_penalty ASC";
@@ -289,11 +293,65 @@ public class LoanChargeReadPlatformServiceImpl implements LoanChargeReadPlatform
         return charges;
     }
 
+    @Override
+    public Map<Long, Collection<LoanChargeData>> retrieveLoanChargesForAccural(final Collection<Long> loanIds) {
+        final Map<Long, Collection<LoanChargeData>> chargesByLoan = new HashMap<>();
+        if (loanIds.isEmpty()) {
+            return chargesByLoan;
+        }
+        final Map<String, Object> paramMap = new HashMap<>(3);
+        paramMap.put("loanIds", loanIds);
+        paramMap.put("accrual", LoanTransactionType.ACCRUAL.getValue());
+        paramMap.put("waiveCharges", LoanTransactionType.WAIVE_CHARGES.getValue());
+
+        final LoanChargeAccrualMapper rm = new LoanChargeAccrualMapper("lt.transaction_type_enum = :accrual and lt.loan_id in (:loanIds)");
+        final Map<Long, Long> loanIdsByCharge = new HashMap<>();
+        final Map<Long, LoanChargeData> chargesById = new LinkedHashMap<>();
+        final String sql = "select lc.loan_id as loanId, " + rm.schema()
+                + " where lc.loan_id in (:loanIds) AND lc.is_active = true group by lc.id, lc.loan_id "
+                + " order by lc.loan_id, lc.charge_time_enum ASC, lc.due_for_collection_as_of_date ASC, lc.is_penalty ASC";
+        this.namedParameterJdbcTemplate.query(sql, paramMap, (RowCallbackHandler) rs -> {
+            final LoanChargeData chargeData = rm.mapRow(rs, rs.getRow());
+            loanIdsByCharge.put(chargeData.getId(), rs.getLong("loanId"));
+            chargesById.put(chargeData.getId(), chargeData);
+        });
+        if (chargesById.isEmpty()) {
+            return chargesByLoan;
+        }
+
+        final LoanChargeUnRecognizedIncomeMapper unrecognizedIncomeMapper = new LoanChargeUnRecognizedIncomeMapper(chargesById.values(),
+                "lt.transaction_type_enum = :waiveCharges and lt.loan_id in (:loanIds)");
+        final String unrecognizedIncomeSql = "select " + unrecognizedIncomeMapper.schema()
+                + " where lc.loan_id in (:loanIds) AND lc.is_active = true group by lc.id";
+        for (final LoanChargeData chargeData : this.namedParameterJdbcTemplate.query(unrecognizedIncomeSql, paramMap,
+                unrecognizedIncomeMapper)) {
+            chargesById.put(chargeData.getId(), chargeData);
+        }
+
+        final List<Long> installmentFeeIds = new ArrayList<>();
+        for (final LoanChargeData chargeData : chargesById.values()) {
+            if (chargeData.isInstallmentFee()) {
+                installmentFeeIds.add(chargeData.getId());
+            } else {
+                chargesByLoan.computeIfAbsent(loanIdsByCharge.get(chargeData.getId()), loanId -> new ArrayList<>()).add(chargeData);
+            }
+        }
+        final Map<Long, Map<Integer, LoanInstallmentChargeData>> installmentCharges = retrieveInstallmentLoanChargesForAccrual(
+                installmentFeeIds);
+        for (final Long loanChargeId : installmentFeeIds) {
+            final Map<Integer, LoanInstallmentChargeData> installmentChargeDatas = installmentCharges.getOrDefault(loanChargeId,
+                    new HashMap<>());
+            chargesByLoan.computeIfAbsent(loanIdsByCharge.get(loanChargeId), loanId -> new ArrayList<>())
+                    .add(new LoanChargeData(chargesById.get(loanChargeId), installmentChargeDatas.values()));
+        }
+        return chargesByLoan;
+    }
+
     private static final class LoanChargeAccrualMapper implements RowMapper<LoanChargeData> {
 
         private final String schemaSql;
 
-        LoanChargeAccrualMapper() {
+        LoanChargeAccrualMapper(final String accrualTransactionCondition) {
             StringBuilder sb = new StringBuilder(50);
             sb.append("lc.id as id, lc.charge_id as chargeId, ");
             sb.append("lc.amount as amountDue, ");
@@ -306,8 +364,8 @@ public class LoanChargeReadPlatformServiceImpl implements LoanChargeReadPlatform
             sb.append("left join (");
             sb.append("select lcp.loan_charge_id, lcp.amount");
             sb.append(" from m_loan_charge_paid_by lcp ");
-            sb.append(
-                    "inner join m_loan_transaction lt on lt.id = lcp.loan_transaction_id and lt.is_reversed = false and lt.transaction_type_enum = ? and lt.loan_id = ?");
+            sb.append("inner join m_loan_transaction lt on lt.id = lcp.loan_transaction_id and lt.is_reversed = false and ")
+                    .append(accrualTransactionCondition);
             sb.append(") cp on  cp.loan_charge_id= lc.id  ");
 
             schemaSql = sb.toString();
@@ -339,7 +397,8 @@ public class LoanChargeReadPlatformServiceImpl implements LoanChargeReadPlatform
     private Collection<LoanChargeData> updateLoanChargesWithUnrecognizedIncome(final Long loanId,
             Collection<LoanChargeData> loanChargeDatas) {
 
-        final LoanChargeUnRecognizedIncomeMapper rm = new LoanChargeUnRecognizedIncomeMapper(loanChargeDatas);
+        final LoanChargeUnRecognizedIncomeMapper rm = new LoanChargeUnRecognizedIncomeMapper(loanChargeDatas,
+                "lt.transaction_type_enum = ?  and lt.loan_id = ? ");
 
         final String sql = "select " + rm.schema() + " where lc.loan_id=? AND lc.is_active = true group by  lc.id "
                 + " order by lc.charge_time_enum ASC, lc.due_for_collection_as_of_date ASC, lc.is_penalty ASC";
@@ -352,7 +411,7 @@ public class LoanChargeReadPlatformServiceImpl implements LoanChargeReadPlatform
         private final String schemaSql;
         private final Map<Long, LoanChargeData> chargeDataMap;
 
-        LoanChargeUnRecognizedIncomeMapper(final Collection<LoanChargeData> datas) {
+        LoanChargeUnRecognizedIncomeMapper(final Collection<LoanChargeData> datas, final String waiverTransactionCondition) {
             this.chargeDataMap = new HashMap<>();
             for (LoanChargeData chargeData : datas) {
                 this.chargeDataMap.put(chargeData.getId(), chargeData);
@@ -365,8 +424,8 @@ public class LoanChargeReadPlatformServiceImpl implements LoanChargeReadPlatform
             sb.append("left join (");
             sb.append("select cpb.loan_charge_id, lt.unrecognized_income_portion");
             sb.append(" from m_loan_charge_paid_by cpb ");
-            sb.append(
-                    "inner join m_loan_transaction lt on lt.id = cpb.loan_transaction_id and lt.is_reversed = false and lt.transaction_type_enum = ?  and lt.loan_id = ? ");
+            sb.append("inner join m_loan_transaction lt on lt.id = cpb.loan_transaction_id and lt.is_reversed = false and ")
+                    .append(waiverTransactionCondition);
             sb.append(") wt on  wt.loan_charge_id= lc.id  ");
 
             schemaSql = sb.toString();
@@ -388,7 +447,7 @@ public class LoanChargeReadPlatformServiceImpl implements LoanChargeReadPlatform
     }
 
     private Collection<LoanInstallmentChargeData> retrieveInstallmentLoanChargesForAccrual(Long loanChargeId) {
-        final LoanInstallmentChargeAccrualMapper rm = new LoanInstallmentChargeAccrualMapper();
+        final LoanInstallmentChargeAccrualMapper rm = new LoanInstallmentChargeAccrualMapper("lt.transaction_type_enum = ?");
         String sql = "select " + rm.schema()
                 + " where lic.loan_charge_id= ?  group by lsi.installment, lsi.duedate, lic.amount_outstanding_derived, lic.amount, lic.is_paid_derived, lic.amount_waived_derived, lic.waived";
         Collection<LoanInstallmentChargeData> chargeDatas = this.jdbcTemplate.query(sql, rm, // NOSONAR
@@ -405,11 +464,48 @@ public class LoanChargeReadPlatformServiceImpl implements LoanChargeReadPlatform
 
     }
 
+    private Map<Long, Map<Integer, LoanInstallmentChargeData>> retrieveInstallmentLoanChargesForAccrual(final List<Long> loanChargeIds) {
+        final Map<Long, Map<Integer, LoanInstallmentChargeData>> installmentCharges = new HashMap<>();
+        if (loanChargeIds.isEmpty()) {
+            return installmentCharges;
+        }
+        final Map<String, Object> paramMap = new HashMap<>(3);
+        paramMap.put("loanChargeIds", loanChargeIds);
+        paramMap.put("accrual", LoanTransactionType.ACCRUAL.getValue());
+        paramMap.put("waiveCharges", LoanTransactionType.WAIVE_CHARGES.getValue());
+
+        final LoanInstallmentChargeAccrualMapper rm = new LoanInstallmentChargeAccrualMapper(
+                "lt.transaction_type_enum = :accrual and lcp.loan_charge_id in (:loanChargeIds)");
+        final String sql = "select lic.loan_charge_id as loanChargeId, " + rm.schema()
+                + " where lic.loan_charge_id in (:loanChargeIds) group by lic.loan_charge_id, lsi.installment, lsi.duedate,"
+                + " lic.amount_outstanding_derived, lic.amount, lic.is_paid_derived, lic.amount_waived_derived, lic.waived";
+        this.namedParameterJdbcTemplate.query(sql, paramMap, (RowCallbackHandler) rs -> {
+            final LoanInstallmentChargeData installmentChargeData = rm.mapRow(rs, rs.getRow());
+            installmentCharges.computeIfAbsent(rs.getLong("loanChargeId"), loanChargeId -> new HashMap<>())
+                    .put(installmentChargeData.getInstallmentNumber(), installmentChargeData);
+        });
+
+        final String unrecognizedIncomeSql = "select cpb.loan_charge_id as loanChargeId, cpb.installment_number as installmentNumber, "
+                + " sum(lt.unrecognized_income_portion) as amountUnrecognized from m_loan_charge_paid_by cpb "
+                + " inner join m_loan_transaction lt on lt.id = cpb.loan_transaction_id and lt.is_reversed = false"
+                + " and lt.transaction_type_enum = :waiveCharges where cpb.loan_charge_id in (:loanChargeIds)"
+                + " group by cpb.loan_charge_id, cpb.installment_number";
+        this.namedParameterJdbcTemplate.query(unrecognizedIncomeSql, paramMap, (RowCallbackHandler) rs -> {
+            final Map<Integer, LoanInstallmentChargeData> installmentChargeDatas = installmentCharges.get(rs.getLong("loanChargeId"));
+            final Integer installmentNumber = rs.getInt("installmentNumber");
+            if (installmentChargeDatas != null && installmentChargeDatas.containsKey(installmentNumber)) {
+                installmentChargeDatas.put(installmentNumber, new LoanInstallmentChargeData(installmentChargeDatas.get(installmentNumber),
+                        rs.getBigDecimal("amountUnrecognized")));
+            }
+        });
+        return installmentCharges;
+    }
+
     private static final class LoanInstallmentChargeAccrualMapper implements RowMapper<LoanInstallmentChargeData> {
 
         private final String schemaSql;
 
-        LoanInstallmentChargeAccrualMapper() {
+        LoanInstallmentChargeAccrualMapper(final String accrualTransactionCondition) {
             StringBuilder sb = new StringBuilder(50);
             sb.append(" lsi.installment as installmentNumber, lsi.duedate as dueAsOfDate, ");
             sb.append("lic.amount_outstanding_derived as amountOutstanding,");
@@ -423,8 +519,8 @@ public class LoanChargeReadPlatformServiceImpl implements LoanChargeReadPlatform
             sb.append("left join (");
             sb.append("select lcp.loan_charge_id, lcp.amount as amount, lcp.installment_number ");
             sb.append(" from m_loan_charge_paid_by lcp ");
-            sb.append(
-                    "inner join m_loan_transaction lt on lt.id = lcp.loan_transaction_id and lt.is_reversed = false and lt.transaction_type_enum = ?");
+            sb.append("inner join m_loan_transaction lt on lt.id = lcp.loan_transaction_id and lt.is_reversed = false and ")
+                    .append(accrualTransactionCondition);
             sb.append(") cp on  cp.loan_charge_id= lic.loan_charge_id and  cp.installment_number = lsi.installment ");
             schemaSql = sb.toString();
         }
@@ -22,6 +22,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import org.apache.fineract.infrastructure.core.service.Page;
 import org.apache.fineract.infrastructure.core.service.SearchParameters;
 import org.apache.fineract.organisation.staff.data.StaffData;
@@ -123,6 +124,10 @@ public interface LoanReadPlatformService {
 
     Collection<LoanScheduleAccrualData> retrivePeriodicAccrualData(LocalDate tillDate);
 
+    Collection<LoanScheduleAccrualData> retrivePeriodicAccrualData(LocalDate tillDate, Collection<Long> loanIds);
+
+    List<Long> retrieveLoanIdsWithPendingPeriodicAccruals(LocalDate tillDate, Long maxLoanIdInList, int pageSize);
+
     Collection<Long> fetchLoansForInterestRecalculation();
 
     List<Long> fetchLoansForInterestRecalculation(Integer pageSize, Long maxLoanIdInList, String officeHierarchy);
@@ -131,8 +136,12 @@ public interface LoanReadPlatformService {
 
     Collection<LoanTransactionData> retrieveWaiverLoanTransactions(Long loanId);
 
+    Map<Long, Collection<LoanTransactionData>> retrieveWaiverLoanTransactions(Collection<Long> loanIds);
+
     Collection<LoanSchedulePeriodData> fetchWaiverInterestRepaymentData(Long loanId);
 
+    Map<Long, Collection<LoanSchedulePeriodData>> fetchWaiverInterestRepaymentData(Collection<Long> loanIds);
+
     boolean isGuaranteeRequired(Long loanId);
 
     LocalDate retrieveMinimumDateOfRepaymentTransaction(Long loanId);
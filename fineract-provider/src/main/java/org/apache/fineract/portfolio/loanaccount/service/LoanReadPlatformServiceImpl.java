@@ -47,6 +47,7 @@ import org.apache.fineract.infrastructure.core.filters.FilterConstraint;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
 import org.apache.fineract.infrastructure.core.service.Page;
 import org.apache.fineract.infrastructure.core.service.PaginationHelper;
+import org.apache.fineract.infrastructure.core.service.PaginationKeyset;
 import org.apache.fineract.infrastructure.core.service.SearchParameters;
 import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
 import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
@@ -142,6 +143,7 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -390,6 +392,12 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
                 arrayPos = arrayPos + 1;
             }
 
+            if (searchParameters.isKeysetPaginationRequested()) {
+                return this.paginationHelper.fetchPageByKeyset(this.jdbcTemplate, sqlBuilder.toString(), true,
+                        Arrays.copyOf(extraCriterias.toArray(), arrayPos), this.loaanLoanMapper, PaginationKeyset.byId("l.id"),
+                        searchParameters);
+            }
+
             if (searchParameters.isOrderByRequested()) {
                 sqlBuilder.append(" order by ").append(searchParameters.getOrderBy());
                 this.columnValidator.validateSqlInjection(sqlBuilder.toString(), searchParameters.getOrderBy());
@@ -1835,28 +1843,57 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
 
     @Override
     public Collection<LoanScheduleAccrualData> retrivePeriodicAccrualData(final LocalDate tillDate) {
+        return retrivePeriodicAccrualData(tillDate, null);
+    }
+
+    @Override
+    public Collection<LoanScheduleAccrualData> retrivePeriodicAccrualData(final LocalDate tillDate, final Collection<Long> loanIds) {
 
         LoanSchedulePeriodicAccrualMapper mapper = new LoanSchedulePeriodicAccrualMapper();
+        Map<String, Object> paramMap = new HashMap<>(5);
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder.append("select ").append(mapper.schema()).append(periodicAccrualConditions(tillDate, paramMap));
+        if (loanIds != null) {
+            sqlBuilder.append(" and loan.id in (:loanIds) ");
+            paramMap.put("loanIds", loanIds);
+        }
+        sqlBuilder.append(" order by loan.id,ls.duedate ");
+
+        return this.namedParameterJdbcTemplate.query(sqlBuilder.toString(), paramMap, mapper);
+    }
+
+    @Override
+    public List<Long> retrieveLoanIdsWithPendingPeriodicAccruals(final LocalDate tillDate, final Long maxLoanIdInList, final int pageSize) {
+        Map<String, Object> paramMap = new HashMap<>(5);
+        final StringBuilder sqlBuilder = new StringBuilder(400);
+        sqlBuilder.append("select distinct loan.id from m_loan_repayment_schedule ls inner join m_loan loan on loan.id = ls.loan_id ")
+                .append(" left join m_product_loan mpl on mpl.id = loan.product_id")
+                .append(" left join m_loan_recalculation_details as recaldet on loan.id = recaldet.loan_id ")
+                .append(periodicAccrualConditions(tillDate, paramMap)).append(" and loan.id > :maxLoanId order by loan.id ")
+                .append(sqlGenerator.limit(pageSize));
+        paramMap.put("maxLoanId", maxLoanIdInList);
+
+        return this.namedParameterJdbcTemplate.queryForList(sqlBuilder.toString(), paramMap, Long.class);
+    }
+
+    private String periodicAccrualConditions(final LocalDate tillDate, final Map<String, Object> paramMap) {
         LocalDate organisationStartDate = this.configurationDomainService.retrieveOrganisationStartDate();
         final StringBuilder sqlBuilder = new StringBuilder(400);
-        sqlBuilder.append("select ").append(mapper.schema()).append(
+        sqlBuilder.append(
                 " where  (recaldet.is_compounding_to_be_posted_as_transaction is null or recaldet.is_compounding_to_be_posted_as_transaction = false) ")
                 .append(" and (((ls.fee_charges_amount <> COALESCE(ls.accrual_fee_charges_derived, 0))")
                 .append(" or (ls.penalty_charges_amount <> COALESCE(ls.accrual_penalty_charges_derived, 0))")
                 .append(" or (ls.interest_amount <> COALESCE(ls.accrual_interest_derived, 0)))")
                 .append(" and loan.loan_status_id=:active and mpl.accounting_type=:type and (loan.closedon_date <= :tillDate or loan.closedon_date is null)")
                 .append(" and loan.is_npa=false and (ls.duedate <= :tillDate or (ls.duedate > :tillDate and ls.fromdate < :tillDate))) ");
-        Map<String, Object> paramMap = new HashMap<>(4);
         if (organisationStartDate != null) {
             sqlBuilder.append(" and ls.duedate > :organisationStartDate ");
             paramMap.put("organisationStartDate", organisationStartDate);
         }
-        sqlBuilder.append(" order by loan.id,ls.duedate ");
         paramMap.put("active", LoanStatus.ACTIVE.getValue());
         paramMap.put("type", AccountingRuleType.ACCRUAL_PERIODIC.getValue());
         paramMap.put("tillDate", tillDate);
-
-        return this.namedParameterJdbcTemplate.query(sqlBuilder.toString(), paramMap, mapper);
+        return sqlBuilder.toString();
     }
 
     private static final class LoanSchedulePeriodicAccrualMapper implements RowMapper<LoanScheduleAccrualData> {
@@ -2087,6 +2124,7 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
         sqlBuilder.append(" ))");
         sqlBuilder.append(" and ml.id >= ?  and o.hierarchy like ? ");
         sqlBuilder.append(" group by ml.id ");
+        sqlBuilder.append(" order by ml.id ");
         sqlBuilder.append(" limit ? ");
         try {
             return Collections.synchronizedList(
@@ -2111,6 +2149,24 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
         }
     }
 
+    @Override
+    public Map<Long, Collection<LoanTransactionData>> retrieveWaiverLoanTransactions(final Collection<Long> loanIds) {
+        final Map<Long, Collection<LoanTransactionData>> waiversByLoan = new HashMap<>();
+        if (loanIds.isEmpty()) {
+            return waiversByLoan;
+        }
+        final LoanTransactionDerivedComponentMapper rm = new LoanTransactionDerivedComponentMapper(sqlGenerator);
+        final String sql = "select tr.loan_id as loanId, " + rm.schema()
+                + " where tr.loan_id in (:loanIds) and tr.transaction_type_enum = :waiveInterest and tr.is_reversed=false"
+                + " order by tr.loan_id, tr.transaction_date ASC, tr.id ";
+        final Map<String, Object> paramMap = new HashMap<>(2);
+        paramMap.put("loanIds", loanIds);
+        paramMap.put("waiveInterest", LoanTransactionType.WAIVE_INTEREST.getValue());
+        this.namedParameterJdbcTemplate.query(sql, paramMap, (RowCallbackHandler) rs -> waiversByLoan
+                .computeIfAbsent(rs.getLong("loanId"), loanId -> new ArrayList<>()).add(rm.mapRow(rs, rs.getRow())));
+        return waiversByLoan;
+    }
+
     @Override
     public boolean isGuaranteeRequired(final Long loanId) {
         final String sql = "select pl.hold_guarantee_funds from m_loan ml inner join m_product_loan pl on pl.id = ml.product_id where ml.id=?";
@@ -2174,6 +2230,22 @@ public class LoanReadPlatformServiceImpl implements LoanReadPlatformService {
 
     }
 
+    @Override
+    public Map<Long, Collection<LoanSchedulePeriodData>> fetchWaiverInterestRepaymentData(final Collection<Long> loanIds) {
+        final Map<Long, Collection<LoanSchedulePeriodData>> waiversByLoan = new HashMap<>();
+        if (loanIds.isEmpty()) {
+            return waiversByLoan;
+        }
+        final LoanRepaymentWaiverMapper rm = new LoanRepaymentWaiverMapper();
+        final String sql = "select lrs.loan_id as loanId, " + rm.getSchema()
+                + " where lrs.loan_id in (:loanIds) and lrs.interest_waived_derived is not null order by lrs.loan_id, lrs.installment ASC ";
+        final Map<String, Object> paramMap = new HashMap<>(1);
+        paramMap.put("loanIds", loanIds);
+        this.namedParameterJdbcTemplate.query(sql, paramMap, (RowCallbackHandler) rs -> waiversByLoan
+                .computeIfAbsent(rs.getLong("loanId"), loanId -> new ArrayList<>()).add(rm.mapRow(rs, rs.getRow())));
+        return waiversByLoan;
+    }
+
     private static final class LoanRepaymentWaiverMapper implements RowMapper<LoanSchedulePeriodData> {
 
         private final String sqlSchema;
@@ -78,7 +78,7 @@ public interface LoanWritePlatformService {
     void applyMeetingDateChanges(Calendar calendar, Collection<CalendarInstance> loanCalendarInstances,
             Boolean reschedulebasedOnMeetingDates, LocalDate presentMeetingDate, LocalDate newMeetingDate);
 
-    void applyHolidaysToLoans();
+    void applyHolidaysToLoans() throws JobExecutionException;
 
     LoanTransaction initiateLoanTransfer(Loan loan, LocalDate transferDate);
 
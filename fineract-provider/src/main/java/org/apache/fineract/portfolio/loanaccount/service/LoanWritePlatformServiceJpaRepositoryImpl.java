@@ -29,6 +29,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -55,11 +56,13 @@ import org.apache.fineract.infrastructure.core.exception.PlatformApiDataValidati
 import org.apache.fineract.infrastructure.core.exception.PlatformServiceUnavailableException;
 import org.apache.fineract.infrastructure.core.serialization.FromJsonHelper;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
 import org.apache.fineract.infrastructure.dataqueries.data.EntityTables;
 import org.apache.fineract.infrastructure.dataqueries.data.StatusEnum;
 import org.apache.fineract.infrastructure.dataqueries.service.EntityDatatableChecksWritePlatformService;
 import org.apache.fineract.infrastructure.jobs.annotation.CronTarget;
 import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JobExecuter;
 import org.apache.fineract.infrastructure.jobs.service.JobName;
 import org.apache.fineract.infrastructure.security.service.PlatformSecurityContext;
 import org.apache.fineract.notification.service.ActiveMqNotificationDomainServiceImpl;
@@ -232,15 +235,19 @@ import org.apache.fineract.useradministration.domain.AppUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.orm.jpa.JpaSystemException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class LoanWritePlatformServiceJpaRepositoryImpl implements LoanWritePlatformService {
 
+    private static final int HOLIDAY_LOAN_PAGE_SIZE = 10000;
+
     private final PlatformSecurityContext context;
     private final LoanEventApiJsonValidator loanEventApiJsonValidator;
     private final LoanUpdateCommandFromApiJsonDeserializer loanUpdateCommandFromApiJsonDeserializer;
@@ -284,6 +291,10 @@ public class LoanWritePlatformServiceJpaRepositoryImpl implements LoanWritePlatf
     private final PostDatedChecksRepository postDatedChecksRepository;
     private final LoanRepaymentReminderRepository loanRepaymentReminderRepository;
     private final LoanDecisionStateUtilService loanDecisionStateUtilService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseSpecificSQLGenerator sqlGenerator;
+    private final JobExecuter jobExecuter;
 
     @Autowired
     private ActiveMqNotificationDomainServiceImpl activeMqNotificationDomainService;
@@ -2706,10 +2717,9 @@ public class LoanWritePlatformServiceJpaRepositoryImpl implements LoanWritePlatf
         this.loanRepositoryWrapper.save(loansToUpdate);
     }
 
-    @Transactional
     @Override
     @CronTarget(jobName = JobName.APPLY_HOLIDAYS_TO_LOANS)
-    public void applyHolidaysToLoans() {
+    public void applyHolidaysToLoans() throws JobExecutionException {
 
         final boolean isHolidayEnabled = this.configurationDomainService.isRescheduleRepaymentsOnHolidaysEnabled();
 
@@ -2717,37 +2727,86 @@ public class LoanWritePlatformServiceJpaRepositoryImpl implements LoanWritePlatf
             return;
         }
 
-        final Collection<Integer> loanStatuses = new ArrayList<>(Arrays.asList(LoanStatus.SUBMITTED_AND_PENDING_APPROVAL.getValue(),
-                LoanStatus.APPROVED.getValue(), LoanStatus.ACTIVE.getValue()));
+        final List<Integer> loanStatuses = Arrays.asList(LoanStatus.SUBMITTED_AND_PENDING_APPROVAL.getValue(),
+                LoanStatus.APPROVED.getValue(), LoanStatus.ACTIVE.getValue());
         // Get all Holidays which are active and not processed
         final List<Holiday> holidays = this.holidayRepository.findUnprocessed();
+        final List<Throwable> errors = new ArrayList<>();
 
         // Loop through all holidays
         for (final Holiday holiday : holidays) {
-            // All offices to which holiday is applied
-            final Set<Office> offices = holiday.getOffices();
-            final Collection<Long> officeIds = new ArrayList<>(offices.size());
-            for (final Office office : offices) {
-                officeIds.add(office.getId());
-            }
-
-            // get all loans
-            final List<Loan> loans = new ArrayList<>();
-            // get all individual and jlg loans
-            loans.addAll(this.loanRepositoryWrapper.findByClientOfficeIdsAndLoanStatus(officeIds, loanStatuses));
-            // FIXME: AA optimize to get all client and group loans belongs to a
-            // office id
-            // get all group loans
-            loans.addAll(this.loanRepositoryWrapper.findByGroupOfficeIdsAndLoanStatus(officeIds, loanStatuses));
+            try {
+                applyHolidayToLoans(holiday, loanStatuses);
+            } catch (final JobExecutionException e) {
+                // the holiday stays unprocessed, the next run continues with the loans that are left
+                errors.addAll(e.getCauses());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new JobExecutionException(errors);
+        }
+    }
 
+    /**
+     * Reschedules the loans of the holiday's offices that have an installment due in the holiday window. The loan ids are
+     * read page by page from <code>m_loan_repayment_schedule.duedate</code>, and each chunk of loans is rescheduled and
+     * committed on its own by the job executer. Rescheduled loans are recorded in <code>m_holiday_loan</code>, so a rerun
+     * after a failed chunk does not shift them a second time; the holiday is marked processed once every loan is done.
+     */
+    private void applyHolidayToLoans(final Holiday holiday, final List<Integer> loanStatuses) throws JobExecutionException {
+        final List<Long> officeIds = this.jdbcTemplate.queryForList("select office_id from m_holiday_office where holiday_id = ?",
+                Long.class, holiday.getId());
+        final LocalDate fromDate = holiday.getFromDateLocalDate();
+        final LocalDate toDate = holiday.getToDateLocalDate();
+        // rescheduling to the next repayment date also looks at an installment due up to 30 days before the holiday ends
+        final LocalDate windowStartDate = holiday.getReScheduleType().isResheduleToNextRepaymentDate()
+                && toDate.minusDays(29).isBefore(fromDate) ? toDate.minusDays(29) : fromDate;
+        if (!officeIds.isEmpty()) {
+            final String officeIdsIn = String.join(",", Collections.nCopies(officeIds.size(), "?"));
+            final String sql = "select distinct l.id from m_loan l join m_loan_repayment_schedule ls on ls.loan_id = l.id "
+                    + "left join m_client c on c.id = l.client_id left join m_group g on g.id = l.group_id "
+                    + "where ls.duedate >= ? and ls.duedate <= ? and l.id > ? and l.loan_status_id in ("
+                    + String.join(",", Collections.nCopies(loanStatuses.size(), "?")) + ") and (c.office_id in (" + officeIdsIn
+                    + ") or g.office_id in (" + officeIdsIn + ")) and not exists (select 1 from m_holiday_loan hl "
+                    + "where hl.holiday_id = ? and hl.loan_id = l.id) order by l.id " + this.sqlGenerator.limit(HOLIDAY_LOAN_PAGE_SIZE);
+            Long maxLoanId = 0L;
+            while (true) {
+                final List<Object> params = new ArrayList<>();
+                params.add(windowStartDate);
+                params.add(toDate);
+                params.add(maxLoanId);
+                params.addAll(loanStatuses);
+                params.addAll(officeIds);
+                params.addAll(officeIds);
+                params.add(holiday.getId());
+                final List<Long> loanIds = this.jdbcTemplate.queryForList(sql, Long.class, params.toArray());
+                if (loanIds.isEmpty()) {
+                    break;
+                }
+                this.jobExecuter.executeChunks(JobName.APPLY_HOLIDAYS_TO_LOANS.name(), loanIds, JobExecuter.Workload.IO_BOUND,
+                        loanIdsChunk -> applyHolidayToLoans(holiday, loanIdsChunk));
+                maxLoanId = loanIds.get(loanIds.size() - 1);
+            }
+        }
+        this.transactionTemplate.executeWithoutResult(status -> {
+            holiday.processed();
+            this.holidayRepository.saveAndFlush(holiday);
+            this.jdbcTemplate.update("delete from m_holiday_loan where holiday_id = ?", holiday.getId());
+        });
+    }
+
+    private void applyHolidayToLoans(final Holiday holiday, final List<Long> loanIds) {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            final List<Loan> loans = this.loanRepository.findAllById(loanIds);
             for (final Loan loan : loans) {
+                loan.initializeRepaymentSchedule();
                 // apply holiday
                 loan.applyHolidayToRepaymentScheduleDates(holiday, this.loanUtilService);
             }
             this.loanRepositoryWrapper.save(loans);
-            holiday.processed();
-        }
-        this.holidayRepository.save(holidays);
+            this.jdbcTemplate.batchUpdate("insert into m_holiday_loan (holiday_id, loan_id) values (?, ?)",
+                    loans.stream().map(loan -> new Object[] { holiday.getId(), loan.getId() }).collect(Collectors.toList()));
+        });
     }
 
     private void checkClientOrGroupActive(final Loan loan) {
@@ -0,0 +1,323 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.loanaccount.service;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fineract.accounting.common.AccountingConstants.AccrualAccountsForLoan;
+import org.apache.fineract.accounting.journalentry.domain.JournalEntryType;
+import org.apache.fineract.accounting.journalentry.exception.JournalEntryInvalidException;
+import org.apache.fineract.accounting.journalentry.exception.JournalEntryInvalidException.GlJournalEntryInvalidReason;
+import org.apache.fineract.accounting.journalentry.service.AccountingProcessorHelper;
+import org.apache.fineract.accounting.producttoaccountmapping.domain.PortfolioProductType;
+import org.apache.fineract.accounting.producttoaccountmapping.exception.ProductToGLAccountMappingNotFoundException;
+import org.apache.fineract.infrastructure.core.domain.JdbcSupport;
+import org.apache.fineract.infrastructure.core.exception.PlatformDataIntegrityException;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.portfolio.loanaccount.data.LoanChargeData;
+import org.apache.fineract.portfolio.loanaccount.data.LoanScheduleAccrualData;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanTransactionType;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the periodic accruals computed for a chunk of loans with JDBC batches: the accrual transactions, whose ids are
+ * returned by their batch insert, the charges paid by them, the accrued amounts of the installments, the accrued till
+ * date of the loans and the journal entry legs. The product to GL account mappings and latest branch closures of the
+ * chunk are read once. The legs are derived the way the accrual based loan accounting processor posts an accrual; a loan
+ * whose legs cannot be derived is left out of the batch and reported as an error.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PeriodicAccrualBatchWriter {
+
+    private static final String TRANSACTION_INSERT_SQL = "INSERT INTO m_loan_transaction (loan_id,office_id,is_reversed,"
+            + "transaction_type_enum,transaction_date,amount,interest_portion_derived,fee_charges_portion_derived,"
+            + "penalty_charges_portion_derived,submitted_on_date) VALUES (?, ?, false, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String CHARGE_PAID_BY_INSERT_SQL = "INSERT INTO m_loan_charge_paid_by (loan_transaction_id, loan_charge_id, "
+            + "amount, installment_number) VALUES (?, ?, ?, ?)";
+    private static final String INSTALLMENT_UPDATE_SQL = "UPDATE m_loan_repayment_schedule SET accrual_interest_derived=?, "
+            + "accrual_fee_charges_derived=?, accrual_penalty_charges_derived=? WHERE id=?";
+    private static final String LOAN_UPDATE_SQL = "UPDATE m_loan SET accrued_till=? WHERE id=?";
+    private static final String JOURNAL_ENTRY_INSERT_SQL = "INSERT INTO acc_gl_journal_entry (account_id, office_id, currency_code, "
+            + "transaction_id, loan_transaction_id, reversed, manual_entry, entry_date, type_enum, amount, entity_type_enum, entity_id, "
+            + "createdby_id, lastmodifiedby_id, created_date, lastmodified_date, is_running_balance_calculated, office_running_balance, "
+            + "organization_running_balance) VALUES (?, ?, ?, ?, ?, false, false, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final AuditorAware<Long> auditorAware;
+
+    /**
+     * @return the errors of the loans whose accruals were left out of the batch
+     */
+    public List<Throwable> write(final List<Accrual> accruals) {
+        final List<Throwable> errors = new ArrayList<>();
+        final Map<Long, List<Accrual>> accrualsByLoan = new LinkedHashMap<>();
+        final Set<Long> productIds = new HashSet<>();
+        final Set<Long> officeIds = new HashSet<>();
+        for (final Accrual accrual : accruals) {
+            final LoanScheduleAccrualData accrualData = accrual.getAccrualData();
+            accrualsByLoan.computeIfAbsent(accrualData.getLoanId(), loanId -> new ArrayList<>()).add(accrual);
+            productIds.add(accrualData.getLoanProductId());
+            officeIds.add(accrualData.getOfficeId());
+        }
+        if (accrualsByLoan.isEmpty()) {
+            return errors;
+        }
+        final Map<String, Long> glAccountIds = retrieveGLAccountIds(productIds);
+        final Map<Long, LocalDate> closingDates = retrieveLatestClosingDates(officeIds);
+
+        final List<Accrual> accrualsToWrite = new ArrayList<>();
+        final List<List<JournalEntryLeg>> legsToWrite = new ArrayList<>();
+        for (final Map.Entry<Long, List<Accrual>> entry : accrualsByLoan.entrySet()) {
+            try {
+                final List<List<JournalEntryLeg>> legs = new ArrayList<>();
+                for (final Accrual accrual : entry.getValue()) {
+                    legs.add(journalEntryLegs(accrual, glAccountIds, closingDates));
+                }
+                accrualsToWrite.addAll(entry.getValue());
+                legsToWrite.addAll(legs);
+            } catch (RuntimeException e) {
+                log.error("Failed to add accural transaction for loan {}", entry.getKey(), e);
+                errors.add(e);
+            }
+        }
+        if (accrualsToWrite.isEmpty()) {
+            return errors;
+        }
+
+        final List<Long> transactionIds = insertTransactions(accrualsToWrite);
+        final Long userId = this.auditorAware.getCurrentAuditor().orElse(null);
+        final LocalDateTime now = DateUtils.getLocalDateTimeOfSystem();
+        final List<Object[]> chargePaidByParams = new ArrayList<>();
+        final List<Object[]> installmentParams = new ArrayList<>();
+        final Map<Long, LocalDate> accruedTillByLoan = new LinkedHashMap<>();
+        final List<Object[]> journalEntryParams = new ArrayList<>();
+        for (int i = 0; i < accrualsToWrite.size(); i++) {
+            final Accrual accrual = accrualsToWrite.get(i);
+            final LoanScheduleAccrualData accrualData = accrual.getAccrualData();
+            final Long transactionId = transactionIds.get(i);
+            for (final Map.Entry<LoanChargeData, BigDecimal> entry : accrualData.getApplicableCharges().entrySet()) {
+                chargePaidByParams
+                        .add(new Object[] { transactionId, entry.getKey().getId(), entry.getValue(), accrualData.getInstallmentNumber() });
+            }
+            installmentParams.add(new Object[] { accrual.getTotalAccruedInterest(), accrual.getTotalAccruedFee(),
+                    accrual.getTotalAccruedPenalty(), accrualData.getRepaymentScheduleId() });
+            accruedTillByLoan.put(accrualData.getLoanId(), accrual.getAccruedTill());
+            for (final JournalEntryLeg leg : legsToWrite.get(i)) {
+                journalEntryParams.add(new Object[] { leg.accountId, accrualData.getOfficeId(), accrualData.getCurrencyData().code(),
+                        AccountingProcessorHelper.LOAN_TRANSACTION_IDENTIFIER + transactionId, transactionId, accrual.getAccruedTill(),
+                        leg.type.getValue(), leg.amount, PortfolioProductType.LOAN.getValue(), accrualData.getLoanId(), userId, userId,
+                        now, now, BigDecimal.ZERO, BigDecimal.ZERO });
+            }
+        }
+        final List<Object[]> loanParams = new ArrayList<>();
+        for (final Map.Entry<Long, LocalDate> entry : accruedTillByLoan.entrySet()) {
+            loanParams.add(new Object[] { entry.getValue(), entry.getKey() });
+        }
+
+        if (!chargePaidByParams.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(CHARGE_PAID_BY_INSERT_SQL, chargePaidByParams);
+        }
+        this.jdbcTemplate.batchUpdate(INSTALLMENT_UPDATE_SQL, installmentParams);
+        this.jdbcTemplate.batchUpdate(LOAN_UPDATE_SQL, loanParams);
+        if (!journalEntryParams.isEmpty()) {
+            this.jdbcTemplate.batchUpdate(JOURNAL_ENTRY_INSERT_SQL, journalEntryParams);
+        }
+        log.debug("Added {} accrual transaction(s) for {} loan(s)", accrualsToWrite.size(), loanParams.size());
+        return errors;
+    }
+
+    private List<Long> insertTransactions(final List<Accrual> accruals) {
+        final LocalDate submittedOnDate = DateUtils.getBusinessLocalDate();
+        return this.jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(TRANSACTION_INSERT_SQL, new String[] { "id" })) {
+                for (final Accrual accrual : accruals) {
+                    final LoanScheduleAccrualData accrualData = accrual.getAccrualData();
+                    new ArgumentPreparedStatementSetter(new Object[] { accrualData.getLoanId(), accrualData.getOfficeId(),
+                            LoanTransactionType.ACCRUAL.getValue(), accrual.getAccruedTill(), accrual.getAmount(),
+                            accrual.getInterestPortion(), accrual.getFeePortion(), accrual.getPenaltyPortion(), submittedOnDate })
+                            .setValues(statement);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                final List<Long> transactionIds = new ArrayList<>(accruals.size());
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    while (generatedKeys.next()) {
+                        transactionIds.add(generatedKeys.getLong(1));
+                    }
+                }
+                if (transactionIds.size() != accruals.size()) {
+                    throw new SQLException(
+                            "Expected " + accruals.size() + " generated accrual transaction ids but got " + transactionIds.size());
+                }
+                return transactionIds;
+            }
+        });
+    }
+
+    private List<JournalEntryLeg> journalEntryLegs(final Accrual accrual, final Map<String, Long> glAccountIds,
+            final Map<Long, LocalDate> closingDates) {
+        final LoanScheduleAccrualData accrualData = accrual.getAccrualData();
+        final LocalDate closingDate = closingDates.get(accrualData.getOfficeId());
+        if (closingDate != null && !closingDate.isBefore(accrual.getAccruedTill())) {
+            throw new JournalEntryInvalidException(GlJournalEntryInvalidReason.ACCOUNTING_CLOSED, closingDate, null, null);
+        }
+        final Long productId = accrualData.getLoanProductId();
+        final List<JournalEntryLeg> legs = new ArrayList<>();
+        if (isNonZero(accrual.getInterestPortion())) {
+            addLegs(legs, glAccountId(glAccountIds, productId, AccrualAccountsForLoan.INTEREST_RECEIVABLE, null),
+                    glAccountId(glAccountIds, productId, AccrualAccountsForLoan.INTEREST_ON_LOANS, null), accrual.getInterestPortion());
+        }
+        if (isNonZero(accrual.getFeePortion())) {
+            addChargeLegs(legs, accrual, false, AccrualAccountsForLoan.FEES_RECEIVABLE, AccrualAccountsForLoan.INCOME_FROM_FEES,
+                    accrual.getFeePortion(), glAccountIds);
+        }
+        if (isNonZero(accrual.getPenaltyPortion())) {
+            addChargeLegs(legs, accrual, true, AccrualAccountsForLoan.PENALTIES_RECEIVABLE, AccrualAccountsForLoan.INCOME_FROM_PENALTIES,
+                    accrual.getPenaltyPortion(), glAccountIds);
+        }
+        return legs;
+    }
+
+    private void addChargeLegs(final List<JournalEntryLeg> legs, final Accrual accrual, final boolean penalty,
+            final AccrualAccountsForLoan receivableAccount, final AccrualAccountsForLoan incomeAccount, final BigDecimal totalAmount,
+            final Map<String, Long> glAccountIds) {
+        final Long productId = accrual.getAccrualData().getLoanProductId();
+        final Long receivableAccountId = glAccountId(glAccountIds, productId, receivableAccount, null);
+        final Map<Long, BigDecimal> amountsByIncomeAccount = new LinkedHashMap<>();
+        for (final Map.Entry<LoanChargeData, BigDecimal> entry : accrual.getAccrualData().getApplicableCharges().entrySet()) {
+            if (entry.getKey().isPenalty() == penalty) {
+                amountsByIncomeAccount.merge(glAccountId(glAccountIds, productId, incomeAccount, entry.getKey().getChargeId()),
+                        entry.getValue(), BigDecimal::add);
+            }
+        }
+        BigDecimal totalCreditedAmount = BigDecimal.ZERO;
+        for (final Map.Entry<Long, BigDecimal> entry : amountsByIncomeAccount.entrySet()) {
+            totalCreditedAmount = totalCreditedAmount.add(entry.getValue());
+            addLegs(legs, receivableAccountId, entry.getKey(), entry.getValue());
+        }
+        if (totalAmount.compareTo(totalCreditedAmount) != 0) {
+            throw new PlatformDataIntegrityException(
+                    "Meltdown in advanced accounting...sum of all charges is not equal to the fee charge for a transaction",
+                    "Meltdown in advanced accounting...sum of all charges is not equal to the fee charge for a transaction",
+                    totalCreditedAmount, totalAmount);
+        }
+    }
+
+    private static void addLegs(final List<JournalEntryLeg> legs, final Long debitAccountId, final Long creditAccountId,
+            final BigDecimal amount) {
+        legs.add(new JournalEntryLeg(debitAccountId, JournalEntryType.DEBIT, amount));
+        legs.add(new JournalEntryLeg(creditAccountId, JournalEntryType.CREDIT, amount));
+    }
+
+    private static boolean isNonZero(final BigDecimal amount) {
+        return amount != null && amount.compareTo(BigDecimal.ZERO) != 0;
+    }
+
+    /**
+     * Resolves the GL account of a charge specific mapping, falling back to the core mapping of the product.
+     */
+    private static Long glAccountId(final Map<String, Long> glAccountIds, final Long productId, final AccrualAccountsForLoan accountType,
+            final Long chargeId) {
+        Long glAccountId = chargeId == null ? null : glAccountIds.get(mappingKey(productId, accountType.getValue(), chargeId));
+        if (glAccountId == null) {
+            glAccountId = glAccountIds.get(mappingKey(productId, accountType.getValue(), null));
+        }
+        if (glAccountId == null) {
+            throw new ProductToGLAccountMappingNotFoundException(PortfolioProductType.LOAN, productId, accountType.toString());
+        }
+        return glAccountId;
+    }
+
+    private static String mappingKey(final Long productId, final Integer accountType, final Long chargeId) {
+        return productId + "-" + accountType + "-" + (chargeId == null ? "" : chargeId);
+    }
+
+    private Map<String, Long> retrieveGLAccountIds(final Set<Long> productIds) {
+        final Map<String, Object> paramMap = new HashMap<>(2);
+        paramMap.put("loan", PortfolioProductType.LOAN.getValue());
+        paramMap.put("productIds", productIds);
+        final Map<String, Long> glAccountIds = new HashMap<>();
+        this.namedParameterJdbcTemplate.query(
+                "select product_id as productId, financial_account_type as accountType, charge_id as chargeId, gl_account_id as glAccountId"
+                        + " from acc_product_mapping where product_type = :loan and product_id in (:productIds) and payment_type is null",
+                paramMap, (RowCallbackHandler) rs -> glAccountIds.put(
+                        mappingKey(rs.getLong("productId"), rs.getInt("accountType"), JdbcSupport.getLong(rs, "chargeId")),
+                        rs.getLong("glAccountId")));
+        return glAccountIds;
+    }
+
+    private Map<Long, LocalDate> retrieveLatestClosingDates(final Set<Long> officeIds) {
+        final Map<Long, LocalDate> closingDates = new HashMap<>();
+        this.namedParameterJdbcTemplate.query(
+                "select office_id as officeId, max(closing_date) as closingDate from acc_gl_closure where office_id in (:officeIds)"
+                        + " group by office_id",
+                Map.of("officeIds", officeIds),
+                (RowCallbackHandler) rs -> closingDates.put(rs.getLong("officeId"), JdbcSupport.getLocalDate(rs, "closingDate")));
+        return closingDates;
+    }
+
+    /**
+     * An accrual transaction computed for one installment of a loan.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class Accrual {
+
+        private final LoanScheduleAccrualData accrualData;
+        private final BigDecimal amount;
+        private final BigDecimal interestPortion;
+        private final BigDecimal totalAccruedInterest;
+        private final BigDecimal feePortion;
+        private final BigDecimal totalAccruedFee;
+        private final BigDecimal penaltyPortion;
+        private final BigDecimal totalAccruedPenalty;
+        private final LocalDate accruedTill;
+    }
+
+    @RequiredArgsConstructor
+    private static final class JournalEntryLeg {
+
+        private final Long accountId;
+        private final JournalEntryType type;
+        private final BigDecimal amount;
+    }
+}
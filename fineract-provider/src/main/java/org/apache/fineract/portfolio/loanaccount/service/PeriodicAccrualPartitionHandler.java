@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.loanaccount.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fineract.cob.data.BatchPartition;
+import org.apache.fineract.cob.service.BatchPartitionHandler;
+import org.apache.fineract.cob.service.BatchPartitionService;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.jobs.service.JobName;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Adds the periodic accruals of the loans of one partition of the {@link JobName#ADD_PERIODIC_ACCRUAL_ENTRIES} job. The
+ * partition scope holds the date accruals are added till. The partition is read in ascending loan id chunks; every chunk
+ * is accrued in one transaction from one set of queries and written in JDBC batches, then the checkpoint is moved.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PeriodicAccrualPartitionHandler implements BatchPartitionHandler {
+
+    private final LoanReadPlatformService loanReadPlatformService;
+    private final LoanAccrualWritePlatformService loanAccrualWritePlatformService;
+    private final BatchPartitionService batchPartitionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public String getJobName() {
+        return JobName.ADD_PERIODIC_ACCRUAL_ENTRIES.name();
+    }
+
+    @Override
+    public List<Throwable> process(final BatchPartition partition) {
+        final LocalDate tillDate = LocalDate.parse(partition.getScope(), DateUtils.DEFAULT_DATE_FORMATER);
+        final List<Throwable> errors = new ArrayList<>();
+        List<Long> loanIds = retrieveChunk(partition, tillDate, partition.getResumeAfterId());
+        while (!loanIds.isEmpty()) {
+            final Long chunkEnd = loanIds.get(loanIds.size() - 1);
+            try {
+                errors.addAll(this.loanAccrualWritePlatformService.addPeriodicAccruals(tillDate,
+                        this.loanReadPlatformService.retrivePeriodicAccrualData(tillDate, loanIds)));
+            } catch (Exception e) {
+                log.error("Failed to add accural transactions for loans {} to {}", loanIds.get(0), chunkEnd, e);
+                errors.add(e);
+            }
+            this.transactionTemplate
+                    .executeWithoutResult(status -> this.batchPartitionService.updateCheckpoint(partition.getId(), chunkEnd));
+            loanIds = retrieveChunk(partition, tillDate, chunkEnd);
+        }
+        return errors;
+    }
+
+    private List<Long> retrieveChunk(final BatchPartition partition, final LocalDate tillDate, final Long afterId) {
+        return this.loanReadPlatformService.retrieveLoanIdsWithPendingPeriodicAccruals(tillDate, afterId, partition.getChunkSize())
+                .stream().filter(loanId -> loanId <= partition.getRangeEnd()).collect(Collectors.toList());
+    }
+}
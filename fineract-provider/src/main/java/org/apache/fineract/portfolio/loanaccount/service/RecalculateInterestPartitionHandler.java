@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.loanaccount.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.apache.fineract.cob.data.BatchPartition;
+import org.apache.fineract.cob.service.BatchPartitionHandler;
+import org.apache.fineract.cob.service.BatchPartitionService;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JobName;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Recalculates interest of the loans of one partition of the {@link JobName#RECALCULATE_INTEREST_FOR_LOAN} job. The
+ * partition scope holds the office hierarchy the run is restricted to.
+ */
+@Component
+@RequiredArgsConstructor
+public class RecalculateInterestPartitionHandler implements BatchPartitionHandler {
+
+    private final ApplicationContext applicationContext;
+    private final LoanReadPlatformService loanReadPlatformService;
+    private final LoanWritePlatformService loanWritePlatformService;
+    private final BatchPartitionService batchPartitionService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public String getJobName() {
+        return JobName.RECALCULATE_INTEREST_FOR_LOAN.name();
+    }
+
+    @Override
+    public List<Throwable> process(final BatchPartition partition) {
+        final List<Throwable> errors = new ArrayList<>();
+        List<Long> loanIds = retrieveChunk(partition, partition.getResumeAfterId());
+        while (!loanIds.isEmpty()) {
+            final RecalculateInterestPoster poster = (RecalculateInterestPoster) this.applicationContext
+                    .getBean("recalculateInterestPoster");
+            poster.setLoanIds(loanIds);
+            poster.setLoanWritePlatformService(this.loanWritePlatformService);
+            try {
+                poster.call();
+            } catch (final JobExecutionException e) {
+                errors.addAll(e.getCauses());
+            }
+            final Long chunkEnd = loanIds.get(loanIds.size() - 1);
+            this.transactionTemplate
+                    .executeWithoutResult(status -> this.batchPartitionService.updateCheckpoint(partition.getId(), chunkEnd));
+            loanIds = retrieveChunk(partition, chunkEnd);
+        }
+        return errors;
+    }
+
+    private List<Long> retrieveChunk(final BatchPartition partition, final Long afterId) {
+        final List<Long> loanIds = this.loanReadPlatformService.fetchLoansForInterestRecalculation(partition.getChunkSize(), afterId + 1,
+                partition.getScope());
+        if (loanIds == null) {
+            return List.of();
+        }
+        return loanIds.stream().filter(loanId -> loanId <= partition.getRangeEnd()).collect(Collectors.toList());
+    }
+}
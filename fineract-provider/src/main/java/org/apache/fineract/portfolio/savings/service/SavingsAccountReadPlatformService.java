@@ -66,8 +66,14 @@ public interface SavingsAccountReadPlatformService {
 
     Long getSavingsAccountTransactionTotalFiltered(Long savingsId, DepositAccountType depositAccountType, Boolean hideAccrualTransactions);
 
-    List<SavingsAccountData> retrieveAllSavingsDataForInterestPosting(boolean backdatedTxnsAllowedTill, int pageSize, Integer status,
-            Long maxSavingsId);
+    List<Long> retrieveSavingsIdsForInterestPosting(Long afterSavingsId, int limit);
+
+    List<Long> retrieveActiveSavingsIds(Long afterSavingsId, int limit);
+
+    List<Long> retrieveSavingsIdsWithInconsistentBalance(Long fromSavingsId, Long toSavingsId);
+
+    List<SavingsAccountData> retrieveAllSavingsDataForInterestPosting(boolean backdatedTxnsAllowedTill, Long fromSavingsId,
+            Long toSavingsId);
 
     List<SavingsAccountTransactionData> retrieveAllTransactionData(List<String> refNo);
 
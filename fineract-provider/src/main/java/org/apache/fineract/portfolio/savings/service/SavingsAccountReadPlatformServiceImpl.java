@@ -33,6 +33,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.fineract.accounting.common.AccountingRuleType;
 import org.apache.fineract.accounting.glaccount.data.GLAccountData;
@@ -44,6 +45,7 @@ import org.apache.fineract.infrastructure.core.filters.FilterConstraint;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
 import org.apache.fineract.infrastructure.core.service.Page;
 import org.apache.fineract.infrastructure.core.service.PaginationHelper;
+import org.apache.fineract.infrastructure.core.service.PaginationKeyset;
 import org.apache.fineract.infrastructure.core.service.SearchParameters;
 import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
 import org.apache.fineract.infrastructure.dataqueries.data.DatatableData;
@@ -60,8 +62,10 @@ import org.apache.fineract.portfolio.accountdetails.domain.AccountType;
 import org.apache.fineract.portfolio.charge.data.ChargeData;
 import org.apache.fineract.portfolio.charge.service.ChargeReadPlatformService;
 import org.apache.fineract.portfolio.client.data.ClientData;
+import org.apache.fineract.portfolio.client.domain.ClientStatus;
 import org.apache.fineract.portfolio.client.service.ClientReadPlatformService;
 import org.apache.fineract.portfolio.group.data.GroupGeneralData;
+import org.apache.fineract.portfolio.group.domain.GroupingTypeStatus;
 import org.apache.fineract.portfolio.group.service.GroupReadPlatformService;
 import org.apache.fineract.portfolio.paymentdetail.data.PaymentDetailData;
 import org.apache.fineract.portfolio.paymenttype.data.PaymentTypeData;
@@ -110,6 +114,15 @@ import org.springframework.util.CollectionUtils;
 @Service
 public class SavingsAccountReadPlatformServiceImpl implements SavingsAccountReadPlatformService {
 
+    // active savings accounts (of active clients / groups) on which interest is due and posted by the scheduler job
+    private static final String INTEREST_POSTING_CANDIDATES_SQL = "from m_savings_account a "
+            + "left join m_client ac on ac.id = a.client_id left join m_group ag on ag.id = a.group_id "
+            + "where a.status_enum = ? and a.deposit_type_enum != ? "
+            + "and (a.nominal_annual_interest_rate > 0 or (a.allow_overdraft = true and a.nominal_annual_interest_rate_overdraft > 0)) "
+            + "and (a.post_overdraft_interest_on_deposit is null or a.post_overdraft_interest_on_deposit = false) "
+            + "and (a.interest_posted_till_date is null or a.interest_posted_till_date <= ?) "
+            + "and (ac.id is null or ac.status_enum = ?) and (ag.id is null or ag.status_enum = ?)";
+
     private final PlatformSecurityContext context;
     private final JdbcTemplate jdbcTemplate;
     private final ClientReadPlatformService clientReadPlatformService;
@@ -248,6 +261,10 @@ public class SavingsAccountReadPlatformServiceImpl implements SavingsAccountRead
                 objectArray[arrayPos] = searchParameters.getOfficeId();
                 arrayPos = arrayPos + 1;
             }
+            if (searchParameters.isKeysetPaginationRequested()) {
+                return this.paginationHelper.fetchPageByKeyset(this.jdbcTemplate, sqlBuilder.toString(), true,
+                        Arrays.copyOf(objectArray, arrayPos), this.savingAccountMapper, PaginationKeyset.byId("sa.id"), searchParameters);
+            }
             if (searchParameters.isOrderByRequested()) {
                 sqlBuilder.append(" order by ").append(searchParameters.getOrderBy());
                 this.columnValidator.validateSqlInjection(sqlBuilder.toString(), searchParameters.getOrderBy());
@@ -297,27 +314,70 @@ public class SavingsAccountReadPlatformServiceImpl implements SavingsAccountRead
     }
 
     @Override
-    public List<SavingsAccountData> retrieveAllSavingsDataForInterestPosting(final boolean backdatedTxnsAllowedTill, final int pageSize,
-            final Integer status, final Long maxSavingsId) {
-        LocalDate yesterday = DateUtils.getBusinessLocalDate().minusDays(1);
-        String sql = "select " + this.savingAccountMapperForInterestPosting.schema()
-                + "join (select a.id from m_savings_account a where a.id > ? and a.status_enum = ? limit ?) b on b.id = sa.id ";
+    public List<Long> retrieveSavingsIdsForInterestPosting(final Long afterSavingsId, final int limit) {
+        final String sql = "select a.id " + INTEREST_POSTING_CANDIDATES_SQL + " and a.id > ? order by a.id "
+                + this.sqlGenerator.limit(limit);
+        return this.jdbcTemplate.queryForList(sql, Long.class, interestPostingCandidateParameters(afterSavingsId)); // NOSONAR
+    }
+
+    @Override
+    public List<Long> retrieveActiveSavingsIds(final Long afterSavingsId, final int limit) {
+        final String sql = "select a.id from m_savings_account a where a.status_enum = ? and a.id > ? order by a.id "
+                + this.sqlGenerator.limit(limit);
+        return this.jdbcTemplate.queryForList(sql, Long.class, SavingsAccountStatusType.ACTIVE.getValue(), afterSavingsId); // NOSONAR
+    }
+
+    @Override
+    public List<Long> retrieveSavingsIdsWithInconsistentBalance(final Long fromSavingsId, final Long toSavingsId) {
+        // credits and debits are classified the same way as SavingsAccountTransaction#isCredit and #isDebit
+        final String credits = transactionTypeValues(SavingsAccountTransactionType.DEPOSIT, SavingsAccountTransactionType.INTEREST_POSTING,
+                SavingsAccountTransactionType.DIVIDEND_PAYOUT);
+        final String debits = transactionTypeValues(SavingsAccountTransactionType.WITHDRAWAL, SavingsAccountTransactionType.WITHDRAWAL_FEE,
+                SavingsAccountTransactionType.ANNUAL_FEE, SavingsAccountTransactionType.PAY_CHARGE,
+                SavingsAccountTransactionType.OVERDRAFT_INTEREST, SavingsAccountTransactionType.WITHHOLD_TAX);
+        final String sql = "select a.id from m_savings_account a "
+                + "left join m_savings_account_transaction tr on tr.savings_account_id = a.id "
+                + "and tr.is_reversed = false and tr.is_reversal = false where a.status_enum = ? and a.id >= ? and a.id <= ? "
+                + "group by a.id, a.account_balance_derived having coalesce(a.account_balance_derived, 0) <> coalesce(sum(case "
+                + "when tr.transaction_type_enum in (" + credits + ") then tr.amount when tr.transaction_type_enum in (" + debits
+                + ") then -tr.amount else 0 end), 0) order by a.id";
+        return this.jdbcTemplate.queryForList(sql, Long.class, SavingsAccountStatusType.ACTIVE.getValue(), fromSavingsId, // NOSONAR
+                toSavingsId);
+    }
+
+    private static String transactionTypeValues(final SavingsAccountTransactionType... transactionTypes) {
+        return Arrays.stream(transactionTypes).map(type -> String.valueOf(type.getValue())).collect(Collectors.joining(", "));
+    }
+
+    @Override
+    public List<SavingsAccountData> retrieveAllSavingsDataForInterestPosting(final boolean backdatedTxnsAllowedTill,
+            final Long fromSavingsId, final Long toSavingsId) {
+        // the candidate filter sits in the id subquery so that a page of ids is never emptied by the outer join
+        String sql = "select " + this.savingAccountMapperForInterestPosting.schema() + "join (select a.id "
+                + INTEREST_POSTING_CANDIDATES_SQL + " and a.id >= ? and a.id <= ?) b on b.id = sa.id ";
         if (backdatedTxnsAllowedTill) {
+            // incremental posting: the balances up to interest_posted_till_date are carried on the last posted transaction
             sql = sql
                     + "where (CASE WHEN sa.interest_posted_till_date is not null THEN tr.transaction_date >= sa.interest_posted_till_date ELSE tr.transaction_date >= sa.activatedon_date END) ";
         }
-
-        sql = sql + " and (sa.interest_posted_till_date is null or sa.interest_posted_till_date <= ? ) ";
         sql = sql + " order by sa.id, tr.transaction_date, tr.created_date, tr.id";
 
         List<SavingsAccountData> savingsAccountDataList = this.jdbcTemplate.query(sql, this.savingAccountMapperForInterestPosting, // NOSONAR
-                new Object[] { maxSavingsId, status, pageSize, yesterday });
+                interestPostingCandidateParameters(fromSavingsId, toSavingsId));
         for (SavingsAccountData savingsAccountData : savingsAccountDataList) {
             this.savingAccountAssembler.assembleSavings(savingsAccountData);
         }
         return savingsAccountDataList;
     }
 
+    private Object[] interestPostingCandidateParameters(final Object... idBounds) {
+        final Object[] parameters = new Object[] { SavingsAccountStatusType.ACTIVE.getValue(), DepositAccountType.FIXED_DEPOSIT.getValue(),
+                DateUtils.getBusinessLocalDate().minusDays(1), ClientStatus.ACTIVE.getValue(), GroupingTypeStatus.ACTIVE.getValue() };
+        final Object[] allParameters = Arrays.copyOf(parameters, parameters.length + idBounds.length);
+        System.arraycopy(idBounds, 0, allParameters, parameters.length, idBounds.length);
+        return allParameters;
+    }
+
     @Override
     public SavingsAccountData retrieveTemplate(final Long clientId, final Long groupId, final Long productId,
             final boolean staffInSelectedOfficeOnly) {
@@ -766,11 +766,16 @@ public class SavingsAccountWritePlatformServiceJpaRepositoryImpl implements Savi
 
             long startPosting = System.currentTimeMillis();
             LOG.info("Interest Posting Start Here at {}", startPosting);
-            List<SavingsAccountTransaction> accTransactions = this.savingsAccountTransactionRepository
-                    .findBySavingsAccountId(savingsAccountData.getId());
-            boolean allowPosting = this.isQualifyForInterest(savingsAccountData.getMinBalanceForInterestCalculation(),
-                    savingsAccountData.getNumOfCreditTransaction(), savingsAccountData.getNumOfDebitTransaction(), accTransactions,
-                    savingsAccountData.getSummary().getAccountBalance());
+            boolean allowPosting = true;
+            // the full transaction history is only needed by the qualification rules, most accounts have none configured
+            if (savingsAccountData.getMinBalanceForInterestCalculation() != null || savingsAccountData.getNumOfCreditTransaction() != null
+                    || savingsAccountData.getNumOfDebitTransaction() != null) {
+                List<SavingsAccountTransaction> accTransactions = this.savingsAccountTransactionRepository
+                        .findBySavingsAccountId(savingsAccountData.getId());
+                allowPosting = this.isQualifyForInterest(savingsAccountData.getMinBalanceForInterestCalculation(),
+                        savingsAccountData.getNumOfCreditTransaction(), savingsAccountData.getNumOfDebitTransaction(), accTransactions,
+                        savingsAccountData.getSummary().getAccountBalance());
+            }
             if (allowPosting) {
                 savingsAccountData = this.savingsAccountInterestPostingService.postInterest(mc, today, isInterestTransfer,
                         isSavingsInterestPostingAtCurrentPeriodEnd, financialYearBeginningMonth, postInterestOnDate,
@@ -0,0 +1,105 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.savings.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.apache.fineract.cob.data.BatchPartition;
+import org.apache.fineract.cob.service.BatchPartitionHandler;
+import org.apache.fineract.cob.service.BatchPartitionService;
+import org.apache.fineract.infrastructure.configuration.domain.ConfigurationDomainService;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JobName;
+import org.apache.fineract.portfolio.savings.data.SavingsAccountData;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Posts interest on the savings accounts of one partition of the {@link JobName#POST_INTEREST_FOR_SAVINGS} job. The
+ * partition is read in ascending id chunks and every chunk is loaded with a single query. Each account is then posted in
+ * memory and flushed with JDBC batches (transactions, account summary and journal entries) in its own transaction (see
+ * {@link SavingsSchedularInterestPoster}); the checkpoint is moved after each chunk.
+ */
+@Component
+@RequiredArgsConstructor
+public class SavingsInterestPostingPartitionHandler implements BatchPartitionHandler {
+
+    private final ApplicationContext applicationContext;
+    private final SavingsAccountReadPlatformService savingsAccountReadPlatformService;
+    private final SavingsAccountWritePlatformService savingsAccountWritePlatformService;
+    private final ConfigurationDomainService configurationDomainService;
+    private final BatchPartitionService batchPartitionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public String getJobName() {
+        return JobName.POST_INTEREST_FOR_SAVINGS.name();
+    }
+
+    @Override
+    public List<Throwable> process(final BatchPartition partition) {
+        // with the pivot date on, interest is computed from the balance posted at interest_posted_till_date onwards
+        final boolean backdatedTxnsAllowedTill = this.configurationDomainService.retrievePivotDateConfig();
+        final List<Throwable> errors = new ArrayList<>();
+        List<Long> savingsIds = retrieveChunk(partition, partition.getResumeAfterId());
+        while (!savingsIds.isEmpty()) {
+            final Long chunkStart = savingsIds.get(0);
+            final Long chunkEnd = savingsIds.get(savingsIds.size() - 1);
+            errors.addAll(postInterest(backdatedTxnsAllowedTill, chunkStart, chunkEnd));
+            this.transactionTemplate
+                    .executeWithoutResult(status -> this.batchPartitionService.updateCheckpoint(partition.getId(), chunkEnd));
+            savingsIds = retrieveChunk(partition, chunkEnd);
+        }
+        return errors;
+    }
+
+    private List<Throwable> postInterest(final boolean backdatedTxnsAllowedTill, final Long fromSavingsId, final Long toSavingsId) {
+        final List<SavingsAccountData> savingsAccounts = this.savingsAccountReadPlatformService
+                .retrieveAllSavingsDataForInterestPosting(backdatedTxnsAllowedTill, fromSavingsId, toSavingsId);
+        if (savingsAccounts.isEmpty()) {
+            return List.of();
+        }
+        final SavingsSchedularInterestPoster poster = (SavingsSchedularInterestPoster) this.applicationContext
+                .getBean("savingsSchedularInterestPoster");
+        poster.setSavingAccounts(savingsAccounts);
+        poster.setSavingsAccountWritePlatformService(this.savingsAccountWritePlatformService);
+        poster.setSavingsAccountReadPlatformService(this.savingsAccountReadPlatformService);
+        poster.setJdbcTemplate(this.jdbcTemplate);
+        poster.setTransactionTemplate(this.transactionTemplate);
+        poster.setBackdatedTxnsAllowedTill(backdatedTxnsAllowedTill);
+        poster.setContext(ThreadLocalContextUtil.getContext());
+        try {
+            poster.call();
+            return List.of();
+        } catch (final JobExecutionException e) {
+            return e.getCauses();
+        }
+    }
+
+    private List<Long> retrieveChunk(final BatchPartition partition, final Long afterId) {
+        return this.savingsAccountReadPlatformService.retrieveSavingsIdsForInterestPosting(afterId, partition.getChunkSize()).stream()
+                .filter(savingsId -> savingsId <= partition.getRangeEnd()).collect(Collectors.toList());
+    }
+}
@@ -76,7 +76,6 @@ public class SavingsSchedularInterestPoster implements Callable<Void> {
     private FineractContext context;
     private ConfigurationDomainService configurationDomainService;
     private boolean backdatedTxnsAllowedTill;
-    private List<SavingsAccountData> savingsAccountDataList = new ArrayList<>();
     private JdbcTemplate jdbcTemplate;
     private TransactionTemplate transactionTemplate;
     private CommandStrategyProvider strategyProvider;
@@ -105,12 +104,16 @@ public class SavingsSchedularInterestPoster implements Callable<Void> {
                         boolean postInterestAsOn = false;
                         LocalDate transactionDate = null;
                         long startPosting = System.currentTimeMillis();
-                        SavingsAccountData savingsAccountDataRet = savingsAccountWritePlatformService.postInterest(savingsAccountData,
-                                postInterestAsOn, transactionDate, backdatedTxnsAllowedTill);
+                        // every account is posted and flushed in its own transaction, so a failing account neither rolls
+                        // back the others of the chunk nor spoils the retry of a deadlocked one
+                        this.transactionTemplate.executeWithoutResult(status -> {
+                            SavingsAccountData savingsAccountDataRet = savingsAccountWritePlatformService
+                                    .postInterest(savingsAccountData, postInterestAsOn, transactionDate, backdatedTxnsAllowedTill);
+                            batchUpdate(List.of(savingsAccountDataRet));
+                        });
                         long endPosting = System.currentTimeMillis();
-                        savingsAccountDataList.add(savingsAccountDataRet);
 
-                        LOG.info("Posting Completed Within {}", endPosting - startPosting);
+                        LOG.debug("Posting Completed Within {}", endPosting - startPosting);
 
                         numberOfRetries = maxNumberOfRetries + 1;
                     } catch (CannotAcquireLockException | ObjectOptimisticLockingFailureException exception) {
@@ -145,18 +148,6 @@ public class SavingsSchedularInterestPoster implements Callable<Void> {
                 i++;
             }
 
-            if (errors.isEmpty()) {
-                try {
-                    batchUpdate(savingsAccountDataList);
-                } catch (DataAccessException exception) {
-                    LOG.error("Batch update failed due to DataAccessException", exception);
-                    errors.add(exception);
-                } catch (NullPointerException exception) {
-                    LOG.error("Batch update failed due to NullPointerException", exception);
-                    errors.add(exception);
-                }
-            }
-
             if (!errors.isEmpty()) {
                 throw new JobExecutionException(errors);
             }
@@ -0,0 +1,51 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.search.data;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Entities kept in the global search index, with the query that reads their searchable columns. Every source query
+ * selects the entity id and its office hierarchy first, the remaining columns are the searchable values.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum SearchIndexEntityType {
+
+    CLIENT("select c.id, o.hierarchy, c.account_no, c.display_name, c.external_id, c.mobile_no from m_client c"
+            + " join m_office o on o.id = c.office_id", "c.id", "c.id", false), //
+    GROUP("select g.id, o.hierarchy, g.account_no, g.display_name, g.external_id from m_group g join m_office o on o.id = g.office_id",
+            "g.id", null, true), //
+    LOAN("select l.id, o.hierarchy, l.account_no, l.external_id from m_loan l left join m_client c on l.client_id = c.id"
+            + " left join m_office o on o.id = c.office_id", "l.id", "l.client_id", false), //
+    SAVING("select s.id, o.hierarchy, s.account_no, s.external_id from m_savings_account s left join m_client c on s.client_id = c.id"
+            + " left join m_office o on o.id = c.office_id", "s.id", "s.client_id", false), //
+    SHARE("select s.id, o.hierarchy, s.account_no, s.external_id from m_share_account s left join m_client c on s.client_id = c.id"
+            + " left join m_office o on o.id = c.office_id", "s.id", "s.client_id", false), //
+    CLIENTIDENTIFIER("select ci.id, o.hierarchy, ci.document_key from m_client_identifier ci join m_client c on ci.client_id = c.id"
+            + " join m_office o on o.id = c.office_id", "ci.id", "ci.client_id", false);
+
+    private final String sourceSql;
+    private final String idColumn;
+    // column holding the owning client, null when the entity does not belong to a client
+    private final String clientColumn;
+    // groups are also matched on their id
+    private final boolean idSearchable;
+}
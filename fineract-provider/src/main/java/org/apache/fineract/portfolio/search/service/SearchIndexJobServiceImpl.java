@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.search.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fineract.infrastructure.jobs.annotation.CronTarget;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JobName;
+import org.apache.fineract.portfolio.search.data.SearchIndexEntityType;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchIndexJobServiceImpl implements SearchIndexJobService {
+
+    public static final String BATCH_SIZE_PARAMETER = "batch-size";
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final SearchIndexService searchIndexService;
+
+    @Override
+    @CronTarget(jobName = JobName.SEARCH_INDEX_REBUILD)
+    public void rebuildSearchIndex(final Map<String, String> jobParameters) throws JobExecutionException {
+        final String batchSizeValue = jobParameters == null ? null : jobParameters.get(BATCH_SIZE_PARAMETER);
+        final int batchSize = batchSizeValue == null ? DEFAULT_BATCH_SIZE : Integer.parseInt(batchSizeValue);
+
+        final List<Throwable> errors = new ArrayList<>();
+        for (SearchIndexEntityType entityType : SearchIndexEntityType.values()) {
+            Long lastId = null;
+            try {
+                // every batch commits on its own, so a rebuild of a large tenant does not hold one long transaction
+                Long batchEnd = this.searchIndexService.rebuildBatch(entityType, lastId, batchSize);
+                while (batchEnd != null) {
+                    lastId = batchEnd;
+                    batchEnd = this.searchIndexService.rebuildBatch(entityType, lastId, batchSize);
+                }
+                log.info("Search index: rebuilt {} entries up to id {}", entityType, lastId);
+            } catch (RuntimeException e) {
+                log.error("Search index: rebuild of {} failed after id {}", entityType, lastId, e);
+                errors.add(e);
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new JobExecutionException(errors);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.search.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
+import org.apache.fineract.portfolio.search.data.SearchIndexEntityType;
+
+/**
+ * Index backing the global search. It narrows a search down to candidate entity ids, the caller still applies the
+ * original match conditions to those rows.
+ */
+public interface SearchIndexService {
+
+    boolean isEnabled();
+
+    /**
+     * @return candidate ids per entity type, or null when the index cannot answer the query (index disabled, query too
+     *         short or containing wildcards, or matching more than <code>fineract.search.max-candidates</code> entities)
+     *         and the caller has to scan
+     */
+    Map<SearchIndexEntityType, Set<Long>> findCandidates(Collection<SearchIndexEntityType> entityTypes, String query, String hierarchy);
+
+    /**
+     * Refreshes the entries touched by a command once the surrounding transaction commits.
+     */
+    void scheduleReindex(String entityName, String actionName, CommandProcessingResult result);
+
+    void reindex(SearchIndexEntityType entityType, Collection<Long> ids);
+
+    void reindexClient(Long clientId);
+
+    /**
+     * Refreshes the office hierarchy held by the entries of an office and of every office below it, in committed
+     * batches, e.g. after the office got a new parent.
+     */
+    void reindexOffice(Long officeId);
+
+    /**
+     * Rebuilds the index of one entity type for ids greater than {@code afterId}.
+     *
+     * @return the last id indexed, or null when there is nothing left
+     */
+    Long rebuildBatch(SearchIndexEntityType entityType, Long afterId, int batchSize);
+}
@@ -0,0 +1,357 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.search.service;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
+import org.apache.fineract.portfolio.search.data.SearchIndexEntityType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Trigram index kept in the tenant database: every searchable value is split into its three character substrings and a
+ * search term matches the entities holding all of the term's trigrams. Unlike {@code like '%term%'} the lookup is served
+ * by the primary key of {@code m_search_index_term}, and the office hierarchy is filtered on the indexed entry.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchIndexServiceImpl implements SearchIndexService {
+
+    private static final int TERM_LENGTH = 3;
+    private static final int OFFICE_REINDEX_BATCH_SIZE = 500;
+    // loan, savings and share commands other than these leave account numbers and external ids alone
+    private static final Set<String> INDEXED_ACTIONS = Set.of("CREATE", "UPDATE", "DELETE");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final DatabaseSpecificSQLGenerator sqlGenerator;
+    private final FineractProperties fineractProperties;
+    private final PlatformTransactionManager transactionManager;
+    private TransactionTemplate afterCommitTransactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        this.afterCommitTransactionTemplate = new TransactionTemplate(this.transactionManager);
+        this.afterCommitTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.fineractProperties.getSearch() != null && this.fineractProperties.getSearch().isIndexEnabled();
+    }
+
+    @Override
+    public Map<SearchIndexEntityType, Set<Long>> findCandidates(final Collection<SearchIndexEntityType> entityTypes, final String query,
+            final String hierarchy) {
+        if (!isEnabled() || entityTypes.isEmpty() || StringUtils.isEmpty(query) || StringUtils.containsAny(query, '%', '_')) {
+            return null;
+        }
+        final Set<String> terms = new HashSet<>();
+        addTerms(terms, query);
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        final MapSqlParameterSource params = new MapSqlParameterSource();
+        params.addValue("terms", terms);
+        params.addValue("termCount", terms.size());
+        params.addValue("entityTypes", entityTypes.stream().map(SearchIndexEntityType::name).collect(Collectors.toList()));
+        params.addValue("hierarchy", hierarchy + "%");
+        // one row past the cap tells a complete answer from a truncated one
+        final int maxCandidates = this.fineractProperties.getSearch().getMaxCandidates();
+        final String sql = "select t.entity_type, t.entity_id from m_search_index_term t"
+                + " join m_search_index_entry e on e.entity_type = t.entity_type and e.entity_id = t.entity_id"
+                + " where t.term in (:terms) and t.entity_type in (:entityTypes)"
+                + " and (e.office_hierarchy is null or e.office_hierarchy like :hierarchy)"
+                + " group by t.entity_type, t.entity_id having count(*) = :termCount "
+                + this.sqlGenerator.limit(maxCandidates + 1);
+
+        final Map<SearchIndexEntityType, Set<Long>> candidates = new EnumMap<>(SearchIndexEntityType.class);
+        this.namedParameterJdbcTemplate.query(sql, params, rs -> {
+            candidates.computeIfAbsent(SearchIndexEntityType.valueOf(rs.getString("entity_type")), type -> new HashSet<>())
+                    .add(rs.getLong("entity_id"));
+        });
+        if (candidates.values().stream().mapToInt(Set::size).sum() > maxCandidates) {
+            // too unselective for the index to pay off, and the candidates would be an arbitrary subset
+            log.debug("Search for '{}' matches more than {} indexed entities, scanning instead", query, maxCandidates);
+            return null;
+        }
+        return candidates;
+    }
+
+    @Override
+    public void scheduleReindex(final String entityName, final String actionName, final CommandProcessingResult result) {
+        if (!isEnabled() || result == null || entityName == null) {
+            return;
+        }
+        final Runnable task = reindexTask(entityName, actionName, result);
+        if (task == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCommit() {
+                    runReindexTask(entityName, task);
+                }
+            });
+        } else {
+            runReindexTask(entityName, task);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void reindex(final SearchIndexEntityType entityType, final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        final String whereClause = " where " + entityType.getIdColumn() + " in (" + placeholders(ids.size()) + ")";
+        final List<IndexRow> rows = readRows(entityType, whereClause, ids.toArray());
+        final Set<Long> touched = new LinkedHashSet<>(ids);
+        rows.forEach(row -> touched.add(row.id));
+        deleteEntries(entityType, touched);
+        insertEntries(entityType, rows);
+    }
+
+    @Override
+    @Transactional
+    public void reindexClient(final Long clientId) {
+        for (SearchIndexEntityType entityType : SearchIndexEntityType.values()) {
+            if (entityType.getClientColumn() == null) {
+                continue;
+            }
+            final List<IndexRow> rows = readRows(entityType, " where " + entityType.getClientColumn() + " = ?", clientId);
+            final Set<Long> touched = new LinkedHashSet<>();
+            if (entityType == SearchIndexEntityType.CLIENT) {
+                // a deleted client has no source row left but still has to leave the index
+                touched.add(clientId);
+            }
+            rows.forEach(row -> touched.add(row.id));
+            deleteEntries(entityType, touched);
+            insertEntries(entityType, rows);
+        }
+    }
+
+    @Override
+    public void reindexOffice(final Long officeId) {
+        // the moved office and every office below it, whatever hierarchy they had before
+        final String subtree = "%." + officeId + ".%";
+        for (SearchIndexEntityType entityType : SearchIndexEntityType.values()) {
+            Long afterId = 0L;
+            while (afterId != null) {
+                final long from = afterId;
+                afterId = this.afterCommitTransactionTemplate.execute(status -> reindexOfficeBatch(entityType, subtree, from));
+            }
+        }
+    }
+
+    private Long reindexOfficeBatch(final SearchIndexEntityType entityType, final String subtree, final long afterId) {
+        final List<IndexRow> rows = readRows(entityType, " where o.hierarchy like ? and " + entityType.getIdColumn() + " > ? order by "
+                + entityType.getIdColumn() + " " + this.sqlGenerator.limit(OFFICE_REINDEX_BATCH_SIZE), subtree, afterId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        deleteEntries(entityType, rows.stream().map(row -> row.id).collect(Collectors.toList()));
+        insertEntries(entityType, rows);
+        return rows.size() < OFFICE_REINDEX_BATCH_SIZE ? null : rows.get(rows.size() - 1).id;
+    }
+
+    @Override
+    @Transactional
+    public Long rebuildBatch(final SearchIndexEntityType entityType, final Long afterId, final int batchSize) {
+        final long from = afterId == null ? 0L : afterId;
+        final List<IndexRow> rows = readRows(entityType, " where " + entityType.getIdColumn() + " > ? order by " + entityType.getIdColumn()
+                + " " + this.sqlGenerator.limit(batchSize), from);
+        if (rows.isEmpty()) {
+            // entries past the last source row belong to deleted entities
+            deleteEntryRange(entityType, from, null);
+            return null;
+        }
+        final Long lastId = rows.get(rows.size() - 1).id;
+        deleteEntryRange(entityType, from, lastId);
+        insertEntries(entityType, rows);
+        return lastId;
+    }
+
+    private Runnable reindexTask(final String entityName, final String actionName, final CommandProcessingResult result) {
+        switch (entityName) {
+            case "CLIENT":
+                final Long clientId = ObjectUtils.firstNonNull(result.getClientId(), result.resourceId());
+                return clientId == null ? null : inNewTransaction(() -> reindexClient(clientId));
+            case "GROUP":
+            case "CENTER":
+                return reindexTask(SearchIndexEntityType.GROUP, ObjectUtils.firstNonNull(result.getGroupId(), result.resourceId()));
+            case "CLIENTIDENTIFIER":
+                return reindexTask(SearchIndexEntityType.CLIENTIDENTIFIER, result.resourceId());
+            case "LOAN":
+            case "GLIMLOAN":
+                return INDEXED_ACTIONS.contains(actionName)
+                        ? reindexTask(SearchIndexEntityType.LOAN, ObjectUtils.firstNonNull(result.getLoanId(), result.resourceId()))
+                        : null;
+            case "SAVINGSACCOUNT":
+            case "FIXEDDEPOSITACCOUNT":
+            case "RECURRINGDEPOSITACCOUNT":
+            case "GSIMACCOUNT":
+                return INDEXED_ACTIONS.contains(actionName)
+                        ? reindexTask(SearchIndexEntityType.SAVING, ObjectUtils.firstNonNull(result.getSavingsId(), result.resourceId()))
+                        : null;
+            case "SHAREACCOUNT":
+                return INDEXED_ACTIONS.contains(actionName) ? reindexTask(SearchIndexEntityType.SHARE, result.resourceId()) : null;
+            case "OFFICE":
+                // only a new parent changes the hierarchy the entries of the office (and of the offices below) hold
+                final Long officeId = ObjectUtils.firstNonNull(result.getOfficeId(), result.resourceId());
+                return officeId == null || result.getChanges() == null || !result.getChanges().containsKey("parentId") ? null
+                        : () -> reindexOffice(officeId);
+            default:
+                return null;
+        }
+    }
+
+    private Runnable reindexTask(final SearchIndexEntityType entityType, final Long id) {
+        return id == null ? null : inNewTransaction(() -> reindex(entityType, List.of(id)));
+    }
+
+    private Runnable inNewTransaction(final Runnable task) {
+        return () -> this.afterCommitTransactionTemplate.executeWithoutResult(status -> task.run());
+    }
+
+    private void runReindexTask(final String entityName, final Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // the command is already committed, the next index rebuild repairs the entry
+            log.warn("Could not refresh the search index after a {} command", entityName, e);
+        }
+    }
+
+    private List<IndexRow> readRows(final SearchIndexEntityType entityType, final String whereClause, final Object... args) {
+        return this.jdbcTemplate.query(entityType.getSourceSql() + whereClause, (rs, rowNum) -> mapRow(entityType, rs), args); // NOSONAR
+    }
+
+    private void deleteEntries(final SearchIndexEntityType entityType, final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        final String where = " where entity_type = ? and entity_id in (" + placeholders(ids.size()) + ")";
+        final List<Object> args = new ArrayList<>(ids.size() + 1);
+        args.add(entityType.name());
+        args.addAll(ids);
+        this.jdbcTemplate.update("delete from m_search_index_term" + where, args.toArray()); // NOSONAR
+        this.jdbcTemplate.update("delete from m_search_index_entry" + where, args.toArray()); // NOSONAR
+    }
+
+    private void deleteEntryRange(final SearchIndexEntityType entityType, final long afterId, final Long toId) {
+        final String where = " where entity_type = ? and entity_id > ?" + (toId == null ? "" : " and entity_id <= ?");
+        final Object[] args = toId == null ? new Object[] { entityType.name(), afterId }
+                : new Object[] { entityType.name(), afterId, toId };
+        this.jdbcTemplate.update("delete from m_search_index_term" + where, args); // NOSONAR
+        this.jdbcTemplate.update("delete from m_search_index_entry" + where, args); // NOSONAR
+    }
+
+    private void insertEntries(final SearchIndexEntityType entityType, final List<IndexRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        final List<Object[]> entries = new ArrayList<>(rows.size());
+        final List<Object[]> terms = new ArrayList<>();
+        for (IndexRow row : rows) {
+            entries.add(new Object[] { entityType.name(), row.id, row.hierarchy });
+            for (String term : row.terms) {
+                terms.add(new Object[] { term, entityType.name(), row.id });
+            }
+        }
+        this.jdbcTemplate.batchUpdate("insert into m_search_index_entry (entity_type, entity_id, office_hierarchy) values (?, ?, ?)",
+                entries);
+        if (!terms.isEmpty()) {
+            this.jdbcTemplate.batchUpdate("insert into m_search_index_term (term, entity_type, entity_id) values (?, ?, ?)", terms);
+        }
+    }
+
+    private static IndexRow mapRow(final SearchIndexEntityType entityType, final ResultSet rs) throws SQLException {
+        final long id = rs.getLong(1);
+        final Set<String> terms = new HashSet<>();
+        final int columnCount = rs.getMetaData().getColumnCount();
+        for (int column = 3; column <= columnCount; column++) {
+            addTerms(terms, rs.getString(column));
+        }
+        if (entityType.isIdSearchable()) {
+            addTerms(terms, String.valueOf(id));
+        }
+        return new IndexRow(id, rs.getString(2), terms);
+    }
+
+    /**
+     * Adds the trigrams of a value, lower cased the same way the search query is.
+     */
+    private static void addTerms(final Set<String> terms, final String value) {
+        if (value == null) {
+            return;
+        }
+        final int[] codePoints = value.toLowerCase().codePoints().toArray();
+        for (int i = 0; i + TERM_LENGTH <= codePoints.length; i++) {
+            terms.add(new String(codePoints, i, TERM_LENGTH));
+        }
+    }
+
+    private static String placeholders(final int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static final class IndexRow {
+
+        private final Long id;
+        private final String hierarchy;
+        private final Set<String> terms;
+
+        private IndexRow(final Long id, final String hierarchy, final Set<String> terms) {
+            this.id = id;
+            this.hierarchy = hierarchy;
+            this.terms = terms;
+        }
+    }
+}
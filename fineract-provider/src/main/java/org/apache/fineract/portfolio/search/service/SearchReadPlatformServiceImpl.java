@@ -26,11 +26,13 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.fineract.infrastructure.core.data.EnumOptionData;
@@ -56,6 +58,7 @@ import org.apache.fineract.portfolio.search.data.AdHocQuerySearchConditions;
 import org.apache.fineract.portfolio.search.data.AdHocSearchQueryData;
 import org.apache.fineract.portfolio.search.data.SearchConditions;
 import org.apache.fineract.portfolio.search.data.SearchData;
+import org.apache.fineract.portfolio.search.data.SearchIndexEntityType;
 import org.apache.fineract.useradministration.domain.AppUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.RowMapper;
@@ -70,15 +73,17 @@ public class SearchReadPlatformServiceImpl implements SearchReadPlatformService
     private final PlatformSecurityContext context;
     private final LoanProductReadPlatformService loanProductReadPlatformService;
     private final OfficeReadPlatformService officeReadPlatformService;
+    private final SearchIndexService searchIndexService;
 
     @Autowired
     public SearchReadPlatformServiceImpl(final PlatformSecurityContext context, final NamedParameterJdbcTemplate namedParameterJdbcTemplate,
-            final LoanProductReadPlatformService loanProductReadPlatformService,
-            final OfficeReadPlatformService officeReadPlatformService) {
+            final LoanProductReadPlatformService loanProductReadPlatformService, final OfficeReadPlatformService officeReadPlatformService,
+            final SearchIndexService searchIndexService) {
         this.context = context;
         this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
         this.loanProductReadPlatformService = loanProductReadPlatformService;
         this.officeReadPlatformService = officeReadPlatformService;
+        this.searchIndexService = searchIndexService;
     }
 
     @Override
@@ -95,63 +100,102 @@ public class SearchReadPlatformServiceImpl implements SearchReadPlatformService
         } else {
             params.addValue("search", "%" + searchConditions.getSearchQuery().toLowerCase() + "%");
         }
-        return this.namedParameterJdbcTemplate.query(rm.searchSchema(searchConditions), params, rm);
+
+        // the index only narrows the rows down, the match conditions below are still applied to the candidates
+        final Map<SearchIndexEntityType, Set<Long>> candidates = this.searchIndexService
+                .findCandidates(searchedEntityTypes(searchConditions), searchConditions.getSearchQuery(), hierarchy);
+        if (candidates != null) {
+            if (candidates.isEmpty()) {
+                return Collections.emptyList();
+            }
+            for (Map.Entry<SearchIndexEntityType, Set<Long>> entry : candidates.entrySet()) {
+                params.addValue(candidateParameterName(entry.getKey()), entry.getValue());
+            }
+        }
+        return this.namedParameterJdbcTemplate.query(rm.searchSchema(searchConditions, candidates), params, rm);
+    }
+
+    private static List<SearchIndexEntityType> searchedEntityTypes(final SearchConditions searchConditions) {
+        final List<SearchIndexEntityType> entityTypes = new ArrayList<>();
+        if (searchConditions.isClientSearch()) {
+            entityTypes.add(SearchIndexEntityType.CLIENT);
+        }
+        if (searchConditions.isLoanSeach()) {
+            entityTypes.add(SearchIndexEntityType.LOAN);
+        }
+        if (searchConditions.isSavingSeach()) {
+            entityTypes.add(SearchIndexEntityType.SAVING);
+        }
+        if (searchConditions.isShareSeach()) {
+            entityTypes.add(SearchIndexEntityType.SHARE);
+        }
+        if (searchConditions.isClientIdentifierSearch()) {
+            entityTypes.add(SearchIndexEntityType.CLIENTIDENTIFIER);
+        }
+        if (searchConditions.isGroupSearch()) {
+            entityTypes.add(SearchIndexEntityType.GROUP);
+        }
+        return entityTypes;
+    }
+
+    private static String candidateParameterName(final SearchIndexEntityType entityType) {
+        return "candidates" + entityType.name();
     }
 
     private static final class SearchMapper implements RowMapper<SearchData> {
 
-        public String searchSchema(final SearchConditions searchConditions) {
+        public String searchSchema(final SearchConditions searchConditions, final Map<SearchIndexEntityType, Set<Long>> candidates) {
 
             final String union = " union ";
             final String clientMatchSql = " (select 'CLIENT' as entityType, c.id as entityId, c.display_name as entityName, c.external_id as entityExternalId, c.account_no as entityAccountNo "
                     + " , c.office_id as parentId, o.name as parentName, c.mobile_no as entityMobileNo,c.status_enum as entityStatusEnum, null as subEntityType, null as parentType "
-                    + " from m_client c join m_office o on o.id = c.office_id where o.hierarchy like :hierarchy and (lower(c.account_no) like :search or lower(c.display_name) like :search or lower(c.external_id) like :search or lower(c.mobile_no) like :search)) ";
+                    + " from m_client c join m_office o on o.id = c.office_id where o.hierarchy like :hierarchy and (lower(c.account_no) like :search or lower(c.display_name) like :search or lower(c.external_id) like :search or lower(c.mobile_no) like :search) ";
 
             final String loanMatchSql = " (select 'LOAN' as entityType, l.id as entityId, pl.name as entityName, l.external_id as entityExternalId, l.account_no as entityAccountNo "
                     + " , coalesce(c.id,g.id) as parentId, coalesce(c.display_name,g.display_name) as parentName, null as entityMobileNo, l.loan_status_id as entityStatusEnum, CAST(NULL AS bigint) as subEntityType, CASE WHEN g.id is null THEN 'client' ELSE 'group' END as parentType "
-                    + " from m_loan l left join m_client c on l.client_id = c.id left join m_group g ON l.group_id = g.id left join m_office o on o.id = c.office_id left join m_product_loan pl on pl.id=l.product_id where (o.hierarchy IS NULL OR o.hierarchy like :hierarchy) and (l.account_no like :search or l.external_id like :search)) ";
+                    + " from m_loan l left join m_client c on l.client_id = c.id left join m_group g ON l.group_id = g.id left join m_office o on o.id = c.office_id left join m_product_loan pl on pl.id=l.product_id where (o.hierarchy IS NULL OR o.hierarchy like :hierarchy) and (l.account_no like :search or l.external_id like :search) ";
 
             final String savingMatchSql = " (select 'SAVING' as entityType, s.id as entityId, sp.name as entityName, s.external_id as entityExternalId, s.account_no as entityAccountNo "
                     + " , coalesce(c.id,g.id) as parentId, coalesce(c.display_name,g.display_name) as parentName, null as entityMobileNo, s.status_enum as entityStatusEnum, s.deposit_type_enum as subEntityType, CASE WHEN g.id is null THEN 'client' ELSE 'group' END as parentType "
                     + " from m_savings_account s left join m_client c on s.client_id = c.id left join m_group g ON s.group_id = g.id left join m_office o on o.id = c.office_id left join m_savings_product sp on sp.id=s.product_id "
-                    + " where (o.hierarchy IS NULL OR o.hierarchy like :hierarchy) and (lower(s.account_no) like :search or lower(s.external_id) like :search)) ";
+                    + " where (o.hierarchy IS NULL OR o.hierarchy like :hierarchy) and (lower(s.account_no) like :search or lower(s.external_id) like :search) ";
 
             final String shareMatchSql = " (select 'SHARE' as entityType, s.id as entityId, sp.name as entityName, s.external_id as entityExternalId, s.account_no as entityAccountNo "
                     + " , c.id as parentId, c.display_name as parentName, null as entityMobileNo, s.status_enum as entityStatusEnum, null as subEntityType, 'client' as parentType "
                     + " from m_share_account s left join m_client c on s.client_id = c.id left join m_office o on o.id = c.office_id left join m_share_product sp on sp.id=s.product_id "
-                    + " where (o.hierarchy IS NULL OR o.hierarchy like :hierarchy) and (lower(s.account_no) like :search or lower(s.external_id) like :search)) ";
+                    + " where (o.hierarchy IS NULL OR o.hierarchy like :hierarchy) and (lower(s.account_no) like :search or lower(s.external_id) like :search) ";
 
             final String clientIdentifierMatchSql = " (select 'CLIENTIDENTIFIER' as entityType, ci.id as entityId, ci.document_key as entityName, "
                     + " null as entityExternalId, null as entityAccountNo, c.id as parentId, c.display_name as parentName,null as entityMobileNo, c.status_enum as entityStatusEnum, null as subEntityType, null as parentType "
                     + " from m_client_identifier ci join m_client c on ci.client_id=c.id join m_office o on o.id = c.office_id "
-                    + " where o.hierarchy like :hierarchy and lower(ci.document_key) like :search ) ";
+                    + " where o.hierarchy like :hierarchy and lower(ci.document_key) like :search ";
             final String groupMatchSql = " (select CASE WHEN g.level_id=1 THEN 'CENTER' ELSE 'GROUP' END as entityType, g.id as entityId, g.display_name as entityName, g.external_id as entityExternalId, g.account_no as entityAccountNo "
                     + " , g.office_id as parentId, o.name as parentName, null as entityMobileNo, g.status_enum as entityStatusEnum, null as subEntityType, null as parentType "
-                    + " from m_group g join m_office o on o.id = g.office_id where o.hierarchy like :hierarchy and (lower(g.account_no) like :search or lower(g.display_name) like :search or lower(g.external_id) like :search or CAST(g.id as varchar(10)) like :search )) ";
+                    + " from m_group g join m_office o on o.id = g.office_id where o.hierarchy like :hierarchy and (lower(g.account_no) like :search or lower(g.display_name) like :search or lower(g.external_id) like :search or CAST(g.id as varchar(10)) like :search ) ";
             final StringBuilder sql = new StringBuilder();
 
             if (searchConditions.isClientSearch()) {
-                sql.append(clientMatchSql).append(union);
+                appendBranch(sql, clientMatchSql, "c.id", SearchIndexEntityType.CLIENT, candidates, union);
             }
 
             if (searchConditions.isLoanSeach()) {
-                sql.append(loanMatchSql).append(union);
+                appendBranch(sql, loanMatchSql, "l.id", SearchIndexEntityType.LOAN, candidates, union);
             }
 
             if (searchConditions.isSavingSeach()) {
-                sql.append(savingMatchSql).append(union);
+                appendBranch(sql, savingMatchSql, "s.id", SearchIndexEntityType.SAVING, candidates, union);
             }
 
             if (searchConditions.isShareSeach()) {
-                sql.append(shareMatchSql).append(union);
+                appendBranch(sql, shareMatchSql, "s.id", SearchIndexEntityType.SHARE, candidates, union);
             }
 
             if (searchConditions.isClientIdentifierSearch()) {
-                sql.append(clientIdentifierMatchSql).append(union);
+                appendBranch(sql, clientIdentifierMatchSql, "ci.id", SearchIndexEntityType.CLIENTIDENTIFIER, candidates, union);
             }
 
             if (searchConditions.isGroupSearch()) {
-                sql.append(groupMatchSql).append(union);
+                appendBranch(sql, groupMatchSql, "g.id", SearchIndexEntityType.GROUP, candidates, union);
             }
 
             sql.replace(sql.lastIndexOf(union), sql.length(), "");
@@ -160,6 +204,20 @@ public class SearchReadPlatformServiceImpl implements SearchReadPlatformService
             return sql.toString();
         }
 
+        /**
+         * Appends a match branch, restricted to the index candidates of its entity type when the index answered the
+         * search. A branch without candidates cannot match anything and is left out.
+         */
+        private static void appendBranch(final StringBuilder sql, final String matchSql, final String idColumn,
+                final SearchIndexEntityType entityType, final Map<SearchIndexEntityType, Set<Long>> candidates, final String union) {
+            if (candidates == null) {
+                sql.append(matchSql).append(") ").append(union);
+            } else if (candidates.containsKey(entityType)) {
+                sql.append(matchSql).append(" and ").append(idColumn).append(" in (:").append(candidateParameterName(entityType))
+                        .append(")) ").append(union);
+            }
+        }
+
         @Override
         public SearchData mapRow(final ResultSet rs, @SuppressWarnings("unused") final int rowNum) throws SQLException {
             final Long entityId = JdbcSupport.getLong(rs, "entityId");
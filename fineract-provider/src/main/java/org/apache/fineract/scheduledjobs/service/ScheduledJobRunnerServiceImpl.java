@@ -18,27 +18,21 @@
  */
 package org.apache.fineract.scheduledjobs.service;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.security.SecureRandom;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import org.apache.fineract.accounting.glaccount.domain.TrialBalance;
-import org.apache.fineract.accounting.glaccount.domain.TrialBalanceRepositoryWrapper;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.apache.fineract.infrastructure.core.config.FineractProperties;
 import org.apache.fineract.infrastructure.core.data.ApiParameterError;
-import org.apache.fineract.infrastructure.core.domain.FineractContext;
 import org.apache.fineract.infrastructure.core.exception.PlatformApiDataValidationException;
 import org.apache.fineract.infrastructure.core.service.DateUtils;
 import org.apache.fineract.infrastructure.core.service.RoutingDataSourceServiceFactory;
@@ -68,18 +62,20 @@ import org.apache.fineract.portfolio.shareaccounts.service.ShareAccountSchedular
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.CannotAcquireLockException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.CollectionUtils;
 
 @Service(value = "scheduledJobRunnerService")
 public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService {
 
     private static final Logger LOG = LoggerFactory.getLogger(ScheduledJobRunnerServiceImpl.class);
-    private final int queueSize = 1;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final LocalDate TRIAL_BALANCE_START_DATE = LocalDate.of(2010, 1, 1);
+    private static final int TRIAL_BALANCE_BATCH_DAYS = 31;
 
     private final RoutingDataSourceServiceFactory dataSourceServiceFactory;
     private final SavingsAccountWritePlatformService savingsAccountWritePlatformService;
@@ -88,7 +84,6 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
     private final DepositAccountWritePlatformService depositAccountWritePlatformService;
     private final ShareAccountDividendReadPlatformService shareAccountDividendReadPlatformService;
     private final ShareAccountSchedularService shareAccountSchedularService;
-    private final TrialBalanceRepositoryWrapper trialBalanceRepositoryWrapper;
     private final JobRegisterService jobRegisterService;
     private final ScheduledJobDetailRepository scheduledJobDetailsRepository;
     private final FineractProperties fineractProperties;
@@ -97,7 +92,6 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
     private final SavingsAccountReadPlatformService savingsAccountReadPlatformService;
     private final JobExecuter jobExecuter;
     private final SavingsAccountRepositoryWrapper savingAccountRepositoryWrapper;
-    private final ApplicationContext applicationContext;
 
     @Autowired
     public ScheduledJobRunnerServiceImpl(final RoutingDataSourceServiceFactory dataSourceServiceFactory,
@@ -106,12 +100,11 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
             final DepositAccountReadPlatformService depositAccountReadPlatformService,
             final DepositAccountWritePlatformService depositAccountWritePlatformService,
             final ShareAccountDividendReadPlatformService shareAccountDividendReadPlatformService,
-            final ShareAccountSchedularService shareAccountSchedularService,
-            final TrialBalanceRepositoryWrapper trialBalanceRepositoryWrapper, @Lazy final JobRegisterService jobRegisterService,
+            final ShareAccountSchedularService shareAccountSchedularService, @Lazy final JobRegisterService jobRegisterService,
             final ScheduledJobDetailRepository scheduledJobDetailsRepository, final FineractProperties fineractProperties,
             DatabaseSpecificSQLGenerator sqlGenerator, DatabaseTypeResolver databaseTypeResolver,
             final SavingsAccountReadPlatformService savingsAccountReadPlatformService, final JobExecuter jobExecuter,
-            SavingsAccountRepositoryWrapper savingAccountRepositoryWrapper, final ApplicationContext applicationContext) {
+            SavingsAccountRepositoryWrapper savingAccountRepositoryWrapper) {
         this.dataSourceServiceFactory = dataSourceServiceFactory;
         this.savingsAccountWritePlatformService = savingsAccountWritePlatformService;
         this.savingsAccountChargeReadPlatformService = savingsAccountChargeReadPlatformService;
@@ -119,7 +112,6 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
         this.depositAccountWritePlatformService = depositAccountWritePlatformService;
         this.shareAccountDividendReadPlatformService = shareAccountDividendReadPlatformService;
         this.shareAccountSchedularService = shareAccountSchedularService;
-        this.trialBalanceRepositoryWrapper = trialBalanceRepositoryWrapper;
         this.jobRegisterService = jobRegisterService;
         this.scheduledJobDetailsRepository = scheduledJobDetailsRepository;
         this.fineractProperties = fineractProperties;
@@ -128,7 +120,6 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
         this.savingsAccountReadPlatformService = savingsAccountReadPlatformService;
         this.jobExecuter = jobExecuter;
         this.savingAccountRepositoryWrapper = savingAccountRepositoryWrapper;
-        this.applicationContext = applicationContext;
     }
 
     @Override
@@ -161,8 +152,21 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
     public void applyDueChargesForSavings() throws JobExecutionException {
         final Collection<SavingsAccountAnnualFeeData> chargesDueData = this.savingsAccountChargeReadPlatformService
                 .retrieveChargesWithDue();
+        // charges of one account are applied in order by the same worker, accounts are processed in parallel
+        final Map<Long, List<SavingsAccountAnnualFeeData>> chargesDueByAccount = chargesDueData.stream()
+                .collect(Collectors.groupingBy(SavingsAccountAnnualFeeData::getAccountId, LinkedHashMap::new, Collectors.toList()));
+        try {
+            this.jobExecuter.execute(JobName.PAY_DUE_SAVINGS_CHARGES.name(), chargesDueByAccount.values(), JobExecuter.Workload.IO_BOUND,
+                    this::applyDueChargesForSavings);
+        } finally {
+            LOG.info("{}: Records affected by applyDueChargesForSavings: {}", ThreadLocalContextUtil.getTenant().getName(),
+                    chargesDueData.size());
+        }
+    }
+
+    private void applyDueChargesForSavings(final List<SavingsAccountAnnualFeeData> accountChargesDue) throws JobExecutionException {
         List<Throwable> exceptions = new ArrayList<>();
-        for (final SavingsAccountAnnualFeeData savingsAccountReference : chargesDueData) {
+        for (final SavingsAccountAnnualFeeData savingsAccountReference : accountChargesDue) {
             try {
                 this.savingsAccountWritePlatformService.applyChargeDue(savingsAccountReference.getId(),
                         savingsAccountReference.getAccountId());
@@ -178,8 +182,6 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
                 LOG.error("Apply Charges due for savings failed for account: {}", savingsAccountReference.getAccountNo(), ex);
             }
         }
-        LOG.info("{}: Records affected by applyDueChargesForSavings: {}", ThreadLocalContextUtil.getTenant().getName(),
-                chargesDueData.size());
         if (!exceptions.isEmpty()) {
             throw new JobExecutionException(exceptions);
         }
@@ -348,60 +350,47 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
     @CronTarget(jobName = JobName.UPDATE_TRIAL_BALANCE_DETAILS)
     public void updateTrialBalanceDetails() throws JobExecutionException {
         final JdbcTemplate jdbcTemplate = new JdbcTemplate(this.dataSourceServiceFactory.determineDataSourceService().retrieveDataSource());
-        final StringBuilder tbGapSqlBuilder = new StringBuilder(500);
-        tbGapSqlBuilder.append("select distinct(je.transaction_date) ").append("from acc_gl_journal_entry je ")
-                .append("where je.transaction_date > (select coalesce(MAX(created_date),'2010-01-01') from m_trial_balance)");
-
-        final List<LocalDate> tbGaps = jdbcTemplate.queryForList(tbGapSqlBuilder.toString(), LocalDate.class);
+        // only days that are over are summarised
+        final LocalDate lastDate = DateUtils.getBusinessLocalDate().minusDays(1);
+        final List<Long> officeIds = jdbcTemplate.queryForList("select id from m_office order by id", Long.class);
+        this.jobExecuter.execute(JobName.UPDATE_TRIAL_BALANCE_DETAILS.name(), officeIds, JobExecuter.Workload.IO_BOUND,
+                officeId -> updateTrialBalanceDetails(jdbcTemplate, officeId, lastDate));
+    }
 
-        for (LocalDate tbGap : tbGaps) {
-            int days = Math.toIntExact(ChronoUnit.DAYS.between(tbGap, DateUtils.getBusinessLocalDate()));
-            if (days < 1) {
-                continue;
-            }
-            final StringBuilder sqlBuilder = new StringBuilder(600);
-            sqlBuilder.append("Insert Into m_trial_balance(office_id, account_id, Amount, entry_date, created_date,closing_balance) ")
-                    .append("Select je.office_id, je.account_id, SUM(CASE WHEN je.type_enum=1 THEN (-1) * je.amount ELSE je.amount END) ")
-                    .append("as Amount, Date(je.entry_date) as Entry_Date, je.transaction_date as Created_Date,sum(je.amount) as closing_balance ")
-                    .append("from acc_gl_journal_entry je WHERE je.transaction_date = ? ")
-                    .append("group by je.account_id, je.office_id, je.transaction_date, Date(je.entry_date)");
-
-            final int result = jdbcTemplate.update(sqlBuilder.toString(), tbGap);
-            LOG.info("{}: Records affected by updateTrialBalanceDetails: {}", ThreadLocalContextUtil.getTenant().getName(), result);
+    /**
+     * Appends the trial balance rows of one office up to the given date. The latest <code>created_date</code> of the office
+     * is the watermark; days after it are summarised in windows of {@link #TRIAL_BALANCE_BATCH_DAYS} days, one
+     * INSERT..SELECT per window that computes the closing balances with a running sum on top of the sum of the amounts of
+     * the earlier rows of each account. The stored closing balances are not read, rows written by the old job hold the
+     * unsigned day total there. Each window commits on its own, so a failed run resumes after the last completed window.
+     */
+    void updateTrialBalanceDetails(final JdbcTemplate jdbcTemplate, final Long officeId, final LocalDate lastDate) {
+        final LocalDate watermark = jdbcTemplate.queryForObject("select max(created_date) from m_trial_balance where office_id = ?",
+                LocalDate.class, officeId);
+        final LocalDate firstDate = jdbcTemplate.queryForObject(
+                "select min(transaction_date) from acc_gl_journal_entry where office_id = ? and transaction_date > ?", LocalDate.class,
+                officeId, watermark == null ? TRIAL_BALANCE_START_DATE : watermark);
+        if (firstDate == null || firstDate.isAfter(lastDate)) {
+            return;
         }
-
-        // Updating closing balance
-        String distinctOfficeQuery = "select distinct(office_id) from m_trial_balance where closing_balance is null group by office_id";
-        final List<Long> officeIds = jdbcTemplate.queryForList(distinctOfficeQuery, Long.class);
-
-        for (Long officeId : officeIds) {
-            String distinctAccountQuery = "select distinct(account_id) from m_trial_balance where office_id=? and closing_balance is null group by account_id";
-            final List<Long> accountIds = jdbcTemplate.queryForList(distinctAccountQuery, Long.class, officeId);
-            for (Long accountId : accountIds) {
-                final String closingBalanceQuery = "select closing_balance from m_trial_balance where office_id=? and account_id=? and closing_balance "
-                        + "is not null order by created_date desc, entry_date desc limit 1";
-                List<BigDecimal> closingBalanceData = jdbcTemplate.queryForList(closingBalanceQuery, BigDecimal.class, officeId, accountId);
-                List<TrialBalance> tbRows = this.trialBalanceRepositoryWrapper.findNewByOfficeAndAccount(officeId, accountId);
-                BigDecimal closingBalance = null;
-                if (!CollectionUtils.isEmpty(closingBalanceData)) {
-                    closingBalance = closingBalanceData.get(0);
-                }
-                if (CollectionUtils.isEmpty(closingBalanceData)) {
-                    closingBalance = BigDecimal.ZERO;
-                    for (TrialBalance row : tbRows) {
-                        closingBalance = closingBalance.add(row.getAmount());
-                        row.setClosingBalance(closingBalance);
-                    }
-                } else {
-                    for (TrialBalance tbRow : tbRows) {
-                        closingBalance = closingBalance.add(tbRow.getAmount());
-                        tbRow.setClosingBalance(closingBalance);
-                    }
-                }
-                this.trialBalanceRepositoryWrapper.save(tbRows);
-            }
+        final String sql = "insert into m_trial_balance (office_id, account_id, amount, entry_date, created_date, closing_balance) "
+                + "select d.office_id, d.account_id, d.amount, d.entry_date, d.created_date, coalesce(ob.opening_balance, 0) "
+                + "+ sum(d.amount) over (partition by d.account_id order by d.created_date, d.entry_date rows unbounded preceding) "
+                + "from (select je.office_id, je.account_id, "
+                + "sum(case when je.type_enum = 1 then (-1) * je.amount else je.amount end) as amount, "
+                + "Date(je.entry_date) as entry_date, je.transaction_date as created_date from acc_gl_journal_entry je "
+                + "where je.office_id = ? and je.transaction_date >= ? and je.transaction_date <= ? "
+                + "group by je.office_id, je.account_id, je.transaction_date, Date(je.entry_date)) d "
+                + "left join (select account_id, sum(amount) as opening_balance from m_trial_balance "
+                + "where office_id = ? and created_date < ? group by account_id) ob on ob.account_id = d.account_id";
+        int inserted = 0;
+        for (LocalDate fromDate = firstDate; !fromDate.isAfter(lastDate); fromDate = fromDate.plusDays(TRIAL_BALANCE_BATCH_DAYS)) {
+            final LocalDate toDate = fromDate.plusDays(TRIAL_BALANCE_BATCH_DAYS - 1L).isAfter(lastDate) ? lastDate
+                    : fromDate.plusDays(TRIAL_BALANCE_BATCH_DAYS - 1L);
+            inserted += jdbcTemplate.update(sql, officeId, fromDate, toDate, officeId, fromDate);
         }
-
+        LOG.info("{}: Records affected by updateTrialBalanceDetails for office {}: {}", ThreadLocalContextUtil.getTenant().getName(),
+                officeId, inserted);
     }
 
     @Override
@@ -419,117 +408,75 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
     @Override
     @CronTarget(jobName = JobName.POST_ACCRUAL_INTEREST_FOR_SAVINGS)
     public void postAccrualInterestForSavings(Map<String, String> jobParameters) throws JobExecutionException {
-
-        final Queue<List<Long>> queue = new ArrayDeque<>();
-        final ApplicationContext applicationContext;
         final int threadPoolSize = Integer.parseInt(jobParameters.get("thread-pool-size"));
         final int batchSize = Integer.parseInt(jobParameters.get("batch-size"));
         final int pageSize = batchSize * threadPoolSize;
-        Long maxSavingsAccountIdInList = 0L;
-
-        final List<Long> activeSavingsAccounts = this.savingsAccountReadPlatformService
-                .retrieveActiveSavingsAccrualAccounts(maxSavingsAccountIdInList, pageSize);
-
-        final ExecutorService executorService = Executors.newFixedThreadPool(threadPoolSize);
-
-        if (activeSavingsAccounts != null && !activeSavingsAccounts.isEmpty()) {
-            queue.add(activeSavingsAccounts.stream().toList());
-            if (!CollectionUtils.isEmpty(queue)) {
-                LOG.info("Starting Post Accrual Interest for Savings");
-                do {
-                    List<Long> queueElement = queue.element();
-                    LOG.info("Post Accrual Interest for Savings- total records in batch - {}", queueElement.size());
-                    maxSavingsAccountIdInList = queueElement.get(queueElement.size() - 1);
-                    postAccrualInterestForSavings(queue.remove(), queue, threadPoolSize, executorService, pageSize,
-                            maxSavingsAccountIdInList);
-                } while (!CollectionUtils.isEmpty(queue));
-            }
-            // shutdown the executor when done
-            executorService.shutdownNow();
-        }
-    }
-
-    private void postAccrualInterestForSavings(List<Long> activeSavingsAccounts, Queue<List<Long>> queue, int threadPoolSize,
-            ExecutorService executorService, int pageSize, Long maxSavingsAccountIdInList) {
-        List<Callable<Void>> posters = new ArrayList<>();
-        int fromIndex = 0;
-        int size = activeSavingsAccounts.size();
-        int batchSize = (int) Math.ceil((double) size / threadPoolSize);
-        if (batchSize == 0) {
-            return;
-        }
-        int toIndex = (batchSize > size - 1) ? size : batchSize;
-        while (toIndex < size && activeSavingsAccounts.get(toIndex - 1).equals(activeSavingsAccounts.get(toIndex))) {
-            toIndex++;
-        }
-        boolean lastBatch = false;
-        int loopCount = size / batchSize + 1;
-
-        FineractContext context = ThreadLocalContextUtil.getContext();
-
-        Callable<Void> fetchData = () -> {
-            ThreadLocalContextUtil.init(context);
-            Long maxId = maxSavingsAccountIdInList;
-            if (!queue.isEmpty()) {
-                maxId = Math.max(maxSavingsAccountIdInList, queue.element().get(queue.element().size() - 1));
-            }
-            while (queue.size() <= queueSize) {
-                LOG.info("Fetching while threads are running!");
-                final List<Long> activeSavingsAccountsNextBatch = this.savingsAccountReadPlatformService
-                        .retrieveActiveSavingsAccrualAccounts(maxId, pageSize);
-
-                if (activeSavingsAccountsNextBatch == null || activeSavingsAccountsNextBatch.isEmpty()) {
-                    break;
-                }
-                maxId = activeSavingsAccountsNextBatch.get(activeSavingsAccountsNextBatch.size() - 1);
-                queue.add(activeSavingsAccountsNextBatch);
+        final Integer maxNumberOfRetries = ThreadLocalContextUtil.getTenant().getConnection().getMaxRetriesOnDeadlock();
+        final Integer maxIntervalBetweenRetries = ThreadLocalContextUtil.getTenant().getConnection().getMaxIntervalBetweenRetries();
+        final LocalDate postingDate = DateUtils.getLocalDateOfTenant();
+        final List<Throwable> errors = new ArrayList<>();
+
+        LOG.info("Starting Post Accrual Interest for Savings");
+        List<Long> activeSavingsAccounts = this.savingsAccountReadPlatformService.retrieveActiveSavingsAccrualAccounts(0L, pageSize);
+        while (activeSavingsAccounts != null && !activeSavingsAccounts.isEmpty()) {
+            LOG.info("Post Accrual Interest for Savings- total records in batch - {}", activeSavingsAccounts.size());
+            // the page can repeat an id, every account must be posted by exactly one worker
+            final Set<Long> savingsAccountIds = new LinkedHashSet<>(activeSavingsAccounts);
+            savingsAccountIds.remove(0L);
+            try {
+                this.jobExecuter.execute(JobName.POST_ACCRUAL_INTEREST_FOR_SAVINGS.name(), savingsAccountIds,
+                        JobExecuter.Workload.IO_BOUND, threadPoolSize, savingsAccountId -> postAccrualInterest(savingsAccountId,
+                                postingDate, maxNumberOfRetries, maxIntervalBetweenRetries));
+            } catch (JobExecutionException e) {
+                errors.addAll(e.getCauses());
             }
-            return null;
-        };
-        posters.add(fetchData);
-
-        for (long i = 0; i < loopCount; i++) {
-            List<Long> subList = safeSubList(activeSavingsAccounts, fromIndex, toIndex);
-            AccrualInterestForSavingsPoster poster = (AccrualInterestForSavingsPoster) applicationContext
-                    .getBean("accrualInterestForSavingsPoster");
-            poster.setSavingsAccountIds(subList);
-            poster.setSavingsAccountWritePlatformService(this.savingsAccountWritePlatformService);
-            poster.setContext(ThreadLocalContextUtil.getContext());
-
-            posters.add(poster);
-            if (lastBatch) {
+            if (Thread.currentThread().isInterrupted()) {
                 break;
             }
-            if (toIndex + batchSize > size - 1) {
-                lastBatch = true;
-            }
-            fromIndex = fromIndex + (toIndex - fromIndex);
-            toIndex = (toIndex + batchSize > size - 1) ? size : toIndex + batchSize;
-            while (toIndex < size && activeSavingsAccounts.get(toIndex - 1).equals(activeSavingsAccounts.get(toIndex))) {
-                toIndex++;
-            }
+            final Long maxSavingsAccountIdInList = activeSavingsAccounts.get(activeSavingsAccounts.size() - 1);
+            activeSavingsAccounts = this.savingsAccountReadPlatformService.retrieveActiveSavingsAccrualAccounts(maxSavingsAccountIdInList,
+                    pageSize);
         }
-        try {
-            List<Future<Void>> responses = executorService.invokeAll(posters);
-            Long maxId = maxSavingsAccountIdInList;
-            if (!queue.isEmpty()) {
-                maxId = Math.max(maxSavingsAccountIdInList, queue.element().get(queue.element().size() - 1));
-            }
-            while (queue.size() <= queueSize) {
-                LOG.info("Fetching while threads are running!..:: this is not supposed to run........");
-                activeSavingsAccounts = this.savingsAccountReadPlatformService.retrieveActiveSavingsAccrualAccounts(maxId, pageSize);
+        if (!errors.isEmpty()) {
+            throw new JobExecutionException(errors);
+        }
+    }
 
-                if (activeSavingsAccounts == null || activeSavingsAccounts.isEmpty()) {
-                    break;
+    @SuppressFBWarnings(value = {
+            "DMI_RANDOM_USED_ONLY_ONCE" }, justification = "False positive for random object created and used only once")
+    private void postAccrualInterest(final Long savingsAccountId, final LocalDate postingDate, final Integer maxNumberOfRetries,
+            final Integer maxIntervalBetweenRetries) throws Exception {
+        LOG.info("Processing Accruals Saving ID {}", savingsAccountId);
+        Integer numberOfRetries = 0;
+        while (true) {
+            try {
+                this.savingsAccountWritePlatformService.postAccrualInterest(savingsAccountId, postingDate, false);
+                return;
+            } catch (CannotAcquireLockException | ObjectOptimisticLockingFailureException exception) {
+                LOG.info("Accrual Interest For Savings job has been retried {} time(s)", numberOfRetries);
+                // Fail if the transaction has been retired for
+                // maxNumberOfRetries
+                if (numberOfRetries >= maxNumberOfRetries) {
+                    LOG.error(
+                            "Accrual Interest For Savings job has been retried for the max allowed attempts of {} and will be rolled back",
+                            numberOfRetries);
+                    throw exception;
+                }
+                // Else sleep for a random time (between 1 to 10
+                // seconds) and continue
+                try {
+                    int randomNum = RANDOM.nextInt(maxIntervalBetweenRetries + 1);
+                    Thread.sleep(1000 + (randomNum * 1000));
+                    numberOfRetries = numberOfRetries + 1;
+                } catch (InterruptedException e) {
+                    LOG.error("Accrual Interest For Savings retry failed due to InterruptedException", e);
+                    Thread.currentThread().interrupt();
+                    throw e;
                 }
-                maxId = activeSavingsAccounts.get(activeSavingsAccounts.size() - 1);
-                LOG.info("Add to the Queue");
-                queue.add(activeSavingsAccounts);
+            } catch (Exception e) {
+                LOG.error("Accrual Interest For Savings failed for account {}", savingsAccountId, e);
+                throw e;
             }
-            checkTaskCompletion(responses);
-            LOG.info("Queue size {}", queue.size());
-        } catch (InterruptedException e1) {
-            LOG.error("Interrupted while AddPenalty", e1);
         }
     }
 
@@ -567,39 +514,4 @@ public class ScheduledJobRunnerServiceImpl implements ScheduledJobRunnerService
             throw new JobExecutionException(exceptions);
         }
     }
-
-    private <T> List<T> safeSubList(List<T> list, int fromIndex, int toIndex) {
-        int size = list.size();
-        if (fromIndex >= size || toIndex <= 0 || fromIndex >= toIndex) {
-            return Collections.emptyList();
-        }
-
-        fromIndex = Math.max(0, fromIndex);
-        toIndex = Math.min(size, toIndex);
-
-        return list.subList(fromIndex, toIndex);
-    }
-
-    private void checkTaskCompletion(List<Future<Void>> responses) {
-        try {
-            for (Future<Void> f : responses) {
-                f.get();
-            }
-            boolean allThreadsExecuted;
-            int noOfThreadsExecuted = 0;
-            for (Future<Void> future : responses) {
-                if (future.isDone()) {
-                    noOfThreadsExecuted++;
-                }
-            }
-            allThreadsExecuted = noOfThreadsExecuted == responses.size();
-            if (!allThreadsExecuted) {
-                LOG.error("All threads could not execute.");
-            }
-        } catch (InterruptedException e1) {
-            LOG.error("Interrupted while interest posting entries", e1);
-        } catch (ExecutionException e2) {
-            LOG.error("Execution exception while interest posting entries", e2);
-        }
-    }
 }
@@ -21,6 +21,7 @@ package org.apache.fineract.useradministration.service;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import org.apache.fineract.infrastructure.configuration.domain.ConfigurationSnapshotCache;
 import org.apache.fineract.infrastructure.core.api.JsonCommand;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
 import org.apache.fineract.infrastructure.core.data.CommandProcessingResultBuilder;
@@ -42,16 +43,20 @@ public class PermissionWritePlatformServiceJpaRepositoryImpl implements Permissi
     private final PlatformSecurityContext context;
     private final PermissionRepository permissionRepository;
     private final PermissionsCommandFromApiJsonDeserializer fromApiJsonDeserializer;
+    private final ConfigurationSnapshotCache configurationSnapshotCache;
 
     @Autowired
     public PermissionWritePlatformServiceJpaRepositoryImpl(final PlatformSecurityContext context,
-            final PermissionRepository permissionRepository, final PermissionsCommandFromApiJsonDeserializer fromApiJsonDeserializer) {
+            final PermissionRepository permissionRepository, final PermissionsCommandFromApiJsonDeserializer fromApiJsonDeserializer,
+            final ConfigurationSnapshotCache configurationSnapshotCache) {
         this.context = context;
         this.permissionRepository = permissionRepository;
         this.fromApiJsonDeserializer = fromApiJsonDeserializer;
+        this.configurationSnapshotCache = configurationSnapshotCache;
     }
 
-    @Caching(evict = { @CacheEvict(value = "users", allEntries = true), @CacheEvict(value = "usersByUsername", allEntries = true) })
+    @Caching(evict = { @CacheEvict(value = "users", allEntries = true), @CacheEvict(value = "usersByUsername", allEntries = true),
+            @CacheEvict(value = "authenticatedCredentials", allEntries = true) })
     @Transactional
     @Override
     public CommandProcessingResult updateMakerCheckerPermissions(final JsonCommand command) {
@@ -83,6 +88,7 @@ public class PermissionWritePlatformServiceJpaRepositoryImpl implements Permissi
 
         if (!changedPermissions.isEmpty()) {
             changes.put("permissions", changedPermissions);
+            this.configurationSnapshotCache.invalidate();
         }
 
         return new CommandProcessingResultBuilder().withCommandId(command.commandId()).with(changes).build();
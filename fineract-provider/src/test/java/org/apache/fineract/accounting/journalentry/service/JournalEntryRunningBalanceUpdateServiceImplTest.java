@@ -0,0 +1,426 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.accounting.journalentry.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.google.gson.JsonParser;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.apache.fineract.accounting.glaccount.domain.GLAccountType;
+import org.apache.fineract.accounting.journalentry.data.JournalEntryDataValidator;
+import org.apache.fineract.accounting.journalentry.domain.JournalEntryType;
+import org.apache.fineract.infrastructure.core.api.JsonCommand;
+import org.apache.fineract.infrastructure.core.serialization.FromJsonHelper;
+import org.apache.fineract.organisation.office.domain.OfficeRepositoryWrapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+/**
+ * Runs the running balance job against an in-memory ledger of several offices and compares every entry with the
+ * per-entry computation the job used before the balance snapshot.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class JournalEntryRunningBalanceUpdateServiceImplTest {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2022, 1, 1);
+    private static final Map<Long, GLAccountType> ACCOUNT_TYPES = Map.of(1L, GLAccountType.ASSET, 2L, GLAccountType.LIABILITY, 3L,
+            GLAccountType.EQUITY, 4L, GLAccountType.INCOME, 5L, GLAccountType.EXPENSE);
+    private static final long OFFICES = 3;
+    private static final int DAYS = 40;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private OfficeRepositoryWrapper officeRepositoryWrapper;
+    @Mock
+    private JournalEntryDataValidator dataValidator;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final FromJsonHelper fromJsonHelper = new FromJsonHelper();
+    private final Random random = new Random(42);
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<SnapshotRow, BigDecimal[]> snapshot = new HashMap<>();
+    private int batches;
+    private int failingBatch = -1;
+    private JournalEntryRunningBalanceUpdateServiceImpl underTest;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        given(this.transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+        this.underTest = new JournalEntryRunningBalanceUpdateServiceImpl(this.jdbcTemplate, this.officeRepositoryWrapper,
+                this.dataValidator, this.fromJsonHelper, this.transactionManager);
+        this.underTest.init();
+
+        given(this.jdbcTemplate.queryForObject(anyString(), eq(LocalDate.class))).willAnswer(invocation -> firstPendingDate(null));
+        given(this.jdbcTemplate.queryForObject(anyString(), eq(LocalDate.class), any()))
+                .willAnswer(invocation -> firstPendingDate(invocation.getArgument(2)));
+        willAnswer(invocation -> {
+            final RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map.Entry<Long, GLAccountType> account : ACCOUNT_TYPES.entrySet()) {
+                handler.processRow(row(Map.of("id", account.getKey(), "classification_enum", account.getValue().getValue())));
+            }
+            return null;
+        }).given(this.jdbcTemplate).query(eq("select id, classification_enum from acc_gl_account"), any(RowCallbackHandler.class));
+        willAnswer(invocation -> {
+            final Object[] arguments = invocation.getArguments();
+            final RowCallbackHandler handler = (RowCallbackHandler) arguments[1];
+            final Long officeId = arguments.length > 3 ? (Long) arguments[2] : null;
+            readSnapshot(officeId, (LocalDate) arguments[arguments.length - 1], handler);
+            return null;
+        }).given(this.jdbcTemplate).query(startsWith("select "), any(RowCallbackHandler.class), any());
+        willAnswer(invocation -> {
+            streamEntries(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).given(this.jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        given(this.jdbcTemplate.batchUpdate(anyString(), anyList())).willAnswer(invocation -> {
+            updateEntries(invocation.getArgument(0), invocation.getArgument(1));
+            return new int[0];
+        });
+        given(this.jdbcTemplate.update(startsWith("UPDATE acc_gl_balance_snapshot"), any())).willAnswer(invocation -> {
+            final Object[] arguments = invocation.getArguments();
+            final BigDecimal[] totals = this.snapshot
+                    .get(new SnapshotRow((Long) arguments[3], (Long) arguments[4], (LocalDate) arguments[6]));
+            if (totals == null) {
+                return 0;
+            }
+            totals[0] = totals[0].add((BigDecimal) arguments[1]);
+            totals[1] = totals[1].add((BigDecimal) arguments[2]);
+            return 1;
+        });
+        given(this.jdbcTemplate.update(startsWith("INSERT INTO acc_gl_balance_snapshot"), any())).willAnswer(invocation -> {
+            final Object[] arguments = invocation.getArguments();
+            this.snapshot.put(new SnapshotRow((Long) arguments[1], (Long) arguments[2], (LocalDate) arguments[4]),
+                    new BigDecimal[] { (BigDecimal) arguments[5], (BigDecimal) arguments[6] });
+            return 1;
+        });
+    }
+
+    @Test
+    public void runningBalancesMatchThePerEntryComputation() {
+        addEntries(FIRST_DATE, DAYS, 70);
+
+        this.underTest.updateRunningBalance();
+
+        assertTrue(this.batches > 2, "the ledger spans several batches");
+        assertLedgerMatchesPerEntryComputation();
+    }
+
+    @Test
+    public void aRunResumesAfterAFailedBatch() {
+        addEntries(FIRST_DATE, DAYS, 70);
+        this.failingBatch = 2;
+
+        assertThrows(DataAccessException.class, () -> this.underTest.updateRunningBalance());
+        final long calculated = this.entries.stream().filter(entry -> entry.calculated).count();
+        assertTrue(calculated > 0 && calculated < this.entries.size(), "the first batch is committed, the rest is pending");
+
+        this.failingBatch = -1;
+        this.underTest.updateRunningBalance();
+
+        assertLedgerMatchesPerEntryComputation();
+    }
+
+    @Test
+    public void backdatedEntriesAreFoldedIntoLaterBalances() {
+        addEntries(FIRST_DATE, DAYS, 30);
+        this.underTest.updateRunningBalance();
+
+        addEntries(FIRST_DATE.plusDays(DAYS / 2), 3, 10);
+        addEntries(FIRST_DATE.plusDays(DAYS), 5, 10);
+        this.underTest.updateRunningBalance();
+
+        assertLedgerMatchesPerEntryComputation();
+    }
+
+    @Test
+    public void officeRunLeavesEntriesPendingForTheOrganizationRun() {
+        addEntries(FIRST_DATE, DAYS, 30);
+        this.underTest.updateRunningBalance();
+        addEntries(FIRST_DATE.plusDays(DAYS / 2), DAYS / 2 + 5, 10);
+
+        final String json = "{\"officeId\": 2}";
+        this.underTest.updateOfficeRunningBalance(JsonCommand.from(json, JsonParser.parseString(json), this.fromJsonHelper, null, null,
+                null, null, null, null, null, null, null, null, null, null));
+
+        final Map<Long, BigDecimal[]> expected = perEntryComputation();
+        for (Entry entry : this.entries) {
+            if (entry.officeId == 2L) {
+                assertEquals(0, expected.get(entry.id)[1].compareTo(entry.officeRunningBalance), "office balance of entry " + entry.id);
+            }
+        }
+        assertTrue(this.entries.stream().anyMatch(entry -> entry.officeId == 2L && !entry.calculated));
+
+        this.underTest.updateRunningBalance();
+
+        assertLedgerMatchesPerEntryComputation();
+    }
+
+    private void assertLedgerMatchesPerEntryComputation() {
+        final Map<Long, BigDecimal[]> expected = perEntryComputation();
+        for (Entry entry : this.entries) {
+            assertTrue(entry.calculated, "entry " + entry.id + " is calculated");
+            assertEquals(0, expected.get(entry.id)[0].compareTo(entry.organizationRunningBalance),
+                    "organization balance of entry " + entry.id);
+            assertEquals(0, expected.get(entry.id)[1].compareTo(entry.officeRunningBalance), "office balance of entry " + entry.id);
+        }
+        // every entry is counted in the snapshot exactly once
+        final Map<SnapshotRow, BigDecimal[]> totals = new HashMap<>();
+        for (Entry entry : this.entries) {
+            final BigDecimal[] row = totals.computeIfAbsent(new SnapshotRow(entry.officeId, entry.accountId, entry.entryDate),
+                    key -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+            row[entry.type.isDebitType() ? 0 : 1] = row[entry.type.isDebitType() ? 0 : 1].add(entry.amount);
+        }
+        assertEquals(totals.keySet(), this.snapshot.keySet());
+        totals.forEach((key, row) -> {
+            assertEquals(0, row[0].compareTo(this.snapshot.get(key)[0]), "debits of " + key);
+            assertEquals(0, row[1].compareTo(this.snapshot.get(key)[1]), "credits of " + key);
+        });
+    }
+
+    /**
+     * The computation of the job before the snapshot: every entry adds to or subtracts from the last balance of its
+     * account, in entry date and id order, once for the organization and once for its office.
+     */
+    private Map<Long, BigDecimal[]> perEntryComputation() {
+        final Map<Long, BigDecimal> organizationBalances = new HashMap<>();
+        final Map<Long, Map<Long, BigDecimal>> officeBalances = new HashMap<>();
+        final Map<Long, BigDecimal[]> balances = new HashMap<>();
+        for (Entry entry : sorted(this.entries)) {
+            final boolean isIncrease;
+            switch (ACCOUNT_TYPES.get(entry.accountId)) {
+                case ASSET:
+                case EXPENSE:
+                    isIncrease = entry.type.isDebitType();
+                break;
+                default:
+                    isIncrease = entry.type.isCreditType();
+                break;
+            }
+            final BigDecimal amount = isIncrease ? entry.amount : entry.amount.negate();
+            final BigDecimal organizationBalance = organizationBalances.merge(entry.accountId, amount, BigDecimal::add);
+            final BigDecimal officeBalance = officeBalances.computeIfAbsent(entry.officeId, officeId -> new HashMap<>())
+                    .merge(entry.accountId, amount, BigDecimal::add);
+            balances.put(entry.id, new BigDecimal[] { organizationBalance, officeBalance });
+        }
+        return balances;
+    }
+
+    private void addEntries(final LocalDate fromDate, final int days, final int entriesPerDay) {
+        for (int day = 0; day < days; day++) {
+            for (int i = 0; i < entriesPerDay; i++) {
+                final long accountId = 1 + this.random.nextInt(ACCOUNT_TYPES.size());
+                final long officeId = 1 + this.random.nextInt((int) OFFICES);
+                final JournalEntryType type = this.random.nextBoolean() ? JournalEntryType.DEBIT : JournalEntryType.CREDIT;
+                this.entries.add(new Entry(this.entries.size() + 1L, accountId, officeId, fromDate.plusDays(day), type,
+                        BigDecimal.valueOf(1 + this.random.nextInt(1_000_000), 2)));
+            }
+        }
+    }
+
+    private LocalDate firstPendingDate(final Long officeId) {
+        return this.entries.stream().filter(entry -> !entry.calculated && (officeId == null || officeId.equals(entry.officeId)))
+                .map(entry -> entry.entryDate).min(Comparator.naturalOrder()).orElse(null);
+    }
+
+    private void readSnapshot(final Long officeId, final LocalDate beforeDate, final RowCallbackHandler handler) throws Exception {
+        final Map<List<Long>, BigDecimal[]> groups = new HashMap<>();
+        this.snapshot.forEach((key, totals) -> {
+            if (key.entryDate.isBefore(beforeDate) && (officeId == null || officeId.equals(key.officeId))) {
+                final BigDecimal[] group = groups.computeIfAbsent(List.of(key.officeId, key.accountId),
+                        k -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+                group[0] = group[0].add(totals[0]);
+                group[1] = group[1].add(totals[1]);
+            }
+        });
+        for (Map.Entry<List<Long>, BigDecimal[]> group : groups.entrySet()) {
+            handler.processRow(row(Map.of("office_id", group.getKey().get(0), "account_id", group.getKey().get(1), "debits",
+                    group.getValue()[0], "credits", group.getValue()[1])));
+        }
+    }
+
+    private void streamEntries(final PreparedStatementCreator statementCreator, final RowCallbackHandler handler) throws Exception {
+        final Connection connection = mock(Connection.class);
+        final PreparedStatement statement = mock(PreparedStatement.class);
+        final String[] sql = new String[1];
+        final Map<Integer, Object> parameters = new HashMap<>();
+        given(connection.prepareStatement(anyString(), anyInt(), anyInt())).willAnswer(invocation -> {
+            sql[0] = invocation.getArgument(0);
+            return statement;
+        });
+        willAnswer(invocation -> parameters.put(invocation.getArgument(0), invocation.getArgument(1))).given(statement)
+                .setObject(anyInt(), any());
+        statementCreator.createPreparedStatement(connection);
+
+        final LocalDate fromDate = (LocalDate) parameters.get(1);
+        final Long officeId = sql[0].contains("je.office_id = ?") ? (Long) parameters.get(2) : null;
+        final List<Entry> streamed = sorted(this.entries.stream()
+                .filter(entry -> !entry.entryDate.isBefore(fromDate) && (officeId == null || officeId.equals(entry.officeId)))
+                .collect(Collectors.toList()));
+        for (Entry entry : streamed) {
+            final Map<String, Object> columns = new HashMap<>();
+            columns.put("id", entry.id);
+            columns.put("account_id", entry.accountId);
+            columns.put("office_id", entry.officeId);
+            columns.put("currency_code", "USD");
+            columns.put("entry_date", entry.entryDate);
+            columns.put("type_enum", entry.type.getValue());
+            columns.put("amount", entry.amount);
+            columns.put("is_running_balance_calculated", entry.calculated);
+            handler.processRow(row(columns));
+        }
+    }
+
+    private void updateEntries(final String sql, final List<Object[]> updates) {
+        this.batches++;
+        if (this.batches == this.failingBatch) {
+            throw new DataAccessResourceFailureException("connection lost");
+        }
+        final Map<Long, Entry> entriesById = this.entries.stream().collect(Collectors.toMap(entry -> entry.id, entry -> entry));
+        for (Object[] update : updates) {
+            if (sql.contains("organization_running_balance")) {
+                final Entry entry = entriesById.get((Long) update[2]);
+                entry.calculated = true;
+                entry.organizationRunningBalance = (BigDecimal) update[0];
+                entry.officeRunningBalance = (BigDecimal) update[1];
+            } else {
+                entriesById.get((Long) update[1]).officeRunningBalance = (BigDecimal) update[0];
+            }
+        }
+    }
+
+    private static List<Entry> sorted(final List<Entry> entries) {
+        return entries.stream().sorted(Comparator.comparing((Entry entry) -> entry.entryDate).thenComparing(entry -> entry.id))
+                .collect(Collectors.toList());
+    }
+
+    private static ResultSet row(final Map<String, Object> columns) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+                (proxy, method, arguments) -> {
+                    final Object value = arguments == null ? null : columns.get((String) arguments[0]);
+                    switch (method.getName()) {
+                        case "getLong":
+                            return ((Number) value).longValue();
+                        case "getInt":
+                            return ((Number) value).intValue();
+                        case "getDate":
+                            return value == null ? null : Date.valueOf((LocalDate) value);
+                        case "getBigDecimal":
+                        case "getString":
+                        case "getBoolean":
+                            return value;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static final class Entry {
+
+        private final Long id;
+        private final Long accountId;
+        private final Long officeId;
+        private final LocalDate entryDate;
+        private final JournalEntryType type;
+        private final BigDecimal amount;
+        private boolean calculated;
+        private BigDecimal organizationRunningBalance;
+        private BigDecimal officeRunningBalance;
+
+        private Entry(final Long id, final Long accountId, final Long officeId, final LocalDate entryDate, final JournalEntryType type,
+                final BigDecimal amount) {
+            this.id = id;
+            this.accountId = accountId;
+            this.officeId = officeId;
+            this.entryDate = entryDate;
+            this.type = type;
+            this.amount = amount;
+        }
+    }
+
+    private static final class SnapshotRow {
+
+        private final Long officeId;
+        private final Long accountId;
+        private final LocalDate entryDate;
+
+        private SnapshotRow(final Long officeId, final Long accountId, final LocalDate entryDate) {
+            this.officeId = officeId;
+            this.accountId = accountId;
+            this.entryDate = entryDate;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof SnapshotRow)) {
+                return false;
+            }
+            final SnapshotRow that = (SnapshotRow) o;
+            return this.officeId.equals(that.officeId) && this.accountId.equals(that.accountId) && this.entryDate.equals(that.entryDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.officeId, this.accountId, this.entryDate);
+        }
+
+        @Override
+        public String toString() {
+            return "office " + this.officeId + ", account " + this.accountId + " on " + this.entryDate;
+        }
+    }
+}
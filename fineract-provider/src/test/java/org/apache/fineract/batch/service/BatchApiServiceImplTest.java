@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.batch.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.apache.fineract.batch.command.CommandContext;
+import org.apache.fineract.batch.command.CommandStrategy;
+import org.apache.fineract.batch.command.CommandStrategyProvider;
+import org.apache.fineract.batch.domain.BatchRequest;
+import org.apache.fineract.batch.domain.BatchResponse;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.serialization.FromJsonHelper;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.jobs.service.JobExecuter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BatchApiServiceImplTest {
+
+    private static final FineractPlatformTenant TENANT = new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null);
+
+    @Mock
+    private CommandStrategyProvider strategyProvider;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final Set<String> tenantsSeen = ConcurrentHashMap.newKeySet();
+    private JobExecuter jobExecuter;
+    private BatchApiServiceImpl underTest;
+
+    @BeforeEach
+    public void setUp() {
+        ThreadLocalContextUtil.setTenant(TENANT);
+
+        final FineractProperties.FineractJobsProperties jobsProperties = new FineractProperties.FineractJobsProperties();
+        jobsProperties.setParallelism(4);
+        jobsProperties.setIoParallelism(4);
+        jobsProperties.setChunkSize(10);
+        final FineractProperties.FineractBatchApiProperties batchApiProperties = new FineractProperties.FineractBatchApiProperties();
+        batchApiProperties.setParallelThreads(4);
+        final FineractProperties fineractProperties = new FineractProperties();
+        fineractProperties.setJobs(jobsProperties);
+        fineractProperties.setBatchApi(batchApiProperties);
+        this.jobExecuter = new JobExecuter(fineractProperties, new SimpleMeterRegistry());
+        this.jobExecuter.start();
+
+        this.underTest = new BatchApiServiceImpl(this.strategyProvider, new ResolutionHelper(new FromJsonHelper()),
+                this.transactionTemplate, fineractProperties, this.jobExecuter);
+
+        // creating a client answers with an id derived from the request, every other command echoes the resolved body
+        given(this.strategyProvider.getCommandStrategy(command("clients"))).willReturn(strategy((request) -> {
+            this.tenantsSeen.add(ThreadLocalContextUtil.getTenant().getTenantIdentifier());
+            return response(request, 200, "{\"clientId\":" + request.getRequestId() * 100 + "}");
+        }));
+        given(this.strategyProvider.getCommandStrategy(command("loans"))).willReturn(strategy((request) -> {
+            this.tenantsSeen.add(ThreadLocalContextUtil.getTenant().getTenantIdentifier());
+            return response(request, 200, request.getBody());
+        }));
+        given(this.strategyProvider.getCommandStrategy(command("savingsaccounts"))).willReturn(strategy((request) -> {
+            throw new IllegalStateException("savings account rejected");
+        }));
+        willAnswer(invocation -> {
+            throw new IllegalArgumentException("no strategy for broken");
+        }).given(this.strategyProvider).getCommandStrategy(command("broken"));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.jobExecuter.stop();
+        ThreadLocalContextUtil.reset();
+    }
+
+    @Test
+    public void responsesAreReturnedInRequestOrder() {
+        final List<BatchRequest> requests = List.of(request(9L, "clients", null, "{}"), request(3L, "clients", null, "{}"),
+                request(7L, "loans", 3L, "{\"clientId\":\"$.clientId\"}"), request(1L, "clients", null, "{}"),
+                request(5L, "clients", null, "{}"));
+
+        final List<BatchResponse> responses = this.underTest.handleBatchRequestsInParallel(requests, null);
+
+        assertEquals(List.of(1L, 3L, 5L, 7L, 9L), responses.stream().map(BatchResponse::getRequestId).collect(Collectors.toList()));
+        assertTrue(responses.stream().allMatch(response -> response.getStatusCode() == 200));
+        assertEquals(Set.of(TENANT.getTenantIdentifier()), this.tenantsSeen);
+    }
+
+    @Test
+    public void childChainsAreResolvedFromTheirParent() {
+        final List<BatchRequest> requests = List.of(request(1L, "clients", null, "{}"),
+                request(2L, "loans", 1L, "{\"clientId\":\"$.clientId\"}"), request(3L, "loans", 2L, "{\"loanClientId\":\"$.clientId\"}"),
+                request(4L, "clients", null, "{}"), request(5L, "loans", 4L, "{\"clientId\":\"$.clientId\"}"));
+
+        final List<BatchResponse> responses = this.underTest.handleBatchRequestsInParallel(requests, null);
+
+        assertEquals(5, responses.size());
+        assertEquals("{\"clientId\":100}", responses.get(1).getBody());
+        assertEquals("{\"loanClientId\":100}", responses.get(2).getBody());
+        assertEquals("{\"clientId\":400}", responses.get(4).getBody());
+    }
+
+    @Test
+    public void aFailingRootOnlyAffectsItsOwnChain() {
+        final List<BatchRequest> requests = List.of(request(1L, "clients", null, "{}"), request(2L, "savingsaccounts", null, "{}"),
+                request(3L, "loans", 2L, "{\"clientId\":\"$.clientId\"}"), request(4L, "broken", null, "{}"),
+                request(5L, "loans", 4L, "{\"clientId\":\"$.clientId\"}"), request(6L, "clients", null, "{}"),
+                request(7L, "loans", 6L, "{\"clientId\":\"$.clientId\"}"));
+
+        final List<BatchResponse> responses = this.underTest.handleBatchRequestsInParallel(requests, null);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), responses.stream().map(BatchResponse::getRequestId).collect(Collectors.toList()));
+        assertEquals(200, responses.get(0).getStatusCode());
+        // the strategy failed: its error is the response and the child is a conflict
+        assertEquals(500, responses.get(1).getStatusCode());
+        assertTrue(responses.get(1).getBody().contains("savings account rejected"));
+        assertEquals(409, responses.get(2).getStatusCode());
+        // the root itself could not be processed: it answers with a server error and its child is a conflict
+        assertEquals(500, responses.get(3).getStatusCode());
+        assertEquals("no strategy for broken", responses.get(3).getBody());
+        assertEquals(409, responses.get(4).getStatusCode());
+        assertEquals(200, responses.get(5).getStatusCode());
+        assertEquals("{\"clientId\":600}", responses.get(6).getBody());
+    }
+
+    private static CommandContext command(final String resource) {
+        return CommandContext.resource(resource).method("POST").build();
+    }
+
+    private static CommandStrategy strategy(final CommandStrategy strategy) {
+        return strategy;
+    }
+
+    private static BatchRequest request(final Long requestId, final String relativeUrl, final Long reference, final String body) {
+        return new BatchRequest(requestId, relativeUrl, "POST", null, reference, body);
+    }
+
+    private static BatchResponse response(final BatchRequest request, final int statusCode, final String body) {
+        return new BatchResponse(request.getRequestId(), statusCode, null, body);
+    }
+}
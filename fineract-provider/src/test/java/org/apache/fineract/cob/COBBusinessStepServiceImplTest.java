@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.Map;
+import org.apache.fineract.cob.domain.BatchBusinessStep;
+import org.apache.fineract.cob.domain.BatchBusinessStepRepository;
+import org.apache.fineract.cob.exception.BusinessStepNotFoundException;
+import org.apache.fineract.cob.loan.LoanCOBBusinessStep;
+import org.apache.fineract.portfolio.loanaccount.domain.Loan;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationContext;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class COBBusinessStepServiceImplTest {
+
+    private static final String JOB_NAME = "LOAN_CLOSE_OF_BUSINESS";
+
+    @InjectMocks
+    private COBBusinessStepServiceImpl cobBusinessStepService;
+
+    @Mock
+    private BatchBusinessStepRepository batchBusinessStepRepository;
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Test
+    public void businessStepsAreReturnedInConfiguredOrder() {
+        LoanCOBBusinessStep first = businessStep("FIRST");
+        LoanCOBBusinessStep second = businessStep("SECOND");
+        given(applicationContext.getBeansOfType(LoanCOBBusinessStep.class)).willReturn(Map.of("first", first, "second", second));
+        given(batchBusinessStepRepository.findAllByJobNameOrderByStepOrderAsc(JOB_NAME))
+                .willReturn(List.of(new BatchBusinessStep(JOB_NAME, "SECOND", 1L), new BatchBusinessStep(JOB_NAME, "FIRST", 2L)));
+
+        List<LoanCOBBusinessStep> steps = cobBusinessStepService.getOrderedBusinessSteps(LoanCOBBusinessStep.class, JOB_NAME);
+
+        assertEquals(List.of(second, first), steps);
+    }
+
+    @Test
+    public void unknownBusinessStepIsRejected() {
+        given(applicationContext.getBeansOfType(LoanCOBBusinessStep.class)).willReturn(Map.of());
+        given(batchBusinessStepRepository.findAllByJobNameOrderByStepOrderAsc(JOB_NAME))
+                .willReturn(List.of(new BatchBusinessStep(JOB_NAME, "MISSING", 1L)));
+
+        assertThrows(BusinessStepNotFoundException.class,
+                () -> cobBusinessStepService.getOrderedBusinessSteps(LoanCOBBusinessStep.class, JOB_NAME));
+    }
+
+    @Test
+    public void runPassesTheItemThroughEveryStep() {
+        Loan loan = mock(Loan.class);
+        LoanCOBBusinessStep first = businessStep("FIRST");
+        LoanCOBBusinessStep second = businessStep("SECOND");
+        given(first.execute(loan)).willReturn(loan);
+        given(second.execute(loan)).willReturn(loan);
+
+        Loan result = cobBusinessStepService.run(List.of(first, second), loan);
+
+        assertSame(loan, result);
+        InOrder order = inOrder(first, second);
+        order.verify(first).execute(loan);
+        order.verify(second).execute(loan);
+    }
+
+    private LoanCOBBusinessStep businessStep(String name) {
+        LoanCOBBusinessStep step = mock(LoanCOBBusinessStep.class);
+        given(step.getEnumStyledName()).willReturn(name);
+        return step;
+    }
+}
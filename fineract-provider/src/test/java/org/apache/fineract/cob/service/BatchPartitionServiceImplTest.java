@@ -0,0 +1,84 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+import org.apache.fineract.cob.exception.BatchPartitionOwnershipLostException;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BatchPartitionServiceImplTest {
+
+    private static final String NODE_ID = "2";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private DatabaseSpecificSQLGenerator sqlGenerator;
+
+    private BatchPartitionServiceImpl batchPartitionService;
+
+    @BeforeEach
+    public void setUp() {
+        FineractProperties fineractProperties = new FineractProperties();
+        fineractProperties.setNodeId(NODE_ID);
+        batchPartitionService = new BatchPartitionServiceImpl(jdbcTemplate, sqlGenerator, fineractProperties);
+    }
+
+    @Test
+    public void checkpointOfOwnedPartitionIsMoved() {
+        given(jdbcTemplate.update(anyString(), eq(100L), any(), eq(1L), eq(NODE_ID), eq("RUNNING"))).willReturn(1);
+
+        batchPartitionService.updateCheckpoint(1L, 100L);
+    }
+
+    @Test
+    public void checkpointOfPartitionTakenOverByAnotherWorkerFails() {
+        given(jdbcTemplate.update(anyString(), eq(100L), any(), eq(1L), eq(NODE_ID), eq("RUNNING"))).willReturn(0);
+
+        assertThrows(BatchPartitionOwnershipLostException.class, () -> batchPartitionService.updateCheckpoint(1L, 100L));
+    }
+
+    @Test
+    public void statusIsOnlyUpdatedByTheOwner() {
+        given(jdbcTemplate.update(anyString(), eq("COMPLETED"), eq(0), any(), any(), eq(1L), eq(NODE_ID), eq("RUNNING"))).willReturn(1);
+        given(jdbcTemplate.update(anyString(), eq("FAILED"), eq(1), any(), any(), eq(2L), eq(NODE_ID), eq("RUNNING"))).willReturn(0);
+
+        assertTrue(batchPartitionService.markCompleted(1L, 0, null));
+        assertFalse(batchPartitionService.markFailed(2L, "lost"));
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cob.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Optional;
+import org.apache.fineract.cob.data.BatchPartition;
+import org.apache.fineract.cob.domain.BatchPartitionStatus;
+import org.apache.fineract.cob.exception.BatchPartitionOwnershipLostException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class BatchPartitionWorkerTest {
+
+    private static final String JOB_NAME = "TEST_JOB";
+    private static final String RUN_KEY = "2022-01-01";
+
+    @Mock
+    private BatchPartitionService batchPartitionService;
+
+    private BatchPartitionHandler handler;
+
+    private BatchPartitionWorker batchPartitionWorker;
+
+    @BeforeEach
+    public void setUp() {
+        handler = mock(BatchPartitionHandler.class);
+        given(handler.getJobName()).willReturn(JOB_NAME);
+        batchPartitionWorker = new BatchPartitionWorker(batchPartitionService, List.of(handler));
+    }
+
+    @Test
+    public void claimsPartitionsUntilNoneIsPending() {
+        BatchPartition first = partition(1L);
+        BatchPartition second = partition(2L);
+        given(batchPartitionService.claimNextPartition(JOB_NAME, RUN_KEY)).willReturn(Optional.of(first), Optional.of(second),
+                Optional.empty());
+        given(handler.process(first)).willReturn(List.of());
+        given(handler.process(second)).willReturn(List.of(new IllegalStateException("loan 42 failed")));
+
+        int processed = batchPartitionWorker.processPendingPartitions(JOB_NAME, RUN_KEY);
+
+        assertEquals(2, processed);
+        verify(batchPartitionService).markCompleted(1L, 0, null);
+        verify(batchPartitionService).markCompleted(2L, 1, "IllegalStateException: loan 42 failed");
+    }
+
+    @Test
+    public void abortedPartitionIsMarkedFailed() {
+        BatchPartition partition = partition(1L);
+        given(batchPartitionService.claimNextPartition(JOB_NAME, RUN_KEY)).willReturn(Optional.of(partition), Optional.empty());
+        given(handler.process(partition)).willThrow(new IllegalStateException("database gone"));
+
+        batchPartitionWorker.processPendingPartitions(JOB_NAME, RUN_KEY);
+
+        verify(batchPartitionService).markFailed(1L, "IllegalStateException: database gone");
+        verify(batchPartitionService, never()).markCompleted(1L, 0, null);
+    }
+
+    @Test
+    public void partitionTakenOverByAnotherWorkerIsLeftAlone() {
+        BatchPartition partition = partition(1L);
+        given(batchPartitionService.claimNextPartition(JOB_NAME, RUN_KEY)).willReturn(Optional.of(partition), Optional.empty());
+        given(handler.process(partition)).willThrow(new BatchPartitionOwnershipLostException(1L));
+
+        assertEquals(1, batchPartitionWorker.processPendingPartitions(JOB_NAME, RUN_KEY));
+
+        verify(batchPartitionService, never()).markFailed(anyLong(), anyString());
+        verify(batchPartitionService, never()).markCompleted(anyLong(), anyInt(), any());
+    }
+
+    @Test
+    public void nothingIsProcessedWithoutPendingPartitions() {
+        given(batchPartitionService.claimNextPartition(anyString(), anyString())).willReturn(Optional.empty());
+
+        assertEquals(0, batchPartitionWorker.processPendingPartitions(JOB_NAME, RUN_KEY));
+    }
+
+    private BatchPartition partition(Long id) {
+        return new BatchPartition(id, JOB_NAME, RUN_KEY, id.intValue(), id * 100, id * 100 + 99, null, BatchPartitionStatus.RUNNING, null,
+                100, 0, null);
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.bulkimport.importhandler.loanrepayment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.google.gson.JsonParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.apache.fineract.commands.domain.CommandWrapper;
+import org.apache.fineract.commands.service.PortfolioCommandSourceWritePlatformService;
+import org.apache.fineract.infrastructure.bulkimport.constants.LoanRepaymentConstants;
+import org.apache.fineract.infrastructure.bulkimport.constants.TemplatePopulateImportConstants;
+import org.apache.fineract.infrastructure.bulkimport.data.Count;
+import org.apache.fineract.infrastructure.bulkimport.importhandler.ImportHandlerUtils;
+import org.apache.fineract.infrastructure.bulkimport.service.BulkImportWorkbookService;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.jobs.service.JobExecuter;
+import org.apache.fineract.portfolio.loanaccount.data.LoanTransactionData;
+import org.apache.fineract.portfolio.loanaccount.service.LoanReadPlatformService;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class LoanRepaymentImportHandlerTest {
+
+    private static final Long IMPORT_DOCUMENT_ID = 42L;
+    // loan account number and amount of every sheet row, the repayment of 5 is rejected
+    private static final String[] LOANS = { "L1", "L2", "L1", "L3", "L2", "L1", "L4", "L3" };
+    private static final int REJECTED_AMOUNT = 5;
+
+    @Mock
+    private PortfolioCommandSourceWritePlatformService commandsSourceWritePlatformService;
+    @Mock
+    private LoanReadPlatformService loanReadPlatformService;
+    @Mock
+    private BulkImportWorkbookService bulkImportWorkbookService;
+
+    private final Map<Long, List<Integer>> postedAmountsByLoan = new ConcurrentHashMap<>();
+    private JobExecuter jobExecuter;
+    private LoanRepaymentImportHandler underTest;
+
+    @BeforeEach
+    public void setUp() {
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+
+        final FineractProperties.FineractJobsProperties jobsProperties = new FineractProperties.FineractJobsProperties();
+        jobsProperties.setParallelism(3);
+        jobsProperties.setIoParallelism(3);
+        jobsProperties.setChunkSize(10);
+        final FineractProperties.FineractBulkImportProperties bulkImportProperties = new FineractProperties.FineractBulkImportProperties();
+        bulkImportProperties.setWorkerThreads(3);
+        bulkImportProperties.setChunkSize(2);
+        final FineractProperties fineractProperties = new FineractProperties();
+        fineractProperties.setJobs(jobsProperties);
+        fineractProperties.setBulkImport(bulkImportProperties);
+        this.jobExecuter = new JobExecuter(fineractProperties, new SimpleMeterRegistry());
+        this.jobExecuter.start();
+
+        this.underTest = new LoanRepaymentImportHandler(this.commandsSourceWritePlatformService, this.loanReadPlatformService,
+                this.bulkImportWorkbookService, fineractProperties, this.jobExecuter);
+
+        given(this.loanReadPlatformService.retrieveLoanIdByAccountNumber(anyString()))
+                .willAnswer(invocation -> Long.valueOf(invocation.<String>getArgument(0).substring(1)));
+        willAnswer(invocation -> {
+            final CommandWrapper command = invocation.getArgument(0);
+            final int amount = JsonParser.parseString(command.getJson()).getAsJsonObject().get("transactionAmount").getAsInt();
+            this.postedAmountsByLoan.computeIfAbsent(command.getLoanId(), loanId -> new ArrayList<>()).add(amount);
+            if (amount == REJECTED_AMOUNT) {
+                throw new IllegalStateException("repayment rejected");
+            }
+            return null;
+        }).given(this.commandsSourceWritePlatformService).logCommandSource(any(CommandWrapper.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.jobExecuter.stop();
+        ThreadLocalContextUtil.reset();
+    }
+
+    @Test
+    public void rowsOfOneLoanShareAChunkInSheetOrder() {
+        final List<LoanTransactionData> repayments = new ArrayList<>();
+        for (int i = 0; i < LOANS.length; i++) {
+            repayments.add(LoanTransactionData.importInstance(BigDecimal.valueOf(i + 1L), null, null, null, null, null, null, null,
+                    Long.valueOf(LOANS[i].substring(1)), "", i + 1, "en", "dd MMMM yyyy"));
+        }
+
+        final List<List<LoanTransactionData>> chunks = this.underTest.chunkByLoan(repayments);
+
+        // a chunk is closed once it holds at least the chunk size, a loan is never split
+        assertEquals(List.of(List.of(1, 3, 6), List.of(2, 5), List.of(4, 8), List.of(7)),
+                chunks.stream().map(chunk -> chunk.stream().map(LoanTransactionData::getRowIndex).collect(Collectors.toList()))
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void repaymentsArePostedPerLoanInSheetOrder() {
+        final Workbook workbook = workbook();
+
+        final Count count = this.underTest.process(workbook, "en", "dd MMMM yyyy", IMPORT_DOCUMENT_ID);
+
+        assertEquals(7, count.getSuccessCount());
+        assertEquals(1, count.getErrorCount());
+        assertEquals(Map.of(1L, List.of(1, 3, 6), 2L, List.of(2, 5), 3L, List.of(4, 8), 4L, List.of(7)), this.postedAmountsByLoan);
+
+        final Sheet sheet = workbook.getSheet(TemplatePopulateImportConstants.LOAN_REPAYMENT_SHEET_NAME);
+        for (int rowIndex = 1; rowIndex <= LOANS.length; rowIndex++) {
+            final String status = ImportHandlerUtils.readAsString(LoanRepaymentConstants.STATUS_COL, sheet.getRow(rowIndex));
+            assertEquals(rowIndex == REJECTED_AMOUNT ? "repayment rejected" : TemplatePopulateImportConstants.STATUS_CELL_IMPORTED,
+                    status);
+        }
+    }
+
+    @Test
+    public void progressIsReportedOncePerChunkWithRunningTotals() {
+        this.underTest.process(workbook(), "en", "dd MMMM yyyy", IMPORT_DOCUMENT_ID);
+
+        final ArgumentCaptor<Integer> successCounts = ArgumentCaptor.forClass(Integer.class);
+        final ArgumentCaptor<Integer> errorCounts = ArgumentCaptor.forClass(Integer.class);
+        verify(this.bulkImportWorkbookService, times(4)).updateImportProgress(eq(IMPORT_DOCUMENT_ID), successCounts.capture(),
+                errorCounts.capture());
+        int previousTotal = 0;
+        for (int i = 0; i < successCounts.getAllValues().size(); i++) {
+            final int total = successCounts.getAllValues().get(i) + errorCounts.getAllValues().get(i);
+            assertTrue(total > previousTotal);
+            previousTotal = total;
+        }
+        assertEquals(7, successCounts.getValue());
+        assertEquals(1, errorCounts.getValue());
+    }
+
+    @Test
+    public void noProgressIsReportedWithoutImportDocument() {
+        this.underTest.process(workbook(), "en", "dd MMMM yyyy", null);
+
+        verify(this.bulkImportWorkbookService, times(0)).updateImportProgress(any(), anyInt(), anyInt());
+    }
+
+    private static Workbook workbook() {
+        final Workbook workbook = new XSSFWorkbook();
+        workbook.createSheet(TemplatePopulateImportConstants.EXTRAS_SHEET_NAME);
+        final Sheet sheet = workbook.createSheet(TemplatePopulateImportConstants.LOAN_REPAYMENT_SHEET_NAME);
+        sheet.createRow(TemplatePopulateImportConstants.ROWHEADER_INDEX);
+        for (int i = 0; i < LOANS.length; i++) {
+            final Row row = sheet.createRow(i + 1);
+            row.createCell(LoanRepaymentConstants.LOAN_ACCOUNT_NO_COL).setCellValue(LOANS[i] + "-Client " + LOANS[i]);
+            row.createCell(LoanRepaymentConstants.AMOUNT_COL).setCellValue(i + 1);
+        }
+        return workbook;
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.core.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import org.apache.fineract.infrastructure.core.exception.PlatformApiDataValidationException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the round trip of {@link PaginationCursor} tokens.
+ */
+public class PaginationCursorTest {
+
+    @Test
+    public void testRoundTripsIdOnlyCursor() {
+        final PaginationCursor cursor = PaginationCursor.decode(PaginationCursor.of(null, 42L).encode());
+
+        assertEquals(42L, cursor.getId());
+        assertNull(cursor.getSortValue());
+    }
+
+    @Test
+    public void testRoundTripsDateAndNumberSortValues() {
+        final PaginationCursor byDate = PaginationCursor.decode(PaginationCursor.of(Date.valueOf("2022-03-31"), 7L).encode());
+        final PaginationCursor byNumber = PaginationCursor.decode(PaginationCursor.of(12, 8L).encode());
+
+        assertEquals(LocalDate.of(2022, 3, 31), byDate.getSortValue());
+        assertEquals(7L, byDate.getId());
+        assertEquals(new BigDecimal("12"), byNumber.getSortValue());
+    }
+
+    @Test
+    public void testBlankTokenStartsFromFirstPage() {
+        assertNull(PaginationCursor.decode(""));
+    }
+
+    @Test
+    public void testRejectsMalformedToken() {
+        assertThrows(PlatformApiDataValidationException.class, () -> PaginationCursor.decode("not-a-cursor"));
+    }
+}
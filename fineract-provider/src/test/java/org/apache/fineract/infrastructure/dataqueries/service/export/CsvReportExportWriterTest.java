@@ -0,0 +1,48 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.dataqueries.service.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that {@link CsvReportExportWriter} keeps the layout of the CSV export.
+ */
+public class CsvReportExportWriterTest {
+
+    @Test
+    public void testQuotesTextAndLeavesNumbersAndNullsBare() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvReportExportWriter writer = new CsvReportExportWriter(out)) {
+            writer.writeHeader(List.of(new ReportExportColumn("id", "BIGINT", Types.BIGINT),
+                    new ReportExportColumn("name", "VARCHAR", Types.VARCHAR), new ReportExportColumn("amount", "DECIMAL", Types.DECIMAL)));
+            writer.writeRow(new String[] { "1", "Jane \"JJ\" Doe", "10.50" });
+            writer.writeRow(new String[] { "2", null, null });
+            writer.finish();
+        }
+
+        assertEquals("\"id\",\"name\",\"amount\"\n1,\"Jane \"\"JJ\"\" Doe\",10.50\n2,,\n", out.toString(StandardCharsets.UTF_8));
+    }
+}
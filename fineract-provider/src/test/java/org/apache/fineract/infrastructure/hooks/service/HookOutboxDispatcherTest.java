@@ -0,0 +1,319 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.hooks.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.apache.fineract.infrastructure.businessdate.service.BusinessDateReadPlatformService;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.FineractContext;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.DateUtils;
+import org.apache.fineract.infrastructure.hooks.api.HookApiConstants;
+import org.apache.fineract.infrastructure.hooks.data.HookOutboxEntry;
+import org.apache.fineract.infrastructure.hooks.domain.Hook;
+import org.apache.fineract.infrastructure.hooks.domain.HookConfiguration;
+import org.apache.fineract.infrastructure.hooks.domain.HookConfigurationRepository;
+import org.apache.fineract.infrastructure.hooks.domain.HookRepository;
+import org.apache.fineract.infrastructure.hooks.processor.HookProcessor;
+import org.apache.fineract.infrastructure.hooks.processor.HookProcessorProvider;
+import org.apache.fineract.infrastructure.hooks.processor.ProcessorHelper;
+import org.apache.fineract.infrastructure.hooks.processor.TwilioHookProcessor;
+import org.apache.fineract.infrastructure.security.service.TenantDetailsService;
+import org.apache.fineract.useradministration.domain.AppUser;
+import org.apache.fineract.useradministration.domain.AppUserRepositoryWrapper;
+import org.apache.fineract.useradministration.exception.UserNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class HookOutboxDispatcherTest {
+
+    private static final int BATCH_SIZE = 100;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int BACKOFF_INITIAL = 5;
+    private static final int STALE_TIMEOUT = 300;
+
+    @Mock
+    private TenantDetailsService tenantDetailsService;
+    @Mock
+    private AppUserRepositoryWrapper userRepository;
+    @Mock
+    private BusinessDateReadPlatformService businessDateReadPlatformService;
+    @Mock
+    private HookOutboxService hookOutboxService;
+    @Mock
+    private HookRepository hookRepository;
+    @Mock
+    private HookProcessorProvider hookProcessorProvider;
+    @Mock
+    private AppUser user;
+    @Mock
+    private AppUser requestUser;
+    @Mock
+    private HookConfigurationRepository hookConfigurationRepository;
+    @Mock
+    private Hook hook;
+    @Mock
+    private Hook slowHook;
+    @Mock
+    private HookProcessor processor;
+    @Mock
+    private HookProcessor slowProcessor;
+
+    private ExecutorService dispatcherExecutorService;
+    private HookOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        final FineractProperties.FineractHooksProperties hooksProperties = new FineractProperties.FineractHooksProperties();
+        hooksProperties.setBatchSize(BATCH_SIZE);
+        hooksProperties.setMaxAttempts(MAX_ATTEMPTS);
+        hooksProperties.setBackoffInitial(BACKOFF_INITIAL);
+        hooksProperties.setBackoffMax(3600);
+        hooksProperties.setStaleTimeout(STALE_TIMEOUT);
+        final FineractProperties fineractProperties = new FineractProperties();
+        fineractProperties.setHooks(hooksProperties);
+
+        given(tenantDetailsService.findAllTenants())
+                .willReturn(List.of(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null)));
+        given(userRepository.fetchSystemUser()).willReturn(user);
+        given(userRepository.findOneWithNotFoundDetection(7L)).willReturn(requestUser);
+        given(userRepository.findOneWithNotFoundDetection(8L)).willThrow(new UserNotFoundException(8L));
+        given(businessDateReadPlatformService.getBusinessDates()).willReturn(new HashMap<>());
+        given(hookRepository.findById(1L)).willReturn(Optional.of(hook));
+        given(hookRepository.findById(2L)).willReturn(Optional.of(slowHook));
+        given(hookProcessorProvider.getProcessor(hook)).willReturn(processor);
+        given(hookProcessorProvider.getProcessor(slowHook)).willReturn(slowProcessor);
+        given(hookOutboxService.claimDueEntries(anyInt(), any())).willReturn(List.of());
+        given(hookOutboxService.markDelivered(anyLong())).willReturn(true);
+        given(hookOutboxService.markFailed(anyLong(), anyString(), any())).willReturn(true);
+
+        dispatcher = new HookOutboxDispatcher(fineractProperties, tenantDetailsService, userRepository, businessDateReadPlatformService,
+                hookOutboxService, hookRepository, hookProcessorProvider, new SimpleMeterRegistry());
+        dispatcherExecutorService = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(dispatcher, "dispatcherExecutorService", dispatcherExecutorService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dispatcherExecutorService.shutdownNow();
+    }
+
+    @Test
+    public void claimedEntriesAreDeliveredInOrderPerHook() throws Exception {
+        given(hookOutboxService.claimDueEntries(BATCH_SIZE, List.of()))
+                .willReturn(List.of(entry(10L, 1L, 0), entry(11L, 1L, 0), entry(12L, 1L, 0)));
+        final LocalDateTime before = DateUtils.getLocalDateTimeOfSystem();
+
+        dispatcher.poll();
+        awaitDeliveries();
+
+        final InOrder inOrder = inOrder(processor, hookOutboxService);
+        for (final String payload : List.of("payload-10", "payload-11", "payload-12")) {
+            inOrder.verify(processor).process(eq(hook), eq(payload), eq("LOAN"), eq("CREATE"), any());
+        }
+        verify(hookOutboxService).markDelivered(10L);
+        verify(hookOutboxService).markDelivered(11L);
+        verify(hookOutboxService).markDelivered(12L);
+        final ArgumentCaptor<LocalDateTime> staleBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(hookOutboxService).releaseStaleEntries(staleBefore.capture());
+        assertFalse(staleBefore.getValue().isBefore(before.minusSeconds(STALE_TIMEOUT)));
+        assertTrue(staleBefore.getValue().isBefore(before.minusSeconds(STALE_TIMEOUT - 60)));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    public void failedDeliveryIsRetriedWithBackoff() throws Exception {
+        given(hookOutboxService.claimDueEntries(BATCH_SIZE, List.of())).willReturn(List.of(entry(10L, 1L, 1)));
+        willThrow(new IOException("endpoint down")).given(processor).process(any(), any(), any(), any(), any());
+        final LocalDateTime before = DateUtils.getLocalDateTimeOfSystem();
+
+        dispatcher.poll();
+        awaitDeliveries();
+
+        // second attempt: the initial backoff doubled once
+        final ArgumentCaptor<LocalDateTime> nextAttemptDate = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(hookOutboxService).markFailed(eq(10L), eq("endpoint down"), nextAttemptDate.capture());
+        assertFalse(nextAttemptDate.getValue().isBefore(before.plusSeconds(2L * BACKOFF_INITIAL)));
+        assertTrue(nextAttemptDate.getValue().isBefore(before.plusSeconds(2L * BACKOFF_INITIAL + 60)));
+        verify(hookOutboxService, times(0)).markDelivered(anyLong());
+    }
+
+    @Test
+    public void deliveryIsDeadLetteredAfterMaxAttempts() throws Exception {
+        given(hookOutboxService.claimDueEntries(BATCH_SIZE, List.of())).willReturn(List.of(entry(10L, 1L, MAX_ATTEMPTS - 1)));
+        willThrow(new IOException("endpoint down")).given(processor).process(any(), any(), any(), any(), any());
+
+        dispatcher.poll();
+        awaitDeliveries();
+
+        verify(hookOutboxService).markFailed(eq(10L), eq("endpoint down"), isNull());
+    }
+
+    @Test
+    public void slowHookIsLeftOutOfClaimsUntilItsDeliveryIsDone() throws Exception {
+        final CountDownLatch slowDeliveryStarted = new CountDownLatch(1);
+        final CountDownLatch endpointAnswers = new CountDownLatch(1);
+        willAnswer(invocation -> {
+            slowDeliveryStarted.countDown();
+            assertTrue(endpointAnswers.await(10, TimeUnit.SECONDS));
+            return null;
+        }).given(slowProcessor).process(any(), any(), any(), any(), any());
+        given(hookOutboxService.claimDueEntries(BATCH_SIZE, List.of())).willReturn(List.of(entry(20L, 2L, 0), entry(10L, 1L, 0)),
+                List.of());
+
+        dispatcher.poll();
+        assertTrue(slowDeliveryStarted.await(10, TimeUnit.SECONDS));
+        // polling did not wait for the slow hook, and the other hook was delivered meanwhile
+        verify(hookOutboxService, timeout(10_000)).markDelivered(10L);
+
+        dispatcher.poll();
+        verify(hookOutboxService).refreshClaims(List.of(2L));
+        verify(hookOutboxService).claimDueEntries(BATCH_SIZE, List.of(2L));
+
+        endpointAnswers.countDown();
+        verify(hookOutboxService, timeout(10_000)).markDelivered(20L);
+        awaitDeliveries();
+        dispatcher.poll();
+        verify(hookOutboxService, times(2)).claimDueEntries(BATCH_SIZE, List.of());
+    }
+
+    @Test
+    public void entriesAreDeliveredWithTheUserAndAuthTokenOfTheirRequest() throws Exception {
+        given(hookOutboxService.claimDueEntries(BATCH_SIZE, List.of())).willReturn(List.of(entry(10L, 1L, 0, 7L, "token-of-7"),
+                entry(11L, 1L, 0, null, null), entry(12L, 1L, 0, 8L, "token-of-8")));
+        final List<Object> principals = new ArrayList<>();
+        final List<String> authTokens = new ArrayList<>();
+        willAnswer(invocation -> {
+            principals.add(SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+            authTokens.add(invocation.<FineractContext>getArgument(4).getAuthTokenContext());
+            return null;
+        }).given(processor).process(any(), any(), any(), any(), any());
+
+        dispatcher.poll();
+        awaitDeliveries();
+
+        // entries without a user, or whose user is gone, are delivered as the system user
+        assertEquals(List.of(requestUser, user, user), principals);
+        assertEquals(Arrays.asList("token-of-7", null, "token-of-8"), authTokens);
+    }
+
+    @Test
+    public void twilioHookSendsTheAuthTokenOfTheRequestToTheSmsBridge() throws Exception {
+        final Map<String, String> requests = new ConcurrentHashMap<>();
+        final HttpServer smsBridge = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        smsBridge.createContext("/", exchange -> {
+            requests.put(exchange.getRequestURI().getPath(), new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            final byte[] body = "/configuration".equals(exchange.getRequestURI().getPath())
+                    ? "\"bridge-api-key\"".getBytes(StandardCharsets.UTF_8)
+                    : new byte[0];
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            if (body.length == 0) {
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        smsBridge.start();
+        try {
+            final Hook twilioHook = mock(Hook.class);
+            given(twilioHook.getId()).willReturn(3L);
+            given(twilioHook.getHookConfig()).willReturn(Set.of(HookConfiguration.createNew(twilioHook, "string",
+                    HookApiConstants.payloadURLName, "http://localhost:" + smsBridge.getAddress().getPort() + "/sms/")));
+            given(hookRepository.findById(3L)).willReturn(Optional.of(twilioHook));
+            given(hookProcessorProvider.getProcessor(twilioHook))
+                    .willReturn(new TwilioHookProcessor(hookConfigurationRepository, null, null, new ProcessorHelper()));
+            given(hookOutboxService.claimDueEntries(BATCH_SIZE, List.of()))
+                    .willReturn(List.of(new HookOutboxEntry(30L, 3L, "CLIENT", "CREATE", "{\"clientId\": 1}", 0, 7L, "token-of-7")));
+
+            dispatcher.poll();
+            awaitDeliveries();
+
+            verify(hookOutboxService).markDelivered(30L);
+            assertTrue(requests.get("/configuration").contains("\"mifosToken\":\"token-of-7\""), requests.get("/configuration"));
+            assertTrue(requests.containsKey("/sms/"));
+            verify(hookConfigurationRepository).save(any());
+            verify(hookConfigurationRepository).findOneByHookIdAndFieldName(3L, HookApiConstants.apiKeyName);
+        } finally {
+            smsBridge.stop(0);
+        }
+    }
+
+    private void awaitDeliveries() throws InterruptedException {
+        dispatcherExecutorService.shutdown();
+        assertTrue(dispatcherExecutorService.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private static HookOutboxEntry entry(final Long id, final Long hookId, final int attempts) {
+        return entry(id, hookId, attempts, null, null);
+    }
+
+    private static HookOutboxEntry entry(final Long id, final Long hookId, final int attempts, final Long userId, final String authToken) {
+        return new HookOutboxEntry(id, hookId, "LOAN", "CREATE", "payload-" + id, attempts, userId, authToken);
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.infrastructure.jobs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.fineract.infrastructure.businessdate.domain.BusinessDateType;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.ActionContext;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobExecuterTest {
+
+    private static final FineractPlatformTenant TENANT = new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null);
+
+    private final List<JobExecuter> jobExecuters = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        ThreadLocalContextUtil.setTenant(TENANT);
+        HashMap<BusinessDateType, LocalDate> businessDates = new HashMap<>();
+        businessDates.put(BusinessDateType.BUSINESS_DATE, LocalDate.of(2022, 6, 1));
+        businessDates.put(BusinessDateType.COB_DATE, LocalDate.of(2022, 5, 31));
+        ThreadLocalContextUtil.setBusinessDates(businessDates);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.jobExecuters.forEach(JobExecuter::stop);
+        ThreadLocalContextUtil.reset();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void everyItemIsHandedOutOnce() throws Exception {
+        final JobExecuter jobExecuter = jobExecuter(3, 2);
+        final List<Integer> items = IntStream.range(0, 101).boxed().collect(Collectors.toList());
+        final List<Integer> processed = new CopyOnWriteArrayList<>();
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        jobExecuter.execute("job", items, JobExecuter.Workload.IO_BOUND, 3, item -> {
+            processed.add(item);
+            threads.add(Thread.currentThread().getName());
+        });
+
+        final List<Integer> sorted = new ArrayList<>(processed);
+        Collections.sort(sorted);
+        assertEquals(items, sorted);
+        assertTrue(threads.size() <= 3);
+        assertTrue(threads.stream().allMatch(thread -> thread.startsWith("job-io-")));
+    }
+
+    @Test
+    public void chunksKeepTheirItemsInOrder() throws Exception {
+        final JobExecuter jobExecuter = jobExecuter(2, 3);
+        final List<List<Integer>> chunks = new CopyOnWriteArrayList<>();
+
+        jobExecuter.executeChunks("job", List.of(1, 2, 3, 4, 5, 6, 7), JobExecuter.Workload.IO_BOUND,
+                chunk -> chunks.add(new ArrayList<>(chunk)));
+
+        final List<List<Integer>> sorted = new ArrayList<>(chunks);
+        sorted.sort((left, right) -> left.get(0).compareTo(right.get(0)));
+        assertEquals(List.of(List.of(1, 2, 3), List.of(4, 5, 6), List.of(7)), sorted);
+    }
+
+    @Test
+    public void failedItemsAreCollectedAndTheOthersStillProcessed() {
+        final JobExecuter jobExecuter = jobExecuter(2, 2);
+        final List<Integer> processed = new CopyOnWriteArrayList<>();
+
+        final JobExecutionException exception = assertThrows(JobExecutionException.class,
+                () -> jobExecuter.execute("job", List.of(1, 2, 3, 4, 5, 6), JobExecuter.Workload.IO_BOUND, 2, item -> {
+                    if (item % 3 == 0) {
+                        throw new IllegalStateException("item " + item);
+                    }
+                    processed.add(item);
+                }));
+
+        assertEquals(Set.of("item 3", "item 6"),
+                exception.getCauses().stream().map(Throwable::getMessage).collect(Collectors.toSet()));
+        assertEquals(Set.of(1, 2, 4, 5), Set.copyOf(processed));
+    }
+
+    @Test
+    public void shutdownStopsHandingOutChunks() throws Exception {
+        final JobExecuter jobExecuter = jobExecuter(1, 1);
+        final List<Integer> processed = new CopyOnWriteArrayList<>();
+
+        jobExecuter.execute("job", List.of(1, 2, 3, 4), JobExecuter.Workload.IO_BOUND, 1, item -> {
+            processed.add(item);
+            if (item == 2) {
+                jobExecuter.stop();
+            }
+        });
+
+        assertEquals(List.of(1, 2), processed);
+    }
+
+    @Test
+    public void workersRunInTheCallersContextAndLeaveNothingBehind() throws Exception {
+        final JobExecuter jobExecuter = jobExecuter(1, 1);
+        final Authentication authentication = new UsernamePasswordAuthenticationToken("mifos", "password");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        ThreadLocalContextUtil.setAuthToken("token");
+        ThreadLocalContextUtil.setActionContext(ActionContext.COB);
+        final Map<String, Object> seen = new ConcurrentHashMap<>();
+
+        jobExecuter.execute("job", List.of(1), JobExecuter.Workload.IO_BOUND, 1, item -> {
+            seen.put("tenant", ThreadLocalContextUtil.getTenant());
+            seen.put("authToken", ThreadLocalContextUtil.getAuthToken());
+            seen.put("businessDate", ThreadLocalContextUtil.getBusinessDate());
+            seen.put("authentication", SecurityContextHolder.getContext().getAuthentication());
+            ThreadLocalContextUtil.setJobParams(Map.of("number-of-threads", 1));
+        });
+
+        assertSame(TENANT, seen.get("tenant"));
+        assertEquals("token", seen.get("authToken"));
+        assertEquals(LocalDate.of(2022, 5, 31), seen.get("businessDate"));
+        assertSame(authentication, seen.get("authentication"));
+
+        // the single pool thread runs the next task without any of it
+        final ThreadLocal<?> businessDates = (ThreadLocal<?>) ReflectionTestUtils.getField(ThreadLocalContextUtil.class,
+                "businessDateContext");
+        final ThreadLocal<?> actionContext = (ThreadLocal<?>) ReflectionTestUtils.getField(ThreadLocalContextUtil.class, "actionContext");
+        final ExecutorService ioExecutorService = (ExecutorService) ReflectionTestUtils.getField(jobExecuter, "ioExecutorService");
+        final List<Object> leftovers = ioExecutorService
+                .submit(() -> Arrays.<Object>asList(ThreadLocalContextUtil.getTenant(), ThreadLocalContextUtil.getDataSourceContext(),
+                        ThreadLocalContextUtil.getAuthToken(), ThreadLocalContextUtil.getJobParams(), businessDates.get(),
+                        actionContext.get(), SecurityContextHolder.getContext().getAuthentication()))
+                .get(10, TimeUnit.SECONDS);
+        assertEquals(Collections.nCopies(7, null), leftovers);
+    }
+
+    private JobExecuter jobExecuter(final int parallelism, final int chunkSize) {
+        final FineractProperties.FineractJobsProperties jobsProperties = new FineractProperties.FineractJobsProperties();
+        jobsProperties.setParallelism(parallelism);
+        jobsProperties.setIoParallelism(parallelism);
+        jobsProperties.setChunkSize(chunkSize);
+        jobsProperties.setVirtualThreadsEnabled(false);
+        final FineractProperties fineractProperties = new FineractProperties();
+        fineractProperties.setJobs(jobsProperties);
+        final JobExecuter jobExecuter = new JobExecuter(fineractProperties, new SimpleMeterRegistry());
+        jobExecuter.start();
+        this.jobExecuters.add(jobExecuter);
+        return jobExecuter;
+    }
+}
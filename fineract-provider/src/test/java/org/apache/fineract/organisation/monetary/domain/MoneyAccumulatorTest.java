@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.organisation.monetary.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link MoneyAccumulator} against the equivalent chain of {@link Money} operations.
+ */
+public class MoneyAccumulatorTest {
+
+    private static final MonetaryCurrency USD = new MonetaryCurrency("USD", 2, null);
+    private static final MonetaryCurrency KES_IN_FIFTIES = new MonetaryCurrency("KES", 0, 50);
+
+    @BeforeAll
+    public static void init() {
+        MoneyHelper.initializeRoundingMode(RoundingMode.HALF_EVEN);
+    }
+
+    @Test
+    public void testMatchesMoneyForRandomAmounts() {
+        assertMatchesMoney(USD, new Random(42L));
+    }
+
+    @Test
+    public void testMatchesMoneyForCurrencyInMultiples() {
+        assertMatchesMoney(KES_IN_FIFTIES, new Random(7L));
+    }
+
+    @Test
+    public void testRoundsAmountsWithMoreDigitsThanCurrency() {
+        final BigDecimal amount = new BigDecimal("10.125");
+        final Money expected = Money.of(USD, new BigDecimal("0.01")).plus(amount).minus(new BigDecimal("3.3351"));
+
+        final MoneyAccumulator accumulator = MoneyAccumulator.of(Money.of(USD, new BigDecimal("0.01")));
+        accumulator.plus(amount).minus(new BigDecimal("3.3351"));
+
+        assertEquals(expected.getAmount(), accumulator.toBigDecimal());
+    }
+
+    @Test
+    public void testRejectsDifferentCurrency() {
+        final MoneyAccumulator accumulator = MoneyAccumulator.zero(USD);
+
+        assertThrows(UnsupportedOperationException.class, () -> accumulator.plus(Money.zero(KES_IN_FIFTIES)));
+    }
+
+    private void assertMatchesMoney(final MonetaryCurrency currency, final Random random) {
+        Money expected = Money.zero(currency);
+        final MoneyAccumulator accumulator = MoneyAccumulator.zero(currency);
+        for (int i = 0; i < 10_000; i++) {
+            final BigDecimal value = BigDecimal.valueOf(random.nextInt(2_000_000) - 500_000, currency.getDigitsAfterDecimal());
+            final Money amount = Money.of(currency, value);
+            if (random.nextBoolean()) {
+                expected = expected.plus(amount);
+                accumulator.plus(amount);
+            } else {
+                expected = expected.minus(amount);
+                accumulator.minus(amount);
+            }
+            assertEquals(expected.getAmount(), accumulator.toBigDecimal());
+        }
+        assertEquals(expected.getAmount(), accumulator.toMoney().getAmount());
+    }
+}
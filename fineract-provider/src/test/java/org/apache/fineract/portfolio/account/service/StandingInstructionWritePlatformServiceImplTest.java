@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.account.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.fineract.infrastructure.core.data.EnumOptionData;
+import org.apache.fineract.portfolio.account.PortfolioAccountType;
+import org.apache.fineract.portfolio.account.data.PortfolioAccountData;
+import org.apache.fineract.portfolio.account.data.StandingInstructionData;
+import org.apache.fineract.portfolio.common.domain.PeriodFrequencyType;
+import org.apache.fineract.portfolio.loanaccount.loanschedule.domain.DefaultScheduledDateGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class StandingInstructionWritePlatformServiceImplTest {
+
+    @Test
+    public void monthlyRunsFallOnTheLastDayOfShorterMonths() {
+        final StandingInstructionData data = periodic(PeriodFrequencyType.MONTHS, 1, LocalDate.of(2023, 1, 31), 31);
+        final LocalDate startDate = LocalDate.of(2023, 1, 31);
+
+        assertEquals(LocalDate.of(2023, 2, 28), nextRunDate(data, startDate, LocalDate.of(2023, 1, 31)));
+        assertEquals(LocalDate.of(2023, 3, 31), nextRunDate(data, startDate, LocalDate.of(2023, 2, 28)));
+        assertEquals(LocalDate.of(2023, 5, 31), nextRunDate(data, startDate, LocalDate.of(2023, 4, 30)));
+        assertEquals(LocalDate.of(2024, 2, 29), nextRunDate(data, startDate, LocalDate.of(2024, 2, 1)));
+    }
+
+    @Test
+    public void runsSkipThePeriodsInBetweenForLongerIntervals() {
+        final LocalDate monthEnd = LocalDate.of(2023, 1, 31);
+        final StandingInstructionData everyOtherMonth = periodic(PeriodFrequencyType.MONTHS, 2, monthEnd, 31);
+        assertEquals(LocalDate.of(2023, 3, 31), nextRunDate(everyOtherMonth, monthEnd, monthEnd));
+        assertEquals(LocalDate.of(2023, 5, 31), nextRunDate(everyOtherMonth, monthEnd, LocalDate.of(2023, 3, 31)));
+        assertEquals(LocalDate.of(2023, 9, 30), nextRunDate(everyOtherMonth, monthEnd, LocalDate.of(2023, 8, 15)));
+
+        final LocalDate monday = LocalDate.of(2023, 1, 2);
+        final StandingInstructionData everyThirdDay = periodic(PeriodFrequencyType.DAYS, 3, monday, 0);
+        assertEquals(LocalDate.of(2023, 1, 8), nextRunDate(everyThirdDay, monday, LocalDate.of(2023, 1, 5)));
+        final StandingInstructionData everyOtherWeek = periodic(PeriodFrequencyType.WEEKS, 2, monday, 0);
+        assertEquals(LocalDate.of(2023, 1, 16), nextRunDate(everyOtherWeek, monday, monday));
+        assertEquals(LocalDate.of(2023, 1, 30), nextRunDate(everyOtherWeek, monday, LocalDate.of(2023, 1, 16)));
+
+        final LocalDate leapDay = LocalDate.of(2024, 2, 29);
+        final StandingInstructionData yearly = periodic(PeriodFrequencyType.YEARS, 1, leapDay, 29);
+        assertEquals(LocalDate.of(2025, 2, 28), nextRunDate(yearly, leapDay, leapDay));
+        assertEquals(LocalDate.of(2028, 2, 29), nextRunDate(yearly, leapDay, LocalDate.of(2027, 2, 28)));
+    }
+
+    @Test
+    public void dayOfMonthBeyondTheMonthStartsOnItsLastDay() {
+        assertEquals(LocalDate.of(2023, 4, 30), scheduleStartDate(LocalDate.of(2023, 4, 10), 31));
+        assertEquals(LocalDate.of(2023, 2, 28), scheduleStartDate(LocalDate.of(2023, 2, 10), 31));
+        assertEquals(LocalDate.of(2023, 5, 31), scheduleStartDate(LocalDate.of(2023, 5, 31), 31));
+        assertEquals(LocalDate.of(2023, 5, 5), scheduleStartDate(LocalDate.of(2023, 4, 10), 5));
+        assertEquals(LocalDate.of(2023, 2, 28), scheduleStartDate(LocalDate.of(2023, 1, 31), 30));
+    }
+
+    @ParameterizedTest
+    @MethodSource("schedules")
+    public void nextRunDateIsNeverAfterTheNextScheduledDate(final PeriodFrequencyType frequency, final int interval,
+            final LocalDate startDate) {
+        final StandingInstructionData data = periodic(frequency, interval, startDate, startDate.getDayOfMonth());
+        final DefaultScheduledDateGenerator scheduledDateGenerator = new DefaultScheduledDateGenerator();
+        final LocalDate lastDate = startDate.plusYears(4);
+        LocalDate nextScheduledDate = null;
+        // walk backwards so the next scheduled date after every transaction date is known
+        for (LocalDate transactionDate = lastDate.minusDays(1); !transactionDate.isBefore(startDate); transactionDate = transactionDate
+                .minusDays(1)) {
+            final LocalDate nextDay = transactionDate.plusDays(1);
+            if (scheduledDateGenerator.isDateFallsInSchedule(frequency, interval, startDate, nextDay)) {
+                nextScheduledDate = nextDay;
+            }
+            final LocalDate nextRunDate = nextRunDate(data, startDate, transactionDate);
+            assertTrue(nextRunDate.isAfter(transactionDate), transactionDate.toString());
+            if (nextScheduledDate != null) {
+                assertFalse(nextRunDate.isAfter(nextScheduledDate), transactionDate + " runs on " + nextRunDate);
+            }
+        }
+    }
+
+    private static Stream<Arguments> schedules() {
+        return Stream.of(Arguments.of(PeriodFrequencyType.DAYS, 1, LocalDate.of(2023, 1, 1)),
+                Arguments.of(PeriodFrequencyType.DAYS, 10, LocalDate.of(2023, 1, 31)),
+                Arguments.of(PeriodFrequencyType.WEEKS, 1, LocalDate.of(2023, 1, 2)),
+                Arguments.of(PeriodFrequencyType.WEEKS, 3, LocalDate.of(2023, 2, 28)),
+                Arguments.of(PeriodFrequencyType.MONTHS, 1, LocalDate.of(2023, 1, 31)),
+                Arguments.of(PeriodFrequencyType.MONTHS, 2, LocalDate.of(2023, 8, 31)),
+                Arguments.of(PeriodFrequencyType.MONTHS, 3, LocalDate.of(2023, 1, 15)),
+                Arguments.of(PeriodFrequencyType.YEARS, 1, LocalDate.of(2024, 2, 29)),
+                Arguments.of(PeriodFrequencyType.YEARS, 2, LocalDate.of(2023, 6, 30)));
+    }
+
+    @Test
+    public void instructionsSharingAnAccountArePartitionedTogetherInPriorityOrder() {
+        final StandingInstructionData a = transfer(1L, PortfolioAccountType.SAVINGS, 1L, PortfolioAccountType.SAVINGS, 2L);
+        final StandingInstructionData b = transfer(2L, PortfolioAccountType.SAVINGS, 3L, PortfolioAccountType.LOAN, 1L);
+        final StandingInstructionData c = transfer(3L, PortfolioAccountType.SAVINGS, 2L, PortfolioAccountType.SAVINGS, 4L);
+        final StandingInstructionData d = transfer(4L, PortfolioAccountType.SAVINGS, 5L, PortfolioAccountType.SAVINGS, 6L);
+        // joins the chain of a and c with the loan paid by b
+        final StandingInstructionData e = transfer(5L, PortfolioAccountType.SAVINGS, 4L, PortfolioAccountType.LOAN, 1L);
+        // loan 5 is not savings account 5 of d
+        final StandingInstructionData f = transfer(6L, PortfolioAccountType.SAVINGS, 7L, PortfolioAccountType.LOAN, 5L);
+
+        final List<List<StandingInstructionData>> partitions = StandingInstructionWritePlatformServiceImpl
+                .partitionByAccount(List.of(a, b, c, d, e, f));
+
+        assertEquals(List.of(List.of(1L, 2L, 3L, 5L), List.of(4L), List.of(6L)), partitions.stream()
+                .map(partition -> partition.stream().map(StandingInstructionData::getId).collect(Collectors.toList()))
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void unrelatedInstructionsEachGetTheirOwnPartition() {
+        final List<StandingInstructionData> instructions = List.of(
+                transfer(1L, PortfolioAccountType.SAVINGS, 1L, PortfolioAccountType.SAVINGS, 2L),
+                transfer(2L, PortfolioAccountType.SAVINGS, 3L, PortfolioAccountType.SAVINGS, 4L),
+                transfer(3L, PortfolioAccountType.SAVINGS, 5L, PortfolioAccountType.LOAN, 2L));
+
+        assertEquals(3, StandingInstructionWritePlatformServiceImpl.partitionByAccount(instructions).size());
+    }
+
+    private static LocalDate nextRunDate(final StandingInstructionData data, final LocalDate startDate, final LocalDate transactionDate) {
+        return StandingInstructionWritePlatformServiceImpl.nextRunDate(data, startDate, transactionDate);
+    }
+
+    private static LocalDate scheduleStartDate(final LocalDate validFrom, final int recurrenceOnDay) {
+        return StandingInstructionWritePlatformServiceImpl
+                .scheduleStartDate(periodic(PeriodFrequencyType.MONTHS, 1, validFrom, recurrenceOnDay));
+    }
+
+    private static StandingInstructionData periodic(final PeriodFrequencyType frequency, final int interval, final LocalDate validFrom,
+            final int recurrenceOnDay) {
+        final MonthDay recurrenceOnMonthDay = recurrenceOnDay == 0 ? null : MonthDay.of(Month.JANUARY, recurrenceOnDay);
+        return instruction(1L, PortfolioAccountType.SAVINGS, 1L, PortfolioAccountType.SAVINGS, 2L, validFrom,
+                new EnumOptionData(frequency.getValue().longValue(), frequency.getCode(), frequency.name()), interval,
+                recurrenceOnMonthDay);
+    }
+
+    private static StandingInstructionData transfer(final Long id, final PortfolioAccountType fromAccountType, final Long fromAccountId,
+            final PortfolioAccountType toAccountType, final Long toAccountId) {
+        return instruction(id, fromAccountType, fromAccountId, toAccountType, toAccountId, LocalDate.of(2023, 1, 1), null, null, null);
+    }
+
+    private static StandingInstructionData instruction(final Long id, final PortfolioAccountType fromAccountType, final Long fromAccountId,
+            final PortfolioAccountType toAccountType, final Long toAccountId, final LocalDate validFrom,
+            final EnumOptionData recurrenceFrequency, final Integer recurrenceInterval, final MonthDay recurrenceOnMonthDay) {
+        return StandingInstructionData.instance(id, null, "instruction " + id, null, null, null, null,
+                AccountTransferEnumerations.accountType(fromAccountType), PortfolioAccountData.lookup(fromAccountId, null),
+                AccountTransferEnumerations.accountType(toAccountType), PortfolioAccountData.lookup(toAccountId, null), null, null, null,
+                null, BigDecimal.TEN, validFrom, null, null, recurrenceFrequency, recurrenceInterval, recurrenceOnMonthDay);
+    }
+}
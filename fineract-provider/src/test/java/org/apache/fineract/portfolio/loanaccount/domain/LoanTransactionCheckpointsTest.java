@@ -0,0 +1,325 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.loanaccount.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import org.apache.fineract.infrastructure.businessdate.domain.BusinessDateType;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.organisation.monetary.domain.MonetaryCurrency;
+import org.apache.fineract.organisation.monetary.domain.Money;
+import org.apache.fineract.organisation.monetary.domain.MoneyHelper;
+import org.apache.fineract.portfolio.charge.domain.Charge;
+import org.apache.fineract.portfolio.charge.domain.ChargeCalculationType;
+import org.apache.fineract.portfolio.charge.domain.ChargePaymentMode;
+import org.apache.fineract.portfolio.charge.domain.ChargeTimeType;
+import org.apache.fineract.portfolio.loanaccount.domain.transactionprocessor.AbstractLoanRepaymentScheduleTransactionProcessor;
+import org.apache.fineract.portfolio.loanaccount.domain.transactionprocessor.impl.CreocoreLoanRepaymentScheduleTransactionProcessor;
+import org.apache.fineract.portfolio.loanaccount.domain.transactionprocessor.impl.EarlyPaymentLoanRepaymentScheduleTransactionProcessor;
+import org.apache.fineract.portfolio.loanaccount.domain.transactionprocessor.impl.FineractStyleLoanRepaymentScheduleTransactionProcessor;
+import org.apache.fineract.portfolio.loanaccount.domain.transactionprocessor.impl.HeavensFamilyLoanRepaymentScheduleTransactionProcessor;
+import org.apache.fineract.portfolio.loanaccount.domain.transactionprocessor.impl.InterestPrincipalPenaltyFeesOrderLoanRepaymentScheduleTransactionProcessor;
+import org.apache.fineract.portfolio.loanaccount.domain.transactionprocessor.impl.PrincipalInterestPenaltyFeesOrderLoanRepaymentScheduleTransactionProcessor;
+import org.apache.fineract.portfolio.loanaccount.domain.transactionprocessor.impl.RBILoanRepaymentScheduleTransactionProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tests {@link LoanTransactionCheckpoints}: for every repayment strategy, replaying a changed transaction history from a
+ * checkpoint must leave the schedule, the charges and the transactions exactly as a full replay does.
+ */
+public class LoanTransactionCheckpointsTest {
+
+    private static final MonetaryCurrency CURRENCY = new MonetaryCurrency("USD", 2, null);
+    private static final LocalDate DISBURSEMENT_DATE = LocalDate.of(2021, 1, 1);
+    private static final int NUMBER_OF_REPAYMENTS = 12;
+    private static final int NUMBER_OF_TRANSACTIONS = 60;
+
+    @BeforeEach
+    public void setUp() {
+        MoneyHelper.initializeRoundingMode(RoundingMode.HALF_EVEN);
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+        HashMap<BusinessDateType, LocalDate> businessDates = new HashMap<>();
+        businessDates.put(BusinessDateType.BUSINESS_DATE, LocalDate.of(2022, 6, 1));
+        businessDates.put(BusinessDateType.COB_DATE, LocalDate.of(2022, 5, 31));
+        ThreadLocalContextUtil.setBusinessDates(businessDates);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadLocalContextUtil.reset();
+    }
+
+    private static Stream<Arguments> replays() {
+        final List<Supplier<AbstractLoanRepaymentScheduleTransactionProcessor>> processors = List.of(
+                CreocoreLoanRepaymentScheduleTransactionProcessor::new, EarlyPaymentLoanRepaymentScheduleTransactionProcessor::new,
+                FineractStyleLoanRepaymentScheduleTransactionProcessor::new, HeavensFamilyLoanRepaymentScheduleTransactionProcessor::new,
+                InterestPrincipalPenaltyFeesOrderLoanRepaymentScheduleTransactionProcessor::new,
+                PrincipalInterestPenaltyFeesOrderLoanRepaymentScheduleTransactionProcessor::new,
+                RBILoanRepaymentScheduleTransactionProcessor::new);
+        final List<Arguments> replays = new ArrayList<>();
+        for (final Supplier<AbstractLoanRepaymentScheduleTransactionProcessor> processor : processors) {
+            for (final Change change : Change.values()) {
+                replays.add(Arguments.of(processor.get().getClass().getSimpleName(), processor, change));
+            }
+        }
+        return replays.stream();
+    }
+
+    @ParameterizedTest(name = "{0} {2}")
+    @MethodSource("replays")
+    public void checkpointedReplayMatchesFullReplay(final String strategy,
+            final Supplier<AbstractLoanRepaymentScheduleTransactionProcessor> processor, final Change change) {
+        final History fullReplay = new History(processor.get());
+        fullReplay.replay(processor.get(), false);
+        change.applyTo(fullReplay);
+        fullReplay.replay(processor.get(), false);
+
+        final History checkpointedReplay = new History(processor.get());
+        checkpointedReplay.replay(processor.get(), true);
+        assertEquals(1, checkpointedReplay.checkpoints.size());
+        final LoanTransactionCheckpoint checkpoint = checkpointedReplay.checkpoints.get(0);
+        assertEquals(LoanTransactionCheckpoints.CHECKPOINT_INTERVAL, checkpoint.getTransactionCount());
+        change.applyTo(checkpointedReplay);
+        checkpointedReplay.replay(processor.get(), true);
+
+        assertEquals(change.restoresCheckpoint, checkpointedReplay.checkpoints.contains(checkpoint));
+        assertEquals(fullReplay.snapshot(), checkpointedReplay.snapshot());
+    }
+
+    @Test
+    public void chargePaymentTotalIsOnlyRestoredOnceTheReplaySetIt() {
+        final LoanRepaymentScheduleInstallment installment = installment(1);
+        final LoanInstallmentCharge replayed = new LoanInstallmentCharge(BigDecimal.TEN, null, installment);
+        replayed.resetPaidAmount(CURRENCY);
+        // a charge payment against a waived installment fee sets the total without paying anything
+        replayed.updatePaidAmountBy(Money.zero(CURRENCY), Money.of(CURRENCY, BigDecimal.valueOf(4)));
+        final LoanTransactionCheckpointState.InstallmentChargeState replayedState = replayed.captureProcessingState();
+        assertEquals(0, BigDecimal.valueOf(4).compareTo(replayedState.getAmountThroughChargePayment()));
+
+        final LoanInstallmentCharge untouched = new LoanInstallmentCharge(BigDecimal.TEN, null, installment);
+        ReflectionTestUtils.setField(untouched, "amountThroughChargePayment", BigDecimal.valueOf(7));
+        untouched.resetPaidAmount(CURRENCY);
+        final LoanTransactionCheckpointState.InstallmentChargeState untouchedState = untouched.captureProcessingState();
+        assertNull(untouchedState.getAmountThroughChargePayment());
+
+        final LoanInstallmentCharge restored = new LoanInstallmentCharge(BigDecimal.TEN, null, installment);
+        ReflectionTestUtils.setField(restored, "amountThroughChargePayment", BigDecimal.valueOf(7));
+        restored.resetPaidAmount(CURRENCY);
+        restored.restoreProcessingState(untouchedState);
+        assertEquals(Money.of(CURRENCY, BigDecimal.valueOf(7)), restored.getAmountThroughChargePayment(CURRENCY));
+        assertNull(restored.captureProcessingState().getAmountThroughChargePayment());
+        restored.restoreProcessingState(replayedState);
+        assertEquals(Money.of(CURRENCY, BigDecimal.valueOf(4)), restored.getAmountThroughChargePayment(CURRENCY));
+        assertFalse(restored.isPaid());
+        assertNotNull(restored.captureProcessingState().getAmountThroughChargePayment());
+    }
+
+    /**
+     * The changes made to the saved history between the two replays; only those after the checkpoint keep it valid.
+     */
+    enum Change {
+
+        BACKDATED_REPAYMENT_AFTER_CHECKPOINT(true) {
+
+            @Override
+            void applyTo(final History history) {
+                history.add(LoanTransaction.repayment(null, Money.of(CURRENCY, BigDecimal.valueOf(40)), null,
+                        history.transactions.get(54).getTransactionDate().plusDays(2), null));
+            }
+        },
+        BACKDATED_REPAYMENT_BEFORE_CHECKPOINT(false) {
+
+            @Override
+            void applyTo(final History history) {
+                history.add(LoanTransaction.repayment(null, Money.of(CURRENCY, BigDecimal.valueOf(40)), null,
+                        history.transactions.get(9).getTransactionDate().plusDays(2), null));
+            }
+        },
+        INTEREST_WAIVED_AFTER_CHECKPOINT(true) {
+
+            @Override
+            void applyTo(final History history) {
+                final Money waived = Money.of(CURRENCY, BigDecimal.valueOf(60));
+                history.add(LoanTransaction.waiver(null, null, waived, history.transactions.get(55).getTransactionDate().plusDays(1),
+                        waived, Money.zero(CURRENCY)));
+            }
+        },
+        INSTALLMENT_FEE_WAIVED(false) {
+
+            @Override
+            void applyTo(final History history) {
+                history.installmentFee.waive(CURRENCY, 11);
+            }
+        },
+        CHARGE_ADDED(false) {
+
+            @Override
+            void applyTo(final History history) {
+                history.charges.add(charge(3L, ChargeTimeType.SPECIFIED_DUE_DATE, BigDecimal.valueOf(75),
+                        DISBURSEMENT_DATE.plusMonths(10).plusDays(3)));
+            }
+        };
+
+        private final boolean restoresCheckpoint;
+
+        Change(final boolean restoresCheckpoint) {
+            this.restoresCheckpoint = restoresCheckpoint;
+        }
+
+        abstract void applyTo(History history);
+    }
+
+    /**
+     * A loan with installment and due date fees, one installment fee already waived, and a repayment every five days;
+     * replays assign ids to new transactions the way saving the loan does.
+     */
+    static final class History {
+
+        private final List<LoanRepaymentScheduleInstallment> installments = new ArrayList<>();
+        private final Set<LoanCharge> charges = new LinkedHashSet<>();
+        private final LoanCharge installmentFee;
+        private final List<LoanTransaction> transactions = new ArrayList<>();
+        private final List<LoanTransactionCheckpoint> checkpoints = new ArrayList<>();
+        private final List<String> changes = new ArrayList<>();
+        private long nextTransactionId = 1;
+
+        History(final AbstractLoanRepaymentScheduleTransactionProcessor processor) {
+            for (int number = 1; number <= NUMBER_OF_REPAYMENTS; number++) {
+                this.installments.add(installment(number));
+            }
+            this.installmentFee = charge(1L, ChargeTimeType.INSTALMENT_FEE, BigDecimal.TEN, null);
+            final Set<LoanInstallmentCharge> installmentCharges = new HashSet<>();
+            for (final LoanRepaymentScheduleInstallment installment : this.installments) {
+                installmentCharges.add(new LoanInstallmentCharge(BigDecimal.TEN, this.installmentFee, installment));
+            }
+            this.installmentFee.addLoanInstallmentCharges(installmentCharges);
+            this.installmentFee.waive(CURRENCY, 2);
+            this.charges.add(this.installmentFee);
+            this.charges.add(charge(2L, ChargeTimeType.SPECIFIED_DUE_DATE, BigDecimal.valueOf(50),
+                    DISBURSEMENT_DATE.plusMonths(2).plusDays(14)));
+            for (int i = 1; i <= NUMBER_OF_TRANSACTIONS; i++) {
+                add(LoanTransaction.repayment(null, Money.of(CURRENCY, BigDecimal.valueOf(30)), null, DISBURSEMENT_DATE.plusDays(5L * i),
+                        null));
+            }
+            // the history has been processed and saved before either replay
+            replay(processor, false);
+            this.changes.clear();
+        }
+
+        void add(final LoanTransaction transaction) {
+            this.transactions.add(transaction);
+            this.transactions.sort(Comparator.comparing(LoanTransaction::getTransactionDate));
+        }
+
+        void replay(final AbstractLoanRepaymentScheduleTransactionProcessor processor, final boolean checkpointed) {
+            final List<LoanTransaction> active = new ArrayList<>();
+            for (final LoanTransaction transaction : this.transactions) {
+                if (!transaction.isReversed()) {
+                    active.add(transaction);
+                }
+            }
+            final ChangedTransactionDetail changedTransactionDetail = checkpointed
+                    ? processor.handleTransaction(DISBURSEMENT_DATE, active, CURRENCY, this.installments, this.charges,
+                            new LoanTransactionCheckpoints(null, this.checkpoints))
+                    : processor.handleTransaction(DISBURSEMENT_DATE, active, CURRENCY, this.installments, this.charges);
+            final Map<Long, LoanTransaction> replacements = changedTransactionDetail.getNewTransactionMappings();
+            replacements.keySet().stream().sorted().forEach(replacedId -> {
+                final LoanTransaction replacement = replacements.get(replacedId);
+                this.changes.add(replacedId + " -> " + describe(replacement));
+                this.transactions.add(replacement);
+            });
+            for (final LoanTransaction transaction : this.transactions) {
+                if (transaction.getId() == null) {
+                    ReflectionTestUtils.setField(transaction, "id", this.nextTransactionId++);
+                }
+            }
+            this.transactions.sort(Comparator.comparing(LoanTransaction::getTransactionDate).thenComparing(LoanTransaction::getId));
+        }
+
+        String snapshot() {
+            final LoanTransactionCheckpointState state = new LoanTransactionCheckpointState();
+            this.installments.stream().sorted(Comparator.comparing(LoanRepaymentScheduleInstallment::getInstallmentNumber))
+                    .forEach(installment -> state.getInstallments().add(installment.captureProcessingState()));
+            this.charges.stream().sorted(Comparator.comparing(LoanCharge::getId))
+                    .forEach(charge -> state.getCharges().add(charge.captureProcessingState()));
+            final StringBuilder snapshot = new StringBuilder(state.toJson());
+            for (final LoanRepaymentScheduleInstallment installment : this.installments) {
+                snapshot.append('\n').append(installment.getInstallmentNumber()).append(": ")
+                        .append(installment.getTotalOutstanding(CURRENCY).getAmount());
+            }
+            for (final LoanCharge charge : this.charges) {
+                for (final LoanInstallmentCharge installmentCharge : charge.installmentCharges()) {
+                    snapshot.append('\n').append(charge.getId()).append('/')
+                            .append(installmentCharge.getRepaymentInstallment().getInstallmentNumber()).append(": ")
+                            .append(installmentCharge.getAmountThroughChargePayment(CURRENCY).getAmount());
+                }
+            }
+            for (final LoanTransaction transaction : this.transactions) {
+                snapshot.append('\n').append(transaction.getId()).append(transaction.isReversed() ? " reversed " : " ")
+                        .append(describe(transaction));
+            }
+            this.changes.forEach(change -> snapshot.append('\n').append(change));
+            return snapshot.toString();
+        }
+    }
+
+    private static String describe(final LoanTransaction transaction) {
+        return LoanTransactionCheckpoints.fingerprintOf(transaction.getTypeOf().getValue(), transaction.getTransactionDate(),
+                transaction.getAmount(CURRENCY).getAmount(), transaction.getPrincipalPortion(CURRENCY).getAmount(),
+                transaction.getInterestPortion(CURRENCY).getAmount(), transaction.getFeeChargesPortion(CURRENCY).getAmount(),
+                transaction.getPenaltyChargesPortion(CURRENCY).getAmount(), transaction.getOverPaymentPortion(CURRENCY).getAmount());
+    }
+
+    private static LoanRepaymentScheduleInstallment installment(final int number) {
+        return new LoanRepaymentScheduleInstallment(null, number, DISBURSEMENT_DATE.plusMonths(number - 1L),
+                DISBURSEMENT_DATE.plusMonths(number), BigDecimal.valueOf(1000), BigDecimal.valueOf(100), BigDecimal.ZERO,
+                BigDecimal.ZERO, false, new HashSet<>());
+    }
+
+    private static LoanCharge charge(final Long id, final ChargeTimeType chargeTime, final BigDecimal amount, final LocalDate dueDate) {
+        final LoanCharge charge = new LoanCharge(null, mock(Charge.class), BigDecimal.valueOf(12000), amount, chargeTime,
+                ChargeCalculationType.FLAT, dueDate, ChargePaymentMode.REGULAR, NUMBER_OF_REPAYMENTS, BigDecimal.ZERO);
+        ReflectionTestUtils.setField(charge, "id", id);
+        return charge;
+    }
+}
@@ -0,0 +1,314 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.loanaccount.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.apache.fineract.infrastructure.configuration.domain.ConfigurationDomainService;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
+import org.apache.fineract.infrastructure.jobs.exception.JobExecutionException;
+import org.apache.fineract.infrastructure.jobs.service.JobExecuter;
+import org.apache.fineract.organisation.holiday.domain.Holiday;
+import org.apache.fineract.organisation.holiday.domain.HolidayRepositoryWrapper;
+import org.apache.fineract.organisation.holiday.domain.RescheduleType;
+import org.apache.fineract.portfolio.loanaccount.domain.Loan;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanRepository;
+import org.apache.fineract.portfolio.loanaccount.domain.LoanRepositoryWrapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the holiday job against an in-memory repayment schedule and <code>m_holiday_loan</code> table, with every chunk
+ * committed or rolled back through a transaction manager that applies or drops the writes of its transaction.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class LoanWritePlatformServiceJpaRepositoryImplHolidayTest {
+
+    private static final Long HOLIDAY_ID = 7L;
+    private static final LocalDate FROM_DATE = LocalDate.of(2022, 3, 10);
+    private static final LocalDate TO_DATE = LocalDate.of(2022, 3, 12);
+    private static final int CHUNK_SIZE = 100;
+    private static final Pattern LIMIT = Pattern.compile("LIMIT (\\d+)$");
+
+    @Mock
+    private ConfigurationDomainService configurationDomainService;
+    @Mock
+    private HolidayRepositoryWrapper holidayRepository;
+    @Mock
+    private LoanRepository loanRepository;
+    @Mock
+    private LoanRepositoryWrapper loanRepositoryWrapper;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private DatabaseSpecificSQLGenerator sqlGenerator;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private Holiday holiday;
+
+    @InjectMocks
+    private LoanWritePlatformServiceJpaRepositoryImpl underTest;
+
+    // due date of the single installment of every loan, by loan id
+    private final Map<Long, LocalDate> dueDates = new TreeMap<>();
+    private final Map<Long, Loan> loans = new ConcurrentHashMap<>();
+    private final Set<Long> holidayLoans = ConcurrentHashMap.newKeySet();
+    // committed reschedules by loan id
+    private final Map<Long, Integer> rescheduled = new ConcurrentHashMap<>();
+    private final List<Long> loadedLoanIds = new CopyOnWriteArrayList<>();
+    private final List<Long> pageStarts = new ArrayList<>();
+    private final ThreadLocal<List<Runnable>> pendingWrites = ThreadLocal.withInitial(ArrayList::new);
+    private volatile Long failingLoanId;
+    private LocalDate windowStartDate;
+    private JobExecuter jobExecuter;
+
+    @BeforeEach
+    public void setUp() {
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+        this.jobExecuter = jobExecuter();
+        ReflectionTestUtils.setField(this.underTest, "jobExecuter", this.jobExecuter);
+        ReflectionTestUtils.setField(this.underTest, "transactionTemplate", new TransactionTemplate(this.transactionManager));
+
+        given(this.configurationDomainService.isRescheduleRepaymentsOnHolidaysEnabled()).willReturn(true);
+        given(this.holidayRepository.findUnprocessed()).willReturn(List.of(this.holiday));
+        given(this.holiday.getId()).willReturn(HOLIDAY_ID);
+        given(this.holiday.getFromDateLocalDate()).willReturn(FROM_DATE);
+        given(this.holiday.getToDateLocalDate()).willReturn(TO_DATE);
+        given(this.holiday.getReScheduleType()).willReturn(RescheduleType.RESCHEDULETONEXTREPAYMENTDATE);
+        given(this.sqlGenerator.limit(anyInt())).willAnswer(invocation -> "LIMIT " + invocation.getArgument(0));
+
+        given(this.jdbcTemplate.queryForList(startsWith("select office_id from m_holiday_office"), eq(Long.class), any()))
+                .willReturn(List.of(1L));
+        given(this.jdbcTemplate.queryForList(startsWith("select distinct l.id from m_loan"), eq(Long.class), any()))
+                .willAnswer(invocation -> selectLoanIds(invocation.getArguments()));
+        given(this.loanRepository.findAllById(any())).willAnswer(invocation -> {
+            final List<Loan> found = new ArrayList<>();
+            for (final Long loanId : invocation.<Iterable<Long>>getArgument(0)) {
+                this.loadedLoanIds.add(loanId);
+                found.add(this.loans.computeIfAbsent(loanId, this::loan));
+            }
+            return found;
+        });
+        given(this.loanRepositoryWrapper.save(anyList())).willAnswer(invocation -> {
+            final List<Loan> saved = invocation.getArgument(0);
+            for (final Loan loan : saved) {
+                if (loan.getId().equals(this.failingLoanId)) {
+                    throw new IllegalStateException("loan " + loan.getId() + " failed");
+                }
+            }
+            this.pendingWrites.get().add(() -> saved.forEach(loan -> this.rescheduled.merge(loan.getId(), 1, Integer::sum)));
+            return saved;
+        });
+        given(this.jdbcTemplate.batchUpdate(startsWith("insert into m_holiday_loan"), anyList())).willAnswer(invocation -> {
+            final List<Object[]> rows = invocation.getArgument(1);
+            for (final Object[] row : rows) {
+                assertEquals(HOLIDAY_ID, row[0]);
+                this.pendingWrites.get().add(() -> this.holidayLoans.add((Long) row[1]));
+            }
+            return new int[rows.size()];
+        });
+        given(this.jdbcTemplate.update(startsWith("delete from m_holiday_loan"), eq(HOLIDAY_ID))).willAnswer(invocation -> {
+            this.pendingWrites.get().add(this.holidayLoans::clear);
+            return this.holidayLoans.size();
+        });
+
+        given(this.transactionManager.getTransaction(any())).willAnswer(invocation -> new SimpleTransactionStatus());
+        willAnswer(invocation -> {
+            this.pendingWrites.get().forEach(Runnable::run);
+            this.pendingWrites.remove();
+            return null;
+        }).given(this.transactionManager).commit(any());
+        willAnswer(invocation -> {
+            this.pendingWrites.remove();
+            return null;
+        }).given(this.transactionManager).rollback(any());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.jobExecuter.stop();
+        ThreadLocalContextUtil.reset();
+    }
+
+    @Test
+    public void aFailedChunkLeavesTheHolidayUnprocessedAndTheRerunSkipsRescheduledLoans() throws Exception {
+        for (long loanId = 1; loanId <= 1000; loanId++) {
+            this.dueDates.put(loanId, TO_DATE);
+        }
+        this.failingLoanId = 450L;
+
+        final JobExecutionException exception = assertThrows(JobExecutionException.class, () -> this.underTest.applyHolidaysToLoans());
+
+        assertEquals(1, exception.getCauses().size());
+        verify(this.holiday, never()).processed();
+        // the chunk of loan 450 is rolled back, the other chunks are committed with their m_holiday_loan rows
+        final Set<Long> failedChunk = LongStream.rangeClosed(401, 500).boxed().collect(Collectors.toSet());
+        assertEquals(900, this.rescheduled.size());
+        assertTrue(this.rescheduled.keySet().stream().noneMatch(failedChunk::contains));
+        assertEquals(this.rescheduled.keySet(), this.holidayLoans);
+
+        this.failingLoanId = null;
+        this.loadedLoanIds.clear();
+        this.underTest.applyHolidaysToLoans();
+
+        // the rerun only loads the loans of the failed chunk, no loan is shifted twice
+        assertEquals(failedChunk.size(), this.loadedLoanIds.size());
+        assertEquals(failedChunk, new HashSet<>(this.loadedLoanIds));
+        assertEquals(1000, this.rescheduled.size());
+        assertTrue(this.rescheduled.values().stream().allMatch(count -> count == 1));
+        verify(this.holiday).processed();
+        verify(this.holidayRepository).saveAndFlush(this.holiday);
+        assertTrue(this.holidayLoans.isEmpty());
+    }
+
+    @Test
+    public void rescheduleToNextRepaymentDateCoversTheInstallmentsTheLoanLooksBackTo() throws Exception {
+        addLoansDueAroundTheHoliday();
+
+        this.underTest.applyHolidaysToLoans();
+
+        assertEquals(TO_DATE.minusDays(29), this.windowStartDate);
+        for (final Map.Entry<Long, LocalDate> loan : this.dueDates.entrySet()) {
+            final LocalDate dueDate = loan.getValue();
+            // the standard monthly check of Loan.applyHolidayToRepaymentScheduleDates
+            final boolean lookedBackTo = TO_DATE.isAfter(dueDate) && TO_DATE.isBefore(dueDate.plusDays(30));
+            assertEquals(lookedBackTo || TO_DATE.isEqual(dueDate), this.rescheduled.containsKey(loan.getKey()), dueDate.toString());
+        }
+    }
+
+    @Test
+    public void rescheduleToSpecificDateOnlyCoversTheHoliday() throws Exception {
+        given(this.holiday.getReScheduleType()).willReturn(RescheduleType.RESCHEDULETOSPECIFICDATE);
+        addLoansDueAroundTheHoliday();
+
+        this.underTest.applyHolidaysToLoans();
+
+        assertEquals(FROM_DATE, this.windowStartDate);
+        for (final Map.Entry<Long, LocalDate> loan : this.dueDates.entrySet()) {
+            final LocalDate dueDate = loan.getValue();
+            assertEquals(!dueDate.isBefore(FROM_DATE) && !dueDate.isAfter(TO_DATE), this.rescheduled.containsKey(loan.getKey()),
+                    dueDate.toString());
+        }
+    }
+
+    @Test
+    public void loanIdsArePagedAfterTheLastLoanOfThePreviousPage() throws Exception {
+        // more loans than one page holds, with gaps in the ids and loans due outside the holiday in between
+        final Set<Long> dueInHoliday = new HashSet<>();
+        for (long i = 0; i < 10500; i++) {
+            this.dueDates.put(3 * i + 5, FROM_DATE);
+            this.dueDates.put(3 * i + 6, FROM_DATE.minusDays(60));
+            dueInHoliday.add(3 * i + 5);
+        }
+
+        this.underTest.applyHolidaysToLoans();
+
+        assertEquals(List.of(0L, 3L * 9999 + 5, 3L * 10499 + 5), this.pageStarts);
+        assertEquals(dueInHoliday, this.rescheduled.keySet());
+        assertTrue(this.rescheduled.values().stream().allMatch(count -> count == 1));
+        verify(this.holiday).processed();
+    }
+
+    private void addLoansDueAroundTheHoliday() {
+        long loanId = 1;
+        for (LocalDate dueDate = TO_DATE.minusDays(40); !dueDate.isAfter(TO_DATE.plusDays(5)); dueDate = dueDate.plusDays(1)) {
+            this.dueDates.put(loanId++, dueDate);
+        }
+    }
+
+    private List<Long> selectLoanIds(final Object[] arguments) {
+        final String sql = (String) arguments[0];
+        final LocalDate fromDate = (LocalDate) arguments[2];
+        final LocalDate toDate = (LocalDate) arguments[3];
+        final Long maxLoanId = (Long) arguments[4];
+        assertTrue(sql.contains("not exists (select 1 from m_holiday_loan hl where hl.holiday_id = ? and hl.loan_id = l.id)"));
+        assertEquals(HOLIDAY_ID, arguments[arguments.length - 1]);
+        final Matcher limit = LIMIT.matcher(sql.trim());
+        assertTrue(limit.find());
+        this.windowStartDate = fromDate;
+        this.pageStarts.add(maxLoanId);
+        return this.dueDates.entrySet().stream()
+                .filter(loan -> loan.getKey() > maxLoanId && !loan.getValue().isBefore(fromDate) && !loan.getValue().isAfter(toDate)
+                        && !this.holidayLoans.contains(loan.getKey()))
+                .map(Map.Entry::getKey).limit(Integer.parseInt(limit.group(1))).collect(Collectors.toList());
+    }
+
+    private Loan loan(final Long loanId) {
+        final Loan loan = mock(Loan.class, withSettings().stubOnly());
+        given(loan.getId()).willReturn(loanId);
+        return loan;
+    }
+
+    private JobExecuter jobExecuter() {
+        final FineractProperties.FineractJobsProperties jobsProperties = new FineractProperties.FineractJobsProperties();
+        jobsProperties.setParallelism(4);
+        jobsProperties.setIoParallelism(4);
+        jobsProperties.setChunkSize(CHUNK_SIZE);
+        jobsProperties.setVirtualThreadsEnabled(false);
+        final FineractProperties fineractProperties = new FineractProperties();
+        fineractProperties.setJobs(jobsProperties);
+        final JobExecuter jobExecuter = new JobExecuter(fineractProperties, new SimpleMeterRegistry());
+        jobExecuter.start();
+        return jobExecuter;
+    }
+}
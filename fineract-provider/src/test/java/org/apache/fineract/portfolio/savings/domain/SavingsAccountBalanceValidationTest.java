@@ -0,0 +1,194 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.savings.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.apache.fineract.organisation.monetary.domain.MonetaryCurrency;
+import org.apache.fineract.organisation.monetary.domain.Money;
+import org.apache.fineract.organisation.monetary.domain.MoneyHelper;
+import org.apache.fineract.portfolio.savings.exception.InsufficientAccountBalanceException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * The balance check of a withdrawal walks the account's transaction history, counting funds on hold from the date
+ * they were put on hold.
+ */
+public class SavingsAccountBalanceValidationTest {
+
+    private static final MonetaryCurrency CURRENCY = new MonetaryCurrency("USD", 2, null);
+    private static final LocalDate FIRST_DATE = LocalDate.of(2023, 1, 1);
+
+    @BeforeAll
+    public static void setUpMoney() {
+        MoneyHelper.initializeRoundingMode(RoundingMode.HALF_EVEN);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("withdrawals")
+    public void balanceCheckRejectsWithdrawalsBeyondTheAvailableBalance(final String description, final Account account,
+            final boolean rejected) {
+        assertEquals(rejected, account.rejected());
+    }
+
+    private static Stream<Arguments> withdrawals() {
+        return Stream.of(//
+                Arguments.of("within balance", new Account(100, -60), false), //
+                Arguments.of("beyond balance", new Account(100, -60, -50), true), //
+                Arguments.of("exception beyond balance", new Account(100, -150).exception(), false), //
+                Arguments.of("enforced minimum balance kept", new Account(100, -40).with(minRequiredBalance(50, true)), false), //
+                Arguments.of("enforced minimum balance broken", new Account(100, -60).with(minRequiredBalance(50, true)), true), //
+                Arguments.of("minimum balance not enforced", new Account(100, -60).with(minRequiredBalance(50, false)), false), //
+                Arguments.of("within overdraft", new Account(100, -150).with(overdraft(100)), false), //
+                Arguments.of("beyond overdraft", new Account(100, -150, -100).with(overdraft(100)), true), //
+                Arguments.of("exception beyond overdraft", new Account(100, -250).with(overdraft(100)).exception(), true), //
+                Arguments.of("overdue loans kept", new Account(100, -60).overdueLoans(30), false), //
+                Arguments.of("overdue loans broken", new Account(100, -80).overdueLoans(30), true), //
+                Arguments.of("funds on hold kept", new Account(100, -60).hold(30), false), //
+                Arguments.of("funds on hold broken", new Account(100, -80).hold(30), true), //
+                Arguments.of("funds partly released", new Account(100, -70).hold(50).release(20), false), //
+                Arguments.of("funds on hold after the withdrawal", new Account(100, -80).holdAfterwards(30), false), //
+                Arguments.of("funds on hold on the withdrawal date", new Account(100, -80).holdOnWithdrawalDate(30), true), //
+                Arguments.of("funds on hold with overdraft", new Account(100, -150).with(overdraft(100)).hold(60), true), //
+                Arguments.of("lien kept", new Account(100, -60).with(lien(30)), false), //
+                Arguments.of("lien broken", new Account(100, -80).with(lien(30)), true), //
+                Arguments.of("lien and enforced minimum balance", new Account(100, -60).with(lien(30)).with(minRequiredBalance(20, true)),
+                        true), //
+                Arguments.of("lien and minimum balance not enforced",
+                        new Account(100, -60).with(lien(30)).with(minRequiredBalance(20, false)), false), //
+                Arguments.of("lien with exception", new Account(100, -80).with(lien(30)).exception(), true));
+    }
+
+    private static Consumer<SavingsAccount> minRequiredBalance(final int minRequiredBalance, final boolean enforced) {
+        return account -> {
+            ReflectionTestUtils.setField(account, "minRequiredBalance", BigDecimal.valueOf(minRequiredBalance));
+            ReflectionTestUtils.setField(account, "enforceMinRequiredBalance", enforced);
+        };
+    }
+
+    private static Consumer<SavingsAccount> overdraft(final int overdraftLimit) {
+        return account -> {
+            ReflectionTestUtils.setField(account, "allowOverdraft", true);
+            ReflectionTestUtils.setField(account, "overdraftLimit", BigDecimal.valueOf(overdraftLimit));
+        };
+    }
+
+    private static Consumer<SavingsAccount> lien(final int lienAmount) {
+        return account -> account.holdAmount(BigDecimal.valueOf(lienAmount));
+    }
+
+    /**
+     * An account whose history ends with the withdrawal under validation, one transaction a day. Funds are put on hold
+     * and released the day before that withdrawal unless stated otherwise.
+     */
+    private static final class Account {
+
+        private final SavingsAccount savingsAccount = new SavingsAccount();
+        private final List<DepositAccountOnHoldTransaction> onHoldTransactions = new ArrayList<>();
+        private final BigDecimal withdrawalAmount;
+        private final LocalDate withdrawalDate;
+        private boolean isException;
+        private BigDecimal overdueLoanAmount = BigDecimal.ZERO;
+
+        private Account(final int... amounts) {
+            ReflectionTestUtils.setField(this.savingsAccount, "currency", CURRENCY);
+            final SavingsAccountSummary summary = new SavingsAccountSummary();
+            ReflectionTestUtils.setField(this.savingsAccount, "summary", summary);
+            BigDecimal balance = BigDecimal.ZERO;
+            LocalDate date = FIRST_DATE;
+            for (final int amount : amounts) {
+                final Money money = Money.of(CURRENCY, BigDecimal.valueOf(Math.abs(amount)));
+                this.savingsAccount.transactions.add(amount > 0
+                        ? SavingsAccountTransaction.deposit(this.savingsAccount, null, null, date, money, date.atStartOfDay(), null, null)
+                        : SavingsAccountTransaction.withdrawal(this.savingsAccount, null, null, date, money, date.atStartOfDay(), null,
+                                null));
+                balance = balance.add(BigDecimal.valueOf(amount));
+                date = date.plusDays(1);
+            }
+            // the maintained balance already includes the withdrawal, as it does once the withdrawal was applied
+            summary.setAccountBalance(balance);
+            this.withdrawalAmount = BigDecimal.valueOf(-amounts[amounts.length - 1]);
+            this.withdrawalDate = date.minusDays(1);
+        }
+
+        private Account with(final Consumer<SavingsAccount> setting) {
+            setting.accept(this.savingsAccount);
+            return this;
+        }
+
+        private Account exception() {
+            this.isException = true;
+            return this;
+        }
+
+        private Account overdueLoans(final int overdueLoanAmount) {
+            this.overdueLoanAmount = BigDecimal.valueOf(overdueLoanAmount);
+            return this;
+        }
+
+        private Account hold(final int amount) {
+            return hold(amount, this.withdrawalDate.minusDays(1));
+        }
+
+        private Account holdOnWithdrawalDate(final int amount) {
+            return hold(amount, this.withdrawalDate);
+        }
+
+        private Account holdAfterwards(final int amount) {
+            return hold(amount, this.withdrawalDate.plusDays(1));
+        }
+
+        private Account hold(final int amount, final LocalDate holdDate) {
+            this.onHoldTransactions.add(DepositAccountOnHoldTransaction.hold(this.savingsAccount, BigDecimal.valueOf(amount), holdDate));
+            this.savingsAccount.holdFunds(BigDecimal.valueOf(amount));
+            return this;
+        }
+
+        private Account release(final int amount) {
+            this.onHoldTransactions.add(DepositAccountOnHoldTransaction.release(this.savingsAccount, BigDecimal.valueOf(amount),
+                    this.withdrawalDate.minusDays(1)));
+            this.savingsAccount.releaseFunds(BigDecimal.valueOf(amount));
+            return this;
+        }
+
+        private boolean rejected() {
+            // as SavingsAccountDomainServiceJpa#handleWithdrawal, the holds are only loaded when funds are on hold
+            final List<DepositAccountOnHoldTransaction> holds = this.savingsAccount.getOnHoldFunds().signum() > 0 ? this.onHoldTransactions
+                    : null;
+            try {
+                this.savingsAccount.validateAccountBalanceDoesNotBecomeNegative(this.withdrawalAmount, this.isException, holds, false,
+                        this.overdueLoanAmount);
+                return false;
+            } catch (InsufficientAccountBalanceException e) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.savings.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import org.apache.fineract.cob.data.BatchPartition;
+import org.apache.fineract.cob.domain.BatchPartitionStatus;
+import org.apache.fineract.cob.service.BatchPartitionService;
+import org.apache.fineract.infrastructure.businessdate.domain.BusinessDateType;
+import org.apache.fineract.infrastructure.configuration.domain.ConfigurationDomainService;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenantConnection;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.apache.fineract.infrastructure.jobs.service.JobName;
+import org.apache.fineract.portfolio.savings.data.SavingsAccountData;
+import org.apache.fineract.portfolio.savings.data.SavingsAccountSummaryData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SavingsInterestPostingPartitionHandlerTest {
+
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2022, 3, 31);
+
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Mock
+    private SavingsAccountReadPlatformService savingsAccountReadPlatformService;
+
+    @Mock
+    private SavingsAccountWritePlatformService savingsAccountWritePlatformService;
+
+    @Mock
+    private ConfigurationDomainService configurationDomainService;
+
+    @Mock
+    private BatchPartitionService batchPartitionService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SavingsInterestPostingPartitionHandler handler;
+
+    @BeforeEach
+    public void setUp() {
+        FineractPlatformTenantConnection connection = mock(FineractPlatformTenantConnection.class);
+        given(connection.getMaxRetriesOnDeadlock()).willReturn(0);
+        given(connection.getMaxIntervalBetweenRetries()).willReturn(1);
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", connection));
+        HashMap<BusinessDateType, LocalDate> businessDates = new HashMap<>();
+        businessDates.put(BusinessDateType.BUSINESS_DATE, BUSINESS_DATE);
+        businessDates.put(BusinessDateType.COB_DATE, BUSINESS_DATE.minusDays(1));
+        ThreadLocalContextUtil.setBusinessDates(businessDates);
+
+        given(transactionManager.getTransaction(any())).willAnswer(invocation -> new SimpleTransactionStatus());
+        given(applicationContext.getBean("savingsSchedularInterestPoster")).willAnswer(invocation -> new SavingsSchedularInterestPoster());
+        handler = new SavingsInterestPostingPartitionHandler(applicationContext, savingsAccountReadPlatformService,
+                savingsAccountWritePlatformService, configurationDomainService, batchPartitionService, jdbcTemplate,
+                new TransactionTemplate(transactionManager));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadLocalContextUtil.reset();
+    }
+
+    @Test
+    public void failingAccountDoesNotRollBackTheOtherAccountsOfItsChunk() {
+        SavingsAccountData first = account(1L);
+        SavingsAccountData failing = account(2L);
+        SavingsAccountData third = account(3L);
+        given(savingsAccountReadPlatformService.retrieveSavingsIdsForInterestPosting(eq(0L), anyInt())).willReturn(List.of(1L, 2L, 3L));
+        given(savingsAccountReadPlatformService.retrieveSavingsIdsForInterestPosting(eq(3L), anyInt())).willReturn(List.of());
+        given(savingsAccountReadPlatformService.retrieveAllSavingsDataForInterestPosting(false, 1L, 3L))
+                .willReturn(List.of(first, failing, third));
+        given(savingsAccountWritePlatformService.postInterest(any(), anyBoolean(), any(), anyBoolean()))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        given(savingsAccountWritePlatformService.postInterest(eq(failing), anyBoolean(), any(), anyBoolean()))
+                .willThrow(new IllegalStateException("account 2 failed"));
+
+        List<Throwable> errors = handler.process(partition());
+
+        assertEquals(1, errors.size());
+        assertEquals("account 2 failed", errors.get(0).getMessage());
+        // accounts 1 and 3 and the checkpoint are committed in transactions of their own, account 2 is rolled back alone
+        verify(transactionManager, times(3)).commit(any(TransactionStatus.class));
+        verify(transactionManager, times(1)).rollback(any(TransactionStatus.class));
+        verify(batchPartitionService).updateCheckpoint(10L, 3L);
+    }
+
+    private BatchPartition partition() {
+        return new BatchPartition(10L, JobName.POST_INTEREST_FOR_SAVINGS.name(), "2022-03-31", 1, 1L, 100L, null,
+                BatchPartitionStatus.RUNNING, null, 100, 0, null);
+    }
+
+    private SavingsAccountData account(Long id) {
+        SavingsAccountData account = SavingsAccountData.lookup(id, "00000000" + id, null, null);
+        ReflectionTestUtils.setField(account, "summary", new SavingsAccountSummaryData(null, null, null, null, null, null, null, null,
+                null, null, null, null, null, BUSINESS_DATE.minusDays(1), null, BUSINESS_DATE.minusDays(1)));
+        return account;
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.portfolio.search.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.fineract.infrastructure.core.config.FineractProperties;
+import org.apache.fineract.infrastructure.core.data.CommandProcessingResult;
+import org.apache.fineract.infrastructure.core.data.CommandProcessingResultBuilder;
+import org.apache.fineract.infrastructure.core.service.database.DatabaseSpecificSQLGenerator;
+import org.apache.fineract.portfolio.search.data.SearchIndexEntityType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class SearchIndexServiceImplTest {
+
+    private static final int MAX_CANDIDATES = 3;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    @Mock
+    private DatabaseSpecificSQLGenerator sqlGenerator;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SearchIndexServiceImpl searchIndexService;
+
+    @BeforeEach
+    public void setUp() {
+        final FineractProperties.FineractSearchProperties searchProperties = new FineractProperties.FineractSearchProperties();
+        searchProperties.setIndexEnabled(true);
+        searchProperties.setMaxCandidates(MAX_CANDIDATES);
+        final FineractProperties fineractProperties = new FineractProperties();
+        fineractProperties.setSearch(searchProperties);
+        given(sqlGenerator.limit(anyInt())).willAnswer(invocation -> "limit " + invocation.getArgument(0));
+        given(transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+
+        searchIndexService = new SearchIndexServiceImpl(jdbcTemplate, namedParameterJdbcTemplate, sqlGenerator, fineractProperties,
+                transactionManager);
+        searchIndexService.init();
+    }
+
+    @Test
+    public void queryIsLookedUpByItsTrigrams() throws Exception {
+        givenIndexMatches(new Object[] { "CLIENT", 7L }, new Object[] { "LOAN", 8L }, new Object[] { "LOAN", 9L });
+
+        final Map<SearchIndexEntityType, Set<Long>> candidates = searchIndexService
+                .findCandidates(List.of(SearchIndexEntityType.CLIENT, SearchIndexEntityType.LOAN), "SmiTh", ".1.");
+
+        assertEquals(Map.of(SearchIndexEntityType.CLIENT, Set.of(7L), SearchIndexEntityType.LOAN, Set.of(8L, 9L)), candidates);
+        final ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(namedParameterJdbcTemplate).query(anyString(), params.capture(), any(RowCallbackHandler.class));
+        assertEquals(Set.of("smi", "mit", "ith"), params.getValue().getValue("terms"));
+        assertEquals(3, params.getValue().getValue("termCount"));
+        assertEquals(List.of("CLIENT", "LOAN"), params.getValue().getValue("entityTypes"));
+        assertEquals(".1.%", params.getValue().getValue("hierarchy"));
+    }
+
+    @Test
+    public void queryMatchingMoreThanTheCapIsScanned() throws Exception {
+        givenIndexMatches(new Object[] { "CLIENT", 1L }, new Object[] { "CLIENT", 2L }, new Object[] { "CLIENT", 3L },
+                new Object[] { "CLIENT", 4L });
+
+        assertNull(searchIndexService.findCandidates(List.of(SearchIndexEntityType.CLIENT), "smith", "."));
+        // one row past the cap is read to notice the truncation
+        verify(sqlGenerator).limit(MAX_CANDIDATES + 1);
+    }
+
+    @Test
+    public void queryMatchingExactlyTheCapIsAnsweredByTheIndex() throws Exception {
+        givenIndexMatches(new Object[] { "CLIENT", 1L }, new Object[] { "CLIENT", 2L }, new Object[] { "CLIENT", 3L });
+
+        assertEquals(Map.of(SearchIndexEntityType.CLIENT, Set.of(1L, 2L, 3L)),
+                searchIndexService.findCandidates(List.of(SearchIndexEntityType.CLIENT), "smith", "."));
+    }
+
+    @Test
+    public void shortAndWildcardQueriesAreScanned() {
+        assertNull(searchIndexService.findCandidates(List.of(SearchIndexEntityType.CLIENT), "sm", "."));
+        assertNull(searchIndexService.findCandidates(List.of(SearchIndexEntityType.CLIENT), "smi%th", "."));
+        assertNull(searchIndexService.findCandidates(List.of(SearchIndexEntityType.CLIENT), "smi_th", "."));
+        verifyNoInteractions(namedParameterJdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void newParentOfficeReindexesTheOfficeSubtree() throws Exception {
+        given(jdbcTemplate.query(anyString(), any(RowMapper.class), any())).willReturn(List.of());
+        final ResultSet rs = mock(ResultSet.class);
+        final ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+        given(rs.getMetaData()).willReturn(metaData);
+        given(metaData.getColumnCount()).willReturn(3);
+        given(rs.getLong(1)).willReturn(7L);
+        given(rs.getString(2)).willReturn(".1.4.2.");
+        given(rs.getString(3)).willReturn("CL-7");
+        willAnswer(invocation -> List.of(((RowMapper<?>) invocation.getArgument(1)).mapRow(rs, 0))).given(jdbcTemplate)
+                .query(startsWith(SearchIndexEntityType.CLIENT.getSourceSql()), any(RowMapper.class), any());
+        final Map<String, Object> changes = new HashMap<>();
+        changes.put("parentId", 4L);
+
+        searchIndexService.scheduleReindex("OFFICE", "UPDATE",
+                new CommandProcessingResultBuilder().withEntityId(2L).withOfficeId(2L).with(changes).build());
+
+        for (SearchIndexEntityType entityType : SearchIndexEntityType.values()) {
+            verify(jdbcTemplate).query(startsWith(entityType.getSourceSql() + " where o.hierarchy like ?"), any(RowMapper.class),
+                    eq("%.2.%"), eq(0L));
+        }
+        verify(jdbcTemplate).update(startsWith("delete from m_search_index_entry"), eq("CLIENT"), eq(7L));
+        final ArgumentCaptor<List<Object[]>> entries = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("insert into m_search_index_entry"), entries.capture());
+        assertEquals(List.of("CLIENT", 7L, ".1.4.2."), List.of(entries.getValue().get(0)));
+    }
+
+    @Test
+    public void renamedOfficeIsNotReindexed() {
+        final Map<String, Object> changes = new HashMap<>();
+        changes.put("name", "Renamed");
+        final CommandProcessingResult result = new CommandProcessingResultBuilder().withEntityId(2L).withOfficeId(2L).with(changes)
+                .build();
+
+        searchIndexService.scheduleReindex("OFFICE", "UPDATE", result);
+
+        verify(jdbcTemplate, never()).query(contains("o.hierarchy like ?"), any(RowMapper.class), any());
+        verifyNoInteractions(transactionManager);
+    }
+
+    private void givenIndexMatches(final Object[]... rows) throws Exception {
+        willAnswer(invocation -> {
+            final RowCallbackHandler handler = invocation.getArgument(2);
+            for (Object[] row : rows) {
+                final ResultSet rs = mock(ResultSet.class);
+                given(rs.getString("entity_type")).willReturn((String) row[0]);
+                given(rs.getLong("entity_id")).willReturn((Long) row[1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).given(namedParameterJdbcTemplate).query(anyString(), any(MapSqlParameterSource.class), any(RowCallbackHandler.class));
+    }
+}
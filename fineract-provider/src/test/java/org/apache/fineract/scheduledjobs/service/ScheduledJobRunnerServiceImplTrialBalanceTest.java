@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.scheduledjobs.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import org.apache.fineract.infrastructure.core.domain.FineractPlatformTenant;
+import org.apache.fineract.infrastructure.core.service.ThreadLocalContextUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Checks which windows the trial balance job of one office runs its insert for. The balances the insert computes are
+ * covered by TrialBalanceJobIntegrationTest against a real database.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ScheduledJobRunnerServiceImplTrialBalanceTest {
+
+    private static final Long OFFICE = 1L;
+    private static final Long OTHER_OFFICE = 2L;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ScheduledJobRunnerServiceImpl underTest;
+
+    // transaction dates of the journal entries and created dates of the trial balance rows, by office
+    private final List<Object[]> entries = new ArrayList<>();
+    private final List<Object[]> rows = new ArrayList<>();
+    private final List<List<LocalDate>> windows = new ArrayList<>();
+    private int failingWindow = -1;
+
+    @BeforeEach
+    public void setUp() {
+        ThreadLocalContextUtil.setTenant(new FineractPlatformTenant(1L, "default", "Default", "Asia/Kolkata", null));
+        given(this.jdbcTemplate.queryForObject(startsWith("select max(created_date) from m_trial_balance"), eq(LocalDate.class), any()))
+                .willAnswer(invocation -> this.rows.stream().filter(row -> row[0].equals(invocation.getArgument(2)))
+                        .map(row -> (LocalDate) row[1]).max(Comparator.naturalOrder()).orElse(null));
+        given(this.jdbcTemplate.queryForObject(startsWith("select min(transaction_date) from acc_gl_journal_entry"), eq(LocalDate.class),
+                any())).willAnswer(invocation -> {
+                    final LocalDate after = invocation.getArgument(3);
+                    return this.entries.stream().filter(entry -> entry[0].equals(invocation.getArgument(2)))
+                            .map(entry -> (LocalDate) entry[1]).filter(date -> date.isAfter(after)).min(Comparator.naturalOrder())
+                            .orElse(null);
+                });
+        given(this.jdbcTemplate.update(startsWith("insert into m_trial_balance"), any())).willAnswer(invocation -> {
+            final Object[] arguments = invocation.getArguments();
+            // the opening balance is taken from the same office's rows created before the window
+            assertEquals(arguments[1], arguments[4]);
+            assertEquals(arguments[2], arguments[5]);
+            return insertWindow((Long) arguments[1], (LocalDate) arguments[2], (LocalDate) arguments[3]);
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ThreadLocalContextUtil.reset();
+    }
+
+    @Test
+    public void daysAreSummarisedInWindowsOf31Days() {
+        for (LocalDate date = LocalDate.of(2022, 1, 1); date.isBefore(LocalDate.of(2022, 3, 16)); date = date.plusDays(1)) {
+            addEntry(OFFICE, date);
+        }
+
+        this.underTest.updateTrialBalanceDetails(this.jdbcTemplate, OFFICE, LocalDate.of(2022, 3, 20));
+
+        assertEquals(List.of(List.of(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 31)),
+                List.of(LocalDate.of(2022, 2, 1), LocalDate.of(2022, 3, 3)), List.of(LocalDate.of(2022, 3, 4), LocalDate.of(2022, 3, 20))),
+                this.windows);
+    }
+
+    @Test
+    public void theFirstWindowStartsAtTheFirstEntry() {
+        addEntry(OFFICE, LocalDate.of(2022, 1, 20));
+        addEntry(OFFICE, LocalDate.of(2022, 2, 25));
+
+        this.underTest.updateTrialBalanceDetails(this.jdbcTemplate, OFFICE, LocalDate.of(2022, 2, 28));
+
+        assertEquals(List.of(List.of(LocalDate.of(2022, 1, 20), LocalDate.of(2022, 2, 19)),
+                List.of(LocalDate.of(2022, 2, 20), LocalDate.of(2022, 2, 28))), this.windows);
+    }
+
+    @Test
+    public void daysAfterTheLastDateAreLeftForTheNextRun() {
+        addEntry(OFFICE, LocalDate.of(2022, 1, 10));
+        addEntry(OFFICE, LocalDate.of(2022, 1, 31));
+        addEntry(OFFICE, LocalDate.of(2022, 2, 1));
+
+        this.underTest.updateTrialBalanceDetails(this.jdbcTemplate, OFFICE, LocalDate.of(2022, 1, 31));
+
+        assertEquals(List.of(List.of(LocalDate.of(2022, 1, 10), LocalDate.of(2022, 1, 31))), this.windows);
+
+        this.windows.clear();
+        this.underTest.updateTrialBalanceDetails(this.jdbcTemplate, OFFICE, LocalDate.of(2022, 2, 1));
+
+        assertEquals(List.of(List.of(LocalDate.of(2022, 2, 1), LocalDate.of(2022, 2, 1))), this.windows);
+    }
+
+    @Test
+    public void aFailedRunResumesAfterTheLastCompletedWindow() {
+        for (LocalDate date = LocalDate.of(2022, 1, 1); date.isBefore(LocalDate.of(2022, 4, 1)); date = date.plusDays(2)) {
+            addEntry(OFFICE, date);
+        }
+        this.failingWindow = 2;
+
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> this.underTest.updateTrialBalanceDetails(this.jdbcTemplate, OFFICE, LocalDate.of(2022, 4, 30)));
+        assertTrue(this.rows.stream().allMatch(row -> ((LocalDate) row[1]).isBefore(LocalDate.of(2022, 2, 1))));
+
+        this.failingWindow = -1;
+        this.windows.clear();
+        this.underTest.updateTrialBalanceDetails(this.jdbcTemplate, OFFICE, LocalDate.of(2022, 4, 30));
+
+        // the watermark is the last entry of the committed window, the first pending entry opens the next one
+        assertEquals(List.of(List.of(LocalDate.of(2022, 2, 2), LocalDate.of(2022, 3, 4)),
+                List.of(LocalDate.of(2022, 3, 5), LocalDate.of(2022, 4, 4)), List.of(LocalDate.of(2022, 4, 5), LocalDate.of(2022, 4, 30))),
+                this.windows);
+    }
+
+    @Test
+    public void nothingIsInsertedWithoutNewEntries() {
+        addEntry(OFFICE, LocalDate.of(2022, 1, 10));
+        this.underTest.updateTrialBalanceDetails(this.jdbcTemplate, OFFICE, LocalDate.of(2022, 1, 31));
+        this.windows.clear();
+
+        this.underTest.updateTrialBalanceDetails(this.jdbcTemplate, OFFICE, LocalDate.of(2022, 2, 28));
+        this.underTest.updateTrialBalanceDetails(this.jdbcTemplate, OTHER_OFFICE, LocalDate.of(2022, 2, 28));
+
+        assertTrue(this.windows.isEmpty());
+    }
+
+    /**
+     * Records the window and adds a row for every transaction date of the office in it, which is all the watermark query
+     * looks at.
+     */
+    private int insertWindow(final Long officeId, final LocalDate fromDate, final LocalDate toDate) {
+        this.windows.add(List.of(fromDate, toDate));
+        if (this.windows.size() == this.failingWindow) {
+            throw new DataAccessResourceFailureException("connection lost");
+        }
+        int inserted = 0;
+        for (Object[] entry : this.entries) {
+            final LocalDate transactionDate = (LocalDate) entry[1];
+            if (entry[0].equals(officeId) && !transactionDate.isBefore(fromDate) && !transactionDate.isAfter(toDate)) {
+                this.rows.add(new Object[] { officeId, transactionDate });
+                inserted++;
+            }
+        }
+        return inserted;
+    }
+
+    private void addEntry(final Long officeId, final LocalDate transactionDate) {
+        this.entries.add(new Object[] { officeId, transactionDate });
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.integrationtests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.google.gson.Gson;
+import io.restassured.builder.RequestSpecBuilder;
+import io.restassured.builder.ResponseSpecBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import io.restassured.specification.ResponseSpecification;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.apache.fineract.integrationtests.common.ClientHelper;
+import org.apache.fineract.integrationtests.common.CommonConstants;
+import org.apache.fineract.integrationtests.common.OfficeHelper;
+import org.apache.fineract.integrationtests.common.SchedulerJobHelper;
+import org.apache.fineract.integrationtests.common.Utils;
+import org.apache.fineract.integrationtests.common.accounting.Account;
+import org.apache.fineract.integrationtests.common.accounting.AccountHelper;
+import org.apache.fineract.integrationtests.common.savings.SavingsAccountHelper;
+import org.apache.fineract.integrationtests.common.savings.SavingsProductHelper;
+import org.apache.fineract.integrationtests.common.savings.SavingsStatusChecker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the trial balance job against the database of the test server. The daily interest postings of a savings account
+ * in an office of its own span several of the job's 31-day windows; the m_trial_balance rows of the office are read back
+ * with an ad hoc report and compared with the running balances of the journal entries the postings wrote.
+ */
+public class TrialBalanceJobIntegrationTest {
+
+    private static final String REPORTS_URL = "/fineract-provider/api/v1/reports";
+    private static final String RUN_REPORTS_URL = "/fineract-provider/api/v1/runreports/";
+    private static final String ACCOUNT_TYPE_INDIVIDUAL = "INDIVIDUAL";
+    // only journal entries with a transaction date are summarised, the interest posting job writes them
+    private static final String JOURNAL_ENTRY_SQL = "select account_id, transaction_date, entry_date, type_enum, amount "
+            + "from acc_gl_journal_entry where office_id = ${officeId} and transaction_date is not null";
+    private static final String TRIAL_BALANCE_SQL = "select account_id, created_date, entry_date, amount, closing_balance "
+            + "from m_trial_balance where office_id = ${officeId}";
+    private static final int CREDIT = 1;
+
+    private RequestSpecification requestSpec;
+    private ResponseSpecification responseSpec;
+    private SchedulerJobHelper schedulerJobHelper;
+    private SavingsAccountHelper savingsAccountHelper;
+    private AccountHelper accountHelper;
+    private final List<Integer> reportIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        Utils.initializeRESTAssured();
+        this.requestSpec = new RequestSpecBuilder().setContentType(ContentType.JSON).build();
+        this.requestSpec.header("Authorization", "Basic " + Utils.loginIntoServerAndGetBase64EncodedAuthenticationKey());
+        this.responseSpec = new ResponseSpecBuilder().expectStatusCode(200).build();
+        this.schedulerJobHelper = new SchedulerJobHelper(this.requestSpec);
+        this.savingsAccountHelper = new SavingsAccountHelper(this.requestSpec, this.responseSpec);
+        this.accountHelper = new AccountHelper(this.requestSpec, this.responseSpec);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (final Integer reportId : this.reportIds) {
+            Utils.performServerDelete(this.requestSpec, this.responseSpec, REPORTS_URL + "/" + reportId + "?" + Utils.TENANT_IDENTIFIER,
+                    CommonConstants.RESPONSE_RESOURCE_ID);
+        }
+    }
+
+    @Test
+    public void trialBalanceRowsCarryTheRunningBalanceAcrossWindows() {
+        final LocalDate today = Utils.getLocalDateOfTenant();
+        final String startDate = Utils.dateFormatter.format(today.minusDays(75));
+        final Integer officeId = new OfficeHelper(this.requestSpec, this.responseSpec).createOffice(startDate);
+        final Integer clientId = ClientHelper.createClient(this.requestSpec, this.responseSpec, startDate, String.valueOf(officeId));
+        final Integer savingsId = createSavingsAccount(clientId, startDate);
+        this.savingsAccountHelper.depositToSavingsAccount(savingsId, "10000", startDate, CommonConstants.RESPONSE_RESOURCE_ID);
+
+        this.schedulerJobHelper.executeAndAwaitJob("Post Interest For Savings");
+        this.schedulerJobHelper.executeAndAwaitJob("Update Trial Balance Details");
+        // a second run finds nothing after the watermark of the office
+        this.schedulerJobHelper.executeAndAwaitJob("Update Trial Balance Details");
+
+        final LocalDate lastDate = today.minusDays(1);
+        final List<List<String>> entries = runReport(JOURNAL_ENTRY_SQL, officeId).stream()
+                .filter(entry -> !LocalDate.parse(entry.get(1)).isAfter(lastDate)).collect(Collectors.toList());
+        final LocalDate firstDate = entries.stream().map(entry -> LocalDate.parse(entry.get(1))).min(Comparator.naturalOrder())
+                .orElseThrow();
+        assertTrue(ChronoUnit.DAYS.between(firstDate, lastDate) > 62, "the postings span more than two windows");
+
+        // signed amounts per account, transaction date and entry date, and their running sum in that order
+        final Map<List<Object>, BigDecimal> amounts = new HashMap<>();
+        for (final List<String> entry : entries) {
+            final BigDecimal amount = new BigDecimal(entry.get(4));
+            amounts.merge(List.of(Long.valueOf(entry.get(0)), LocalDate.parse(entry.get(1)), LocalDate.parse(entry.get(2))),
+                    Integer.parseInt(entry.get(3)) == CREDIT ? amount.negate() : amount, BigDecimal::add);
+        }
+        final Map<Long, BigDecimal> balances = new HashMap<>();
+        final Map<List<Object>, BigDecimal[]> expected = new LinkedHashMap<>();
+        amounts.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<List<Object>, BigDecimal> amount) -> (LocalDate) amount.getKey().get(1))
+                        .thenComparing(amount -> (LocalDate) amount.getKey().get(2)))
+                .forEach(amount -> expected.put(amount.getKey(), new BigDecimal[] { amount.getValue(),
+                        balances.merge((Long) amount.getKey().get(0), amount.getValue(), BigDecimal::add) }));
+
+        final Map<List<Object>, BigDecimal[]> actual = new HashMap<>();
+        for (final List<String> row : runReport(TRIAL_BALANCE_SQL, officeId)) {
+            assertNull(actual.put(List.of(Long.valueOf(row.get(0)), LocalDate.parse(row.get(1)), LocalDate.parse(row.get(2))),
+                    new BigDecimal[] { new BigDecimal(row.get(3)), new BigDecimal(row.get(4)) }), "one row per account and day: " + row);
+        }
+        assertEquals(expected.keySet(), actual.keySet());
+        expected.forEach((key, values) -> {
+            assertEquals(0, values[0].compareTo(actual.get(key)[0]), "amount of " + key);
+            assertEquals(0, values[1].compareTo(actual.get(key)[1]), "closing balance of " + key);
+        });
+    }
+
+    private Integer createSavingsAccount(final Integer clientId, final String startDate) {
+        final Account[] accounts = { this.accountHelper.createAssetAccount(), this.accountHelper.createIncomeAccount(),
+                this.accountHelper.createExpenseAccount(), this.accountHelper.createLiabilityAccount() };
+        final String savingsProductJSON = new SavingsProductHelper().withInterestCompoundingPeriodTypeAsDaily()
+                .withInterestPostingPeriodTypeAsDaily().withInterestCalculationPeriodTypeAsDailyBalance()
+                .withAccountingRuleAsCashBased(accounts).build();
+        final Integer savingsProductId = SavingsProductHelper.createSavingsProduct(savingsProductJSON, this.requestSpec, this.responseSpec);
+        assertNotNull(savingsProductId);
+        final Integer savingsId = this.savingsAccountHelper.applyForSavingsApplicationOnDate(clientId, savingsProductId,
+                ACCOUNT_TYPE_INDIVIDUAL, startDate);
+        assertNotNull(savingsId);
+        HashMap savingsStatusHashMap = this.savingsAccountHelper.approveSavingsOnDate(savingsId, startDate);
+        SavingsStatusChecker.verifySavingsIsApproved(savingsStatusHashMap);
+        savingsStatusHashMap = this.savingsAccountHelper.activateSavingsAccount(savingsId, startDate);
+        SavingsStatusChecker.verifySavingsIsActive(savingsStatusHashMap);
+        return savingsId;
+    }
+
+    /**
+     * Creates a table report with the given SQL, removed again after the test, and returns its rows for the office.
+     */
+    private List<List<String>> runReport(final String sql, final Integer officeId) {
+        final String reportName = Utils.randomNameGenerator("TrialBalanceTest_", 6);
+        final Map<String, String> report = new HashMap<>();
+        report.put("reportName", reportName);
+        report.put("reportType", "Table");
+        report.put("reportSql", sql);
+        final Integer reportId = Utils.performServerPost(this.requestSpec, this.responseSpec, REPORTS_URL + "?" + Utils.TENANT_IDENTIFIER,
+                new Gson().toJson(report), CommonConstants.RESPONSE_RESOURCE_ID);
+        this.reportIds.add(reportId);
+        return Utils.performServerGet(this.requestSpec, this.responseSpec,
+                RUN_REPORTS_URL + reportName + "?genericResultSet=true&R_officeId=" + officeId + "&" + Utils.TENANT_IDENTIFIER, "data.row");
+    }
+}